@@ -2,6 +2,7 @@ package graphql;
 
 
 import graphql.execution.ResultPath;
+import graphql.execution.ResultPathAware;
 import graphql.language.SourceLocation;
 
 import java.util.Collections;
@@ -14,22 +15,28 @@ import static java.lang.String.format;
 
 /**
  * This graphql error will be used if a runtime exception is encountered while a data fetcher is invoked
+ * <p>
+ * The message, path and locations are only materialized when they are first asked for, since an error of a failed backend often
+ * happens for every element of a list and most of those errors are never serialized.
  */
 @PublicApi
-public class ExceptionWhileDataFetching implements GraphQLError {
+public class ExceptionWhileDataFetching implements GraphQLError, ResultPathAware {
 
-    private final String message;
-    private final List<Object> path;
+    private final ResultPath resultPath;
     private final Throwable exception;
-    private final List<SourceLocation> locations;
+    private final SourceLocation sourceLocation;
     private final Map<String, Object> extensions;
 
+    // these are effectively immutable but lazily initialized similar to the hash code of java.lang.String
+    private String message;
+    private List<Object> path;
+    private List<SourceLocation> locations;
+
     public ExceptionWhileDataFetching(ResultPath path, Throwable exception, SourceLocation sourceLocation) {
-        this.path = assertNotNull(path).toList();
+        this.resultPath = assertNotNull(path);
         this.exception = assertNotNull(exception);
-        this.locations = Collections.singletonList(sourceLocation);
+        this.sourceLocation = sourceLocation;
         this.extensions = mkExtensions(exception);
-        this.message = mkMessage(path, exception);
     }
 
     private String mkMessage(ResultPath path, Throwable exception) {
@@ -59,19 +66,40 @@ public class ExceptionWhileDataFetching implements GraphQLError {
 
     @Override
     public String getMessage() {
+        String message = this.message;
+        if (message == null) {
+            message = mkMessage(resultPath, exception);
+            this.message = message;
+        }
         return message;
     }
 
     @Override
     public List<SourceLocation> getLocations() {
+        List<SourceLocation> locations = this.locations;
+        if (locations == null) {
+            locations = Collections.singletonList(sourceLocation);
+            this.locations = locations;
+        }
         return locations;
     }
 
     @Override
     public List<Object> getPath() {
+        List<Object> path = this.path;
+        if (path == null) {
+            path = resultPath.toList();
+            this.path = path;
+        }
         return path;
     }
 
+    @Override
+    @Internal
+    public ResultPath getResultPath() {
+        return resultPath;
+    }
+
     @Override
     public Map<String, Object> getExtensions() {
         return extensions;
@@ -85,9 +113,9 @@ public class ExceptionWhileDataFetching implements GraphQLError {
     @Override
     public String toString() {
         return "ExceptionWhileDataFetching{" +
-                "path=" + path +
+                "path=" + getPath() +
                 ", exception=" + exception +
-                ", locations=" + locations +
+                ", locations=" + getLocations() +
                 '}';
     }
 
@@ -2,17 +2,20 @@ package graphql;
 
 import graphql.cachecontrol.CacheControl;
 import graphql.collect.ImmutableKit;
+import graphql.execution.CancellationToken;
 import graphql.execution.ExecutionId;
 import graphql.execution.RawVariables;
 import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentationState;
 import org.dataloader.DataLoaderRegistry;
 
+import java.time.Duration;
 import java.util.Locale;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
 import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
 
 /**
  * This represents the series of values that can be input on a graphql query execution
@@ -31,6 +34,10 @@ public class ExecutionInput {
     private final CacheControl cacheControl;
     private final ExecutionId executionId;
     private final Locale locale;
+    private final CancellationToken cancellationToken;
+    private final Duration timeout;
+    private final int maxRepeatedErrors;
+    private final int maxErrors;
 
 
     @Internal
@@ -47,6 +54,10 @@ public class ExecutionInput {
         this.locale = builder.locale != null ? builder.locale : Locale.getDefault(); // always have a locale in place
         this.localContext = builder.localContext;
         this.extensions = builder.extensions;
+        this.cancellationToken = builder.cancellationToken;
+        this.timeout = builder.timeout;
+        this.maxRepeatedErrors = builder.maxRepeatedErrors;
+        this.maxErrors = builder.maxErrors;
     }
 
     /**
@@ -153,6 +164,34 @@ public class ExecutionInput {
         return extensions;
     }
 
+    /**
+     * @return the cancellation token the execution is a child of or null if it was not given one
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * @return the time after which the execution is cancelled or null if it has no timeout
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the number of errors of the same type at the same field, ignoring list indices, that are put into the result
+     */
+    public int getMaxRepeatedErrors() {
+        return maxRepeatedErrors;
+    }
+
+    /**
+     * @return the number of errors the execution puts into the result before it sums up the rest in a single error
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
     /**
      * This helps you transform the current ExecutionInput object into another one by starting a builder with all
      * the current values and allows you to transform it how you want.
@@ -174,7 +213,11 @@ public class ExecutionInput {
                 .variables(this.rawVariables.toMap())
                 .extensions(this.extensions)
                 .executionId(this.executionId)
-                .locale(this.locale);
+                .locale(this.locale)
+                .cancellationToken(this.cancellationToken)
+                .timeout(this.timeout)
+                .maxRepeatedErrors(this.maxRepeatedErrors)
+                .maxErrors(this.maxErrors);
 
         builderConsumer.accept(builder);
 
@@ -233,6 +276,10 @@ public class ExecutionInput {
         private CacheControl cacheControl = CacheControl.newCacheControl();
         private Locale locale = Locale.getDefault();
         private ExecutionId executionId;
+        private CancellationToken cancellationToken;
+        private Duration timeout;
+        private int maxRepeatedErrors = Integer.MAX_VALUE;
+        private int maxErrors = Integer.MAX_VALUE;
 
         public Builder query(String query) {
             this.query = assertNotNull(query, () -> "query can't be null");
@@ -406,6 +453,63 @@ public class ExecutionInput {
             return this;
         }
 
+        /**
+         * The execution is cancelled when this token is, say when the client has gone away.  The execution gets its own child
+         * token so cancelling the execution, say on timeout, leaves this token alone.
+         *
+         * @param cancellationToken the token to cancel the execution with
+         *
+         * @return this builder
+         */
+        public Builder cancellationToken(CancellationToken cancellationToken) {
+            this.cancellationToken = cancellationToken;
+            return this;
+        }
+
+        /**
+         * The execution is cancelled once the timeout has passed.  Data fetchers are no longer called for a cancelled execution
+         * and its result has an {@link graphql.execution.AbortExecutionException} error.
+         *
+         * @param timeout the time after which the execution is cancelled or null for no timeout
+         *
+         * @return this builder
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * When a backend fails, every element of a list can get the same error.  This keeps only the first errors of the same
+         * {@link ErrorClassification} at the same field, ignoring list indices, and counts the rest in the
+         * {@value graphql.execution.ExecutionContext#SUPPRESSED_ERRORS_EXTENSION} extension of the result.  By default all errors are kept.
+         *
+         * @param maxRepeatedErrors the number of errors of the same type at the same field that are put into the result
+         *
+         * @return this builder
+         */
+        public Builder maxRepeatedErrors(int maxRepeatedErrors) {
+            assertTrue(maxRepeatedErrors > 0, () -> "maxRepeatedErrors must be greater than 0");
+            this.maxRepeatedErrors = maxRepeatedErrors;
+            return this;
+        }
+
+        /**
+         * The error budget of the execution.  Once it has this many errors further errors are left out of the result, and the fields
+         * whose fetches failed so far are no longer fetched but resolve to null.  A single {@link graphql.execution.ErrorBudgetExceededError}
+         * at the end of the errors then says what was left out.  So a failing backend can not blow up the size of the result.  By
+         * default the errors are not limited.
+         *
+         * @param maxErrors the number of errors the execution puts into the result
+         *
+         * @return this builder
+         */
+        public Builder maxErrors(int maxErrors) {
+            assertTrue(maxErrors > 0, () -> "maxErrors must be greater than 0");
+            this.maxErrors = maxErrors;
+            return this;
+        }
+
         public ExecutionInput build() {
             return new ExecutionInput(this);
         }
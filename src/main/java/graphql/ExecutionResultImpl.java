@@ -2,6 +2,7 @@ package graphql;
 
 
 import com.google.common.collect.ImmutableList;
+import graphql.collect.ConcurrentAppendList;
 import graphql.collect.ImmutableKit;
 
 import java.util.ArrayList;
@@ -45,7 +46,11 @@ public class ExecutionResultImpl implements ExecutionResult {
         this.dataPresent = dataPresent;
         this.data = data;
 
-        if (errors != null) {
+        if (errors instanceof ConcurrentAppendList.Snapshot) {
+            // the snapshots of the errors of an execution are immutable already, and copying them for every field would cost O(n^2)
+            //noinspection unchecked
+            this.errors = (List<GraphQLError>) errors;
+        } else if (errors != null) {
             this.errors = ImmutableList.copyOf(errors);
         } else {
             this.errors = ImmutableKit.emptyList();
@@ -3,7 +3,6 @@ package graphql.analysis;
 import graphql.ExecutionResult;
 import graphql.PublicApi;
 import graphql.execution.AbortExecutionException;
-import graphql.execution.ExecutionContext;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
 import graphql.execution.instrumentation.SimplePerformantInstrumentation;
@@ -21,6 +20,8 @@ import static graphql.execution.instrumentation.SimpleInstrumentationContext.noO
  * <p>
  * Use the {@code Function<QueryDepthInfo, Boolean>} parameter to supply a function to perform a custom action when the max depth is
  * exceeded. If the function returns {@code true} a {@link AbortExecutionException} is thrown.
+ * <p>
+ * The depth is taken from the {@link QueryAnalysis} of the execution, which is shared with {@link MaxQueryComplexityInstrumentation}.
  */
 @PublicApi
 public class MaxQueryDepthInstrumentation extends SimplePerformantInstrumentation {
@@ -52,8 +53,8 @@ public class MaxQueryDepthInstrumentation extends SimplePerformantInstrumentatio
 
     @Override
     public @Nullable InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
-        QueryTraverser queryTraverser = newQueryTraverser(parameters.getExecutionContext());
-        int depth = queryTraverser.reducePreOrder((env, acc) -> Math.max(getPathLength(env.getParentEnvironment()), acc), 0);
+        QueryAnalysis queryAnalysis = parameters.getExecutionContext().getQueryAnalysis().get();
+        int depth = queryAnalysis.getDepth();
         if (log.isDebugEnabled()) {
             log.debug("Query depth info: {}", depth);
         }
@@ -80,22 +81,4 @@ public class MaxQueryDepthInstrumentation extends SimplePerformantInstrumentatio
     protected AbortExecutionException mkAbortException(int depth, int maxDepth) {
         return new AbortExecutionException("maximum query depth exceeded " + depth + " > " + maxDepth);
     }
-
-    QueryTraverser newQueryTraverser(ExecutionContext executionContext) {
-        return QueryTraverser.newQueryTraverser()
-                .schema(executionContext.getGraphQLSchema())
-                .document(executionContext.getDocument())
-                .operationName(executionContext.getExecutionInput().getOperationName())
-                .coercedVariables(executionContext.getCoercedVariables())
-                .build();
-    }
-
-    private int getPathLength(QueryVisitorFieldEnvironment path) {
-        int length = 1;
-        while (path != null) {
-            path = path.getParentEnvironment();
-            length++;
-        }
-        return length;
-    }
 }
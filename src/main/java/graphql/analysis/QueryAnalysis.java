@@ -0,0 +1,268 @@
+package graphql.analysis;
+
+import com.google.common.collect.ImmutableMap;
+import graphql.Internal;
+import graphql.PublicApi;
+import graphql.execution.ExecutionContext;
+import graphql.execution.preparsed.OperationCacheKey;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.language.OperationDefinition;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLSchema;
+import graphql.util.TraverserContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.schema.GraphQLTypeUtil.unwrapAll;
+
+/**
+ * A query analysis captures the depth, the complexity, the number of fields and the usage of each
+ * {@link FieldCoordinates} of an operation in a single traversal of the query.
+ * <p>
+ * {@link MaxQueryDepthInstrumentation} and {@link MaxQueryComplexityInstrumentation} both use the analysis
+ * available via {@link ExecutionContext#getQueryAnalysis()} so that only one traversal is made per request
+ * regardless of how many of them are in play.
+ * <p>
+ * The complexity is calculated on demand via {@link #getComplexity(FieldComplexityCalculator)}.  The traversal records
+ * the visited fields with their already coerced arguments, so calculating the complexity for a given
+ * {@link FieldComplexityCalculator} does not traverse the query again.
+ * <p>
+ * If the operation does not declare any variables then the analysis can't depend on them and it is cached in the
+ * {@link PreparsedDocumentEntry} of the request, which means it is shared by all executions of a cached document.
+ */
+@PublicApi
+public class QueryAnalysis {
+
+    /**
+     * The most calculators whose complexity is remembered.  An analysis can be shared by all executions of a document, so calculators
+     * created per request must not pile up in it.  Once there are more, the remembered values are dropped and calculated again.
+     */
+    public static final int MAX_REMEMBERED_CALCULATORS = 4;
+
+    private final int depth;
+    private final int fieldCount;
+    private final ImmutableMap<FieldCoordinates, Integer> fieldUsage;
+    private final boolean variablesDependent;
+
+    private final List<ComplexityStep> complexitySteps;
+    private final int complexityKeyCount;
+    private final Map<FieldComplexityCalculator, Integer> complexityByCalculator = new ConcurrentHashMap<>();
+
+    private QueryAnalysis(int depth,
+                          int fieldCount,
+                          ImmutableMap<FieldCoordinates, Integer> fieldUsage,
+                          boolean variablesDependent,
+                          List<ComplexityStep> complexitySteps,
+                          int complexityKeyCount) {
+        this.depth = depth;
+        this.fieldCount = fieldCount;
+        this.fieldUsage = fieldUsage;
+        this.variablesDependent = variablesDependent;
+        this.complexitySteps = complexitySteps;
+        this.complexityKeyCount = complexityKeyCount;
+    }
+
+    /**
+     * @return the depth of the query, where the top level fields have a depth of one
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the number of fields visited in the query.  Fields are not merged, so the same field selected twice is counted twice
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return how many times a field has been visited in the query by its {@link FieldCoordinates}, in encounter order
+     */
+    public Map<FieldCoordinates, Integer> getFieldUsage() {
+        return fieldUsage;
+    }
+
+    /**
+     * @return true if this analysis was made with a specific set of variables and hence only applies to that set
+     */
+    public boolean isVariablesDependent() {
+        return variablesDependent;
+    }
+
+    /**
+     * Calculates the complexity of the query with the given calculator.  The value is remembered for up to
+     * {@link #MAX_REMEMBERED_CALCULATORS} calculators.
+     *
+     * @param fieldComplexityCalculator the calculator to use
+     *
+     * @return the complexity of the query
+     */
+    public int getComplexity(FieldComplexityCalculator fieldComplexityCalculator) {
+        assertNotNull(fieldComplexityCalculator, () -> "calculator can't be null");
+        Integer complexity = complexityByCalculator.get(fieldComplexityCalculator);
+        if (complexity != null) {
+            return complexity;
+        }
+        int calculated = calculateComplexity(fieldComplexityCalculator);
+        if (complexityByCalculator.size() >= MAX_REMEMBERED_CALCULATORS) {
+            complexityByCalculator.clear();
+        }
+        complexityByCalculator.put(fieldComplexityCalculator, calculated);
+        return calculated;
+    }
+
+    private int calculateComplexity(FieldComplexityCalculator fieldComplexityCalculator) {
+        // the steps are in post order so the children of a field are always summed up before it is visited
+        int[] valuesByParent = new int[complexityKeyCount];
+        for (ComplexityStep step : complexitySteps) {
+            int value = 0;
+            if (step.environment != null) {
+                value = fieldComplexityCalculator.calculate(step.environment, valuesByParent[step.key]);
+            }
+            valuesByParent[step.parentKey] += value;
+        }
+        return valuesByParent[ROOT_KEY];
+    }
+
+    @Override
+    public String toString() {
+        return "QueryAnalysis{" +
+                "depth=" + depth +
+                ", fieldCount=" + fieldCount +
+                ", variablesDependent=" + variablesDependent +
+                '}';
+    }
+
+    /**
+     * Analyses the query traversed by the given {@link QueryTraverser}.  The result is assumed to depend on the variables
+     * the traverser was built with.
+     *
+     * @param queryTraverser the traverser to use
+     *
+     * @return a new query analysis
+     */
+    public static QueryAnalysis analyzeQuery(QueryTraverser queryTraverser) {
+        return analyzeQuery(queryTraverser, true);
+    }
+
+    /**
+     * Returns the query analysis of the execution's operation, using the one cached in the {@link PreparsedDocumentEntry}
+     * if the operation has no variables.  Use {@link ExecutionContext#getQueryAnalysis()} rather than calling this directly.
+     *
+     * @param executionContext the execution context in play
+     *
+     * @return the query analysis of the operation
+     */
+    @Internal
+    public static QueryAnalysis analyzeQuery(ExecutionContext executionContext) {
+        OperationDefinition operationDefinition = executionContext.getOperationDefinition();
+        // a validated operation uses all the variables it declares, so without declarations there can't be a dependency on them
+        boolean variablesDependent = operationDefinition == null || !operationDefinition.getVariableDefinitions().isEmpty();
+        PreparsedDocumentEntry preparsedDocumentEntry = executionContext.getPreparsedDocumentEntry();
+        if (variablesDependent || preparsedDocumentEntry == null) {
+            return analyzeQuery(newQueryTraverser(executionContext), variablesDependent);
+        }
+        OperationCacheKey cacheKey = new OperationCacheKey(QueryAnalysis.class, operationDefinition, executionContext.getGraphQLSchema());
+        return preparsedDocumentEntry.computeIfAbsent(cacheKey, key -> analyzeQuery(newQueryTraverser(executionContext), false));
+    }
+
+    private static QueryTraverser newQueryTraverser(ExecutionContext executionContext) {
+        return QueryTraverser.newQueryTraverser()
+                .schema(executionContext.getGraphQLSchema())
+                .document(executionContext.getDocument())
+                .operationName(executionContext.getExecutionInput().getOperationName())
+                .coercedVariables(executionContext.getCoercedVariables())
+                .build();
+    }
+
+    private static QueryAnalysis analyzeQuery(QueryTraverser queryTraverser, boolean variablesDependent) {
+        Analyzer analyzer = new Analyzer();
+        queryTraverser.visitDepthFirst(analyzer);
+        return new QueryAnalysis(analyzer.depth,
+                analyzer.fieldCount,
+                ImmutableMap.copyOf(analyzer.fieldUsage),
+                variablesDependent,
+                analyzer.complexitySteps,
+                analyzer.keysByEnvironment.size() + 1);
+    }
+
+    private static final int ROOT_KEY = 0;
+
+    private static class ComplexityStep {
+        private final FieldComplexityEnvironment environment;
+        private final int key;
+        private final int parentKey;
+
+        private ComplexityStep(FieldComplexityEnvironment environment, int key, int parentKey) {
+            this.environment = environment;
+            this.key = key;
+            this.parentKey = parentKey;
+        }
+    }
+
+    private static class Analyzer extends QueryVisitorStub {
+        private int depth;
+        private int fieldCount;
+        private final Map<FieldCoordinates, Integer> fieldUsage = new LinkedHashMap<>();
+        private final List<ComplexityStep> complexitySteps = new ArrayList<>();
+        // equal field environments share their child complexity, which is what a post order reduction keyed by environment does
+        private final Map<QueryVisitorFieldEnvironment, Integer> keysByEnvironment = new HashMap<>();
+        private final Map<QueryVisitorFieldEnvironment, FieldComplexityEnvironment> complexityEnvironments = new HashMap<>();
+
+        @Override
+        public void visitField(QueryVisitorFieldEnvironment env) {
+            if (env.getTraverserContext().getPhase() == TraverserContext.Phase.LEAVE) {
+                FieldComplexityEnvironment complexityEnvironment = env.isTypeNameIntrospectionField() ? null : toComplexityEnvironment(env);
+                complexitySteps.add(new ComplexityStep(complexityEnvironment, keyOf(env), keyOf(env.getParentEnvironment())));
+                return;
+            }
+            fieldCount++;
+            depth = Math.max(depth, getPathLength(env.getParentEnvironment()));
+            String typeName = unwrapAll(env.getParentType()).getName();
+            fieldUsage.merge(FieldCoordinates.coordinates(typeName, env.getField().getName()), 1, Integer::sum);
+        }
+
+        private int keyOf(QueryVisitorFieldEnvironment env) {
+            if (env == null) {
+                return ROOT_KEY;
+            }
+            return keysByEnvironment.computeIfAbsent(env, k -> keysByEnvironment.size() + 1);
+        }
+
+        private FieldComplexityEnvironment toComplexityEnvironment(QueryVisitorFieldEnvironment env) {
+            FieldComplexityEnvironment complexityEnvironment = complexityEnvironments.get(env);
+            if (complexityEnvironment != null) {
+                return complexityEnvironment;
+            }
+            FieldComplexityEnvironment parentEnv = null;
+            if (env.getParentEnvironment() != null) {
+                parentEnv = toComplexityEnvironment(env.getParentEnvironment());
+            }
+            complexityEnvironment = new FieldComplexityEnvironment(
+                    env.getField(),
+                    env.getFieldDefinition(),
+                    env.getFieldsContainer(),
+                    env.getArguments(),
+                    parentEnv
+            );
+            complexityEnvironments.put(env, complexityEnvironment);
+            return complexityEnvironment;
+        }
+
+        private int getPathLength(QueryVisitorFieldEnvironment path) {
+            int length = 1;
+            while (path != null) {
+                path = path.getParentEnvironment();
+                length++;
+            }
+            return length;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import graphql.DeprecatedAt;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
+import graphql.Internal;
 import graphql.PublicApi;
 import graphql.execution.ResultPath;
 import graphql.schema.DataFetchingEnvironment;
@@ -212,6 +213,74 @@ public class CacheControl {
                 .build();
     }
 
+    /**
+     * @param path the path of a field
+     *
+     * @return the max age of the latest hint recorded for exactly this path or null if there is none
+     */
+    @Internal
+    public Integer getMaxAge(ResultPath path) {
+        Hint hint = latestHint(path);
+        return hint != null ? hint.maxAge : null;
+    }
+
+    /**
+     * @param path the path of a field
+     *
+     * @return the smallest max age of the hints recorded for the fields below this path or null if there is none
+     */
+    @Internal
+    public Integer getMinMaxAgeBelow(ResultPath path) {
+        if (hints.isEmpty()) {
+            return null;
+        }
+        List<Object> pathList = path.toList();
+        Integer minMaxAge = null;
+        for (Hint hint : hints) {
+            if (hint.maxAge != null && hint.path.size() > pathList.size() && startsWith(hint.path, pathList)) {
+                minMaxAge = minMaxAge == null ? hint.maxAge : Math.min(minMaxAge, hint.maxAge);
+            }
+        }
+        return minMaxAge;
+    }
+
+    /**
+     * @param path the path of a field
+     *
+     * @return true if a hint recorded for this path or a path below it has the {@link Scope#PRIVATE} scope
+     */
+    @Internal
+    public boolean isPrivateAtOrBelow(ResultPath path) {
+        if (hints.isEmpty()) {
+            return false;
+        }
+        List<Object> pathList = path.toList();
+        for (Hint hint : hints) {
+            if (hint.scope == Scope.PRIVATE && startsWith(hint.path, pathList)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(List<Object> path, List<Object> prefix) {
+        return path.size() >= prefix.size() && path.subList(0, prefix.size()).equals(prefix);
+    }
+
+    private Hint latestHint(ResultPath path) {
+        if (hints.isEmpty()) {
+            return null;
+        }
+        List<Object> pathList = path.toList();
+        Hint latest = null;
+        for (Hint hint : hints) {
+            if (hint.path.equals(pathList)) {
+                latest = hint;
+            }
+        }
+        return latest;
+    }
+
     private Map<String, Object> hintsToCacheControlProperties() {
         List<Map<String, Object>> recordedHints = map(hints, Hint::toMap);
 
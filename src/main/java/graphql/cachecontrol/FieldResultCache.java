@@ -0,0 +1,666 @@
+package graphql.cachecontrol;
+
+import com.google.common.collect.ImmutableList;
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.Internal;
+import graphql.PublicApi;
+import graphql.collect.ImmutableKit;
+import graphql.execution.ExecutionContext;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.ExecutionStrategyParameters;
+import graphql.execution.MergedField;
+import graphql.execution.ResultPath;
+import graphql.execution.preparsed.OperationCacheKey;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.language.AstPrinter;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+import graphql.schema.GraphQLDirectiveContainer;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLNamedOutputType;
+import graphql.schema.GraphQLNamedType;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.GraphQLUnionType;
+import graphql.util.FpKit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A field result cache keeps the completed results of cacheable fields across executions, so a later execution that asks for the same
+ * field of the same source object with the same arguments and the same selection set takes the result from the cache rather than
+ * fetching and completing the field again.
+ * <p>
+ * A field is cacheable if it, or failing that its type, has a {@code @cacheControl(maxAge: Int, scope: CacheControlScope)} directive
+ * with a max age in seconds, which the schema must declare as
+ * <pre>{@code
+ *     enum CacheControlScope { PUBLIC PRIVATE }
+ *     directive @cacheControl(maxAge: Int, scope: CacheControlScope) on FIELD_DEFINITION | OBJECT | INTERFACE | UNION
+ * }</pre>
+ * A data fetcher can change the max age and scope of its field via {@link CacheControl#hint(graphql.schema.DataFetchingEnvironment, Integer, CacheControl.Scope)},
+ * say a max age of 0 to stop a result being cached.  {@code PRIVATE} results are only cached if there is a private scope key, which is
+ * typically the user, and are only shared with executions of the same key.  Only the fields of query operations are cached and results
+ * that are null or have errors are never cached, and neither is anything once an execution has exceeded its
+ * {@link graphql.ExecutionInput#getMaxErrors()} budget.
+ * <p>
+ * A cached result is served with everything below it, so the fields of its selection set count too: the result is kept for the
+ * smallest max age of them and of the hints recorded below the field, and it is {@code PRIVATE} if any of them is.  A field whose
+ * selection set can not be matched against the schema is not cached.
+ * What a field's cache key takes from its selection set is worked out once per operation of a document entry.  Results are
+ * stored as unmodifiable copies and are served to every later execution as such.
+ * <p>
+ * The source object of a field below the root is part of the cache key, so it must have a key of its own that is the same across
+ * executions, which the {@link Builder#sourceKey(Function)} function gives.  Without that function only the fields of the root are
+ * cached, since the source objects of an execution are usually created for it alone and keeping them as keys would hold on to them.
+ *
+ * <pre>{@code
+ *     FieldResultCache cache = FieldResultCache.newFieldResultCache()
+ *             .sourceKey(source -> source instanceof Product ? ((Product) source).getId() : null)
+ *             .build();
+ *     GraphQL graphQL = GraphQL.newGraphQL(schema)
+ *             .queryExecutionStrategy(new AsyncExecutionStrategy(new SimpleDataFetcherExceptionHandler(), cache))
+ *             .build();
+ * }</pre>
+ */
+@PublicApi
+public class FieldResultCache {
+
+    /**
+     * The name of the directive that makes a field cacheable
+     */
+    public static final String CACHE_CONTROL_DIRECTIVE_NAME = "cacheControl";
+
+    private static final String ROOT_SOURCE_KEY = "graphql-java:root";
+
+    private final FieldResultCacheStore store;
+    private final Function<Object, Object> sourceKeyFunction;
+    private final Function<GraphQLContext, Object> privateScopeKeyFunction;
+
+    private FieldResultCache(Builder builder) {
+        this.store = builder.store;
+        this.sourceKeyFunction = builder.sourceKeyFunction;
+        this.privateScopeKeyFunction = builder.privateScopeKeyFunction;
+    }
+
+    public FieldResultCacheStore getStore() {
+        return store;
+    }
+
+    /**
+     * Called by the execution strategy to work out the cache key of a field invocation
+     *
+     * @param executionContext  the execution context
+     * @param parameters        the parameters of the field
+     * @param parentType        the type the field belongs to
+     * @param fieldDefinition   the field definition
+     * @param executionStepInfo the step info of the field, which has its coerced arguments
+     *
+     * @return the cache key or null if the field invocation is not cacheable
+     */
+    @Internal
+    public Key cacheKey(ExecutionContext executionContext, ExecutionStrategyParameters parameters, GraphQLFieldsContainer parentType, GraphQLFieldDefinition fieldDefinition, Supplier<ExecutionStepInfo> executionStepInfo) {
+        GraphQLAppliedDirective cacheControl = findCacheControl(fieldDefinition);
+        if (cacheControl == null || executionContext.getOperationDefinition().getOperation() != OperationDefinition.Operation.QUERY) {
+            return null;
+        }
+        Object sourceKey = sourceKey(parameters);
+        if (sourceKey == null) {
+            return null;
+        }
+        FieldSelection fieldSelection = fieldSelection(executionContext, parameters.getField(), parentType, fieldDefinition, cacheControl);
+        if (fieldSelection == FieldSelection.NOT_CACHEABLE) {
+            return null;
+        }
+        Object privateScopeKey = null;
+        if (fieldSelection.isPrivate) {
+            privateScopeKey = privateScopeKeyFunction != null ? privateScopeKeyFunction.apply(executionContext.getGraphQLContext()) : null;
+            if (privateScopeKey == null) {
+                return null;
+            }
+        }
+        // the variables can change the arguments and directives of the selection set, and are the ones the execution holds on to anyway
+        Map<String, Object> variables = fieldSelection.selection.isEmpty() ? ImmutableKit.emptyMap() : executionContext.getCoercedVariables().toMap();
+        return new Key(fieldSelection.coordinates, sourceKey, executionStepInfo.get().getArguments(),
+                fieldSelection.selection, variables, privateScopeKey, fieldSelection.maxAge, fieldSelection.selectionMaxAge);
+    }
+
+    /**
+     * Called by the execution strategy to look up the completed result of a field invocation
+     *
+     * @param key the cache key
+     *
+     * @return the completed result or null if there is none
+     */
+    @Internal
+    public Object get(Key key) {
+        return store.get(key);
+    }
+
+    /**
+     * Called by the execution strategy once a cacheable field has been completed
+     *
+     * @param executionContext the execution context
+     * @param path             the path of the field
+     * @param key              the cache key
+     * @param executionResult  the completed field
+     */
+    @Internal
+    @SuppressWarnings("deprecation")
+    public void put(ExecutionContext executionContext, ResultPath path, Key key, ExecutionResult executionResult) {
+        Object value = executionResult.getData();
+        if (value == null) {
+            return;
+        }
+        Duration maxAge = key.maxAge;
+        CacheControl hints = executionContext.getCacheControl();
+        if (hints != null) {
+            // a hint for the field itself replaces the max age of its directive, while the hints below can only shorten it
+            Integer hintedMaxAge = hints.getMaxAge(path);
+            if (hintedMaxAge != null) {
+                maxAge = Duration.ofSeconds(hintedMaxAge);
+            }
+            Integer hintedMaxAgeBelow = hints.getMinMaxAgeBelow(path);
+            if (hintedMaxAgeBelow != null) {
+                maxAge = min(maxAge, Duration.ofSeconds(hintedMaxAgeBelow));
+            }
+            if (key.privateScopeKey == null && hints.isPrivateAtOrBelow(path)) {
+                return;
+            }
+        }
+        if (key.selectionMaxAge != null) {
+            maxAge = min(maxAge, key.selectionMaxAge);
+        }
+        if (maxAge.isZero() || maxAge.isNegative() || executionContext.hasErrorAtOrBelow(path)) {
+            return;
+        }
+        // the completed value is also part of the result of this execution, which its caller is free to change
+        store.put(key, unmodifiableCopy(value), maxAge);
+    }
+
+    private static Object unmodifiableCopy(Object value) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Map<Object, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), unmodifiableCopy(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(unmodifiableCopy(element));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    /*
+     * What the cache key of a field takes from the operation only depends on the fields of the merged field and their parent type, so it
+     * is worked out once per operation and kept with the document entry, which later executions of the document share.
+     */
+    private static FieldSelection fieldSelection(ExecutionContext executionContext, MergedField mergedField, GraphQLFieldsContainer parentType,
+                                                 GraphQLFieldDefinition fieldDefinition, GraphQLAppliedDirective cacheControl) {
+        PreparsedDocumentEntry preparsedDocumentEntry = executionContext.getPreparsedDocumentEntry();
+        if (preparsedDocumentEntry == null) {
+            return createFieldSelection(executionContext, mergedField, parentType, fieldDefinition, cacheControl);
+        }
+        OperationCacheKey operationKey = new OperationCacheKey(FieldSelections.class, executionContext.getOperationDefinition(), executionContext.getGraphQLSchema());
+        FieldSelections fieldSelections = preparsedDocumentEntry.computeIfAbsent(operationKey, key -> new FieldSelections());
+        return fieldSelections.byFields.computeIfAbsent(new FieldsKey(mergedField.getFields(), parentType.getName()),
+                key -> createFieldSelection(executionContext, mergedField, parentType, fieldDefinition, cacheControl));
+    }
+
+    private static FieldSelection createFieldSelection(ExecutionContext executionContext, MergedField mergedField, GraphQLFieldsContainer parentType,
+                                                       GraphQLFieldDefinition fieldDefinition, GraphQLAppliedDirective cacheControl) {
+        Duration maxAge = maxAgeOf(cacheControl);
+        if (maxAge == null) {
+            return FieldSelection.NOT_CACHEABLE;
+        }
+        Policy selectionPolicy = selectionPolicy(executionContext, mergedField, fieldDefinition);
+        if (selectionPolicy == null) {
+            return FieldSelection.NOT_CACHEABLE;
+        }
+        return new FieldSelection(FieldCoordinates.coordinates(parentType, fieldDefinition),
+                selectionKey(mergedField, executionContext.getFragmentsByName()),
+                maxAge,
+                selectionPolicy.maxAge,
+                isPrivate(cacheControl) || selectionPolicy.isPrivate);
+    }
+
+    /*
+     * A cached result is served for its whole selection, so the policy has to hold for every field in it: the smallest max age of the
+     * fields below and PRIVATE if any of them is.  Fields without a @cacheControl of their own take the policy of their parent.  The
+     * policy is null when a field of the selection can not be found on the possible types of its parent, since then it is unknown.
+     */
+    private static Policy selectionPolicy(ExecutionContext executionContext, MergedField mergedField, GraphQLFieldDefinition fieldDefinition) {
+        Policy policy = new Policy();
+        GraphQLSchema schema = executionContext.getGraphQLSchema();
+        for (Field field : mergedField.getFields()) {
+            if (field.getSelectionSet() != null) {
+                List<GraphQLObjectType> possibleTypes = possibleTypes(schema, fieldDefinition.getType(), policy);
+                if (possibleTypes == null || !addSelectionPolicy(schema, field.getSelectionSet(), possibleTypes, executionContext.getFragmentsByName(), policy)) {
+                    return null;
+                }
+            }
+        }
+        return policy;
+    }
+
+    private static boolean addSelectionPolicy(GraphQLSchema schema, SelectionSet selectionSet, List<GraphQLObjectType> possibleTypes, Map<String, FragmentDefinition> fragmentsByName, Policy policy) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field) {
+                Field field = (Field) selection;
+                if (field.getName().equals("__typename")) {
+                    continue;
+                }
+                for (GraphQLObjectType possibleType : possibleTypes) {
+                    GraphQLFieldDefinition fieldDefinition = possibleType.getFieldDefinition(field.getName());
+                    if (fieldDefinition == null) {
+                        return false;
+                    }
+                    GraphQLAppliedDirective cacheControl = findCacheControl(fieldDefinition);
+                    if (cacheControl != null) {
+                        policy.add(cacheControl);
+                    }
+                    if (field.getSelectionSet() != null) {
+                        List<GraphQLObjectType> fieldTypes = possibleTypes(schema, fieldDefinition.getType(), policy);
+                        if (fieldTypes == null || !addSelectionPolicy(schema, field.getSelectionSet(), fieldTypes, fragmentsByName, policy)) {
+                            return false;
+                        }
+                    }
+                }
+            } else if (selection instanceof InlineFragment) {
+                InlineFragment inlineFragment = (InlineFragment) selection;
+                List<GraphQLObjectType> fragmentTypes = inlineFragment.getTypeCondition() == null ? possibleTypes
+                        : narrow(schema, possibleTypes, inlineFragment.getTypeCondition().getName());
+                if (fragmentTypes == null || !addSelectionPolicy(schema, inlineFragment.getSelectionSet(), fragmentTypes, fragmentsByName, policy)) {
+                    return false;
+                }
+            } else if (selection instanceof FragmentSpread) {
+                FragmentDefinition fragmentDefinition = fragmentsByName.get(((FragmentSpread) selection).getName());
+                if (fragmentDefinition == null) {
+                    return false;
+                }
+                List<GraphQLObjectType> fragmentTypes = narrow(schema, possibleTypes, fragmentDefinition.getTypeCondition().getName());
+                if (fragmentTypes == null || !addSelectionPolicy(schema, fragmentDefinition.getSelectionSet(), fragmentTypes, fragmentsByName, policy)) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the object types a value of the type can have, whose own @cacheControl directives go into the policy too
+    private static List<GraphQLObjectType> possibleTypes(GraphQLSchema schema, GraphQLType type, Policy policy) {
+        GraphQLType unwrappedType = GraphQLTypeUtil.unwrapAll(type);
+        List<GraphQLObjectType> possibleTypes;
+        if (unwrappedType instanceof GraphQLObjectType) {
+            possibleTypes = ImmutableList.of((GraphQLObjectType) unwrappedType);
+        } else if (unwrappedType instanceof GraphQLInterfaceType) {
+            possibleTypes = schema.getImplementations((GraphQLInterfaceType) unwrappedType);
+        } else if (unwrappedType instanceof GraphQLUnionType) {
+            possibleTypes = new ArrayList<>();
+            for (GraphQLNamedOutputType memberType : ((GraphQLUnionType) unwrappedType).getTypes()) {
+                if (!(memberType instanceof GraphQLObjectType)) {
+                    return null;
+                }
+                possibleTypes.add((GraphQLObjectType) memberType);
+            }
+        } else {
+            return null;
+        }
+        for (GraphQLObjectType possibleType : possibleTypes) {
+            GraphQLAppliedDirective cacheControl = possibleType.getAppliedDirective(CACHE_CONTROL_DIRECTIVE_NAME);
+            if (cacheControl != null) {
+                policy.add(cacheControl);
+            }
+        }
+        return possibleTypes;
+    }
+
+    private static List<GraphQLObjectType> narrow(GraphQLSchema schema, List<GraphQLObjectType> possibleTypes, String typeCondition) {
+        GraphQLType conditionType = schema.getType(typeCondition);
+        if (conditionType instanceof GraphQLObjectType) {
+            return possibleTypes.contains(conditionType) ? ImmutableList.of((GraphQLObjectType) conditionType) : ImmutableKit.emptyList();
+        }
+        if (conditionType instanceof GraphQLInterfaceType || conditionType instanceof GraphQLUnionType) {
+            return FpKit.filterList(possibleTypes, possibleType -> schema.isPossibleType((GraphQLNamedType) conditionType, possibleType));
+        }
+        return null;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static GraphQLAppliedDirective findCacheControl(GraphQLFieldDefinition fieldDefinition) {
+        GraphQLAppliedDirective cacheControl = fieldDefinition.getAppliedDirective(CACHE_CONTROL_DIRECTIVE_NAME);
+        if (cacheControl == null) {
+            GraphQLType type = GraphQLTypeUtil.unwrapAll(fieldDefinition.getType());
+            if (type instanceof GraphQLDirectiveContainer) {
+                cacheControl = ((GraphQLDirectiveContainer) type).getAppliedDirective(CACHE_CONTROL_DIRECTIVE_NAME);
+            }
+        }
+        return cacheControl;
+    }
+
+    private static Duration maxAgeOf(GraphQLAppliedDirective cacheControl) {
+        GraphQLAppliedDirectiveArgument maxAge = cacheControl.getArgument("maxAge");
+        Object value = maxAge != null ? maxAge.getValue() : null;
+        return value instanceof Number ? Duration.ofSeconds(((Number) value).longValue()) : null;
+    }
+
+    private static boolean isPrivate(GraphQLAppliedDirective cacheControl) {
+        GraphQLAppliedDirectiveArgument scope = cacheControl.getArgument("scope");
+        Object value = scope != null ? scope.getValue() : null;
+        return value != null && CacheControl.Scope.PRIVATE.name().equals(String.valueOf(value));
+    }
+
+    private static String selectionKey(MergedField mergedField, Map<String, FragmentDefinition> fragmentsByName) {
+        StringBuilder selection = new StringBuilder();
+        Set<String> fragmentNames = new LinkedHashSet<>();
+        for (Field field : mergedField.getFields()) {
+            if (field.getSelectionSet() != null) {
+                selection.append(AstPrinter.printAstCompact(field.getSelectionSet()));
+                collectFragmentNames(field.getSelectionSet(), fragmentsByName, fragmentNames);
+            }
+        }
+        // named fragments are printed by name only, so their definitions are part of the key too
+        for (String fragmentName : fragmentNames) {
+            FragmentDefinition fragmentDefinition = fragmentsByName.get(fragmentName);
+            if (fragmentDefinition != null) {
+                selection.append(AstPrinter.printAstCompact(fragmentDefinition));
+            }
+        }
+        return selection.toString();
+    }
+
+    private static void collectFragmentNames(SelectionSet selectionSet, Map<String, FragmentDefinition> fragmentsByName, Set<String> fragmentNames) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field) {
+                SelectionSet fieldSelectionSet = ((Field) selection).getSelectionSet();
+                if (fieldSelectionSet != null) {
+                    collectFragmentNames(fieldSelectionSet, fragmentsByName, fragmentNames);
+                }
+            } else if (selection instanceof InlineFragment) {
+                collectFragmentNames(((InlineFragment) selection).getSelectionSet(), fragmentsByName, fragmentNames);
+            } else if (selection instanceof FragmentSpread) {
+                String fragmentName = ((FragmentSpread) selection).getName();
+                FragmentDefinition fragmentDefinition = fragmentsByName.get(fragmentName);
+                if (fragmentNames.add(fragmentName) && fragmentDefinition != null) {
+                    collectFragmentNames(fragmentDefinition.getSelectionSet(), fragmentsByName, fragmentNames);
+                }
+            }
+        }
+    }
+
+    private Object sourceKey(ExecutionStrategyParameters parameters) {
+        if (parameters.getPath().getLevel() == 1) {
+            return ROOT_SOURCE_KEY;
+        }
+        return sourceKeyFunction != null ? sourceKeyFunction.apply(parameters.getSource()) : null;
+    }
+
+    /**
+     * @return a new builder of {@link FieldResultCache}s
+     */
+    public static Builder newFieldResultCache() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private FieldResultCacheStore store = new InMemoryFieldResultCacheStore(10_000);
+        private Function<Object, Object> sourceKeyFunction;
+        private Function<GraphQLContext, Object> privateScopeKeyFunction;
+
+        private Builder() {
+        }
+
+        /**
+         * The store of cached results, which is an {@link InMemoryFieldResultCacheStore} of 10,000 entries by default
+         *
+         * @param store the store of cached results
+         *
+         * @return this builder
+         */
+        public Builder store(FieldResultCacheStore store) {
+            this.store = assertNotNull(store);
+            return this;
+        }
+
+        /**
+         * The source key of a field below the root stands in for its source object in the cache key.  Without it only the fields of
+         * the root are cached.
+         *
+         * @param sourceKeyFunction a function from a source object to its key, which can return null to not cache the fields of that source
+         *
+         * @return this builder
+         */
+        public Builder sourceKey(Function<Object, Object> sourceKeyFunction) {
+            this.sourceKeyFunction = assertNotNull(sourceKeyFunction);
+            return this;
+        }
+
+        /**
+         * The private scope key is part of the cache key of {@code PRIVATE} fields, which are not cached without one
+         *
+         * @param privateScopeKeyFunction a function from the context of an execution to its private scope key, typically the user
+         *
+         * @return this builder
+         */
+        public Builder privateScopeKey(Function<GraphQLContext, Object> privateScopeKeyFunction) {
+            this.privateScopeKeyFunction = assertNotNull(privateScopeKeyFunction);
+            return this;
+        }
+
+        public FieldResultCache build() {
+            return new FieldResultCache(this);
+        }
+    }
+
+    // the field selections of an operation
+    private static class FieldSelections {
+        private final Map<FieldsKey, FieldSelection> byFields = new ConcurrentHashMap<>();
+    }
+
+    // the fields of a merged field, compared by identity, and the type they belong to
+    private static class FieldsKey {
+        private final List<Field> fields;
+        private final String parentTypeName;
+        private final int hashCode;
+
+        private FieldsKey(List<Field> fields, String parentTypeName) {
+            this.fields = fields;
+            this.parentTypeName = parentTypeName;
+            int hashCode = parentTypeName.hashCode();
+            for (Field field : fields) {
+                hashCode = 31 * hashCode + System.identityHashCode(field);
+            }
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FieldsKey that = (FieldsKey) o;
+            if (hashCode != that.hashCode || fields.size() != that.fields.size() || !parentTypeName.equals(that.parentTypeName)) {
+                return false;
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                if (fields.get(i) != that.fields.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    // what the cache key of a field takes from the operation
+    private static class FieldSelection {
+        private static final FieldSelection NOT_CACHEABLE = new FieldSelection(null, null, null, null, false);
+
+        private final FieldCoordinates coordinates;
+        private final String selection;
+        private final Duration maxAge;
+        private final Duration selectionMaxAge;
+        private final boolean isPrivate;
+
+        private FieldSelection(FieldCoordinates coordinates, String selection, Duration maxAge, Duration selectionMaxAge, boolean isPrivate) {
+            this.coordinates = coordinates;
+            this.selection = selection;
+            this.maxAge = maxAge;
+            this.selectionMaxAge = selectionMaxAge;
+            this.isPrivate = isPrivate;
+        }
+    }
+
+    private static class Policy {
+        private Duration maxAge;
+        private boolean isPrivate;
+
+        private void add(GraphQLAppliedDirective cacheControl) {
+            Duration directiveMaxAge = maxAgeOf(cacheControl);
+            if (directiveMaxAge != null) {
+                maxAge = maxAge == null ? directiveMaxAge : min(maxAge, directiveMaxAge);
+            }
+            isPrivate |= isPrivate(cacheControl);
+        }
+    }
+
+    /**
+     * The cache key of a field invocation
+     */
+    public static class Key {
+        private final FieldCoordinates coordinates;
+        private final Object sourceKey;
+        private final Map<String, Object> arguments;
+        private final String selection;
+        private final Map<String, Object> variables;
+        private final Object privateScopeKey;
+        // not part of the key
+        private final Duration maxAge;
+        private final Duration selectionMaxAge;
+        private final int hashCode;
+
+        private Key(FieldCoordinates coordinates, Object sourceKey, Map<String, Object> arguments, String selection, Map<String, Object> variables, Object privateScopeKey, Duration maxAge, Duration selectionMaxAge) {
+            this.coordinates = coordinates;
+            this.sourceKey = sourceKey;
+            this.arguments = arguments;
+            this.selection = selection;
+            this.variables = variables;
+            this.privateScopeKey = privateScopeKey;
+            this.maxAge = maxAge;
+            this.selectionMaxAge = selectionMaxAge;
+            this.hashCode = Objects.hash(coordinates, sourceKey, arguments, selection, variables, privateScopeKey);
+        }
+
+        public FieldCoordinates getCoordinates() {
+            return coordinates;
+        }
+
+        public Object getSourceKey() {
+            return sourceKey;
+        }
+
+        public Map<String, Object> getArguments() {
+            return arguments;
+        }
+
+        /**
+         * @return the printed selection set of the field and of the fragments it uses, which is empty for a leaf field
+         */
+        public String getSelection() {
+            return selection;
+        }
+
+        /**
+         * @return the variables of the execution if the field has a selection set, otherwise empty
+         */
+        public Map<String, Object> getVariables() {
+            return variables;
+        }
+
+        /**
+         * @return the private scope key of a {@code PRIVATE} field, otherwise null
+         */
+        public Object getPrivateScopeKey() {
+            return privateScopeKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode
+                    && coordinates.equals(that.coordinates)
+                    && sourceKey.equals(that.sourceKey)
+                    && arguments.equals(that.arguments)
+                    && selection.equals(that.selection)
+                    && variables.equals(that.variables)
+                    && Objects.equals(privateScopeKey, that.privateScopeKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" +
+                    "coordinates=" + coordinates +
+                    ", sourceKey=" + sourceKey +
+                    ", arguments=" + arguments +
+                    ", selection='" + selection + '\'' +
+                    ", variables=" + variables +
+                    ", privateScopeKey=" + privateScopeKey +
+                    '}';
+        }
+    }
+}
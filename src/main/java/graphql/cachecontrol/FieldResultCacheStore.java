@@ -0,0 +1,32 @@
+package graphql.cachecontrol;
+
+import graphql.PublicApi;
+
+import java.time.Duration;
+
+/**
+ * The store behind a {@link FieldResultCache}.  The default store is an {@link InMemoryFieldResultCacheStore} but you can provide
+ * your own, say one backed by a shared cache.
+ * <p>
+ * The values are the completed results of fields, made of maps, lists and scalar values, which must not be changed.  A store is used
+ * by many executions at the same time and so must be thread safe.
+ */
+@PublicApi
+public interface FieldResultCacheStore {
+
+    /**
+     * @param key the key of the field invocation
+     *
+     * @return the cached completed result of the field or null if there is none or it has expired
+     */
+    Object get(FieldResultCache.Key key);
+
+    /**
+     * Stores the completed result of a field
+     *
+     * @param key    the key of the field invocation
+     * @param value  the completed result of the field, which is never null
+     * @param maxAge the time after which the value must no longer be returned
+     */
+    void put(FieldResultCache.Key key, Object value, Duration maxAge);
+}
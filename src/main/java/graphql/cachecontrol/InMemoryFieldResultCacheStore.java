@@ -0,0 +1,126 @@
+package graphql.cachecontrol;
+
+import graphql.PublicApi;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static graphql.Assert.assertTrue;
+
+/**
+ * A {@link FieldResultCacheStore} that keeps at most a given number of entries in memory.  To make room for a new entry it evicts the
+ * least recently used of a few entries, which it samples by walking round all the entries in turn, and so reads never take a lock.
+ * Expired entries are dropped when they are next read or come up in a sample.
+ */
+@PublicApi
+public class InMemoryFieldResultCacheStore implements FieldResultCacheStore {
+
+    // the number of entries looked at to find the one to evict
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<FieldResultCache.Key, Entry> entries = new ConcurrentHashMap<>();
+    // ticks on every read and write, so a smaller tick means a less recent use
+    private final AtomicLong clock = new AtomicLong();
+    // guarded by itself, carries on from where the last sample stopped
+    private final Object evictionLock = new Object();
+    private Iterator<Map.Entry<FieldResultCache.Key, Entry>> evictionHand;
+
+    /**
+     * @param maxEntries the maximum number of entries to keep
+     */
+    public InMemoryFieldResultCacheStore(int maxEntries) {
+        assertTrue(maxEntries > 0, () -> "maxEntries must be greater than zero");
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return the number of entries in the store, including expired ones that have not been dropped yet
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public Object get(FieldResultCache.Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        return entry.value;
+    }
+
+    @Override
+    public void put(FieldResultCache.Key key, Object value, Duration maxAge) {
+        entries.put(key, new Entry(value, System.nanoTime() + maxAge.toNanos(), clock.incrementAndGet()));
+        while (entries.size() > maxEntries) {
+            if (!evictOne()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private boolean evictOne() {
+        synchronized (evictionLock) {
+            long now = System.nanoTime();
+            Map.Entry<FieldResultCache.Key, Entry> victim = null;
+            int sampleSize = Math.min(EVICTION_SAMPLE_SIZE, entries.size());
+            for (int i = 0; i < sampleSize; i++) {
+                if (evictionHand == null || !evictionHand.hasNext()) {
+                    evictionHand = entries.entrySet().iterator();
+                    if (!evictionHand.hasNext()) {
+                        break;
+                    }
+                }
+                Map.Entry<FieldResultCache.Key, Entry> candidate = evictionHand.next();
+                if (candidate.getValue().isExpired(now)) {
+                    victim = candidate;
+                    break;
+                }
+                if (victim == null || candidate.getValue().lastUsed < victim.getValue().lastUsed) {
+                    victim = candidate;
+                }
+            }
+            if (victim == null) {
+                return false;
+            }
+            entries.remove(victim.getKey(), victim.getValue());
+            return true;
+        }
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long expiresAtNanos;
+        private volatile long lastUsed;
+
+        private Entry(Object value, long expiresAtNanos, long lastUsed) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+            this.lastUsed = lastUsed;
+        }
+
+        private boolean isExpired(long nowNanos) {
+            return expiresAtNanos - nowNanos <= 0;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package graphql.collect;
+
+import graphql.Internal;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A list that many threads can append to without a lock and that hands out immutable snapshots of itself in constant time.
+ * <p>
+ * An append reserves its index with a compare and set and then fills that slot, so elements are kept in the order their indices
+ * were reserved.  The slots live in segments that double in size and are never moved, hence a slot never changes once filled and a
+ * {@link Snapshot} is merely the list plus the number of leading slots that were filled when it was taken.
+ *
+ * @param <T> for two
+ */
+@Internal
+public final class ConcurrentAppendList<T> {
+
+    private static final int FIRST_SEGMENT_SIZE = 16;
+    private static final int SEGMENT_COUNT = 27;
+    // the segments hold FIRST_SEGMENT_SIZE * (2^SEGMENT_COUNT - 1) elements, which is just below Integer.MAX_VALUE
+    private static final int CAPACITY = FIRST_SEGMENT_SIZE * ((1 << SEGMENT_COUNT) - 1);
+
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> segments = new AtomicReferenceArray<>(SEGMENT_COUNT);
+    private final AtomicInteger reserved = new AtomicInteger();
+    // the last snapshot handed out, which the next one starts looking for filled slots from
+    private volatile Snapshot<T> snapshot = new Snapshot<>(this, 0);
+
+    public ConcurrentAppendList() {
+    }
+
+    public ConcurrentAppendList(Collection<? extends T> elements) {
+        for (T element : elements) {
+            add(element);
+        }
+    }
+
+    public void add(T element) {
+        tryAdd(element, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds the element unless the list has reached the given size
+     *
+     * @param element the element to add, which can not be null
+     * @param maxSize the size the list may not grow beyond
+     *
+     * @return true if the element was added
+     */
+    public boolean tryAdd(T element, int maxSize) {
+        assertNotNull(element);
+        int limit = Math.min(maxSize, CAPACITY);
+        int index;
+        do {
+            index = reserved.get();
+            if (index >= limit) {
+                return false;
+            }
+        } while (!reserved.compareAndSet(index, index + 1));
+        set(index, element);
+        return true;
+    }
+
+    /**
+     * Adds as many of the elements as fit into the given size, next to each other and in their order
+     *
+     * @param elements the elements to add, none of which can be null
+     * @param maxSize  the size the list may not grow beyond
+     *
+     * @return the number of elements that were added
+     */
+    public int tryAddAll(List<? extends T> elements, int maxSize) {
+        if (elements.isEmpty()) {
+            return 0;
+        }
+        int limit = Math.min(maxSize, CAPACITY);
+        int index;
+        int count;
+        do {
+            index = reserved.get();
+            count = Math.min(elements.size(), limit - index);
+            if (count <= 0) {
+                return 0;
+            }
+        } while (!reserved.compareAndSet(index, index + count));
+        for (int i = 0; i < count; i++) {
+            set(index + i, assertNotNull(elements.get(i)));
+        }
+        return count;
+    }
+
+    /**
+     * @return an immutable list of the elements added so far, which at most misses the elements of appends that are still under way
+     */
+    public List<T> snapshot() {
+        Snapshot<T> snapshot = this.snapshot;
+        int size = snapshot.size;
+        int reservedCount = reserved.get();
+        while (size < reservedCount && get(size) != null) {
+            size++;
+        }
+        if (size == snapshot.size) {
+            return snapshot;
+        }
+        // racing snapshots may put an older one back, which only means the next snapshot looks at a few more slots
+        Snapshot<T> newSnapshot = new Snapshot<>(this, size);
+        this.snapshot = newSnapshot;
+        return newSnapshot;
+    }
+
+    private void set(int index, T element) {
+        int segmentIndex = segmentIndex(index);
+        AtomicReferenceArray<T> segment = segments.get(segmentIndex);
+        if (segment == null) {
+            segment = new AtomicReferenceArray<>(FIRST_SEGMENT_SIZE << segmentIndex);
+            if (!segments.compareAndSet(segmentIndex, null, segment)) {
+                segment = segments.get(segmentIndex);
+            }
+        }
+        segment.set(offset(index, segmentIndex), element);
+    }
+
+    private T get(int index) {
+        int segmentIndex = segmentIndex(index);
+        AtomicReferenceArray<T> segment = segments.get(segmentIndex);
+        return segment != null ? segment.get(offset(index, segmentIndex)) : null;
+    }
+
+    private static int segmentIndex(int index) {
+        return 31 - Integer.numberOfLeadingZeros(index / FIRST_SEGMENT_SIZE + 1);
+    }
+
+    private static int offset(int index, int segmentIndex) {
+        return index - FIRST_SEGMENT_SIZE * ((1 << segmentIndex) - 1);
+    }
+
+    /**
+     * The leading elements of a {@link ConcurrentAppendList}, which never change
+     *
+     * @param <T> for two
+     */
+    public static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+        private final ConcurrentAppendList<T> list;
+        private final int size;
+
+        private Snapshot(ConcurrentAppendList<T> list, int size) {
+            this.list = list;
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package graphql.execution;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
 import graphql.PublicSpi;
+import graphql.cachecontrol.FieldResultCache;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -14,11 +15,24 @@ import java.util.function.BiConsumer;
 @PublicSpi
 public abstract class AbstractAsyncExecutionStrategy extends ExecutionStrategy {
 
+    private final FieldResultCache fieldResultCache;
+
     public AbstractAsyncExecutionStrategy() {
+        this.fieldResultCache = null;
     }
 
     public AbstractAsyncExecutionStrategy(DataFetcherExceptionHandler dataFetcherExceptionHandler) {
+        this(dataFetcherExceptionHandler, null);
+    }
+
+    public AbstractAsyncExecutionStrategy(DataFetcherExceptionHandler dataFetcherExceptionHandler, FieldResultCache fieldResultCache) {
         super(dataFetcherExceptionHandler);
+        this.fieldResultCache = fieldResultCache;
+    }
+
+    @Override
+    protected FieldResultCache getFieldResultCache() {
+        return fieldResultCache;
     }
 
     // This method is kept for backward compatibility. Prefer calling/overriding another handleResults method
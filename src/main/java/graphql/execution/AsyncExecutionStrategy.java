@@ -2,6 +2,7 @@ package graphql.execution;
 
 import graphql.ExecutionResult;
 import graphql.PublicApi;
+import graphql.cachecontrol.FieldResultCache;
 import graphql.execution.instrumentation.ExecutionStrategyInstrumentationContext;
 import graphql.execution.instrumentation.Instrumentation;
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionStrategyParameters;
@@ -10,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
 
 
@@ -35,6 +37,17 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
         super(exceptionHandler);
     }
 
+    /**
+     * Creates a execution strategy that uses the provided exception handler and takes the results of cacheable fields from the
+     * provided cache
+     *
+     * @param exceptionHandler the exception handler to use
+     * @param fieldResultCache the cache of field results
+     */
+    public AsyncExecutionStrategy(DataFetcherExceptionHandler exceptionHandler, FieldResultCache fieldResultCache) {
+        super(exceptionHandler, fieldResultCache);
+    }
+
     @Override
     @SuppressWarnings("FutureReturnValueIgnored")
     public CompletableFuture<ExecutionResult> execute(ExecutionContext executionContext, ExecutionStrategyParameters parameters) throws NonNullableFieldWasNullException {
@@ -47,14 +60,17 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
         MergedSelectionSet fields = parameters.getFields();
         List<String> fieldNames = fields.getKeys();
         Async.CombinedBuilder<FieldValueInfo> futures = Async.ofExpectedSize(fields.size());
+        // a null non-null field nulls out this whole object, so the fetches still running for its other fields are cancelled
+        CancellationToken objectToken = parameters.getCancellationToken().newChild();
         for (String fieldName : fieldNames) {
             MergedField currentField = fields.getSubField(fieldName);
 
             ResultPath fieldPath = parameters.getPath().segment(mkNameForPath(currentField));
             ExecutionStrategyParameters newParameters = parameters
-                    .transform(builder -> builder.field(currentField).path(fieldPath).parent(parameters));
+                    .transform(builder -> builder.field(currentField).path(fieldPath).parent(parameters).cancellationToken(objectToken));
 
             CompletableFuture<FieldValueInfo> future = resolveFieldWithInfo(executionContext, newParameters);
+            cancelOnNonNullableFieldWasNull(future, objectToken);
             futures.add(future);
         }
         CompletableFuture<ExecutionResult> overallResult = new CompletableFuture<>();
@@ -84,4 +100,26 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
         overallResult.whenComplete(executionStrategyCtx::onCompleted);
         return overallResult;
     }
+
+    @SuppressWarnings("FutureReturnValueIgnored")
+    private void cancelOnNonNullableFieldWasNull(CompletableFuture<FieldValueInfo> future, CancellationToken objectToken) {
+        future.whenComplete((fieldValueInfo, throwable) -> {
+            if (throwable != null) {
+                cancelOnNonNullableFieldWasNull(throwable, objectToken);
+            } else {
+                fieldValueInfo.getFieldValue().whenComplete((executionResult, fieldValueThrowable) -> {
+                    if (fieldValueThrowable != null) {
+                        cancelOnNonNullableFieldWasNull(fieldValueThrowable, objectToken);
+                    }
+                });
+            }
+        });
+    }
+
+    private void cancelOnNonNullableFieldWasNull(Throwable throwable, CancellationToken objectToken) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof NonNullableFieldWasNullException) {
+            objectToken.cancel(cause);
+        }
+    }
 }
@@ -0,0 +1,314 @@
+package graphql.execution;
+
+import graphql.PublicApi;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A cancellation token tells the code of an execution that its work is no longer wanted, say because the client has gone away, the
+ * execution has timed out or the object a field belongs to has been nulled out because of a non-null field that was null.
+ * <p>
+ * Tokens form a tree.  A child token is cancelled when its parent is, but cancelling a child leaves its parent alone.  The
+ * {@link ExecutionContext} has the token of the whole execution and each {@link graphql.schema.DataFetchingEnvironment} has the
+ * token of the object its field belongs to.  graphql-java does not call the data fetchers of a cancelled token and a data fetcher
+ * can use {@link #onCancel(Runnable)} to stop its own work, say an in-flight HTTP call.
+ * <p>
+ * A child only listens to its parent while it has callbacks, so removing the {@link Registration} of a callback once the work it
+ * stops is done leaves nothing behind on the parent, which matters for a long-lived token that many executions are children of.
+ * <p>
+ * You can give an execution a token of your own via {@link graphql.ExecutionInput.Builder#cancellationToken(CancellationToken)} and
+ * cancel it when the client disconnects.
+ */
+@PublicApi
+public class CancellationToken {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final CancellationToken parent;
+    private volatile Throwable cancellationReason;
+    // System.nanoTime() based, NO_DEADLINE unless cancelAfter has been called
+    private volatile long deadlineNanos = NO_DEADLINE;
+    // guarded by this, null once cancelled
+    private Set<CallbackRegistration> callbacks = new LinkedHashSet<>();
+    // guarded by this, true while this token has callbacks, the registration with the parent is set once it is made
+    private boolean listeningToParent;
+    private Registration parentRegistration;
+
+    private CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * @return a new token that is not cancelled
+     */
+    public static CancellationToken newCancellationToken() {
+        return new CancellationToken(null);
+    }
+
+    /**
+     * @return a new token that is cancelled when this token is cancelled
+     */
+    public CancellationToken newChild() {
+        return new CancellationToken(this);
+    }
+
+    /**
+     * @return true if this token or one of its ancestors has been cancelled
+     */
+    public boolean isCancelled() {
+        return getCancellationReason() != null;
+    }
+
+    /**
+     * @return the reason this token or the nearest of its ancestors was cancelled for or null if it is not cancelled
+     */
+    public Throwable getCancellationReason() {
+        // children do not register with their parents unless they have callbacks, so walk up rather than wait to be told
+        CancellationToken token = this;
+        while (token != null) {
+            Throwable reason = token.cancellationReason;
+            if (reason != null) {
+                return reason;
+            }
+            token = token.parent;
+        }
+        return null;
+    }
+
+    /**
+     * A data fetcher can use this to bound the time it waits for its own dependencies, say as the timeout of an HTTP call
+     *
+     * @return the time left before the nearest deadline of this token or its ancestors or null if there is no deadline
+     *
+     * @see #cancelAfter(Duration)
+     */
+    public Duration getRemainingTime() {
+        long deadline = NO_DEADLINE;
+        CancellationToken token = this;
+        while (token != null) {
+            deadline = Math.min(deadline, token.deadlineNanos);
+            token = token.parent;
+        }
+        if (deadline == NO_DEADLINE) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    /**
+     * Cancels this token and its descendants.  Only the first cancellation counts.
+     *
+     * @param reason the reason for the cancellation
+     *
+     * @return true if this call cancelled the token
+     */
+    public boolean cancel(Throwable reason) {
+        assertNotNull(reason, () -> "a cancellation needs a reason");
+        List<CallbackRegistration> toRun;
+        Registration toRemove;
+        synchronized (this) {
+            if (callbacks == null) {
+                return false;
+            }
+            cancellationReason = reason;
+            toRun = new ArrayList<>(callbacks);
+            callbacks = null;
+            toRemove = stopListeningToParent();
+        }
+        // a token cancelled on its own no longer needs to hear from its parent
+        if (toRemove != null) {
+            toRemove.remove();
+        }
+        for (CallbackRegistration registration : toRun) {
+            registration.callback.run();
+        }
+        return true;
+    }
+
+    /**
+     * Registers code to run when this token is cancelled, which runs straight away if it already is.  The returned registration
+     * should be removed once the work the callback stops is done, so the token does not hold on to it.
+     *
+     * @param callback the code to run on cancellation
+     *
+     * @return the registration of the callback
+     */
+    public Registration onCancel(Runnable callback) {
+        assertNotNull(callback);
+        CallbackRegistration registration = new CallbackRegistration(callback);
+        boolean listenToParent;
+        synchronized (this) {
+            if (callbacks == null) {
+                registration = null;
+                listenToParent = false;
+            } else {
+                callbacks.add(registration);
+                listenToParent = parent != null && !listeningToParent;
+                listeningToParent = true;
+            }
+        }
+        if (registration == null) {
+            callback.run();
+            return () -> {
+            };
+        }
+        if (listenToParent) {
+            listenToParent();
+        }
+        return registration;
+    }
+
+    /**
+     * Removes all the callbacks of this token without running them and stops it listening to its parent.  The token can still be
+     * cancelled and still sees the cancellation of its ancestors via {@link #isCancelled()}.
+     */
+    public void release() {
+        Registration toRemove;
+        synchronized (this) {
+            if (callbacks == null) {
+                return;
+            }
+            callbacks.clear();
+            toRemove = stopListeningToParent();
+        }
+        if (toRemove != null) {
+            toRemove.remove();
+        }
+    }
+
+    private void listenToParent() {
+        Registration registration = parent.onCancel(() -> cancel(parent.getCancellationReason()));
+        synchronized (this) {
+            // the callbacks may have been removed in the meantime or another thread may have registered first
+            if (listeningToParent && parentRegistration == null) {
+                parentRegistration = registration;
+                registration = null;
+            }
+        }
+        if (registration != null) {
+            registration.remove();
+        }
+    }
+
+    private void remove(CallbackRegistration registration) {
+        Registration toRemove = null;
+        synchronized (this) {
+            if (callbacks != null && callbacks.remove(registration) && callbacks.isEmpty()) {
+                toRemove = stopListeningToParent();
+            }
+        }
+        if (toRemove != null) {
+            toRemove.remove();
+        }
+    }
+
+    // guarded by this
+    private Registration stopListeningToParent() {
+        Registration registration = parentRegistration;
+        listeningToParent = false;
+        parentRegistration = null;
+        return registration;
+    }
+
+    /**
+     * @throws AbortExecutionException if this token is cancelled
+     */
+    public void throwIfCancelled() throws AbortExecutionException {
+        Throwable reason = getCancellationReason();
+        if (reason != null) {
+            throw reason instanceof AbortExecutionException ? (AbortExecutionException) reason : new AbortExecutionException(reason);
+        }
+    }
+
+    /**
+     * Cancels this token with an {@link AbortExecutionException} once the timeout has passed
+     *
+     * @param timeout the time after which to cancel
+     *
+     * @return the scheduled cancellation, which can be cancelled if the work finishes in time
+     */
+    public ScheduledFuture<?> cancelAfter(Duration timeout) {
+        assertNotNull(timeout);
+        return cancelAfter(timeout, () -> new AbortExecutionException("The execution timed out after " + timeout.toMillis() + "ms"));
+    }
+
+    /**
+     * Cancels this token once the timeout has passed
+     *
+     * @param timeout the time after which to cancel
+     * @param reason  the reason for the cancellation, which is only created if the timeout passes
+     *
+     * @return the scheduled cancellation, which can be cancelled if the work finishes in time
+     */
+    public ScheduledFuture<?> cancelAfter(Duration timeout, Supplier<? extends Throwable> reason) {
+        assertNotNull(timeout);
+        assertNotNull(reason);
+        long timeoutNanos = timeout.toNanos();
+        long deadline = System.nanoTime() + timeoutNanos;
+        synchronized (this) {
+            deadlineNanos = Math.min(deadlineNanos, deadline);
+        }
+        // the cancellation runs the callbacks, which complete fields and so go on to fetch and complete others, so it is handed off rather
+        // than run on the one timer thread that all the timeouts of the JVM share
+        return TimeoutScheduler.SCHEDULER.schedule(() -> ForkJoinPool.commonPool().execute(() -> cancel(reason.get())), timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "CancellationToken{" +
+                "cancelled=" + isCancelled() +
+                '}';
+    }
+
+    /**
+     * The registration of a callback via {@link #onCancel(Runnable)}
+     */
+    @PublicApi
+    public interface Registration {
+
+        /**
+         * Removes the callback, which then does not run on cancellation.  Removing it more than once does nothing.
+         */
+        void remove();
+    }
+
+    private class CallbackRegistration implements Registration {
+        private final Runnable callback;
+
+        private CallbackRegistration(Runnable callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void remove() {
+            CancellationToken.this.remove(this);
+        }
+    }
+
+    // created on first use so executions without timeouts never start the thread
+    private static class TimeoutScheduler {
+        private static final ScheduledThreadPoolExecutor SCHEDULER = newScheduler();
+
+        private static ScheduledThreadPoolExecutor newScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "graphql-java-execution-timeouts");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // most timeouts are cancelled because the work finished in time, and they should not hold on to their tokens until they are due
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package graphql.execution;
+
+import graphql.ErrorType;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorHelper;
+import graphql.PublicApi;
+import graphql.language.SourceLocation;
+import graphql.schema.FieldCoordinates;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static graphql.collect.ImmutableKit.map;
+import static java.lang.String.format;
+
+/**
+ * The single error that stands for all the errors left out of a result once the execution went over
+ * {@link graphql.ExecutionInput#getMaxErrors()}.  Its extensions say how many errors were left out and which fields failed, the
+ * further fetches of which were skipped.
+ */
+@PublicApi
+public class ErrorBudgetExceededError implements GraphQLError {
+
+    private final int maxErrors;
+    private final int droppedErrorCount;
+    private final int skippedFetchCount;
+    private final List<FieldCoordinates> failingFields;
+
+    public ErrorBudgetExceededError(int maxErrors, int droppedErrorCount, int skippedFetchCount, List<FieldCoordinates> failingFields) {
+        this.maxErrors = maxErrors;
+        this.droppedErrorCount = droppedErrorCount;
+        this.skippedFetchCount = skippedFetchCount;
+        this.failingFields = failingFields;
+    }
+
+    /**
+     * @return the number of errors the execution was allowed
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * @return the number of errors that were left out of the result
+     */
+    public int getDroppedErrorCount() {
+        return droppedErrorCount;
+    }
+
+    /**
+     * @return the number of fetches of failing fields that were skipped once the budget was exceeded
+     */
+    public int getSkippedFetchCount() {
+        return skippedFetchCount;
+    }
+
+    /**
+     * @return the fields whose fetches failed
+     */
+    public List<FieldCoordinates> getFailingFields() {
+        return failingFields;
+    }
+
+    @Override
+    public String getMessage() {
+        return format("The execution exceeded its budget of %d errors : %d further errors were left out and %d fetches of failing fields were skipped",
+                maxErrors, droppedErrorCount, skippedFetchCount);
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorType getErrorType() {
+        return ErrorType.ExecutionAborted;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        Map<String, Object> extensions = new LinkedHashMap<>();
+        extensions.put("maxErrors", maxErrors);
+        extensions.put("droppedErrors", droppedErrorCount);
+        extensions.put("skippedFetches", skippedFetchCount);
+        extensions.put("failingFields", map(failingFields, FieldCoordinates::toString));
+        return extensions;
+    }
+
+    @Override
+    public String toString() {
+        return "ErrorBudgetExceededError{" +
+                "maxErrors=" + maxErrors +
+                ", droppedErrorCount=" + droppedErrorCount +
+                ", skippedFetchCount=" + skippedFetchCount +
+                ", failingFields=" + failingFields +
+                '}';
+    }
+
+    @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+    @Override
+    public boolean equals(Object o) {
+        return GraphqlErrorHelper.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return GraphqlErrorHelper.hashCode(this);
+    }
+}
@@ -0,0 +1,256 @@
+package graphql.execution;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.Internal;
+import graphql.collect.ConcurrentAppendList;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The errors of an execution.  It puts only one error per field path when asked to and keeps at most
+ * {@link graphql.ExecutionInput#getMaxRepeatedErrors()} errors of the same {@link ErrorClassification} at the same field, ignoring the
+ * list indices of the path.  So when a backend fails for every element of a big list only the first few of those errors are kept
+ * and the rest are merely counted.
+ * <p>
+ * It also holds the error budget of {@link graphql.ExecutionInput#getMaxErrors()}.  Once the errors went over it, further errors
+ * are left out and the fields that failed so far are no longer fetched, which the single {@link ErrorBudgetExceededError} of
+ * {@link #getErrorBudgetError()} then stands for.
+ * <p>
+ * The paths of the errors are taken from {@link ResultPathAware} errors where possible, so they are not materialized here.
+ * <p>
+ * Errors are added by many threads at once, so nothing here takes a lock.  The errors go into a {@link ConcurrentAppendList}, which
+ * keeps them in the order they were added and gives out snapshots without copying them, the paths are deduped through a concurrent
+ * set and the repeated errors are counted per key.
+ */
+@Internal
+class ErrorCollection {
+
+    private final int maxRepeatedErrors;
+    private final int maxErrors;
+    private final ConcurrentAppendList<GraphQLError> errors;
+    private final Set<ResultPath> errorPaths = ConcurrentHashMap.newKeySet();
+    // null when repeated errors are not limited, in which case they need not be counted
+    private final ConcurrentHashMap<RepeatKey, Integer> repeatCounts;
+    private final AtomicInteger suppressedCount = new AtomicInteger();
+    // null when there is no error budget, in which case the failing fields need not be known
+    private final Set<FieldCoordinates> failingFields;
+    private volatile boolean budgetExceeded;
+    private final AtomicInteger droppedCount = new AtomicInteger();
+    private final AtomicInteger skippedFetchCount = new AtomicInteger();
+
+    ErrorCollection(List<GraphQLError> initialErrors, int maxRepeatedErrors, int maxErrors) {
+        this.errors = new ConcurrentAppendList<>(initialErrors);
+        this.maxRepeatedErrors = maxRepeatedErrors;
+        this.maxErrors = maxErrors;
+        this.repeatCounts = maxRepeatedErrors < Integer.MAX_VALUE ? new ConcurrentHashMap<>() : null;
+        this.failingFields = maxErrors < Integer.MAX_VALUE ? ConcurrentHashMap.newKeySet() : null;
+    }
+
+    /**
+     * Adds the error unless there is one for the field path already
+     */
+    void add(GraphQLError error, ResultPath fieldPath) {
+        if (!errorPaths.add(fieldPath)) {
+            return;
+        }
+        if (isRepeatAllowed(error, fieldPath)) {
+            addWithinBudget(error);
+        }
+    }
+
+    void add(GraphQLError error) {
+        ResultPath path = resultPathOf(error);
+        if (path != null) {
+            errorPaths.add(path);
+        }
+        if (isRepeatAllowed(error, path)) {
+            addWithinBudget(error);
+        }
+    }
+
+    void addAll(List<GraphQLError> newErrors) {
+        List<GraphQLError> allowedErrors = new ArrayList<>(newErrors.size());
+        for (GraphQLError error : newErrors) {
+            ResultPath path = resultPathOf(error);
+            if (path != null) {
+                errorPaths.add(path);
+            }
+            if (isRepeatAllowed(error, path)) {
+                allowedErrors.add(error);
+            }
+        }
+        // the errors of one data fetcher result stay next to each other
+        int addedCount = errors.tryAddAll(allowedErrors, maxErrors);
+        if (addedCount < allowedErrors.size()) {
+            budgetExceeded(allowedErrors.size() - addedCount);
+        }
+    }
+
+    /**
+     * @return an immutable snapshot of the errors, in the order they were added
+     */
+    List<GraphQLError> getErrors() {
+        return errors.snapshot();
+    }
+
+    /**
+     * @return the number of errors that were left out because there were too many of them at the same field
+     */
+    int getSuppressedCount() {
+        return suppressedCount.get();
+    }
+
+    /**
+     * @return true if an error happened at the path or below it, counting the errors that were left out as well.  Once the error
+     * budget is exceeded this is true for every path, since the fetches skipped from then on leave no error behind.
+     */
+    boolean hasErrorAtOrBelow(ResultPath path) {
+        if (budgetExceeded) {
+            return true;
+        }
+        if (errorPaths.isEmpty()) {
+            return false;
+        }
+        int hash = path.hashCode();
+        for (ResultPath errorPath : errorPaths) {
+            for (ResultPath p = errorPath; p != null; p = p.getParent()) {
+                if (p.hashCode() == hash && p.equals(path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remembers a field whose fetch failed, so its further fetches can be skipped once the error budget is exceeded
+     */
+    void fieldFetchFailed(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDefinition) {
+        if (failingFields != null) {
+            failingFields.add(FieldCoordinates.coordinates(parentType, fieldDefinition));
+        }
+    }
+
+    /**
+     * @return true if the error budget is exceeded and the field failed before, in which case the fetch is counted as skipped
+     */
+    boolean skipFetch(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDefinition) {
+        if (!budgetExceeded || !failingFields.contains(FieldCoordinates.coordinates(parentType, fieldDefinition))) {
+            return false;
+        }
+        skippedFetchCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return the error that sums up what was left out because of the error budget or null if the budget was not exceeded
+     */
+    GraphQLError getErrorBudgetError() {
+        if (!budgetExceeded) {
+            return null;
+        }
+        List<FieldCoordinates> fields = new ArrayList<>(failingFields);
+        fields.sort((a, b) -> a.toString().compareTo(b.toString()));
+        return new ErrorBudgetExceededError(maxErrors, droppedCount.get(), skippedFetchCount.get(), fields);
+    }
+
+    private void addWithinBudget(GraphQLError error) {
+        if (!errors.tryAdd(error, maxErrors)) {
+            budgetExceeded(1);
+        }
+    }
+
+    private void budgetExceeded(int droppedErrorCount) {
+        // counted before the flag is set, so whoever sees the flag sees the count too
+        droppedCount.addAndGet(droppedErrorCount);
+        budgetExceeded = true;
+    }
+
+    private boolean isRepeatAllowed(GraphQLError error, ResultPath path) {
+        if (repeatCounts == null || path == null) {
+            return true;
+        }
+        int count = repeatCounts.merge(new RepeatKey(path, error.getErrorType()), 1, Integer::sum);
+        if (count > maxRepeatedErrors) {
+            suppressedCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private static ResultPath resultPathOf(GraphQLError error) {
+        if (error instanceof ResultPathAware) {
+            return ((ResultPathAware) error).getResultPath();
+        }
+        List<Object> path = error.getPath();
+        return path != null ? ResultPath.fromList(path) : null;
+    }
+
+    /**
+     * The field of a result path, that is the path without its list indices, together with an error type.  It compares the
+     * segments of the paths rather than building a string for them.
+     */
+    private static class RepeatKey {
+        private final ResultPath path;
+        private final ErrorClassification errorType;
+        private final int hash;
+
+        private RepeatKey(ResultPath path, ErrorClassification errorType) {
+            this.path = path;
+            this.errorType = errorType;
+            int hash = Objects.hashCode(errorType);
+            for (ResultPath p = path; p != null && !p.isRootPath(); p = p.getParent()) {
+                if (p.isNamedSegment()) {
+                    hash = 31 * hash + p.getSegmentName().hashCode();
+                }
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RepeatKey)) {
+                return false;
+            }
+            RepeatKey that = (RepeatKey) o;
+            if (hash != that.hash || !Objects.equals(errorType, that.errorType)) {
+                return false;
+            }
+            ResultPath thisPath = namedSegment(path);
+            ResultPath thatPath = namedSegment(that.path);
+            while (thisPath != null && thatPath != null) {
+                if (!thisPath.getSegmentName().equals(thatPath.getSegmentName())) {
+                    return false;
+                }
+                thisPath = namedSegment(thisPath.getParent());
+                thatPath = namedSegment(thatPath.getParent());
+            }
+            return thisPath == null && thatPath == null;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        // the closest named segment at or above the path, or null at the root
+        private static ResultPath namedSegment(ResultPath path) {
+            while (path != null && !path.isRootPath() && !path.isNamedSegment()) {
+                path = path.getParent();
+            }
+            return path == null || path.isRootPath() ? null : path;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
 import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.language.Document;
 import graphql.language.FragmentDefinition;
 import graphql.language.NodeUtil;
@@ -22,10 +23,12 @@ import graphql.schema.impl.SchemaUtil;
 import graphql.util.LogKit;
 import org.slf4j.Logger;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
 
 import static graphql.execution.ExecutionContextBuilder.newExecutionContextBuilder;
 import static graphql.execution.ExecutionStepInfo.newExecutionStepInfo;
@@ -53,6 +56,14 @@ public class Execution {
     }
 
     public CompletableFuture<ExecutionResult> execute(Document document, GraphQLSchema graphQLSchema, ExecutionId executionId, ExecutionInput executionInput, InstrumentationState instrumentationState) {
+        return execute(document, null, graphQLSchema, executionId, executionInput, instrumentationState);
+    }
+
+    public CompletableFuture<ExecutionResult> execute(PreparsedDocumentEntry preparsedDocumentEntry, GraphQLSchema graphQLSchema, ExecutionId executionId, ExecutionInput executionInput, InstrumentationState instrumentationState) {
+        return execute(preparsedDocumentEntry.getDocument(), preparsedDocumentEntry, graphQLSchema, executionId, executionInput, instrumentationState);
+    }
+
+    private CompletableFuture<ExecutionResult> execute(Document document, PreparsedDocumentEntry preparsedDocumentEntry, GraphQLSchema graphQLSchema, ExecutionId executionId, ExecutionInput executionInput, InstrumentationState instrumentationState) {
 
         NodeUtil.GetOperationResult getOperationResult = NodeUtil.getOperation(document, executionInput.getOperationName());
         Map<String, FragmentDefinition> fragmentsByName = getOperationResult.fragmentsByName;
@@ -92,6 +103,8 @@ public class Execution {
                 .locale(executionInput.getLocale())
                 .valueUnboxer(valueUnboxer)
                 .executionInput(executionInput)
+                .preparsedDocumentEntry(preparsedDocumentEntry)
+                .cancellationToken(newCancellationToken(executionInput))
                 .build();
 
 
@@ -145,8 +158,15 @@ public class Execution {
                 .fields(fields)
                 .nonNullFieldValidator(nonNullableFieldValidator)
                 .path(path)
+                .cancellationToken(executionContext.getCancellationToken())
                 .build();
 
+        ScheduledFuture<?> timeout = null;
+        Duration timeoutDuration = executionContext.getExecutionInput() != null ? executionContext.getExecutionInput().getTimeout() : null;
+        if (timeoutDuration != null) {
+            timeout = executionContext.getCancellationToken().cancelAfter(timeoutDuration);
+        }
+
         CompletableFuture<ExecutionResult> result;
         try {
             ExecutionStrategy executionStrategy = executionContext.getStrategy(operation);
@@ -165,6 +185,16 @@ public class Execution {
             result = completedFuture(new ExecutionResultImpl(null, executionContext.getErrors()));
         }
 
+        if (timeout != null) {
+            ScheduledFuture<?> scheduledTimeout = timeout;
+            result.whenComplete((executionResult, throwable) -> scheduledTimeout.cancel(false));
+        }
+        // the token of the execution may be the child of a long-lived token of the caller, which must not keep anything of it
+        result = result.whenComplete((executionResult, throwable) -> executionContext.getCancellationToken().release());
+        result = result.thenApply(executionResult -> addCancellationError(executionContext, executionResult));
+        result = result.thenApply(executionResult -> addSuppressedErrorCount(executionContext, executionResult));
+        result = result.thenApply(executionResult -> addErrorBudgetError(executionContext, executionResult));
+
         // note this happens NOW - not when the result completes
         executeOperationCtx.onDispatched(result);
 
@@ -172,4 +202,35 @@ public class Execution {
 
         return result;
     }
+
+    private static CancellationToken newCancellationToken(ExecutionInput executionInput) {
+        CancellationToken inputToken = executionInput.getCancellationToken();
+        return inputToken != null ? inputToken.newChild() : CancellationToken.newCancellationToken();
+    }
+
+    private static ExecutionResult addCancellationError(ExecutionContext executionContext, ExecutionResult executionResult) {
+        Throwable reason = executionContext.getCancellationToken().getCancellationReason();
+        if (reason == null) {
+            return executionResult;
+        }
+        // fields that were not fetched because of the cancellation are null, so say why
+        GraphQLError error = reason instanceof GraphQLError ? (GraphQLError) reason : new AbortExecutionException(reason);
+        return executionResult.transform(builder -> builder.addError(error));
+    }
+
+    private static ExecutionResult addSuppressedErrorCount(ExecutionContext executionContext, ExecutionResult executionResult) {
+        int suppressedErrorCount = executionContext.getSuppressedErrorCount();
+        if (suppressedErrorCount == 0) {
+            return executionResult;
+        }
+        return executionResult.transform(builder -> builder.addExtension(ExecutionContext.SUPPRESSED_ERRORS_EXTENSION, suppressedErrorCount));
+    }
+
+    private static ExecutionResult addErrorBudgetError(ExecutionContext executionContext, ExecutionResult executionResult) {
+        GraphQLError error = executionContext.getErrorBudgetError();
+        if (error == null) {
+            return executionResult;
+        }
+        return executionResult.transform(builder -> builder.addError(error));
+    }
 }
@@ -1,32 +1,34 @@
 package graphql.execution;
 
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import graphql.DeprecatedAt;
 import graphql.ExecutionInput;
 import graphql.GraphQLContext;
 import graphql.GraphQLError;
+import graphql.Internal;
 import graphql.PublicApi;
+import graphql.analysis.QueryAnalysis;
 import graphql.cachecontrol.CacheControl;
 import graphql.collect.ImmutableKit;
 import graphql.execution.instrumentation.Instrumentation;
 import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.language.Document;
 import graphql.language.FragmentDefinition;
 import graphql.language.OperationDefinition;
 import graphql.normalized.ExecutableNormalizedOperation;
 import graphql.normalized.ExecutableNormalizedOperationFactory;
+import graphql.normalized.ParametricExecutableNormalizedOperation;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLSchema;
 import graphql.util.FpKit;
 import org.dataloader.DataLoaderRegistry;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -34,6 +36,11 @@ import java.util.function.Supplier;
 @PublicApi
 public class ExecutionContext {
 
+    /**
+     * The extension of the result that counts the errors left out because of {@link ExecutionInput#getMaxRepeatedErrors()}
+     */
+    public static final String SUPPRESSED_ERRORS_EXTENSION = "suppressedErrors";
+
     private final GraphQLSchema graphQLSchema;
     private final ExecutionId executionId;
     private final InstrumentationState instrumentationState;
@@ -49,14 +56,18 @@ public class ExecutionContext {
     private final GraphQLContext graphQLContext;
     private final Object localContext;
     private final Instrumentation instrumentation;
-    private final AtomicReference<ImmutableList<GraphQLError>> errors = new AtomicReference<>(ImmutableKit.emptyList());
-    private final Set<ResultPath> errorPaths = new HashSet<>();
+    private final ErrorCollection errors;
     private final DataLoaderRegistry dataLoaderRegistry;
     private final CacheControl cacheControl;
     private final Locale locale;
     private final ValueUnboxer valueUnboxer;
     private final ExecutionInput executionInput;
+    private final PreparsedDocumentEntry preparsedDocumentEntry;
+    private final Supplier<ParametricExecutableNormalizedOperation.Specialization> queryTreeSpecialization;
     private final Supplier<ExecutableNormalizedOperation> queryTree;
+    private final Supplier<Boolean> queryTreeCached;
+    private final Supplier<QueryAnalysis> queryAnalysis;
+    private final CancellationToken cancellationToken;
 
     ExecutionContext(ExecutionContextBuilder builder) {
         this.graphQLSchema = builder.graphQLSchema;
@@ -77,12 +88,90 @@ public class ExecutionContext {
         this.cacheControl = builder.cacheControl;
         this.locale = builder.locale;
         this.valueUnboxer = builder.valueUnboxer;
-        this.errors.set(builder.errors);
+        this.errors = new ErrorCollection(builder.errors, maxRepeatedErrors(builder.executionInput), maxErrors(builder.executionInput));
         this.localContext = builder.localContext;
         this.executionInput = builder.executionInput;
-        queryTree = FpKit.interThreadMemoize(() -> ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(graphQLSchema, operationDefinition, fragmentsByName, coercedVariables));
+        this.preparsedDocumentEntry = builder.preparsedDocumentEntry;
+        this.cancellationToken = builder.cancellationToken != null ? builder.cancellationToken : CancellationToken.newCancellationToken();
+        queryTreeSpecialization = FpKit.interThreadMemoize(this::specializeNormalizedOperation);
+        queryTree = FpKit.interThreadMemoize(this::createNormalizedOperation);
+        queryTreeCached = FpKit.interThreadMemoize(this::isNormalizedOperationCachedByEntry);
+        queryAnalysis = FpKit.interThreadMemoize(() -> QueryAnalysis.analyzeQuery(this));
     }
 
+    // the context of a subscription event shares everything but the root and the errors with the context of its subscription,
+    // including the normalized operation and the query analysis which are hence only calculated once per subscription
+    private ExecutionContext(ExecutionContext subscriptionContext, Object root) {
+        this.graphQLSchema = subscriptionContext.graphQLSchema;
+        this.executionId = subscriptionContext.executionId;
+        this.instrumentationState = subscriptionContext.instrumentationState;
+        this.queryStrategy = subscriptionContext.queryStrategy;
+        this.mutationStrategy = subscriptionContext.mutationStrategy;
+        this.subscriptionStrategy = subscriptionContext.subscriptionStrategy;
+        this.fragmentsByName = subscriptionContext.fragmentsByName;
+        this.coercedVariables = subscriptionContext.coercedVariables;
+        this.document = subscriptionContext.document;
+        this.operationDefinition = subscriptionContext.operationDefinition;
+        this.context = subscriptionContext.context;
+        this.graphQLContext = subscriptionContext.graphQLContext;
+        this.root = root;
+        this.instrumentation = subscriptionContext.instrumentation;
+        this.dataLoaderRegistry = subscriptionContext.dataLoaderRegistry;
+        this.cacheControl = subscriptionContext.cacheControl;
+        this.locale = subscriptionContext.locale;
+        this.valueUnboxer = subscriptionContext.valueUnboxer;
+        this.localContext = subscriptionContext.localContext;
+        this.executionInput = subscriptionContext.executionInput;
+        this.errors = new ErrorCollection(ImmutableKit.emptyList(), maxRepeatedErrors(executionInput), maxErrors(executionInput));
+        this.preparsedDocumentEntry = subscriptionContext.preparsedDocumentEntry;
+        this.cancellationToken = subscriptionContext.cancellationToken;
+        this.queryTreeSpecialization = subscriptionContext.queryTreeSpecialization;
+        this.queryTree = subscriptionContext.queryTree;
+        this.queryTreeCached = subscriptionContext.queryTreeCached;
+        this.queryAnalysis = subscriptionContext.queryAnalysis;
+    }
+
+    private static int maxRepeatedErrors(ExecutionInput executionInput) {
+        return executionInput != null ? executionInput.getMaxRepeatedErrors() : Integer.MAX_VALUE;
+    }
+
+    private static int maxErrors(ExecutionInput executionInput) {
+        return executionInput != null ? executionInput.getMaxErrors() : Integer.MAX_VALUE;
+    }
+
+    private ExecutableNormalizedOperation createNormalizedOperation() {
+        if (preparsedDocumentEntry == null) {
+            return ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(graphQLSchema, operationDefinition, fragmentsByName, coercedVariables);
+        }
+        return queryTreeSpecialization.get().getOperation();
+    }
+
+    private ParametricExecutableNormalizedOperation.Specialization specializeNormalizedOperation() {
+        if (preparsedDocumentEntry == null) {
+            return null;
+        }
+        // the document is shared between requests, so build the normalized operation once and specialise it per request
+        return ParametricExecutableNormalizedOperation
+                .getParametricExecutableNormalizedOperation(preparsedDocumentEntry, graphQLSchema, operationDefinition, fragmentsByName)
+                .specialization(coercedVariables);
+    }
+
+    /*
+     * The normalized operation of a document entry that an earlier execution has used is shared, while the one of an entry that is
+     * new, say every entry of the NoOpPreparsedDocumentProvider, would be built for this execution alone.  The parametric operation is
+     * created here so that the next execution of the same entry finds it, which costs a walk over the operation but not its
+     * normalization.
+     */
+    private boolean isNormalizedOperationCachedByEntry() {
+        if (preparsedDocumentEntry == null || operationDefinition == null) {
+            return false;
+        }
+        if (ParametricExecutableNormalizedOperation.getCachedParametricExecutableNormalizedOperation(preparsedDocumentEntry, graphQLSchema, operationDefinition) != null) {
+            return true;
+        }
+        ParametricExecutableNormalizedOperation.getParametricExecutableNormalizedOperation(preparsedDocumentEntry, graphQLSchema, operationDefinition, fragmentsByName);
+        return false;
+    }
 
     public ExecutionId getExecutionId() {
         return executionId;
@@ -92,6 +181,20 @@ public class ExecutionContext {
         return executionInput;
     }
 
+    /**
+     * @return the preparsed document entry this execution was started from or null if it was not given one
+     */
+    public PreparsedDocumentEntry getPreparsedDocumentEntry() {
+        return preparsedDocumentEntry;
+    }
+
+    /**
+     * @return the cancellation token of the whole execution
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
     public InstrumentationState getInstrumentationState() {
         return instrumentationState;
     }
@@ -187,17 +290,12 @@ public class ExecutionContext {
      * @param fieldPath the field path to put it under
      */
     public void addError(GraphQLError error, ResultPath fieldPath) {
-        synchronized (this) {
-            //
-            // see https://spec.graphql.org/October2021/#sec-Handling-Field-Errors about how per
-            // field errors should be handled - ie only once per field if it's already there for nullability
-            // but unclear if it's not that error path
-            //
-            if (!errorPaths.add(fieldPath)) {
-                return;
-            }
-            this.errors.set(ImmutableKit.addToList(this.errors.get(), error));
-        }
+        //
+        // see https://spec.graphql.org/October2021/#sec-Handling-Field-Errors about how per
+        // field errors should be handled - ie only once per field if it's already there for nullability
+        // but unclear if it's not that error path
+        //
+        errors.add(error, fieldPath);
     }
 
     /**
@@ -207,16 +305,10 @@ public class ExecutionContext {
      * @param error the error to add
      */
     public void addError(GraphQLError error) {
-        synchronized (this) {
-            // see https://github.com/graphql-java/graphql-java/issues/888 on how the spec is unclear
-            // on how exactly multiple errors should be handled - ie only once per field or not outside the nullability
-            // aspect.
-            if (error.getPath() != null) {
-                ResultPath path = ResultPath.fromList(error.getPath());
-                this.errorPaths.add(path);
-            }
-            this.errors.set(ImmutableKit.addToList(this.errors.get(), error));
-        }
+        // see https://github.com/graphql-java/graphql-java/issues/888 on how the spec is unclear
+        // on how exactly multiple errors should be handled - ie only once per field or not outside the nullability
+        // aspect.
+        errors.add(error);
     }
 
     /**
@@ -229,29 +321,49 @@ public class ExecutionContext {
         if (errors.isEmpty()) {
             return;
         }
-        // we are synchronised because we set two fields at once - but we only ever read one of them later
-        // in getErrors so no need for synchronised there.
-        synchronized (this) {
-            Set<ResultPath> newErrorPaths = new HashSet<>();
-            for (GraphQLError error : errors) {
-                // see https://github.com/graphql-java/graphql-java/issues/888 on how the spec is unclear
-                // on how exactly multiple errors should be handled - ie only once per field or not outside the nullability
-                // aspect.
-                if (error.getPath() != null) {
-                    ResultPath path = ResultPath.fromList(error.getPath());
-                    newErrorPaths.add(path);
-                }
-            }
-            this.errorPaths.addAll(newErrorPaths);
-            this.errors.set(ImmutableKit.concatLists(this.errors.get(), errors));
-        }
+        this.errors.addAll(errors);
     }
 
     /**
      * @return the total list of errors for this execution context
      */
     public List<GraphQLError> getErrors() {
-        return errors.get();
+        return errors.getErrors();
+    }
+
+    /**
+     * @return the number of errors that were left out because more than {@link ExecutionInput#getMaxRepeatedErrors()} errors of the
+     * same type happened at the same field
+     */
+    public int getSuppressedErrorCount() {
+        return errors.getSuppressedCount();
+    }
+
+    /**
+     * @return the error that sums up the errors left out because of {@link ExecutionInput#getMaxErrors()} or null if the execution
+     * stayed within that budget
+     */
+    public GraphQLError getErrorBudgetError() {
+        return errors.getErrorBudgetError();
+    }
+
+    /**
+     * @param path the path of a field
+     *
+     * @return true if an error happened at the path or below it, including the errors that were left out of {@link #getErrors()}, or
+     * if the execution went over its {@link ExecutionInput#getMaxErrors()} budget
+     */
+    @Internal
+    public boolean hasErrorAtOrBelow(ResultPath path) {
+        return errors.hasErrorAtOrBelow(path);
+    }
+
+    void fieldFetchFailed(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDefinition) {
+        errors.fieldFetchFailed(parentType, fieldDefinition);
+    }
+
+    boolean isFetchSkippedByErrorBudget(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDefinition) {
+        return errors.skipFetch(parentType, fieldDefinition);
     }
 
     public ExecutionStrategy getQueryStrategy() { return queryStrategy; }
@@ -278,6 +390,29 @@ public class ExecutionContext {
         return queryTree;
     }
 
+    /**
+     * @return true if the normalized operation of this execution comes from a document entry that earlier executions used, in which
+     * case it is cheap to get, rather than being built for this execution alone.  The answer is the same for the whole execution.
+     */
+    boolean isNormalizedQueryTreeCached() {
+        return queryTreeCached.get();
+    }
+
+    /**
+     * @return the specialization the normalized operation of this execution was made from or null if the operation does not come
+     * from a document entry
+     */
+    ParametricExecutableNormalizedOperation.Specialization getNormalizedQueryTreeSpecialization() {
+        return queryTreeSpecialization.get();
+    }
+
+    /**
+     * @return a supplier of the {@link QueryAnalysis} of the operation, which is only calculated once per execution
+     */
+    public Supplier<QueryAnalysis> getQueryAnalysis() {
+        return queryAnalysis;
+    }
+
     /**
      * This helps you transform the current ExecutionContext object into another one by starting a builder with all
      * the current values and allows you to transform it how you want.
@@ -291,4 +426,16 @@ public class ExecutionContext {
         builderConsumer.accept(builder);
         return builder.build();
     }
+
+    /**
+     * This is the same as {@code transform(builder -> builder.root(root).resetErrors())} but is cheaper since the new context
+     * shares the lazily calculated values of this one
+     *
+     * @param root the root object of the subscription event
+     *
+     * @return a new ExecutionContext object for the subscription event
+     */
+    ExecutionContext forSubscriptionEvent(Object root) {
+        return new ExecutionContext(this, root);
+    }
 }
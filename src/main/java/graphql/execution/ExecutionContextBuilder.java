@@ -12,6 +12,7 @@ import graphql.cachecontrol.CacheControl;
 import graphql.collect.ImmutableKit;
 import graphql.execution.instrumentation.Instrumentation;
 import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.language.Document;
 import graphql.language.FragmentDefinition;
 import graphql.language.OperationDefinition;
@@ -48,6 +49,8 @@ public class ExecutionContextBuilder {
     ValueUnboxer valueUnboxer;
     Object localContext;
     ExecutionInput executionInput;
+    PreparsedDocumentEntry preparsedDocumentEntry;
+    CancellationToken cancellationToken;
 
     /**
      * @return a new builder of {@link graphql.execution.ExecutionContext}s
@@ -94,6 +97,8 @@ public class ExecutionContextBuilder {
         errors = ImmutableList.copyOf(other.getErrors());
         valueUnboxer = other.getValueUnboxer();
         executionInput = other.getExecutionInput();
+        preparsedDocumentEntry = other.getPreparsedDocumentEntry();
+        cancellationToken = other.getCancellationToken();
     }
 
     public ExecutionContextBuilder instrumentation(Instrumentation instrumentation) {
@@ -216,6 +221,16 @@ public class ExecutionContextBuilder {
         return this;
     }
 
+    public ExecutionContextBuilder preparsedDocumentEntry(PreparsedDocumentEntry preparsedDocumentEntry) {
+        this.preparsedDocumentEntry = preparsedDocumentEntry;
+        return this;
+    }
+
+    public ExecutionContextBuilder cancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
     public ExecutionContextBuilder resetErrors() {
         this.errors = emptyList();
         return this;
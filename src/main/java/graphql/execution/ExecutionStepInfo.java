@@ -78,6 +78,30 @@ public class ExecutionStepInfo {
         this.fieldContainer = builder.fieldContainer;
     }
 
+    private ExecutionStepInfo(ExecutionStepInfo listInfo, GraphQLOutputType typeInList, ResultPath indexedPath) {
+        // a list element shares the field data of the field returning the list
+        this.fieldDefinition = listInfo.fieldDefinition;
+        this.field = listInfo.field;
+        this.fieldContainer = listInfo.fieldContainer;
+        this.arguments = listInfo.arguments;
+        this.path = indexedPath;
+        this.parent = listInfo;
+        this.type = typeInList;
+    }
+
+    /**
+     * Creates the step info of an element of the list this step info is for, without going through a builder since there can be
+     * very many of them
+     *
+     * @param typeInList  the type of the element
+     * @param indexedPath the path of the element
+     *
+     * @return a new step info
+     */
+    ExecutionStepInfo newListElementStepInfo(GraphQLOutputType typeInList, ResultPath indexedPath) {
+        return new ExecutionStepInfo(this, assertNotNull(typeInList, () -> "you must provide a graphql type"), indexedPath);
+    }
+
     /**
      * @return the GraphQLObjectType defining the {@link #getFieldDefinition()}
      *
@@ -44,13 +44,13 @@ public class ExecutionStepInfoFactory {
     }
 
     public ExecutionStepInfo newExecutionStepInfoForListElement(ExecutionStepInfo executionInfo, int index) {
+        return newExecutionStepInfoForListElement(executionInfo, executionInfo.getPath().segment(index));
+    }
+
+    public ExecutionStepInfo newExecutionStepInfoForListElement(ExecutionStepInfo executionInfo, ResultPath indexedPath) {
         GraphQLList fieldType = (GraphQLList) executionInfo.getUnwrappedNonNullType();
         GraphQLOutputType typeInList = (GraphQLOutputType) fieldType.getWrappedType();
-        ResultPath indexedPath = executionInfo.getPath().segment(index);
-        return executionInfo.transform(builder -> builder
-                .parentInfo(executionInfo)
-                .type(typeInList)
-                .path(indexedPath));
+        return executionInfo.newListElementStepInfo(typeInList, indexedPath);
     }
 
 }
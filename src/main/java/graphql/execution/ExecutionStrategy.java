@@ -10,6 +10,7 @@ import graphql.SerializationError;
 import graphql.TrivialDataFetcher;
 import graphql.TypeMismatchError;
 import graphql.UnresolvedTypeError;
+import graphql.cachecontrol.FieldResultCache;
 import graphql.collect.ImmutableKit;
 import graphql.execution.directives.QueryDirectives;
 import graphql.execution.directives.QueryDirectivesImpl;
@@ -42,6 +43,7 @@ import graphql.util.LogKit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -49,6 +51,8 @@ import java.util.Map;
 import java.util.OptionalInt;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -151,6 +155,15 @@ public abstract class ExecutionStrategy {
         this.dataFetcherExceptionHandler = dataFetcherExceptionHandler;
     }
 
+    /**
+     * A strategy that has a {@link FieldResultCache} takes the results of cacheable fields from an earlier execution
+     *
+     * @return the cache of field results or null if this strategy has none
+     */
+    protected FieldResultCache getFieldResultCache() {
+        return null;
+    }
+
     /**
      * This is the entry point to an execution strategy.  It will be passed the fields to execute and get values for.
      *
@@ -208,6 +221,17 @@ public abstract class ExecutionStrategy {
                 new InstrumentationFieldParameters(executionContext, executionStepInfo), executionContext.getInstrumentationState()
         ));
 
+        FieldResultCache fieldResultCache = getFieldResultCache();
+        FieldResultCache.Key cacheKey = null;
+        if (fieldResultCache != null) {
+            GraphQLObjectType parentType = (GraphQLObjectType) parameters.getExecutionStepInfo().getUnwrappedNonNullType();
+            cacheKey = fieldResultCache.cacheKey(executionContext, parameters, parentType, fieldDef, executionStepInfo);
+            Object cachedValue = cacheKey != null ? fieldResultCache.get(cacheKey) : null;
+            if (cachedValue != null) {
+                return completeFieldFromCache(cachedValue, fieldCtx);
+            }
+        }
+
         CompletableFuture<FetchedValue> fetchFieldFuture = fetchField(executionContext, parameters);
         CompletableFuture<FieldValueInfo> result = fetchFieldFuture.thenApply((fetchedValue) ->
                 completeField(executionContext, parameters, fetchedValue));
@@ -216,9 +240,33 @@ public abstract class ExecutionStrategy {
 
         fieldCtx.onDispatched(executionResultFuture);
         executionResultFuture.whenComplete(fieldCtx::onCompleted);
+        if (cacheKey != null) {
+            FieldResultCache.Key key = cacheKey;
+            executionResultFuture.thenAccept(executionResult -> {
+                // the fields of a cancelled execution are completed with null rather than failed, so the result is not what it seems
+                if (!parameters.getCancellationToken().isCancelled()) {
+                    fieldResultCache.put(executionContext, parameters.getPath(), key, executionResult);
+                }
+            });
+        }
         return result;
     }
 
+    /*
+     * A cached field is neither fetched nor completed again.  Its value is a finished subtree, so to the rest of the execution
+     * it looks like a scalar with no fields below it.
+     */
+    private CompletableFuture<FieldValueInfo> completeFieldFromCache(Object cachedValue, InstrumentationContext<ExecutionResult> fieldCtx) {
+        ExecutionResult executionResult = new ExecutionResultImpl(cachedValue, ImmutableKit.emptyList());
+        CompletableFuture<ExecutionResult> executionResultFuture = CompletableFuture.completedFuture(executionResult);
+        fieldCtx.onDispatched(executionResultFuture);
+        fieldCtx.onCompleted(executionResult, null);
+        FieldValueInfo fieldValueInfo = FieldValueInfo.newFieldValueInfo(FieldValueInfo.CompleteValueType.SCALAR)
+                .fieldValue(executionResultFuture)
+                .build();
+        return CompletableFuture.completedFuture(fieldValueInfo);
+    }
+
     /**
      * Called to fetch a value for a field from the {@link DataFetcher} associated with the field
      * {@link GraphQLFieldDefinition}.
@@ -234,13 +282,26 @@ public abstract class ExecutionStrategy {
      * @throws NonNullableFieldWasNullException in the future if a non null field resolves to a null value
      */
     protected CompletableFuture<FetchedValue> fetchField(ExecutionContext executionContext, ExecutionStrategyParameters parameters) {
+        if (parameters.getCancellationToken().isCancelled()) {
+            // the value would be thrown away so don't fetch it
+            return CompletableFuture.completedFuture(unboxPossibleDataFetcherResult(executionContext, parameters, null));
+        }
         MergedField field = parameters.getField();
         GraphQLObjectType parentType = (GraphQLObjectType) parameters.getExecutionStepInfo().getUnwrappedNonNullType();
         GraphQLFieldDefinition fieldDef = getFieldDef(executionContext.getGraphQLSchema(), parentType, field.getSingleField());
+        if (executionContext.isFetchSkippedByErrorBudget(parentType, fieldDef)) {
+            // the field already failed and the error budget is spent, so it is not fetched again
+            return CompletableFuture.completedFuture(unboxPossibleDataFetcherResult(executionContext, parameters, null));
+        }
 
         GraphQLCodeRegistry codeRegistry = executionContext.getGraphQLSchema().getCodeRegistry();
         GraphQLOutputType fieldType = fieldDef.getType();
 
+        // a field with a timeout gets a token of its own so that the timeout only cancels this fetch
+        CancellationToken objectToken = parameters.getCancellationToken();
+        Duration fieldTimeout = codeRegistry.getFieldTimeout(parentType, fieldDef);
+        CancellationToken fieldToken = fieldTimeout != null ? objectToken.newChild() : objectToken;
+
         // if the DF (like PropertyDataFetcher) does not use the arguments of execution step info then dont build any
         Supplier<ExecutionStepInfo> executionStepInfo = FpKit.intraThreadMemoize(
                 () -> createExecutionStepInfo(executionContext, parameters, fieldDef, parentType));
@@ -268,6 +329,7 @@ public abstract class ExecutionStrategy {
                 .parentType(parentType)
                 .selectionSet(fieldCollector)
                 .queryDirectives(queryDirectives)
+                .cancellationToken(fieldToken)
                 .build();
 
         DataFetcher<?> dataFetcher = codeRegistry.getDataFetcher(parentType, fieldDef);
@@ -282,6 +344,11 @@ public abstract class ExecutionStrategy {
         CompletableFuture<Object> fetchedValue;
         dataFetcher = instrumentation.instrumentDataFetcher(dataFetcher, instrumentationFieldFetchParams, executionContext.getInstrumentationState());
         ExecutionId executionId = executionContext.getExecutionId();
+        ScheduledFuture<?> fieldTimer = null;
+        if (fieldTimeout != null) {
+            fieldTimer = fieldToken.cancelAfter(fieldTimeout, () -> new TimeoutException(
+                    "The field '" + parentType.getName() + "." + fieldDef.getName() + "' timed out after " + fieldTimeout.toMillis() + "ms"));
+        }
         try {
             Object fetchedValueRaw = dataFetcher.get(environment);
             fetchedValue = Async.toCompletableFuture(fetchedValueRaw);
@@ -293,13 +360,20 @@ public abstract class ExecutionStrategy {
             fetchedValue = new CompletableFuture<>();
             fetchedValue.completeExceptionally(e);
         }
+        if (fieldTimer != null || objectToken.getRemainingTime() != null) {
+            fetchedValue = completeOnCancel(fetchedValue, objectToken, fieldToken, fieldTimer);
+        }
         fetchCtx.onDispatched(fetchedValue);
         return fetchedValue
                 .handle((result, exception) -> {
                     fetchCtx.onCompleted(result, exception);
                     if (exception != null) {
+                        executionContext.fieldFetchFailed(parentType, fieldDef);
                         return handleFetchingException(executionContext, environment, exception);
                     } else {
+                        if (result instanceof DataFetcherResult && ((DataFetcherResult<?>) result).hasErrors()) {
+                            executionContext.fieldFetchFailed(parentType, fieldDef);
+                        }
                         return CompletableFuture.completedFuture(result);
                     }
                 })
@@ -307,6 +381,41 @@ public abstract class ExecutionStrategy {
                 .thenApply(result -> unboxPossibleDataFetcherResult(executionContext, parameters, result));
     }
 
+    /*
+     * A fetch that is still running when its token is cancelled is not waited for.  A field timeout fails the field, while the
+     * cancellation of the execution or the object nulls it out quietly since the reason for that is reported elsewhere.
+     */
+    @SuppressWarnings("FutureReturnValueIgnored")
+    private CompletableFuture<Object> completeOnCancel(CompletableFuture<Object> fetchedValue, CancellationToken objectToken, CancellationToken fieldToken, ScheduledFuture<?> fieldTimer) {
+        if (fetchedValue.isDone()) {
+            if (fieldTimer != null) {
+                fieldTimer.cancel(false);
+            }
+            return fetchedValue;
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        CancellationToken.Registration registration = fieldToken.onCancel(() -> {
+            if (objectToken.isCancelled()) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(fieldToken.getCancellationReason());
+            }
+        });
+        // the callback is removed once the fetch is done, so the tokens do not collect one for every fetch there ever was
+        fetchedValue.whenComplete((value, exception) -> {
+            registration.remove();
+            if (fieldTimer != null) {
+                fieldTimer.cancel(false);
+            }
+            if (exception != null) {
+                result.completeExceptionally(exception);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
     protected Supplier<ExecutableNormalizedField> getNormalizedField(ExecutionContext executionContext, ExecutionStrategyParameters parameters, Supplier<ExecutionStepInfo> executionStepInfo) {
         Supplier<ExecutableNormalizedOperation> normalizedQuery = executionContext.getNormalizedQueryTree();
         return () -> normalizedQuery.get().getNormalizedField(parameters.getField(), executionStepInfo.get().getObjectType(), executionStepInfo.get().getPath());
@@ -395,7 +504,7 @@ public abstract class ExecutionStrategy {
                 instrumentationParams, executionContext.getInstrumentationState()
         ));
 
-        NonNullableFieldValidator nonNullableFieldValidator = new NonNullableFieldValidator(executionContext, executionStepInfo);
+        NonNullableFieldValidator nonNullableFieldValidator = new NonNullableFieldValidator(executionContext, executionStepInfo, parameters.getCancellationToken());
 
         ExecutionStrategyParameters newParameters = parameters.transform(builder ->
                 builder.executionStepInfo(executionStepInfo)
@@ -534,9 +643,9 @@ public abstract class ExecutionStrategy {
         for (Object item : iterableValues) {
             ResultPath indexedPath = parameters.getPath().segment(index);
 
-            ExecutionStepInfo stepInfoForListElement = executionStepInfoFactory.newExecutionStepInfoForListElement(executionStepInfo, index);
+            ExecutionStepInfo stepInfoForListElement = executionStepInfoFactory.newExecutionStepInfoForListElement(executionStepInfo, indexedPath);
 
-            NonNullableFieldValidator nonNullableFieldValidator = new NonNullableFieldValidator(executionContext, stepInfoForListElement);
+            NonNullableFieldValidator nonNullableFieldValidator = new NonNullableFieldValidator(executionContext, stepInfoForListElement, parameters.getCancellationToken());
 
             int finalIndex = index;
             FetchedValue value = unboxPossibleDataFetcherResult(executionContext, parameters, item);
@@ -645,17 +754,10 @@ public abstract class ExecutionStrategy {
     protected CompletableFuture<ExecutionResult> completeValueForObject(ExecutionContext executionContext, ExecutionStrategyParameters parameters, GraphQLObjectType resolvedObjectType, Object result) {
         ExecutionStepInfo executionStepInfo = parameters.getExecutionStepInfo();
 
-        FieldCollectorParameters collectorParameters = newParameters()
-                .schema(executionContext.getGraphQLSchema())
-                .objectType(resolvedObjectType)
-                .fragments(executionContext.getFragmentsByName())
-                .variables(executionContext.getCoercedVariables().toMap())
-                .build();
-
-        MergedSelectionSet subFields = fieldCollector.collectFields(collectorParameters, parameters.getField());
+        MergedSelectionSet subFields = collectSubFields(executionContext, parameters, resolvedObjectType);
 
         ExecutionStepInfo newExecutionStepInfo = executionStepInfo.changeTypeWithPreservedNonNull(resolvedObjectType);
-        NonNullableFieldValidator nonNullableFieldValidator = new NonNullableFieldValidator(executionContext, newExecutionStepInfo);
+        NonNullableFieldValidator nonNullableFieldValidator = new NonNullableFieldValidator(executionContext, newExecutionStepInfo, parameters.getCancellationToken());
 
         ExecutionStrategyParameters newParameters = parameters.transform(builder ->
                 builder.executionStepInfo(newExecutionStepInfo)
@@ -669,6 +771,26 @@ public abstract class ExecutionStrategy {
         return executionContext.getQueryStrategy().execute(executionContext, newParameters);
     }
 
+    /**
+     * Called to collect the sub fields of the current field for the resolved object type
+     *
+     * @param executionContext   contains the top level execution parameters
+     * @param parameters         contains the parameters holding the field to collect the sub fields of
+     * @param resolvedObjectType the resolved object type
+     *
+     * @return the sub fields to execute
+     */
+    protected MergedSelectionSet collectSubFields(ExecutionContext executionContext, ExecutionStrategyParameters parameters, GraphQLObjectType resolvedObjectType) {
+        FieldCollectorParameters collectorParameters = newParameters()
+                .schema(executionContext.getGraphQLSchema())
+                .objectType(resolvedObjectType)
+                .fragments(executionContext.getFragmentsByName())
+                .variables(executionContext.getCoercedVariables().toMap())
+                .build();
+
+        return fieldCollector.collectFields(collectorParameters, parameters.getField());
+    }
+
     @SuppressWarnings("SameReturnValue")
     private Object handleCoercionProblem(ExecutionContext context, ExecutionStrategyParameters parameters, CoercingSerializeException e) {
         SerializationError error = new SerializationError(parameters.getPath(), e);
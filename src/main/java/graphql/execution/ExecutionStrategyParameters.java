@@ -22,6 +22,7 @@ public class ExecutionStrategyParameters {
     private final int listSize;
     private final int currentListIndex;
     private final ExecutionStrategyParameters parent;
+    private final CancellationToken cancellationToken;
 
     private ExecutionStrategyParameters(ExecutionStepInfo executionStepInfo,
                                         Object source,
@@ -32,7 +33,8 @@ public class ExecutionStrategyParameters {
                                         MergedField currentField,
                                         int listSize,
                                         int currentListIndex,
-                                        ExecutionStrategyParameters parent) {
+                                        ExecutionStrategyParameters parent,
+                                        CancellationToken cancellationToken) {
 
         this.executionStepInfo = assertNotNull(executionStepInfo, () -> "executionStepInfo is null");
         this.localContext = localContext;
@@ -44,6 +46,7 @@ public class ExecutionStrategyParameters {
         this.listSize = listSize;
         this.currentListIndex = currentListIndex;
         this.parent = parent;
+        this.cancellationToken = cancellationToken != null ? cancellationToken : CancellationToken.newCancellationToken();
     }
 
     public ExecutionStepInfo getExecutionStepInfo() {
@@ -82,6 +85,13 @@ public class ExecutionStrategyParameters {
         return parent;
     }
 
+    /**
+     * @return the cancellation token of the object the current fields belong to
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
     /**
      * This returns the current field in its query representations.
      *
@@ -122,6 +132,7 @@ public class ExecutionStrategyParameters {
         int listSize;
         int currentListIndex;
         ExecutionStrategyParameters parent;
+        CancellationToken cancellationToken;
 
         /**
          * @see ExecutionStrategyParameters#newParameters()
@@ -143,6 +154,7 @@ public class ExecutionStrategyParameters {
             this.parent = oldParameters.parent;
             this.listSize = oldParameters.listSize;
             this.currentListIndex = oldParameters.currentListIndex;
+            this.cancellationToken = oldParameters.cancellationToken;
         }
 
         public Builder executionStepInfo(ExecutionStepInfo executionStepInfo) {
@@ -201,8 +213,13 @@ public class ExecutionStrategyParameters {
         }
 
 
+        public Builder cancellationToken(CancellationToken cancellationToken) {
+            this.cancellationToken = cancellationToken;
+            return this;
+        }
+
         public ExecutionStrategyParameters build() {
-            return new ExecutionStrategyParameters(executionStepInfo, source, localContext, fields, nonNullableFieldValidator, path, currentField, listSize, currentListIndex, parent);
+            return new ExecutionStrategyParameters(executionStepInfo, source, localContext, fields, nonNullableFieldValidator, path, currentField, listSize, currentListIndex, parent, cancellationToken);
         }
     }
 }
@@ -14,10 +14,16 @@ public class NonNullableFieldValidator {
 
     private final ExecutionContext executionContext;
     private final ExecutionStepInfo executionStepInfo;
+    private final CancellationToken cancellationToken;
 
     public NonNullableFieldValidator(ExecutionContext executionContext, ExecutionStepInfo executionStepInfo) {
+        this(executionContext, executionStepInfo, null);
+    }
+
+    public NonNullableFieldValidator(ExecutionContext executionContext, ExecutionStepInfo executionStepInfo, CancellationToken cancellationToken) {
         this.executionContext = executionContext;
         this.executionStepInfo = executionStepInfo;
+        this.cancellationToken = cancellationToken;
     }
 
     /**
@@ -46,8 +52,13 @@ public class NonNullableFieldValidator {
                 //
                 // We will do this until the spec makes this more explicit.
                 //
+                // A field that was not fetched because of a cancellation still nulls out its parent, but the cancellation
+                // reason is the error that explains it and so no error is added per field.
+                //
                 NonNullableFieldWasNullException nonNullException = new NonNullableFieldWasNullException(executionStepInfo, path);
-                executionContext.addError(new NonNullableFieldWasNullError(nonNullException), path);
+                if (cancellationToken == null || !cancellationToken.isCancelled()) {
+                    executionContext.addError(new NonNullableFieldWasNullError(nonNullException), path);
+                }
                 throw nonNullException;
             }
         }
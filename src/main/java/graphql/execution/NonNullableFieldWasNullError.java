@@ -14,14 +14,16 @@ import java.util.List;
  * @see graphql.execution.NonNullableFieldWasNullException for details
  */
 @Internal
-public class NonNullableFieldWasNullError implements GraphQLError {
+public class NonNullableFieldWasNullError implements GraphQLError, ResultPathAware {
 
     private final String message;
-    private final List<Object> path;
+    private final ResultPath resultPath;
+    // effectively immutable but only materialized when asked for
+    private List<Object> path;
 
     public NonNullableFieldWasNullError(NonNullableFieldWasNullException exception) {
         this.message = exception.getMessage();
-        this.path = exception.getPath().toList();
+        this.resultPath = exception.getPath();
     }
 
     @Override
@@ -31,9 +33,19 @@ public class NonNullableFieldWasNullError implements GraphQLError {
 
     @Override
     public List<Object> getPath() {
+        List<Object> path = this.path;
+        if (path == null) {
+            path = resultPath.toList();
+            this.path = path;
+        }
         return path;
     }
 
+    @Override
+    public ResultPath getResultPath() {
+        return resultPath;
+    }
+
     @Override
     public List<SourceLocation> getLocations() {
         return null;
@@ -48,7 +60,7 @@ public class NonNullableFieldWasNullError implements GraphQLError {
     public String toString() {
         return "NonNullableFieldWasNullError{" +
                 "message='" + message + '\'' +
-                ", path=" + path +
+                ", path=" + getPath() +
                 '}';
     }
 
@@ -0,0 +1,166 @@
+package graphql.execution;
+
+import com.google.common.collect.MapMaker;
+import graphql.ExecutionResult;
+import graphql.PublicApi;
+import graphql.cachecontrol.FieldResultCache;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.normalized.ParametricExecutableNormalizedOperation;
+import graphql.schema.GraphQLObjectType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * An {@link AsyncExecutionStrategy} that executes from the {@link ExecutableNormalizedOperation} of the request rather than
+ * collecting the sub fields of every object value again.
+ * <p>
+ * The sub fields of a field are collected once per resolved object type and remembered together with the
+ * {@link ExecutableNormalizedField} of every sub field.  A list of a thousand objects hence only collects its sub fields once per
+ * object type, and the normalized field of a step is known without searching for it.
+ * <p>
+ * What is remembered belongs to the shared normalized operation the one of the request was specialized from.  Combined with a
+ * {@link graphql.execution.preparsed.PreparsedDocumentProvider} that caches documents, that normalized operation is shared by the requests
+ * that have the same values for the variables used in {@code @skip} and {@code @include}, whatever the variables of their field arguments,
+ * which means field collection is taken out of the hot path of repeated queries entirely.  The normalized fields handed to the data fetchers
+ * are still the ones of the request, with its arguments.
+ * <p>
+ * Building a normalized operation costs more than collecting the fields of a single execution, so it is only used when it is
+ * cached, that is when an earlier execution used the same document entry.  Otherwise, say with the default
+ * {@link graphql.execution.preparsed.NoOpPreparsedDocumentProvider} that parses every request anew, or when an operation has more
+ * combinations of conditions than {@link graphql.normalized.ParametricExecutableNormalizedOperation#MAX_CACHED_OPERATIONS}, this strategy
+ * collects fields as the {@link AsyncExecutionStrategy} does.
+ * <p>
+ * Like the {@link AsyncExecutionStrategy} this is meant for queries and not for mutations.
+ */
+@PublicApi
+public class NormalizedOperationExecutionStrategy extends AsyncExecutionStrategy {
+
+    // weak identity keys so the remembered selections go away with the shared normalized operation
+    private final ConcurrentMap<ExecutableNormalizedOperation, NormalizedSelections> selectionsByOperation = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Creates a normalized operation execution strategy
+     */
+    public NormalizedOperationExecutionStrategy() {
+        super();
+    }
+
+    /**
+     * Creates a normalized operation execution strategy that uses the provided exception handler
+     *
+     * @param exceptionHandler the exception handler to use
+     */
+    public NormalizedOperationExecutionStrategy(DataFetcherExceptionHandler exceptionHandler) {
+        super(exceptionHandler);
+    }
+
+    /**
+     * Creates a normalized operation execution strategy that uses the provided exception handler and takes the results of
+     * cacheable fields from the provided cache
+     *
+     * @param exceptionHandler the exception handler to use
+     * @param fieldResultCache the cache of field results
+     */
+    public NormalizedOperationExecutionStrategy(DataFetcherExceptionHandler exceptionHandler, FieldResultCache fieldResultCache) {
+        super(exceptionHandler, fieldResultCache);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> execute(ExecutionContext executionContext, ExecutionStrategyParameters parameters) throws NonNullableFieldWasNullException {
+        NormalizedSelections selections = parameters.getPath().isRootPath() ? getSelections(executionContext) : null;
+        if (selections != null) {
+            GraphQLObjectType rootType = (GraphQLObjectType) parameters.getExecutionStepInfo().getUnwrappedNonNullType();
+            ExecutableNormalizedOperation template = executionContext.getNormalizedQueryTreeSpecialization().getTemplate();
+            MergedSelectionSet topLevelFields = selections.topLevelFields.computeIfAbsent(rootType.getName(),
+                    typeName -> selections.register(parameters.getFields(), template.getTopLevelFields(), typeName));
+            return super.execute(executionContext, parameters.transform(builder -> builder.fields(topLevelFields)));
+        }
+        return super.execute(executionContext, parameters);
+    }
+
+    @Override
+    protected MergedSelectionSet collectSubFields(ExecutionContext executionContext, ExecutionStrategyParameters parameters, GraphQLObjectType resolvedObjectType) {
+        NormalizedSelections selections = getSelections(executionContext);
+        if (selections == null) {
+            return super.collectSubFields(executionContext, parameters, resolvedObjectType);
+        }
+        NormalizedFieldInfo fieldInfo = selections.fieldInfos.get(parameters.getField());
+        if (fieldInfo == null) {
+            // a field that was not collected by this strategy, say below a mutation field
+            return super.collectSubFields(executionContext, parameters, resolvedObjectType);
+        }
+        return fieldInfo.subFields.computeIfAbsent(resolvedObjectType.getName(),
+                typeName -> selections.register(super.collectSubFields(executionContext, parameters, resolvedObjectType), fieldInfo.normalizedField.getChildren(), typeName));
+    }
+
+    @Override
+    protected Supplier<ExecutableNormalizedField> getNormalizedField(ExecutionContext executionContext, ExecutionStrategyParameters parameters, Supplier<ExecutionStepInfo> executionStepInfo) {
+        NormalizedSelections selections = getSelections(executionContext);
+        NormalizedFieldInfo fieldInfo = selections != null ? selections.fieldInfos.get(parameters.getField()) : null;
+        if (fieldInfo == null) {
+            return super.getNormalizedField(executionContext, parameters, executionStepInfo);
+        }
+        // the field of the template stands for the field of the request, which has the arguments of its variables
+        ParametricExecutableNormalizedOperation.Specialization specialization = executionContext.getNormalizedQueryTreeSpecialization();
+        ExecutableNormalizedField templateField = fieldInfo.normalizedField;
+        return () -> specialization.getSpecializedField(templateField);
+    }
+
+    /*
+     * The selections of the shared normalized operation the one of the execution was specialized from, or null when the normalized
+     * operation is not worth using or is not shared
+     */
+    private NormalizedSelections getSelections(ExecutionContext executionContext) {
+        if (!executionContext.isNormalizedQueryTreeCached()) {
+            return null;
+        }
+        ExecutableNormalizedOperation template = executionContext.getNormalizedQueryTreeSpecialization().getTemplate();
+        if (template == null) {
+            return null;
+        }
+        return selectionsByOperation.computeIfAbsent(template, key -> new NormalizedSelections());
+    }
+
+    /**
+     * The collected selections of one shared normalized operation.  The {@link MergedField}s handed out by this strategy are the keys,
+     * compared by identity, so a merged field always leads back to its normalized field and to its own collected sub fields.
+     */
+    private static class NormalizedSelections {
+        private final Map<String, MergedSelectionSet> topLevelFields = new ConcurrentHashMap<>();
+        private final ConcurrentMap<MergedField, NormalizedFieldInfo> fieldInfos = new MapMaker().weakKeys().makeMap();
+
+        private MergedSelectionSet register(MergedSelectionSet collectedFields, List<ExecutableNormalizedField> normalizedFields, String objectTypeName) {
+            for (Map.Entry<String, MergedField> entry : collectedFields.getSubFields().entrySet()) {
+                ExecutableNormalizedField normalizedField = findNormalizedField(normalizedFields, entry.getKey(), objectTypeName);
+                if (normalizedField != null) {
+                    fieldInfos.put(entry.getValue(), new NormalizedFieldInfo(normalizedField));
+                }
+            }
+            return collectedFields;
+        }
+
+        private static ExecutableNormalizedField findNormalizedField(List<ExecutableNormalizedField> normalizedFields, String resultKey, String objectTypeName) {
+            for (ExecutableNormalizedField normalizedField : normalizedFields) {
+                if (normalizedField.getResultKey().equals(resultKey) && normalizedField.getObjectTypeNames().contains(objectTypeName)) {
+                    return normalizedField;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class NormalizedFieldInfo {
+        private final ExecutableNormalizedField normalizedField;
+        private final Map<String, MergedSelectionSet> subFields = new ConcurrentHashMap<>();
+
+        private NormalizedFieldInfo(ExecutableNormalizedField normalizedField) {
+            this.normalizedField = normalizedField;
+        }
+    }
+}
@@ -20,6 +20,9 @@ import static java.lang.String.format;
 /**
  * As a graphql query is executed, each field forms a hierarchical path from parent field to child field and this
  * class represents that path as a series of segments.
+ * <p>
+ * A path only holds its last segment and shares the rest with its parent, and list indices are held as plain ints, so a path to a list
+ * element is a single small object.
  */
 @PublicApi
 public class ResultPath {
@@ -35,31 +38,36 @@ public class ResultPath {
     }
 
     private final ResultPath parent;
-    private final Object segment;
+    // the name of a named segment or else null, in which case the segment is the index, which saves boxing the indices of list elements
+    private final String name;
+    private final int index;
 
     // hash is effective immutable but lazily initialized similar to the hash code of java.lang.String
     private int hash;
 
     private ResultPath() {
         parent = null;
-        segment = null;
+        name = null;
+        index = 0;
     }
 
     private ResultPath(ResultPath parent, String segment) {
         this.parent = assertNotNull(parent, () -> "Must provide a parent path");
-        this.segment = assertNotNull(segment, () -> "Must provide a sub path");
+        this.name = assertNotNull(segment, () -> "Must provide a sub path");
+        this.index = 0;
     }
 
     private ResultPath(ResultPath parent, int segment) {
         this.parent = assertNotNull(parent, () -> "Must provide a parent path");
-        this.segment = segment;
+        this.name = null;
+        this.index = segment;
     }
 
     public int getLevel() {
         int counter = 0;
         ResultPath currentPath = this;
         while (currentPath != null) {
-            if (currentPath.segment instanceof String) {
+            if (currentPath.name != null) {
                 counter++;
             }
             currentPath = currentPath.parent;
@@ -71,7 +79,7 @@ public class ResultPath {
         if (ROOT_PATH.equals(this)) {
             return ROOT_PATH;
         }
-        if (segment instanceof String) {
+        if (name != null) {
             return this;
         }
         return parent;
@@ -81,27 +89,30 @@ public class ResultPath {
      * @return true if the end of the path has a list style segment eg 'a/b[2]'
      */
     public boolean isListSegment() {
-        return segment instanceof Integer;
+        return parent != null && name == null;
     }
 
     /**
      * @return true if the end of the path has a named style segment eg 'a/b[2]/c'
      */
     public boolean isNamedSegment() {
-        return segment instanceof String;
+        return name != null;
     }
 
 
     public String getSegmentName() {
-        return (String) segment;
+        return name;
     }
 
     public int getSegmentIndex() {
-        return (int) segment;
+        return index;
     }
 
     public Object getSegmentValue() {
-        return segment;
+        if (parent == null) {
+            return null;
+        }
+        return name != null ? name : index;
     }
 
     public ResultPath getParent() {
@@ -253,13 +264,20 @@ public class ResultPath {
         if (parent == null) {
             return ImmutableKit.emptyList();
         }
-        LinkedList<Object> list = new LinkedList<>();
-        ResultPath p = this;
-        while (p.segment != null) {
-            list.addFirst(p.segment);
-            p = p.parent;
+        Object[] segments = new Object[depth()];
+        int i = segments.length;
+        for (ResultPath p = this; p.parent != null; p = p.parent) {
+            segments[--i] = p.getSegmentValue();
+        }
+        return ImmutableList.copyOf(segments);
+    }
+
+    private int depth() {
+        int depth = 0;
+        for (ResultPath p = this; p.parent != null; p = p.parent) {
+            depth++;
         }
-        return ImmutableList.copyOf(list);
+        return depth;
     }
 
     /**
@@ -270,12 +288,10 @@ public class ResultPath {
             return new LinkedList<>();
         }
         LinkedList<String> list = new LinkedList<>();
-        ResultPath p = this;
-        while (p.segment != null) {
-            if (p.segment instanceof String) {
-                list.addFirst((String) p.segment);
+        for (ResultPath p = this; p.parent != null; p = p.parent) {
+            if (p.name != null) {
+                list.addFirst(p.name);
             }
-            p = p.parent;
         }
         return list;
     }
@@ -289,19 +305,28 @@ public class ResultPath {
         if (parent == null) {
             return "";
         }
-
-        if (ROOT_PATH.equals(parent)) {
-            return segmentToString();
+        // the segments are written into one builder, rather than concatenating the strings of the parents
+        ResultPath[] segments = new ResultPath[depth()];
+        int i = segments.length;
+        for (ResultPath p = this; p.parent != null; p = p.parent) {
+            segments[--i] = p;
         }
-
-        return parent.toString() + segmentToString();
+        StringBuilder sb = new StringBuilder();
+        for (ResultPath segment : segments) {
+            segment.appendSegment(sb);
+        }
+        return sb.toString();
     }
 
     public String segmentToString() {
-        if (segment instanceof String) {
-            return "/" + segment;
+        return appendSegment(new StringBuilder()).toString();
+    }
+
+    private StringBuilder appendSegment(StringBuilder sb) {
+        if (name != null) {
+            return sb.append('/').append(name);
         } else {
-            return "[" + segment + "]";
+            return sb.append('[').append(index).append(']');
         }
     }
 
@@ -316,8 +341,11 @@ public class ResultPath {
 
         ResultPath self = this;
         ResultPath that = (ResultPath) o;
-        while (self.segment != null && that.segment != null) {
-            if (!Objects.equals(self.segment, that.segment)) {
+        while (self.parent != null && that.parent != null) {
+            if (self == that) {
+                return true;
+            }
+            if (self.index != that.index || !Objects.equals(self.name, that.name)) {
                 return false;
             }
             self = self.parent;
@@ -334,8 +362,8 @@ public class ResultPath {
             h = 1;
             ResultPath self = this;
             while (self != null) {
-                Object value = self.segment;
-                h = 31 * h + (value == null ? 0 : value.hashCode());
+                // the same as the hash code of the boxed index
+                h = 31 * h + (self.name != null ? self.name.hashCode() : (self.parent != null ? self.index : 0));
                 self = self.parent;
             }
             hash = h;
@@ -0,0 +1,17 @@
+package graphql.execution;
+
+import graphql.GraphQLError;
+import graphql.Internal;
+
+/**
+ * Implemented by {@link GraphQLError}s that hold the {@link ResultPath} they happened at, so the execution can dedup and count
+ * them by that path without materializing {@link GraphQLError#getPath()}, which is only needed once the result is serialized.
+ */
+@Internal
+public interface ResultPathAware {
+
+    /**
+     * @return the result path of the error or null if it has none
+     */
+    ResultPath getResultPath();
+}
@@ -44,7 +44,10 @@ public class SimpleDataFetcherExceptionHandler implements DataFetcherExceptionHa
      * @param exception the exception that happened
      */
     protected void logException(ExceptionWhileDataFetching error, Throwable exception) {
-        logNotSafe.warn(error.getMessage(), exception);
+        // the message of the error is only materialized when it is logged
+        if (logNotSafe.isWarnEnabled()) {
+            logNotSafe.warn(error.getMessage(), exception);
+        }
     }
 
     /**
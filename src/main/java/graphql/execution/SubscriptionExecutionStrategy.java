@@ -2,6 +2,7 @@ package graphql.execution;
 
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
+import graphql.GraphQLContext;
 import graphql.PublicApi;
 import graphql.execution.instrumentation.ExecutionStrategyInstrumentationContext;
 import graphql.execution.instrumentation.Instrumentation;
@@ -9,16 +10,22 @@ import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionStrategyParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationFieldParameters;
+import graphql.execution.reactive.CompletionStageMappingPublisher;
+import graphql.execution.reactive.SubscriptionConflation;
+import graphql.execution.reactive.SubscriptionMultiplexer;
 import graphql.execution.reactive.SubscriptionPublisher;
 import graphql.language.Field;
 import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLObjectType;
+import graphql.util.FpKit;
 import org.reactivestreams.Publisher;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+import static graphql.Assert.assertNotNull;
 import static graphql.Assert.assertTrue;
 import static graphql.execution.instrumentation.SimpleInstrumentationContext.nonNullCtx;
 import static java.util.Collections.singletonMap;
@@ -36,12 +43,65 @@ import static java.util.Collections.singletonMap;
 @PublicApi
 public class SubscriptionExecutionStrategy extends ExecutionStrategy {
 
+    /**
+     * If the {@link graphql.GraphQLContext} of a subscription has this key set to {@link Boolean#TRUE} then its events are published in
+     * the order the source publisher produced them rather than in the order their executions complete.
+     * <p>
+     * This does not apply to subscriptions shared via a {@link SubscriptionMultiplexer}, whose events are always executed one at a time
+     * and published in order.
+     */
+    public static final String KEEP_SUBSCRIPTION_EVENTS_ORDERED = "KEEP_SUBSCRIPTION_EVENTS_ORDERED";
+
+    /**
+     * The {@link graphql.GraphQLContext} of a subscription can set this key to a positive Integer or Long that limits how many of its
+     * events are executed, or are waiting to be published, at the same time.  Without it the number is only limited by the demand of the
+     * subscriber, or is one if the events are conflated.
+     * <p>
+     * This does not apply to subscriptions shared via a {@link SubscriptionMultiplexer}, whose events are always executed one at a time.
+     */
+    public static final String MAX_CONCURRENT_SUBSCRIPTION_EVENTS = "MAX_CONCURRENT_SUBSCRIPTION_EVENTS";
+
+    private final SubscriptionMultiplexer subscriptionMultiplexer;
+    private final SubscriptionConflation subscriptionConflation;
+
     public SubscriptionExecutionStrategy() {
         super();
+        this.subscriptionMultiplexer = null;
+        this.subscriptionConflation = null;
     }
 
     public SubscriptionExecutionStrategy(DataFetcherExceptionHandler dataFetcherExceptionHandler) {
+        this(dataFetcherExceptionHandler, null, null);
+    }
+
+    /**
+     * Creates a subscription execution strategy that executes each event once per group of subscribers
+     * with the same document, variables and partition key
+     *
+     * @param dataFetcherExceptionHandler the exception handler to use
+     * @param subscriptionMultiplexer     the multiplexer that groups the subscribers
+     *
+     * @see SubscriptionMultiplexer
+     */
+    public SubscriptionExecutionStrategy(DataFetcherExceptionHandler dataFetcherExceptionHandler, SubscriptionMultiplexer subscriptionMultiplexer) {
+        this(dataFetcherExceptionHandler, assertNotNull(subscriptionMultiplexer, () -> "subscriptionMultiplexer can't be null"), null);
+    }
+
+    /**
+     * Creates a subscription execution strategy that optionally shares event executions between subscribers and optionally
+     * conflates the source events before they are executed
+     *
+     * @param dataFetcherExceptionHandler the exception handler to use
+     * @param subscriptionMultiplexer     the multiplexer that groups the subscribers or null
+     * @param subscriptionConflation      the conflation of the source events or null
+     *
+     * @see SubscriptionMultiplexer
+     * @see SubscriptionConflation
+     */
+    public SubscriptionExecutionStrategy(DataFetcherExceptionHandler dataFetcherExceptionHandler, SubscriptionMultiplexer subscriptionMultiplexer, SubscriptionConflation subscriptionConflation) {
         super(dataFetcherExceptionHandler);
+        this.subscriptionMultiplexer = subscriptionMultiplexer;
+        this.subscriptionConflation = subscriptionConflation;
     }
 
     @Override
@@ -54,7 +114,8 @@ public class SubscriptionExecutionStrategy extends ExecutionStrategy {
                 executionContext.getInstrumentationState()
         ));
 
-        CompletableFuture<Publisher<Object>> sourceEventStream = createSourceEventStream(executionContext, parameters);
+        ExecutionStrategyParameters subscribedFieldParameters = firstFieldOfSubscriptionSelection(parameters);
+        CompletableFuture<Publisher<Object>> sourceEventStream = createSourceEventStream(executionContext, subscribedFieldParameters);
 
         //
         // when the upstream source event stream completes, subscribe to it and wire in our adapter
@@ -62,8 +123,24 @@ public class SubscriptionExecutionStrategy extends ExecutionStrategy {
             if (publisher == null) {
                 return new ExecutionResultImpl(null, executionContext.getErrors());
             }
-            Function<Object, CompletionStage<ExecutionResult>> mapperFunction = eventPayload -> executeSubscriptionEvent(executionContext, parameters, eventPayload);
-            SubscriptionPublisher mapSourceToResponse = new SubscriptionPublisher(publisher, mapperFunction);
+            SubscribedField subscribedField = new SubscribedField(executionContext, parameters, subscribedFieldParameters);
+            Function<Object, CompletionStage<ExecutionResult>> mapperFunction = eventPayload -> executeSubscriptionEvent(executionContext, subscribedField, eventPayload);
+            // only the events that survive conflation have the selection set executed over them
+            Publisher<Object> eventPublisher = subscriptionConflation != null ? subscriptionConflation.conflate(publisher) : publisher;
+            SubscriptionPublisher mapSourceToResponse;
+            if (subscriptionMultiplexer != null) {
+                mapSourceToResponse = new SubscriptionPublisher(publisher, subscriptionMultiplexer.multiplex(executionContext, publisher, eventPublisher, mapperFunction));
+            } else {
+                GraphQLContext graphQLContext = executionContext.getGraphQLContext();
+                int maxConcurrency = maxConcurrentEvents(graphQLContext);
+                boolean ordered = keepEventsOrdered(graphQLContext);
+                if (subscriptionConflation != null && maxConcurrency == CompletionStageMappingPublisher.UNBOUNDED_CONCURRENCY) {
+                    // unbounded demand would take every source event straight out of conflation, so the events are executed one
+                    // at a time and the ones that arrive in the meantime are conflated
+                    maxConcurrency = 1;
+                }
+                mapSourceToResponse = new SubscriptionPublisher(publisher, new CompletionStageMappingPublisher<>(eventPublisher, mapperFunction, maxConcurrency, ordered));
+            }
             return new ExecutionResultImpl(mapSourceToResponse, executionContext.getErrors());
         });
 
@@ -74,6 +151,29 @@ public class SubscriptionExecutionStrategy extends ExecutionStrategy {
         return overallResult;
     }
 
+    // the context is filled in by the caller, so the values are checked rather than cast
+    private static int maxConcurrentEvents(GraphQLContext graphQLContext) {
+        Object value = graphQLContext.get(MAX_CONCURRENT_SUBSCRIPTION_EVENTS);
+        if (value == null) {
+            return CompletionStageMappingPublisher.UNBOUNDED_CONCURRENCY;
+        }
+        assertTrue(value instanceof Integer || value instanceof Long,
+                () -> MAX_CONCURRENT_SUBSCRIPTION_EVENTS + " must be an Integer or a Long but was " + value.getClass().getName());
+        long maxConcurrency = ((Number) value).longValue();
+        assertTrue(maxConcurrency > 0, () -> MAX_CONCURRENT_SUBSCRIPTION_EVENTS + " must be greater than zero but was " + maxConcurrency);
+        return (int) Math.min(maxConcurrency, CompletionStageMappingPublisher.UNBOUNDED_CONCURRENCY);
+    }
+
+    private static boolean keepEventsOrdered(GraphQLContext graphQLContext) {
+        Object value = graphQLContext.get(KEEP_SUBSCRIPTION_EVENTS_ORDERED);
+        if (value == null) {
+            return false;
+        }
+        assertTrue(value instanceof Boolean,
+                () -> KEEP_SUBSCRIPTION_EVENTS_ORDERED + " must be a Boolean but was " + value.getClass().getName());
+        return (Boolean) value;
+    }
+
 
     /*
         https://github.com/facebook/graphql/blob/master/spec/Section%206%20--%20Execution.md
@@ -89,10 +189,8 @@ public class SubscriptionExecutionStrategy extends ExecutionStrategy {
             Return {fieldStream}.
      */
 
-    private CompletableFuture<Publisher<Object>> createSourceEventStream(ExecutionContext executionContext, ExecutionStrategyParameters parameters) {
-        ExecutionStrategyParameters newParameters = firstFieldOfSubscriptionSelection(parameters);
-
-        CompletableFuture<FetchedValue> fieldFetched = fetchField(executionContext, newParameters);
+    private CompletableFuture<Publisher<Object>> createSourceEventStream(ExecutionContext executionContext, ExecutionStrategyParameters subscribedFieldParameters) {
+        CompletableFuture<FetchedValue> fieldFetched = fetchField(executionContext, subscribedFieldParameters);
         return fieldFetched.thenApply(fetchedValue -> {
             Object publisher = fetchedValue.getFetchedValue();
             if (publisher != null) {
@@ -116,41 +214,32 @@ public class SubscriptionExecutionStrategy extends ExecutionStrategy {
         Note: The {ExecuteSubscriptionEvent()} algorithm is intentionally similar to {ExecuteQuery()} since this is how each event result is produced.
      */
 
-    private CompletableFuture<ExecutionResult> executeSubscriptionEvent(ExecutionContext executionContext, ExecutionStrategyParameters parameters, Object eventPayload) {
+    private CompletableFuture<ExecutionResult> executeSubscriptionEvent(ExecutionContext executionContext, SubscribedField subscribedField, Object eventPayload) {
         Instrumentation instrumentation = executionContext.getInstrumentation();
 
-        ExecutionContext newExecutionContext = executionContext.transform(builder -> builder
-                .root(eventPayload)
-                .resetErrors()
-        );
-        ExecutionStrategyParameters newParameters = firstFieldOfSubscriptionSelection(parameters);
-        ExecutionStepInfo subscribedFieldStepInfo = createSubscribedFieldStepInfo(executionContext, newParameters);
+        ExecutionContext newExecutionContext = executionContext.forSubscriptionEvent(eventPayload);
+        ExecutionStrategyParameters newParameters = subscribedField.parameters;
 
-        InstrumentationFieldParameters i13nFieldParameters = new InstrumentationFieldParameters(executionContext, () -> subscribedFieldStepInfo);
         InstrumentationContext<ExecutionResult> subscribedFieldCtx = nonNullCtx(instrumentation.beginSubscribedFieldEvent(
-                i13nFieldParameters, executionContext.getInstrumentationState()
+                subscribedField.i13nFieldParameters, executionContext.getInstrumentationState()
         ));
 
-        FetchedValue fetchedValue = unboxPossibleDataFetcherResult(newExecutionContext, parameters, eventPayload);
+        FetchedValue fetchedValue = unboxPossibleDataFetcherResult(newExecutionContext, subscribedField.subscriptionParameters, eventPayload);
         FieldValueInfo fieldValueInfo = completeField(newExecutionContext, newParameters, fetchedValue);
         CompletableFuture<ExecutionResult> overallResult = fieldValueInfo
                 .getFieldValue()
-                .thenApply(executionResult -> wrapWithRootFieldName(newParameters, executionResult));
+                .thenApply(executionResult -> wrapWithRootFieldName(subscribedField.rootFieldName, executionResult));
 
         // dispatch instrumentation so they can know about each subscription event
         subscribedFieldCtx.onDispatched(overallResult);
         overallResult.whenComplete(subscribedFieldCtx::onCompleted);
 
         // allow them to instrument each ER should they want to
-        InstrumentationExecutionParameters i13nExecutionParameters = new InstrumentationExecutionParameters(
-                executionContext.getExecutionInput(), executionContext.getGraphQLSchema(), executionContext.getInstrumentationState());
-
-        overallResult = overallResult.thenCompose(executionResult -> instrumentation.instrumentExecutionResult(executionResult, i13nExecutionParameters, executionContext.getInstrumentationState()));
+        overallResult = overallResult.thenCompose(executionResult -> instrumentation.instrumentExecutionResult(executionResult, subscribedField.i13nExecutionParameters, executionContext.getInstrumentationState()));
         return overallResult;
     }
 
-    private ExecutionResult wrapWithRootFieldName(ExecutionStrategyParameters parameters, ExecutionResult executionResult) {
-        String rootFieldName = getRootFieldName(parameters);
+    private ExecutionResult wrapWithRootFieldName(String rootFieldName, ExecutionResult executionResult) {
         return new ExecutionResultImpl(
                 singletonMap(rootFieldName, executionResult.getData()),
                 executionResult.getErrors()
@@ -170,6 +259,27 @@ public class SubscriptionExecutionStrategy extends ExecutionStrategy {
         return parameters.transform(builder -> builder.field(firstField).path(fieldPath));
     }
 
+    /**
+     * The values of a subscription that are the same for each of its events and are hence only worked out once
+     */
+    private class SubscribedField {
+        private final ExecutionStrategyParameters subscriptionParameters;
+        private final ExecutionStrategyParameters parameters;
+        private final String rootFieldName;
+        private final InstrumentationFieldParameters i13nFieldParameters;
+        private final InstrumentationExecutionParameters i13nExecutionParameters;
+
+        private SubscribedField(ExecutionContext executionContext, ExecutionStrategyParameters subscriptionParameters, ExecutionStrategyParameters parameters) {
+            this.subscriptionParameters = subscriptionParameters;
+            this.parameters = parameters;
+            this.rootFieldName = getRootFieldName(parameters);
+            Supplier<ExecutionStepInfo> subscribedFieldStepInfo = FpKit.interThreadMemoize(() -> createSubscribedFieldStepInfo(executionContext, parameters));
+            this.i13nFieldParameters = new InstrumentationFieldParameters(executionContext, subscribedFieldStepInfo);
+            this.i13nExecutionParameters = new InstrumentationExecutionParameters(
+                    executionContext.getExecutionInput(), executionContext.getGraphQLSchema(), executionContext.getInstrumentationState());
+        }
+    }
+
     private ExecutionStepInfo createSubscribedFieldStepInfo(ExecutionContext executionContext, ExecutionStrategyParameters parameters) {
         Field field = parameters.getField().getSingleField();
         GraphQLObjectType parentType = (GraphQLObjectType) parameters.getExecutionStepInfo().getUnwrappedNonNullType();
@@ -27,10 +27,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
 
 import static graphql.Assert.assertNotNull;
-import static graphql.collect.ImmutableKit.mapAndDropNulls;
 
 /**
  * This allows you to chain together a number of {@link graphql.execution.instrumentation.Instrumentation} implementations
@@ -48,8 +46,42 @@ public class ChainedInstrumentation implements Instrumentation {
 
     protected final ImmutableList<Instrumentation> instrumentations;
 
+    // per callback, the instrumentations that override it.  The others would only return a no op so they are never called
+    private final Instrumentation[] executionInstrumentations;
+    private final Instrumentation[] parseInstrumentations;
+    private final Instrumentation[] validationInstrumentations;
+    private final Instrumentation[] executeOperationInstrumentations;
+    private final Instrumentation[] executionStrategyInstrumentations;
+    private final Instrumentation[] subscribedFieldEventInstrumentations;
+    private final Instrumentation[] fieldInstrumentations;
+    private final Instrumentation[] fieldFetchInstrumentations;
+    private final Instrumentation[] fieldCompleteInstrumentations;
+    private final Instrumentation[] fieldListCompleteInstrumentations;
+    private final Instrumentation[] executionInputInstrumentations;
+    private final Instrumentation[] documentAndVariablesInstrumentations;
+    private final Instrumentation[] schemaInstrumentations;
+    private final Instrumentation[] executionContextInstrumentations;
+    private final Instrumentation[] dataFetcherInstrumentations;
+    private final ImmutableList<Instrumentation> executionResultInstrumentations;
+
     public ChainedInstrumentation(List<Instrumentation> instrumentations) {
         this.instrumentations = ImmutableList.copyOf(assertNotNull(instrumentations));
+        this.executionInstrumentations = overriding("beginExecution", InstrumentationExecutionParameters.class);
+        this.parseInstrumentations = overriding("beginParse", InstrumentationExecutionParameters.class);
+        this.validationInstrumentations = overriding("beginValidation", InstrumentationValidationParameters.class);
+        this.executeOperationInstrumentations = overriding("beginExecuteOperation", InstrumentationExecuteOperationParameters.class);
+        this.executionStrategyInstrumentations = overriding("beginExecutionStrategy", InstrumentationExecutionStrategyParameters.class);
+        this.subscribedFieldEventInstrumentations = overriding("beginSubscribedFieldEvent", InstrumentationFieldParameters.class);
+        this.fieldInstrumentations = overriding("beginField", InstrumentationFieldParameters.class);
+        this.fieldFetchInstrumentations = overriding("beginFieldFetch", InstrumentationFieldFetchParameters.class);
+        this.fieldCompleteInstrumentations = overriding("beginFieldComplete", InstrumentationFieldCompleteParameters.class);
+        this.fieldListCompleteInstrumentations = overriding("beginFieldListComplete", InstrumentationFieldCompleteParameters.class);
+        this.executionInputInstrumentations = overriding("instrumentExecutionInput", ExecutionInput.class, InstrumentationExecutionParameters.class);
+        this.documentAndVariablesInstrumentations = overriding("instrumentDocumentAndVariables", DocumentAndVariables.class, InstrumentationExecutionParameters.class);
+        this.schemaInstrumentations = overriding("instrumentSchema", GraphQLSchema.class, InstrumentationExecutionParameters.class);
+        this.executionContextInstrumentations = overriding("instrumentExecutionContext", ExecutionContext.class, InstrumentationExecutionParameters.class);
+        this.dataFetcherInstrumentations = overriding("instrumentDataFetcher", DataFetcher.class, InstrumentationFieldFetchParameters.class);
+        this.executionResultInstrumentations = ImmutableList.copyOf(overriding("instrumentExecutionResult", ExecutionResult.class, InstrumentationExecutionParameters.class));
     }
 
     public ChainedInstrumentation(Instrumentation... instrumentations) {
@@ -68,16 +100,55 @@ public class ChainedInstrumentation implements Instrumentation {
         return chainedInstrumentationState.getState(instrumentation);
     }
 
-    private <T> InstrumentationContext<T> chainedCtx(Function<Instrumentation, InstrumentationContext<T>> mapper) {
-        // if we have zero or 1 instrumentations (and 1 is the most common), then we can avoid an object allocation
-        // of the ChainedInstrumentationContext since it won't be needed
-        if (instrumentations.isEmpty()) {
-            return SimpleInstrumentationContext.noOp();
+    /**
+     * Finds the instrumentations that override the given callback, which takes an {@link InstrumentationState} after the given
+     * parameter types.  Only a {@link SimplePerformantInstrumentation} is known to do nothing in the callbacks it does not override,
+     * the other instrumentations may delegate to the deprecated methods and so they are always called.
+     */
+    private Instrumentation[] overriding(String callbackName, Class<?>... parameterTypes) {
+        Class<?>[] callbackParameterTypes = Arrays.copyOf(parameterTypes, parameterTypes.length + 1);
+        callbackParameterTypes[parameterTypes.length] = InstrumentationState.class;
+        return instrumentations.stream()
+                .filter(instrumentation -> {
+                    try {
+                        return instrumentation.getClass().getMethod(callbackName, callbackParameterTypes).getDeclaringClass() != SimplePerformantInstrumentation.class;
+                    } catch (NoSuchMethodException e) {
+                        return true;
+                    }
+                })
+                .toArray(Instrumentation[]::new);
+    }
+
+    private interface ContextFactory<P, C> {
+        C begin(Instrumentation instrumentation, P parameters, InstrumentationState specificState);
+    }
+
+    private <P, T> InstrumentationContext<T> chainedCtx(Instrumentation[] callbackInstrumentations, P parameters, InstrumentationState state, ContextFactory<P, InstrumentationContext<T>> contextFactory) {
+        // the factories are non capturing method references, and the ChainedInstrumentationContext is only allocated
+        // when more than one instrumentation returned a context, so the common cases allocate nothing here
+        InstrumentationContext<T> first = null;
+        InstrumentationContext<T>[] contexts = null;
+        int count = 0;
+        for (Instrumentation instrumentation : callbackInstrumentations) {
+            InstrumentationContext<T> context = contextFactory.begin(instrumentation, parameters, getSpecificState(instrumentation, state));
+            if (context == null || context == SimpleInstrumentationContext.noOp()) {
+                continue;
+            }
+            if (first == null) {
+                first = context;
+                continue;
+            }
+            if (contexts == null) {
+                //noinspection unchecked
+                contexts = new InstrumentationContext[callbackInstrumentations.length];
+                contexts[count++] = first;
+            }
+            contexts[count++] = context;
         }
-        if (instrumentations.size() == 1) {
-            return mapper.apply(instrumentations.get(0));
+        if (contexts != null) {
+            return new ChainedInstrumentationContext<>(contexts, count);
         }
-        return new ChainedInstrumentationContext<>(mapAndDropNulls(instrumentations, mapper));
+        return first != null ? first : SimpleInstrumentationContext.noOp();
     }
 
 
@@ -96,10 +167,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginExecution(parameters, specificState);
-        });
+        return chainedCtx(executionInstrumentations, parameters, state, Instrumentation::beginExecution);
     }
 
     @Override
@@ -110,10 +178,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginParse(parameters, specificState);
-        });
+        return chainedCtx(parseInstrumentations, parameters, state, Instrumentation::beginParse);
     }
 
     @Override
@@ -124,10 +189,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginValidation(parameters, specificState);
-        });
+        return chainedCtx(validationInstrumentations, parameters, state, Instrumentation::beginValidation);
     }
 
     @Override
@@ -138,10 +200,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginExecuteOperation(parameters, specificState);
-        });
+        return chainedCtx(executeOperationInstrumentations, parameters, state, Instrumentation::beginExecuteOperation);
     }
 
     @Override
@@ -152,17 +211,29 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public ExecutionStrategyInstrumentationContext beginExecutionStrategy(InstrumentationExecutionStrategyParameters parameters, InstrumentationState state) {
-        if (instrumentations.isEmpty()) {
-            return ExecutionStrategyInstrumentationContext.NOOP;
-        }
-        Function<Instrumentation, ExecutionStrategyInstrumentationContext> mapper = instrumentation -> {
+        ExecutionStrategyInstrumentationContext first = null;
+        ExecutionStrategyInstrumentationContext[] contexts = null;
+        int count = 0;
+        for (Instrumentation instrumentation : executionStrategyInstrumentations) {
             InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginExecutionStrategy(parameters, specificState);
-        };
-        if (instrumentations.size() == 1) {
-            return mapper.apply(instrumentations.get(0));
+            ExecutionStrategyInstrumentationContext context = instrumentation.beginExecutionStrategy(parameters, specificState);
+            if (context == null || context == ExecutionStrategyInstrumentationContext.NOOP) {
+                continue;
+            }
+            if (first == null) {
+                first = context;
+                continue;
+            }
+            if (contexts == null) {
+                contexts = new ExecutionStrategyInstrumentationContext[executionStrategyInstrumentations.length];
+                contexts[count++] = first;
+            }
+            contexts[count++] = context;
         }
-        return new ChainedExecutionStrategyInstrumentationContext(mapAndDropNulls(instrumentations, mapper));
+        if (contexts != null) {
+            return new ChainedExecutionStrategyInstrumentationContext(contexts, count);
+        }
+        return first != null ? first : ExecutionStrategyInstrumentationContext.NOOP;
     }
 
     @Override
@@ -173,10 +244,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<ExecutionResult> beginSubscribedFieldEvent(InstrumentationFieldParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginSubscribedFieldEvent(parameters, specificState);
-        });
+        return chainedCtx(subscribedFieldEventInstrumentations, parameters, state, Instrumentation::beginSubscribedFieldEvent);
     }
 
     @Override
@@ -187,10 +255,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<ExecutionResult> beginField(InstrumentationFieldParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginField(parameters, specificState);
-        });
+        return chainedCtx(fieldInstrumentations, parameters, state, Instrumentation::beginField);
     }
 
     @Override
@@ -201,10 +266,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginFieldFetch(parameters, specificState);
-        });
+        return chainedCtx(fieldFetchInstrumentations, parameters, state, Instrumentation::beginFieldFetch);
     }
 
 
@@ -216,10 +278,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<ExecutionResult> beginFieldComplete(InstrumentationFieldCompleteParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginFieldComplete(parameters, specificState);
-        });
+        return chainedCtx(fieldCompleteInstrumentations, parameters, state, Instrumentation::beginFieldComplete);
     }
 
     @Override
@@ -230,10 +289,7 @@ public class ChainedInstrumentation implements Instrumentation {
 
     @Override
     public InstrumentationContext<ExecutionResult> beginFieldListComplete(InstrumentationFieldCompleteParameters parameters, InstrumentationState state) {
-        return chainedCtx(instrumentation -> {
-            InstrumentationState specificState = getSpecificState(instrumentation, state);
-            return instrumentation.beginFieldListComplete(parameters, specificState);
-        });
+        return chainedCtx(fieldListCompleteInstrumentations, parameters, state, Instrumentation::beginFieldListComplete);
     }
 
     @Override
@@ -245,10 +301,7 @@ public class ChainedInstrumentation implements Instrumentation {
     @NotNull
     @Override
     public ExecutionInput instrumentExecutionInput(ExecutionInput executionInput, InstrumentationExecutionParameters parameters, InstrumentationState state) {
-        if (instrumentations.isEmpty()) {
-            return executionInput;
-        }
-        for (Instrumentation instrumentation : instrumentations) {
+        for (Instrumentation instrumentation : executionInputInstrumentations) {
             InstrumentationState specificState = getSpecificState(instrumentation, state);
             executionInput = instrumentation.instrumentExecutionInput(executionInput, parameters, specificState);
         }
@@ -264,10 +317,7 @@ public class ChainedInstrumentation implements Instrumentation {
     @NotNull
     @Override
     public DocumentAndVariables instrumentDocumentAndVariables(DocumentAndVariables documentAndVariables, InstrumentationExecutionParameters parameters, InstrumentationState state) {
-        if (instrumentations.isEmpty()) {
-            return documentAndVariables;
-        }
-        for (Instrumentation instrumentation : instrumentations) {
+        for (Instrumentation instrumentation : documentAndVariablesInstrumentations) {
             InstrumentationState specificState = getSpecificState(instrumentation, state);
             documentAndVariables = instrumentation.instrumentDocumentAndVariables(documentAndVariables, parameters, specificState);
         }
@@ -283,10 +333,7 @@ public class ChainedInstrumentation implements Instrumentation {
     @NotNull
     @Override
     public GraphQLSchema instrumentSchema(GraphQLSchema schema, InstrumentationExecutionParameters parameters, InstrumentationState state) {
-        if (instrumentations.isEmpty()) {
-            return schema;
-        }
-        for (Instrumentation instrumentation : instrumentations) {
+        for (Instrumentation instrumentation : schemaInstrumentations) {
             InstrumentationState specificState = getSpecificState(instrumentation, state);
             schema = instrumentation.instrumentSchema(schema, parameters, specificState);
         }
@@ -302,10 +349,7 @@ public class ChainedInstrumentation implements Instrumentation {
     @NotNull
     @Override
     public ExecutionContext instrumentExecutionContext(ExecutionContext executionContext, InstrumentationExecutionParameters parameters, InstrumentationState state) {
-        if (instrumentations.isEmpty()) {
-            return executionContext;
-        }
-        for (Instrumentation instrumentation : instrumentations) {
+        for (Instrumentation instrumentation : executionContextInstrumentations) {
             InstrumentationState specificState = getSpecificState(instrumentation, state);
             executionContext = instrumentation.instrumentExecutionContext(executionContext, parameters, specificState);
         }
@@ -321,10 +365,7 @@ public class ChainedInstrumentation implements Instrumentation {
     @NotNull
     @Override
     public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
-        if (instrumentations.isEmpty()) {
-            return dataFetcher;
-        }
-        for (Instrumentation instrumentation : instrumentations) {
+        for (Instrumentation instrumentation : dataFetcherInstrumentations) {
             InstrumentationState specificState = getSpecificState(instrumentation, state);
             dataFetcher = instrumentation.instrumentDataFetcher(dataFetcher, parameters, specificState);
         }
@@ -340,7 +381,10 @@ public class ChainedInstrumentation implements Instrumentation {
     @NotNull
     @Override
     public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState state) {
-        CompletableFuture<List<ExecutionResult>> resultsFuture = Async.eachSequentially(instrumentations, (instrumentation, index, prevResults) -> {
+        if (executionResultInstrumentations.isEmpty()) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        CompletableFuture<List<ExecutionResult>> resultsFuture = Async.eachSequentially(executionResultInstrumentations, (instrumentation, index, prevResults) -> {
             InstrumentationState specificState = getSpecificState(instrumentation, state);
             ExecutionResult lastResult = prevResults.size() > 0 ? prevResults.get(prevResults.size() - 1) : executionResult;
             return instrumentation.instrumentExecutionResult(lastResult, parameters, specificState);
@@ -365,49 +409,65 @@ public class ChainedInstrumentation implements Instrumentation {
 
     private static class ChainedInstrumentationContext<T> implements InstrumentationContext<T> {
 
-        private final ImmutableList<InstrumentationContext<T>> contexts;
+        private final InstrumentationContext<T>[] contexts;
+        private final int count;
 
-        ChainedInstrumentationContext(ImmutableList<InstrumentationContext<T>> contexts) {
+        ChainedInstrumentationContext(InstrumentationContext<T>[] contexts, int count) {
             this.contexts = contexts;
+            this.count = count;
         }
 
         @Override
         public void onDispatched(CompletableFuture<T> result) {
-            contexts.forEach(context -> context.onDispatched(result));
+            for (int i = 0; i < count; i++) {
+                contexts[i].onDispatched(result);
+            }
         }
 
         @Override
         public void onCompleted(T result, Throwable t) {
-            contexts.forEach(context -> context.onCompleted(result, t));
+            for (int i = 0; i < count; i++) {
+                contexts[i].onCompleted(result, t);
+            }
         }
     }
 
     private static class ChainedExecutionStrategyInstrumentationContext implements ExecutionStrategyInstrumentationContext {
 
-        private final ImmutableList<ExecutionStrategyInstrumentationContext> contexts;
+        private final ExecutionStrategyInstrumentationContext[] contexts;
+        private final int count;
 
-        ChainedExecutionStrategyInstrumentationContext(ImmutableList<ExecutionStrategyInstrumentationContext> contexts) {
+        ChainedExecutionStrategyInstrumentationContext(ExecutionStrategyInstrumentationContext[] contexts, int count) {
             this.contexts = contexts;
+            this.count = count;
         }
 
         @Override
         public void onDispatched(CompletableFuture<ExecutionResult> result) {
-            contexts.forEach(context -> context.onDispatched(result));
+            for (int i = 0; i < count; i++) {
+                contexts[i].onDispatched(result);
+            }
         }
 
         @Override
         public void onCompleted(ExecutionResult result, Throwable t) {
-            contexts.forEach(context -> context.onCompleted(result, t));
+            for (int i = 0; i < count; i++) {
+                contexts[i].onCompleted(result, t);
+            }
         }
 
         @Override
         public void onFieldValuesInfo(List<FieldValueInfo> fieldValueInfoList) {
-            contexts.forEach(context -> context.onFieldValuesInfo(fieldValueInfoList));
+            for (int i = 0; i < count; i++) {
+                contexts[i].onFieldValuesInfo(fieldValueInfoList);
+            }
         }
 
         @Override
         public void onFieldValuesException() {
-            contexts.forEach(ExecutionStrategyInstrumentationContext::onFieldValuesException);
+            for (int i = 0; i < count; i++) {
+                contexts[i].onFieldValuesException();
+            }
         }
     }
 
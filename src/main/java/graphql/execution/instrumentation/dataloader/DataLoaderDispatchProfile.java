@@ -0,0 +1,241 @@
+package graphql.execution.instrumentation.dataloader;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import graphql.PublicApi;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The profile of the data loader dispatches of one execution, recorded by a {@link DataLoaderDispatcherInstrumentation} when
+ * {@link DataLoaderDispatcherInstrumentationOptions#includeProfile(boolean)} is set.  It tells how often each level of the query was
+ * dispatched, how many keys each {@link DataLoader} got per dispatch and how long the fields of a level waited for its dispatch, which
+ * is what you need to spot N+1 fetches and badly batched data loaders.
+ * <p>
+ * The profile is put into the {@link graphql.GraphQLContext} of the execution under the {@code DataLoaderDispatchProfile.class} key, and
+ * summarized by {@link #toMap()} into the {@value #EXTENSION_KEY} extension of the result.
+ */
+@PublicApi
+public class DataLoaderDispatchProfile {
+
+    public static final String EXTENSION_KEY = "dataloaderProfile";
+
+    private final long startNanos = System.nanoTime();
+    private final List<Dispatch> dispatches = new ArrayList<>();
+    private final Map<Integer, WaitingFields> waitingFieldsPerLevel = new HashMap<>();
+
+    synchronized void fieldFetchDispatched(int level) {
+        waitingFieldsPerLevel.computeIfAbsent(level, key -> new WaitingFields()).add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Called just before the data loaders are dispatched, so their dispatch depth is the number of keys they are about to get
+     */
+    synchronized void dispatching(int level, DataLoaderRegistry dataLoaderRegistry) {
+        // all times are offsets from the start, so the sums below do not overflow
+        long offsetNanos = System.nanoTime() - startNanos;
+        Map<String, Integer> keysPerDataLoader = new LinkedHashMap<>();
+        dataLoaderRegistry.getDataLoadersMap().forEach((key, dataLoader) -> {
+            int depth = dataLoader.dispatchDepth();
+            if (depth > 0) {
+                keysPerDataLoader.put(key, depth);
+            }
+        });
+        WaitingFields waitingFields = waitingFieldsPerLevel.remove(level);
+        int fieldCount = 0;
+        long totalWaitNanos = 0;
+        long maxWaitNanos = 0;
+        if (waitingFields != null) {
+            fieldCount = waitingFields.count;
+            totalWaitNanos = fieldCount * offsetNanos - waitingFields.totalFetchOffsetNanos;
+            maxWaitNanos = offsetNanos - waitingFields.firstFetchOffsetNanos;
+        }
+        dispatches.add(new Dispatch(level, offsetNanos, ImmutableMap.copyOf(keysPerDataLoader), fieldCount, totalWaitNanos, maxWaitNanos));
+    }
+
+    /**
+     * @return the dispatches in the order they happened
+     */
+    public synchronized List<Dispatch> getDispatches() {
+        return ImmutableList.copyOf(dispatches);
+    }
+
+    /**
+     * @return the number of dispatches per level of the query
+     */
+    public synchronized Map<Integer, Integer> getDispatchCountPerLevel() {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (Dispatch dispatch : dispatches) {
+            counts.merge(dispatch.getLevel(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * @return per data loader, the number of keys of each of its batches in the order they were dispatched
+     */
+    public synchronized Map<String, List<Integer>> getBatchSizes() {
+        Map<String, List<Integer>> batchSizes = new LinkedHashMap<>();
+        for (Dispatch dispatch : dispatches) {
+            dispatch.getKeysPerDataLoader().forEach((key, keyCount) -> batchSizes.computeIfAbsent(key, k -> new ArrayList<>()).add(keyCount));
+        }
+        return batchSizes;
+    }
+
+    /**
+     * @return a summary of the profile per level and per data loader, as it is put into the extensions of the result
+     */
+    public synchronized Map<String, Object> toMap() {
+        Map<Integer, Map<String, Object>> levels = new TreeMap<>();
+        int emptyDispatchCount = 0;
+        for (Dispatch dispatch : dispatches) {
+            Map<String, Object> level = levels.computeIfAbsent(dispatch.getLevel(), key -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("level", key);
+                map.put("dispatches", 0);
+                map.put("keys", 0);
+                map.put("fields", 0);
+                map.put("totalFieldWaitNanos", 0L);
+                map.put("maxFieldWaitNanos", 0L);
+                return map;
+            });
+            level.merge("dispatches", 1, (a, b) -> (Integer) a + (Integer) b);
+            level.merge("keys", dispatch.getKeyCount(), (a, b) -> (Integer) a + (Integer) b);
+            level.merge("fields", dispatch.getFieldCount(), (a, b) -> (Integer) a + (Integer) b);
+            level.merge("totalFieldWaitNanos", dispatch.getTotalFieldWaitNanos(), (a, b) -> (Long) a + (Long) b);
+            level.merge("maxFieldWaitNanos", dispatch.getMaxFieldWaitNanos(), (a, b) -> Math.max((Long) a, (Long) b));
+            if (dispatch.getKeyCount() == 0) {
+                emptyDispatchCount++;
+            }
+        }
+
+        Map<String, Object> dataLoaders = new LinkedHashMap<>();
+        getBatchSizes().forEach((key, sizes) -> {
+            Map<String, Object> dataLoader = new LinkedHashMap<>();
+            dataLoader.put("batches", sizes.size());
+            dataLoader.put("keys", sizes.stream().mapToInt(Integer::intValue).sum());
+            dataLoader.put("minBatchSize", sizes.stream().mapToInt(Integer::intValue).min().orElse(0));
+            dataLoader.put("maxBatchSize", sizes.stream().mapToInt(Integer::intValue).max().orElse(0));
+            dataLoaders.put(key, dataLoader);
+        });
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("dispatches", dispatches.size());
+        map.put("emptyDispatches", emptyDispatchCount);
+        map.put("levels", new ArrayList<>(levels.values()));
+        map.put("dataLoaders", dataLoaders);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "DataLoaderDispatchProfile" + toMap();
+    }
+
+    /**
+     * One dispatch of the data loaders
+     */
+    public static class Dispatch {
+        private final int level;
+        private final long offsetNanos;
+        private final Map<String, Integer> keysPerDataLoader;
+        private final int fieldCount;
+        private final long totalFieldWaitNanos;
+        private final long maxFieldWaitNanos;
+
+        private Dispatch(int level, long offsetNanos, Map<String, Integer> keysPerDataLoader, int fieldCount, long totalFieldWaitNanos, long maxFieldWaitNanos) {
+            this.level = level;
+            this.offsetNanos = offsetNanos;
+            this.keysPerDataLoader = keysPerDataLoader;
+            this.fieldCount = fieldCount;
+            this.totalFieldWaitNanos = totalFieldWaitNanos;
+            this.maxFieldWaitNanos = maxFieldWaitNanos;
+        }
+
+        /**
+         * @return the level of the query that was dispatched
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * @return the time of the dispatch in nanoseconds since the execution started
+         */
+        public long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        /**
+         * @return the number of keys each data loader got, leaving out those that got none
+         */
+        public Map<String, Integer> getKeysPerDataLoader() {
+            return keysPerDataLoader;
+        }
+
+        /**
+         * @return the number of keys all data loaders got
+         */
+        public int getKeyCount() {
+            int keyCount = 0;
+            for (int keys : keysPerDataLoader.values()) {
+                keyCount += keys;
+            }
+            return keyCount;
+        }
+
+        /**
+         * @return the number of fields of the level that were fetched and waited for this dispatch
+         */
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * @return the sum of the times the fields waited between being fetched and this dispatch
+         */
+        public long getTotalFieldWaitNanos() {
+            return totalFieldWaitNanos;
+        }
+
+        /**
+         * @return the longest time a field waited between being fetched and this dispatch
+         */
+        public long getMaxFieldWaitNanos() {
+            return maxFieldWaitNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Dispatch{" +
+                    "level=" + level +
+                    ", offsetNanos=" + offsetNanos +
+                    ", keysPerDataLoader=" + keysPerDataLoader +
+                    ", fieldCount=" + fieldCount +
+                    ", totalFieldWaitNanos=" + totalFieldWaitNanos +
+                    ", maxFieldWaitNanos=" + maxFieldWaitNanos +
+                    '}';
+        }
+    }
+
+    private static class WaitingFields {
+        private int count;
+        private long totalFetchOffsetNanos;
+        private long firstFetchOffsetNanos;
+
+        private void add(long fetchOffsetNanos) {
+            if (count == 0) {
+                firstFetchOffsetNanos = fetchOffsetNanos;
+            }
+            count++;
+            totalFetchOffsetNanos += fetchOffsetNanos;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package graphql.execution.instrumentation.dataloader;
 
+import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
 import graphql.PublicApi;
@@ -18,6 +19,7 @@ import graphql.execution.instrumentation.parameters.InstrumentationExecutionStra
 import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
 import graphql.language.OperationDefinition;
 import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
 import org.dataloader.DataLoader;
 import org.dataloader.DataLoaderRegistry;
 import org.dataloader.stats.Statistics;
@@ -73,7 +75,13 @@ public class DataLoaderDispatcherInstrumentation extends SimplePerformantInstrum
 
     @Override
     public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
-        return new DataLoaderDispatcherInstrumentationState(log, parameters.getExecutionInput().getDataLoaderRegistry());
+        ExecutionInput executionInput = parameters.getExecutionInput();
+        DataLoaderDispatchProfile profile = null;
+        if (options.isIncludeProfile()) {
+            profile = new DataLoaderDispatchProfile();
+            executionInput.getGraphQLContext().put(DataLoaderDispatchProfile.class, profile);
+        }
+        return new DataLoaderDispatcherInstrumentationState(log, executionInput.getDataLoaderRegistry(), profile);
     }
 
     @Override
@@ -88,13 +96,15 @@ public class DataLoaderDispatcherInstrumentation extends SimplePerformantInstrum
         // which allows them to work if used.
         return (DataFetcher<Object>) environment -> {
             Object obj = dataFetcher.get(environment);
-            immediatelyDispatch(state);
+            immediatelyDispatch(state, environment);
             return obj;
         };
     }
 
-    private void immediatelyDispatch(DataLoaderDispatcherInstrumentationState state) {
-        state.getApproach().dispatch();
+    private void immediatelyDispatch(DataLoaderDispatcherInstrumentationState state, DataFetchingEnvironment environment) {
+        // the level is only needed by the profile, so it is only worked out when profiling
+        int level = state.getProfile() != null ? environment.getExecutionStepInfo().getPath().getLevel() : 0;
+        state.getApproach().dispatch(level);
     }
 
     @Override
@@ -158,17 +168,22 @@ public class DataLoaderDispatcherInstrumentation extends SimplePerformantInstrum
 
     @Override
     public @NotNull CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState rawState) {
-        if (!options.isIncludeStatistics()) {
+        if (!options.isIncludeStatistics() && !options.isIncludeProfile()) {
             return CompletableFuture.completedFuture(executionResult);
         }
         DataLoaderDispatcherInstrumentationState state = ofState(rawState);
         Map<Object, Object> currentExt = executionResult.getExtensions();
         Map<Object, Object> statsMap = new LinkedHashMap<>(currentExt == null ? ImmutableKit.emptyMap() : currentExt);
-        Map<Object, Object> dataLoaderStats = buildStatsMap(state);
-        statsMap.put("dataloader", dataLoaderStats);
+        if (options.isIncludeStatistics()) {
+            Map<Object, Object> dataLoaderStats = buildStatsMap(state);
+            statsMap.put("dataloader", dataLoaderStats);
 
-        if (log.isDebugEnabled()) {
-            log.debug("Data loader stats : {}", dataLoaderStats);
+            if (log.isDebugEnabled()) {
+                log.debug("Data loader stats : {}", dataLoaderStats);
+            }
+        }
+        if (state.getProfile() != null) {
+            statsMap.put(DataLoaderDispatchProfile.EXTENSION_KEY, state.getProfile().toMap());
         }
 
         return CompletableFuture.completedFuture(new ExecutionResultImpl(executionResult.getData(), executionResult.getErrors(), statsMap));
@@ -9,13 +9,15 @@ import graphql.PublicApi;
 public class DataLoaderDispatcherInstrumentationOptions {
 
     private final boolean includeStatistics;
+    private final boolean includeProfile;
 
-    private DataLoaderDispatcherInstrumentationOptions(boolean includeStatistics) {
+    private DataLoaderDispatcherInstrumentationOptions(boolean includeStatistics, boolean includeProfile) {
         this.includeStatistics = includeStatistics;
+        this.includeProfile = includeProfile;
     }
 
     public static DataLoaderDispatcherInstrumentationOptions newOptions() {
-        return new DataLoaderDispatcherInstrumentationOptions(false);
+        return new DataLoaderDispatcherInstrumentationOptions(false, false);
     }
 
     /**
@@ -27,7 +29,19 @@ public class DataLoaderDispatcherInstrumentationOptions {
      * @return a new options object
      */
     public DataLoaderDispatcherInstrumentationOptions includeStatistics(boolean flag) {
-        return new DataLoaderDispatcherInstrumentationOptions(flag);
+        return new DataLoaderDispatcherInstrumentationOptions(flag, includeProfile);
+    }
+
+    /**
+     * This will toggle the recording of a {@link DataLoaderDispatchProfile} per execution, which is put into the
+     * {@link graphql.GraphQLContext} of the execution and summarized into the extensions output of your query
+     *
+     * @param flag the switch to follow
+     *
+     * @return a new options object
+     */
+    public DataLoaderDispatcherInstrumentationOptions includeProfile(boolean flag) {
+        return new DataLoaderDispatcherInstrumentationOptions(includeStatistics, flag);
     }
 
 
@@ -35,4 +49,8 @@ public class DataLoaderDispatcherInstrumentationOptions {
         return includeStatistics;
     }
 
+    public boolean isIncludeProfile() {
+        return includeProfile;
+    }
+
 }
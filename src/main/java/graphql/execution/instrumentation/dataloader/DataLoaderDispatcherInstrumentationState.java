@@ -39,6 +39,7 @@ public class DataLoaderDispatcherInstrumentationState implements Instrumentation
         }
     };
 
+    private final DataLoaderDispatchProfile profile;
     private final FieldLevelTrackingApproach approach;
     private final AtomicReference<DataLoaderRegistry> dataLoaderRegistry;
     private final InstrumentationState state;
@@ -46,8 +47,18 @@ public class DataLoaderDispatcherInstrumentationState implements Instrumentation
     private volatile boolean hasNoDataLoaders;
 
     public DataLoaderDispatcherInstrumentationState(Logger log, DataLoaderRegistry dataLoaderRegistry) {
+        this(log, dataLoaderRegistry, null);
+    }
+
+    /**
+     * @param log                the logger to use
+     * @param dataLoaderRegistry the data loader registry of the execution
+     * @param profile            the profile to record the dispatches into or null to not profile them
+     */
+    public DataLoaderDispatcherInstrumentationState(Logger log, DataLoaderRegistry dataLoaderRegistry, DataLoaderDispatchProfile profile) {
         this.dataLoaderRegistry = new AtomicReference<>(dataLoaderRegistry);
-        this.approach = new FieldLevelTrackingApproach(log, this::getDataLoaderRegistry);
+        this.profile = profile;
+        this.approach = new FieldLevelTrackingApproach(log, this::getDataLoaderRegistry, profile);
         this.state = approach.createState();
         hasNoDataLoaders = checkForNoDataLoader(dataLoaderRegistry);
     }
@@ -68,6 +79,10 @@ public class DataLoaderDispatcherInstrumentationState implements Instrumentation
         this.aggressivelyBatching = aggressivelyBatching;
     }
 
+    DataLoaderDispatchProfile getProfile() {
+        return profile;
+    }
+
     FieldLevelTrackingApproach getApproach() {
         return approach;
     }
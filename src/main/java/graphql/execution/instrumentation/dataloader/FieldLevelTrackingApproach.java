@@ -26,6 +26,7 @@ import java.util.function.Supplier;
 public class FieldLevelTrackingApproach {
     private final Supplier<DataLoaderRegistry> dataLoaderRegistrySupplier;
     private final Logger log;
+    private final DataLoaderDispatchProfile profile;
 
     private static class CallStack implements InstrumentationState {
 
@@ -110,8 +111,13 @@ public class FieldLevelTrackingApproach {
     }
 
     public FieldLevelTrackingApproach(Logger log, Supplier<DataLoaderRegistry> dataLoaderRegistrySupplier) {
+        this(log, dataLoaderRegistrySupplier, null);
+    }
+
+    public FieldLevelTrackingApproach(Logger log, Supplier<DataLoaderRegistry> dataLoaderRegistrySupplier, DataLoaderDispatchProfile profile) {
         this.dataLoaderRegistrySupplier = dataLoaderRegistrySupplier;
         this.log = log;
+        this.profile = profile;
     }
 
     public InstrumentationState createState() {
@@ -147,7 +153,7 @@ public class FieldLevelTrackingApproach {
                     dispatchNeeded = handleOnFieldValuesInfo(fieldValueInfoList, callStack, curLevel);
                 }
                 if (dispatchNeeded) {
-                    dispatch();
+                    dispatch(curLevel + 1);
                 }
             }
 
@@ -194,10 +200,13 @@ public class FieldLevelTrackingApproach {
                 boolean dispatchNeeded;
                 synchronized (callStack) {
                     callStack.increaseFetchCount(level);
+                    if (profile != null) {
+                        profile.fieldFetchDispatched(level);
+                    }
                     dispatchNeeded = dispatchIfNeeded(callStack, level);
                 }
                 if (dispatchNeeded) {
-                    dispatch();
+                    dispatch(level);
                 }
 
             }
@@ -234,11 +243,14 @@ public class FieldLevelTrackingApproach {
         return false;
     }
 
-    void dispatch() {
+    void dispatch(int level) {
         DataLoaderRegistry dataLoaderRegistry = getDataLoaderRegistry();
         if (log.isDebugEnabled()) {
             log.debug("Dispatching data loaders ({})", dataLoaderRegistry.getKeys());
         }
+        if (profile != null) {
+            profile.dispatching(level, dataLoaderRegistry);
+        }
         dataLoaderRegistry.dispatchAll();
     }
 
@@ -0,0 +1,191 @@
+package graphql.execution.instrumentation.memoization;
+
+import graphql.PublicApi;
+import graphql.execution.Async;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLFieldsContainer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.execution.instrumentation.InstrumentationState.ofState;
+
+/**
+ * This {@link Instrumentation} memoizes the data fetchers of chosen fields for the duration of an execution.  A query that reaches
+ * the same field of the same source object with the same arguments more than once, say via fragments and aliases, only calls the data
+ * fetcher the first time and every invocation shares the value it returned.
+ * <p>
+ * Invocations are keyed by the identity of the source object, the coordinates of the field and the coerced argument values.  Only
+ * memoize fields whose data fetchers return the same value for the same key within an execution and that do not depend on anything else
+ * in the {@link DataFetchingEnvironment}, such as the selection set.
+ * <p>
+ * The errors of a {@link DataFetcherResult} are only reported by the invocation that called the data fetcher, since they carry its
+ * path.  The invocations that share its value get the data without the errors.
+ *
+ * <pre>{@code
+ *     GraphQL graphQL = GraphQL.newGraphQL(schema)
+ *             .instrumentation(FieldMemoizationInstrumentation.newFieldMemoizationInstrumentation()
+ *                     .memoize(FieldCoordinates.coordinates("User", "permissions"))
+ *                     .build())
+ *             .build();
+ * }</pre>
+ */
+@PublicApi
+public class FieldMemoizationInstrumentation extends SimplePerformantInstrumentation {
+
+    private final Set<FieldCoordinates> memoizedFields;
+    // the memoized fields by type name and field name, so that the fields that are not memoized are turned away without an allocation
+    private final Map<String, Map<String, FieldCoordinates>> memoizedFieldsByType = new HashMap<>();
+
+    private FieldMemoizationInstrumentation(Builder builder) {
+        this.memoizedFields = Collections.unmodifiableSet(new LinkedHashSet<>(builder.memoizedFields));
+        for (FieldCoordinates coordinates : memoizedFields) {
+            memoizedFieldsByType.computeIfAbsent(coordinates.getTypeName(), typeName -> new HashMap<>()).put(coordinates.getFieldName(), coordinates);
+        }
+    }
+
+    /**
+     * @return the coordinates of the fields whose data fetchers are memoized
+     */
+    public Set<FieldCoordinates> getMemoizedFields() {
+        return memoizedFields;
+    }
+
+    @Override
+    public @Nullable InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new MemoizationState();
+    }
+
+    @Override
+    public @NotNull DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters, InstrumentationState rawState) {
+        if (memoizedFieldsByType.isEmpty()) {
+            return dataFetcher;
+        }
+        DataFetchingEnvironment environment = parameters.getEnvironment();
+        Map<String, FieldCoordinates> memoizedFieldsOfType = memoizedFieldsByType.get(((GraphQLFieldsContainer) environment.getParentType()).getName());
+        FieldCoordinates coordinates = memoizedFieldsOfType != null ? memoizedFieldsOfType.get(environment.getFieldDefinition().getName()) : null;
+        if (coordinates == null) {
+            return dataFetcher;
+        }
+        MemoizationState state = ofState(rawState);
+        return env -> {
+            InvocationKey key = new InvocationKey(env.getSource(), coordinates, env.getArguments());
+            CompletableFuture<Object> value = state.invocations.get(key);
+            if (value != null) {
+                return withoutErrors(value);
+            }
+            CompletableFuture<Object> ourValue = new CompletableFuture<>();
+            value = state.invocations.putIfAbsent(key, ourValue);
+            if (value != null) {
+                return withoutErrors(value);
+            }
+            try {
+                Async.toCompletableFuture(dataFetcher.get(env)).whenComplete((result, exception) -> {
+                    if (exception != null) {
+                        ourValue.completeExceptionally(exception);
+                    } else {
+                        ourValue.complete(result);
+                    }
+                });
+            } catch (Exception e) {
+                ourValue.completeExceptionally(e);
+            }
+            return ourValue;
+        };
+    }
+
+    // the errors of a shared result have the path of the invocation that fetched it, which reports them
+    private static CompletableFuture<Object> withoutErrors(CompletableFuture<Object> value) {
+        return value.thenApply(result -> {
+            if (result instanceof DataFetcherResult && ((DataFetcherResult<?>) result).hasErrors()) {
+                return ((DataFetcherResult<?>) result).transform(DataFetcherResult.Builder::clearErrors);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * @return a new builder of {@link FieldMemoizationInstrumentation}s
+     */
+    public static Builder newFieldMemoizationInstrumentation() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final Set<FieldCoordinates> memoizedFields = new LinkedHashSet<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Memoizes the data fetcher of the field with the given coordinates
+         *
+         * @param coordinates the coordinates of the field
+         *
+         * @return this builder
+         */
+        public Builder memoize(FieldCoordinates coordinates) {
+            memoizedFields.add(assertNotNull(coordinates));
+            return this;
+        }
+
+        public FieldMemoizationInstrumentation build() {
+            return new FieldMemoizationInstrumentation(this);
+        }
+    }
+
+    private static class MemoizationState implements InstrumentationState {
+        private final Map<InvocationKey, CompletableFuture<Object>> invocations = new ConcurrentHashMap<>();
+    }
+
+    private static class InvocationKey {
+        private final Object source;
+        private final FieldCoordinates coordinates;
+        private final Map<String, Object> arguments;
+        private final int hashCode;
+
+        private InvocationKey(Object source, FieldCoordinates coordinates, Map<String, Object> arguments) {
+            this.source = source;
+            this.coordinates = coordinates;
+            this.arguments = arguments;
+            this.hashCode = Objects.hash(System.identityHashCode(source), coordinates, arguments);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            InvocationKey that = (InvocationKey) o;
+            // the source object is compared by identity since equal objects at different places can still have different values
+            return source == that.source
+                    && coordinates.equals(that.coordinates)
+                    && arguments.equals(that.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package graphql.execution.instrumentation.metrics;
+
+import graphql.PublicApi;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static graphql.Assert.assertTrue;
+
+/**
+ * A lock free histogram of non-negative long values, say latencies in nanoseconds or list sizes.
+ * <p>
+ * Like an HDR histogram it has log-linear buckets: each power of two range is split into four equal buckets, so a
+ * recorded value is known to within 25%.  Values of 2<sup>42</sup> and above, which is more than an hour in nanoseconds, all go into
+ * the last bucket.  Each bucket is a {@link LongAdder}, created when the first value is recorded into it, so many threads can record
+ * values at the same time without contention.
+ */
+@PublicApi
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 41;
+    // the buckets of the values below SUB_BUCKETS, then SUB_BUCKETS per exponent and then one for the values that are too large
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS + 1;
+
+    private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value
+     *
+     * @param value the value, which must not be negative
+     */
+    public void record(long value) {
+        assertTrue(value >= 0, () -> "a histogram value must not be negative");
+        int index = bucketIndex(value);
+        LongAdder bucket = buckets.get(index);
+        if (bucket == null) {
+            bucket = new LongAdder();
+            if (!buckets.compareAndSet(index, null, bucket)) {
+                bucket = buckets.get(index);
+            }
+        }
+        bucket.increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of the recorded values
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return the largest recorded value or 0 if there is none
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded values or 0 if there is none
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * Returns the value that the given percentage of recorded values are at or below.  The value is the upper bound of the bucket
+     * the percentile falls in, capped by the largest recorded value.
+     *
+     * @param percentile the percentile, from 0 to 100
+     *
+     * @return the value at the percentile or 0 if there are no recorded values
+     */
+    public long getValueAtPercentile(double percentile) {
+        assertTrue(percentile >= 0 && percentile <= 100, () -> "percentile must be between 0 and 100");
+        // the buckets are read one at a time while values are recorded, so this is a close approximation under load
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            LongAdder bucket = buckets.get(i);
+            counts[i] = bucket != null ? bucket.sum() : 0;
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            LongAdder bucket = buckets.get(i);
+            if (bucket != null) {
+                bucket.reset();
+            }
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        // the top SUB_BUCKET_BITS + 1 bits of the value, from SUB_BUCKETS to 2 * SUB_BUCKETS - 1
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        if (index == BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{" +
+                "count=" + getCount() +
+                ", mean=" + getMean() +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", max=" + getMax() +
+                '}';
+    }
+}
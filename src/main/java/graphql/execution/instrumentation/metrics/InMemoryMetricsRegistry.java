@@ -0,0 +1,140 @@
+package graphql.execution.instrumentation.metrics;
+
+import graphql.PublicApi;
+import graphql.schema.FieldCoordinates;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MetricsRegistry} that keeps the measurements in memory, in a {@link Histogram} per phase and per field metric
+ */
+@PublicApi
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final Map<Phase, Histogram> phaseLatencies = new EnumMap<>(Phase.class);
+    private final ConcurrentHashMap<FieldCoordinates, FieldMetrics> fieldMetrics = new ConcurrentHashMap<>();
+
+    public InMemoryMetricsRegistry() {
+        for (Phase phase : Phase.values()) {
+            phaseLatencies.put(phase, new Histogram());
+        }
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long durationNanos) {
+        phaseLatencies.get(phase).record(durationNanos);
+    }
+
+    @Override
+    public void recordFieldFetch(FieldCoordinates coordinates, long durationNanos, boolean failed) {
+        FieldMetrics metrics = fieldMetrics(coordinates);
+        metrics.fetchLatency.record(durationNanos);
+        if (failed) {
+            metrics.errorCount.increment();
+        }
+    }
+
+    @Override
+    public void recordFieldCompletion(FieldCoordinates coordinates, long durationNanos) {
+        fieldMetrics(coordinates).completionLatency.record(durationNanos);
+    }
+
+    @Override
+    public void recordListSize(FieldCoordinates coordinates, int size) {
+        fieldMetrics(coordinates).listSizes.record(size);
+    }
+
+    private FieldMetrics fieldMetrics(FieldCoordinates coordinates) {
+        // a get first since the metrics of a field almost always exist already
+        FieldMetrics metrics = fieldMetrics.get(coordinates);
+        if (metrics == null) {
+            metrics = fieldMetrics.computeIfAbsent(coordinates, key -> new FieldMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * @param phase the phase of a request
+     *
+     * @return the durations of the phase in nanoseconds
+     */
+    public Histogram getPhaseLatency(Phase phase) {
+        return phaseLatencies.get(phase);
+    }
+
+    /**
+     * @param coordinates the coordinates of a field
+     *
+     * @return the metrics of the field or null if nothing has been recorded for it
+     */
+    public FieldMetrics getFieldMetrics(FieldCoordinates coordinates) {
+        return fieldMetrics.get(coordinates);
+    }
+
+    /**
+     * @return the metrics of all the fields that something has been recorded for
+     */
+    public Map<FieldCoordinates, FieldMetrics> getAllFieldMetrics() {
+        return Collections.unmodifiableMap(fieldMetrics);
+    }
+
+    /**
+     * Clears all recorded measurements
+     */
+    public void reset() {
+        phaseLatencies.values().forEach(Histogram::reset);
+        fieldMetrics.clear();
+    }
+
+    /**
+     * The metrics of a field
+     */
+    public static class FieldMetrics {
+        private final Histogram fetchLatency = new Histogram();
+        private final Histogram completionLatency = new Histogram();
+        private final Histogram listSizes = new Histogram();
+        private final LongAdder errorCount = new LongAdder();
+
+        /**
+         * @return the durations of the fetches of the field in nanoseconds
+         */
+        public Histogram getFetchLatency() {
+            return fetchLatency;
+        }
+
+        /**
+         * @return the durations of the completions of the field in nanoseconds
+         */
+        public Histogram getCompletionLatency() {
+            return completionLatency;
+        }
+
+        /**
+         * @return the sizes of the list values of the field
+         */
+        public Histogram getListSizes() {
+            return listSizes;
+        }
+
+        /**
+         * @return the number of fetches of the field that failed
+         */
+        public long getErrorCount() {
+            return errorCount.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "FieldMetrics{" +
+                    "fetchLatency=" + fetchLatency +
+                    ", completionLatency=" + completionLatency +
+                    ", listSizes=" + listSizes +
+                    ", errorCount=" + getErrorCount() +
+                    '}';
+        }
+    }
+}
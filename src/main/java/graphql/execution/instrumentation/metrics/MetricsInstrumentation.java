@@ -0,0 +1,169 @@
+package graphql.execution.instrumentation.metrics;
+
+import graphql.ExecutionResult;
+import graphql.PublicApi;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldCompleteParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.util.FpKit;
+import graphql.validation.ValidationError;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * This {@link Instrumentation} measures the parse, validate and execute phases of requests and, per {@link FieldCoordinates}, the
+ * latency of field fetches and completions, the number of failed fetches and the sizes of list values.  The measurements go to a
+ * {@link MetricsRegistry}, by default an {@link InMemoryMetricsRegistry}:
+ *
+ * <pre>{@code
+ *     InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+ *     GraphQL graphQL = GraphQL.newGraphQL(schema).instrumentation(new MetricsInstrumentation(registry)).build();
+ *     ...
+ *     long p99 = registry.getFieldMetrics(FieldCoordinates.coordinates("Query", "products")).getFetchLatency().getValueAtPercentile(99);
+ * }</pre>
+ * <p>
+ * It has no per request state and measuring a field allocates a single instrumentation context.
+ */
+@PublicApi
+public class MetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    private final MetricsRegistry registry;
+    private final boolean includeTrivialDataFetchers;
+
+    public MetricsInstrumentation() {
+        this(new InMemoryMetricsRegistry());
+    }
+
+    public MetricsInstrumentation(MetricsRegistry registry) {
+        this(registry, true);
+    }
+
+    /**
+     * @param registry                   the registry the measurements go to
+     * @param includeTrivialDataFetchers whether to measure the fetches of trivial data fetchers, such as those that read a property
+     */
+    public MetricsInstrumentation(MetricsRegistry registry, boolean includeTrivialDataFetchers) {
+        this.registry = assertNotNull(registry);
+        this.includeTrivialDataFetchers = includeTrivialDataFetchers;
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        return new PhaseTimer<>(MetricsRegistry.Phase.PARSE);
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters, InstrumentationState state) {
+        return new PhaseTimer<>(MetricsRegistry.Phase.VALIDATE);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        return new PhaseTimer<>(MetricsRegistry.Phase.EXECUTE);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+        if (!includeTrivialDataFetchers && parameters.isTrivialDataFetcher()) {
+            return null;
+        }
+        DataFetchingEnvironment environment = parameters.getEnvironment();
+        return new FetchTimer(FieldCoordinates.coordinates((GraphQLFieldsContainer) environment.getParentType(), environment.getFieldDefinition()));
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginFieldComplete(InstrumentationFieldCompleteParameters parameters, InstrumentationState state) {
+        return new CompletionTimer(coordinatesOf(parameters.getExecutionStepInfo()));
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginFieldListComplete(InstrumentationFieldCompleteParameters parameters, InstrumentationState state) {
+        Object fetchedValue = parameters.getFetchedValue();
+        if (fetchedValue instanceof Iterable) {
+            OptionalInt size = FpKit.toSize(fetchedValue);
+            if (size.isPresent()) {
+                registry.recordListSize(coordinatesOf(parameters.getExecutionStepInfo()), size.getAsInt());
+            }
+        }
+        return null;
+    }
+
+    private static FieldCoordinates coordinatesOf(ExecutionStepInfo executionStepInfo) {
+        return FieldCoordinates.coordinates(executionStepInfo.getObjectType(), executionStepInfo.getFieldDefinition());
+    }
+
+    private class PhaseTimer<T> implements InstrumentationContext<T> {
+        private final MetricsRegistry.Phase phase;
+        private final long startNanos = System.nanoTime();
+
+        private PhaseTimer(MetricsRegistry.Phase phase) {
+            this.phase = phase;
+        }
+
+        @Override
+        public void onDispatched(CompletableFuture<T> result) {
+        }
+
+        @Override
+        public void onCompleted(T result, Throwable t) {
+            registry.recordPhase(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    private class FetchTimer implements InstrumentationContext<Object> {
+        private final FieldCoordinates coordinates;
+        private final long startNanos = System.nanoTime();
+
+        private FetchTimer(FieldCoordinates coordinates) {
+            this.coordinates = coordinates;
+        }
+
+        @Override
+        public void onDispatched(CompletableFuture<Object> result) {
+        }
+
+        @Override
+        public void onCompleted(Object result, Throwable t) {
+            boolean failed = t != null || (result instanceof DataFetcherResult && ((DataFetcherResult<?>) result).hasErrors());
+            registry.recordFieldFetch(coordinates, System.nanoTime() - startNanos, failed);
+        }
+    }
+
+    private class CompletionTimer implements InstrumentationContext<ExecutionResult> {
+        private final FieldCoordinates coordinates;
+        private final long startNanos = System.nanoTime();
+
+        private CompletionTimer(FieldCoordinates coordinates) {
+            this.coordinates = coordinates;
+        }
+
+        @Override
+        public void onDispatched(CompletableFuture<ExecutionResult> result) {
+        }
+
+        @Override
+        public void onCompleted(ExecutionResult result, Throwable t) {
+            registry.recordFieldCompletion(coordinates, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package graphql.execution.instrumentation.metrics;
+
+import graphql.PublicSpi;
+import graphql.schema.FieldCoordinates;
+
+/**
+ * A metrics registry receives the measurements of a {@link MetricsInstrumentation}.  The {@link InMemoryMetricsRegistry} keeps them
+ * in {@link Histogram}s but you can implement this to pass them on to the metrics library of your choice.
+ * <p>
+ * The methods are called on the threads that execute queries, often many at the same time, so they must be thread safe and cheap.
+ */
+@PublicSpi
+public interface MetricsRegistry {
+
+    /**
+     * The phases of a request
+     */
+    enum Phase {
+        PARSE,
+        VALIDATE,
+        EXECUTE
+    }
+
+    /**
+     * Called when a phase of a request has finished
+     *
+     * @param phase         the phase
+     * @param durationNanos the time the phase took
+     */
+    void recordPhase(Phase phase, long durationNanos);
+
+    /**
+     * Called when the data fetcher of a field has returned its value, which includes the time an asynchronous value took to complete
+     *
+     * @param coordinates   the coordinates of the field
+     * @param durationNanos the time the fetch took
+     * @param failed        true if the data fetcher threw an exception or its value completed exceptionally
+     */
+    void recordFieldFetch(FieldCoordinates coordinates, long durationNanos, boolean failed);
+
+    /**
+     * Called when a field has been completed, which includes the time taken to complete the fields below it
+     *
+     * @param coordinates   the coordinates of the field
+     * @param durationNanos the time the completion took
+     */
+    void recordFieldCompletion(FieldCoordinates coordinates, long durationNanos);
+
+    /**
+     * Called when a list value of a field is about to be completed
+     *
+     * @param coordinates the coordinates of the field
+     * @param size        the number of items in the list
+     */
+    void recordListSize(FieldCoordinates coordinates, int size);
+}
@@ -0,0 +1,168 @@
+package graphql.execution.instrumentation.slowquery;
+
+import graphql.PublicApi;
+import graphql.execution.ResultPath;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A query that exceeded the latency or complexity threshold of a {@link SlowQueryInstrumentation}.  It only holds the privacy safe
+ * form of the query, with the literal values hidden, so it can be logged and kept.
+ */
+@PublicApi
+public class SlowQuery {
+
+    private final Instant startTime;
+    private final String operationName;
+    private final String privacySafeQuery;
+    private final Duration duration;
+    private final Duration parseDuration;
+    private final Duration validationDuration;
+    private final Duration executionDuration;
+    private final int complexity;
+    private final boolean latencyExceeded;
+    private final boolean complexityExceeded;
+    private final List<SlowField> slowestFields;
+
+    SlowQuery(Instant startTime,
+              String operationName,
+              String privacySafeQuery,
+              Duration duration,
+              Duration parseDuration,
+              Duration validationDuration,
+              Duration executionDuration,
+              int complexity,
+              boolean latencyExceeded,
+              boolean complexityExceeded,
+              List<SlowField> slowestFields) {
+        this.startTime = startTime;
+        this.operationName = operationName;
+        this.privacySafeQuery = privacySafeQuery;
+        this.duration = duration;
+        this.parseDuration = parseDuration;
+        this.validationDuration = validationDuration;
+        this.executionDuration = executionDuration;
+        this.complexity = complexity;
+        this.latencyExceeded = latencyExceeded;
+        this.complexityExceeded = complexityExceeded;
+        this.slowestFields = slowestFields;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return the name of the operation or null if it has none or was never worked out
+     */
+    public String getOperationName() {
+        return operationName;
+    }
+
+    /**
+     * @return the query with the literal values hidden and aliases removed or null if the query could not be parsed
+     *
+     * @see graphql.language.AstSignature#privacySafeQuery(graphql.language.Document, String)
+     */
+    public String getPrivacySafeQuery() {
+        return privacySafeQuery;
+    }
+
+    /**
+     * @return the time the whole request took
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the time the parsing took or null if the query was not parsed
+     */
+    public Duration getParseDuration() {
+        return parseDuration;
+    }
+
+    /**
+     * @return the time the validation took or null if the query was not validated
+     */
+    public Duration getValidationDuration() {
+        return validationDuration;
+    }
+
+    /**
+     * @return the time the execution of the operation took or null if the operation was not executed
+     */
+    public Duration getExecutionDuration() {
+        return executionDuration;
+    }
+
+    /**
+     * @return the complexity of the operation or -1 if there is no complexity threshold, in which case it is not worked out
+     */
+    public int getComplexity() {
+        return complexity;
+    }
+
+    public boolean isLatencyExceeded() {
+        return latencyExceeded;
+    }
+
+    public boolean isComplexityExceeded() {
+        return complexityExceeded;
+    }
+
+    /**
+     * @return the slowest field fetches, slowest first
+     */
+    public List<SlowField> getSlowestFields() {
+        return slowestFields;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowQuery{" +
+                "startTime=" + startTime +
+                ", operationName='" + operationName + '\'' +
+                ", privacySafeQuery='" + privacySafeQuery + '\'' +
+                ", duration=" + duration +
+                ", parseDuration=" + parseDuration +
+                ", validationDuration=" + validationDuration +
+                ", executionDuration=" + executionDuration +
+                ", complexity=" + complexity +
+                ", latencyExceeded=" + latencyExceeded +
+                ", complexityExceeded=" + complexityExceeded +
+                ", slowestFields=" + slowestFields +
+                '}';
+    }
+
+    /**
+     * A field fetch of a slow query
+     */
+    public static class SlowField {
+        private final ResultPath path;
+        private final Duration duration;
+
+        SlowField(ResultPath path, Duration duration) {
+            this.path = path;
+            this.duration = duration;
+        }
+
+        public ResultPath getPath() {
+            return path;
+        }
+
+        /**
+         * @return the time the fetch took
+         */
+        public Duration getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return path + "=" + duration;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package graphql.execution.instrumentation.slowquery;
+
+import com.google.common.collect.ImmutableList;
+import graphql.ExecutionResult;
+import graphql.PublicApi;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.execution.ExecutionContext;
+import graphql.execution.ResultPath;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.AstPrinter;
+import graphql.language.AstSignature;
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+import static graphql.execution.instrumentation.InstrumentationState.ofState;
+
+/**
+ * This {@link Instrumentation} captures the requests that take longer than a latency threshold, or whose operation is more complex
+ * than a complexity threshold, as {@link SlowQuery}s and passes them on to a {@link SlowQuerySink}:
+ *
+ * <pre>{@code
+ *     SlowQueryInstrumentation slowQueries = SlowQueryInstrumentation.newSlowQueryInstrumentation()
+ *             .latencyThreshold(Duration.ofSeconds(1))
+ *             .sink(slowQuery -> log.warn("Slow query {}", slowQuery))
+ *             .build();
+ * }</pre>
+ * <p>
+ * The fast requests only pay for timing the phases and their non trivial field fetches.  A slow request puts what it measured into a
+ * bounded lock free buffer and a background thread turns it into a {@link SlowQuery}, which includes working out the privacy safe query
+ * via {@link AstSignature#privacySafeQuery(Document, String)}, and calls the sink.  When the buffer is full, say because the sink is
+ * slower than the rate of slow queries, further slow queries are dropped and counted by {@link #getDroppedCount()}.
+ * <p>
+ * The complexity of an operation is only worked out if there is a complexity threshold.
+ */
+@PublicApi
+public class SlowQueryInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryInstrumentation.class);
+
+    private final long latencyThresholdNanos;
+    private final int complexityThreshold;
+    private final FieldComplexityCalculator fieldComplexityCalculator;
+    private final int slowestFieldCount;
+    private final int bufferSize;
+    private final SlowQuerySink sink;
+    private final Executor drainExecutor;
+
+    private final Queue<Capture> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedCount = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final LongAdder droppedCount = new LongAdder();
+
+    private SlowQueryInstrumentation(Builder builder) {
+        this.latencyThresholdNanos = builder.latencyThreshold != null ? builder.latencyThreshold.toNanos() : Long.MAX_VALUE;
+        this.complexityThreshold = builder.complexityThreshold;
+        this.fieldComplexityCalculator = builder.fieldComplexityCalculator;
+        this.slowestFieldCount = builder.slowestFieldCount;
+        this.bufferSize = builder.bufferSize;
+        this.sink = builder.sink;
+        this.drainExecutor = builder.drainExecutor;
+    }
+
+    /**
+     * @return the number of slow queries that were dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    @Override
+    public @Nullable InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new State(slowestFieldCount);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters, InstrumentationState rawState) {
+        State state = ofState(rawState);
+        return SimpleInstrumentationContext.whenCompleted((result, t) -> {
+            long durationNanos = System.nanoTime() - state.startNanos;
+            boolean latencyExceeded = durationNanos >= latencyThresholdNanos;
+            boolean complexityExceeded = complexityThreshold >= 0 && state.complexity > complexityThreshold;
+            if (latencyExceeded || complexityExceeded) {
+                offer(new Capture(state, durationNanos, latencyExceeded, complexityExceeded));
+            }
+        });
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters, InstrumentationState rawState) {
+        State state = ofState(rawState);
+        long startNanos = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, t) -> state.parseNanos = System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters, InstrumentationState rawState) {
+        State state = ofState(rawState);
+        long startNanos = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, t) -> state.validationNanos = System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState rawState) {
+        State state = ofState(rawState);
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        state.document = executionContext.getDocument();
+        state.operationName = executionContext.getOperationDefinition().getName();
+        if (complexityThreshold >= 0) {
+            state.complexity = executionContext.getQueryAnalysis().get().getComplexity(fieldComplexityCalculator);
+        }
+        long startNanos = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, t) -> state.executionNanos = System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState rawState) {
+        if (slowestFieldCount == 0 || parameters.isTrivialDataFetcher()) {
+            return null;
+        }
+        State state = ofState(rawState);
+        long startNanos = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, t) ->
+                state.fieldFetched(parameters.getExecutionStepInfo().getPath(), System.nanoTime() - startNanos));
+    }
+
+    private void offer(Capture capture) {
+        if (bufferedCount.incrementAndGet() > bufferSize) {
+            bufferedCount.decrementAndGet();
+            droppedCount.increment();
+            return;
+        }
+        buffer.offer(capture);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                drainExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // the captures stay buffered and the next slow query tries to drain them again
+                draining.set(false);
+                log.warn("The slow query drain executor rejected the drain", e);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Capture capture;
+            while ((capture = buffer.poll()) != null) {
+                bufferedCount.decrementAndGet();
+                try {
+                    sink.accept(capture.toSlowQuery());
+                } catch (RuntimeException e) {
+                    log.warn("The slow query sink failed", e);
+                }
+            }
+        } finally {
+            // reset even when the sink throws an error, else no drain would ever be scheduled again
+            draining.set(false);
+        }
+        // a capture offered after the buffer was found empty but before draining was reset would otherwise wait for the next one
+        if (!buffer.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private static class State implements InstrumentationState {
+        private final Instant startTime = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final int slowestFieldCount;
+        // a min heap, so the fastest of the slowest fields is the one to replace
+        private final PriorityQueue<FieldFetch> slowestFields;
+        private volatile long slowestFieldsMinNanos;
+        private volatile long parseNanos = -1;
+        private volatile long validationNanos = -1;
+        private volatile long executionNanos = -1;
+        private volatile Document document;
+        private volatile String operationName;
+        private volatile int complexity = -1;
+
+        private State(int slowestFieldCount) {
+            this.slowestFieldCount = slowestFieldCount;
+            this.slowestFields = new PriorityQueue<>(Math.max(1, slowestFieldCount), Comparator.comparingLong(fieldFetch -> fieldFetch.durationNanos));
+        }
+
+        private void fieldFetched(ResultPath path, long durationNanos) {
+            // most fetches are not among the slowest, and they are turned away without taking the lock
+            if (durationNanos <= slowestFieldsMinNanos) {
+                return;
+            }
+            synchronized (slowestFields) {
+                slowestFields.add(new FieldFetch(path, durationNanos));
+                if (slowestFields.size() > slowestFieldCount) {
+                    slowestFields.poll();
+                }
+                if (slowestFields.size() == slowestFieldCount) {
+                    slowestFieldsMinNanos = slowestFields.peek().durationNanos;
+                }
+            }
+        }
+
+        private List<FieldFetch> slowestFieldsFirst() {
+            List<FieldFetch> fieldFetches;
+            synchronized (slowestFields) {
+                fieldFetches = new ArrayList<>(slowestFields);
+            }
+            fieldFetches.sort(Comparator.comparingLong((FieldFetch fieldFetch) -> fieldFetch.durationNanos).reversed());
+            return fieldFetches;
+        }
+    }
+
+    private static class FieldFetch {
+        private final ResultPath path;
+        private final long durationNanos;
+
+        private FieldFetch(ResultPath path, long durationNanos) {
+            this.path = path;
+            this.durationNanos = durationNanos;
+        }
+    }
+
+    /**
+     * What a slow request measured, as it is buffered.  The work of turning it into a {@link SlowQuery} is left to the drain thread.
+     */
+    private static class Capture {
+        private final State state;
+        private final long durationNanos;
+        private final boolean latencyExceeded;
+        private final boolean complexityExceeded;
+
+        private Capture(State state, long durationNanos, boolean latencyExceeded, boolean complexityExceeded) {
+            this.state = state;
+            this.durationNanos = durationNanos;
+            this.latencyExceeded = latencyExceeded;
+            this.complexityExceeded = complexityExceeded;
+        }
+
+        private SlowQuery toSlowQuery() {
+            Document document = state.document;
+            String privacySafeQuery = null;
+            if (document != null) {
+                privacySafeQuery = AstPrinter.printAstCompact(new AstSignature().privacySafeQuery(document, state.operationName));
+            }
+            ImmutableList.Builder<SlowQuery.SlowField> slowestFields = ImmutableList.builder();
+            for (FieldFetch fieldFetch : state.slowestFieldsFirst()) {
+                slowestFields.add(new SlowQuery.SlowField(fieldFetch.path, Duration.ofNanos(fieldFetch.durationNanos)));
+            }
+            return new SlowQuery(state.startTime,
+                    state.operationName,
+                    privacySafeQuery,
+                    Duration.ofNanos(durationNanos),
+                    toDuration(state.parseNanos),
+                    toDuration(state.validationNanos),
+                    toDuration(state.executionNanos),
+                    state.complexity,
+                    latencyExceeded,
+                    complexityExceeded,
+                    slowestFields.build());
+        }
+
+        private static Duration toDuration(long nanos) {
+            return nanos < 0 ? null : Duration.ofNanos(nanos);
+        }
+    }
+
+    // created on first use so that only the instrumentations with the default executor start the thread
+    private static class DefaultDrainExecutor {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "graphql-java-slow-queries");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Builder newSlowQueryInstrumentation() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Duration latencyThreshold;
+        private int complexityThreshold = -1;
+        private FieldComplexityCalculator fieldComplexityCalculator = (env, childComplexity) -> 1 + childComplexity;
+        private int slowestFieldCount = 5;
+        private int bufferSize = 1024;
+        private SlowQuerySink sink = slowQuery -> log.warn("Slow query: {}", slowQuery);
+        private Executor drainExecutor;
+
+        /**
+         * @param latencyThreshold the requests that take at least this long are captured
+         *
+         * @return this builder
+         */
+        public Builder latencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = assertNotNull(latencyThreshold);
+            return this;
+        }
+
+        /**
+         * @param complexityThreshold the requests whose operation has a higher complexity are captured
+         *
+         * @return this builder
+         */
+        public Builder complexityThreshold(int complexityThreshold) {
+            assertTrue(complexityThreshold >= 0, () -> "complexityThreshold must not be negative");
+            this.complexityThreshold = complexityThreshold;
+            return this;
+        }
+
+        /**
+         * @param fieldComplexityCalculator how to work out the complexity of the fields, by default 1 plus their child complexity
+         *
+         * @return this builder
+         */
+        public Builder fieldComplexityCalculator(FieldComplexityCalculator fieldComplexityCalculator) {
+            this.fieldComplexityCalculator = assertNotNull(fieldComplexityCalculator);
+            return this;
+        }
+
+        /**
+         * @param slowestFieldCount the number of slowest field fetches to capture, 5 by default, or 0 to not time field fetches
+         *
+         * @return this builder
+         */
+        public Builder slowestFieldCount(int slowestFieldCount) {
+            assertTrue(slowestFieldCount >= 0, () -> "slowestFieldCount must not be negative");
+            this.slowestFieldCount = slowestFieldCount;
+            return this;
+        }
+
+        /**
+         * @param bufferSize the maximum number of slow queries waiting for the sink, 1024 by default
+         *
+         * @return this builder
+         */
+        public Builder bufferSize(int bufferSize) {
+            assertTrue(bufferSize > 0, () -> "bufferSize must be positive");
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * @param sink where the slow queries go, by default they are logged as warnings
+         *
+         * @return this builder
+         */
+        public Builder sink(SlowQuerySink sink) {
+            this.sink = assertNotNull(sink);
+            return this;
+        }
+
+        /**
+         * @param drainExecutor the executor that runs the draining of the buffer into the sink, by default a single daemon thread
+         *
+         * @return this builder
+         */
+        public Builder drainExecutor(Executor drainExecutor) {
+            this.drainExecutor = assertNotNull(drainExecutor);
+            return this;
+        }
+
+        public SlowQueryInstrumentation build() {
+            assertTrue(latencyThreshold != null || complexityThreshold >= 0, () -> "a latency or complexity threshold must be given");
+            if (drainExecutor == null) {
+                drainExecutor = DefaultDrainExecutor.EXECUTOR;
+            }
+            return new SlowQueryInstrumentation(this);
+        }
+    }
+}
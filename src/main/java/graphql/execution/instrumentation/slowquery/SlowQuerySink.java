@@ -0,0 +1,22 @@
+package graphql.execution.instrumentation.slowquery;
+
+import graphql.PublicSpi;
+
+/**
+ * A slow query sink receives the {@link SlowQuery}s captured by a {@link SlowQueryInstrumentation}, say to log them or to send them
+ * to a monitoring system.
+ * <p>
+ * It is called on the background thread that drains the slow queries, one slow query at a time, never on the threads that execute
+ * queries.
+ */
+@PublicSpi
+@FunctionalInterface
+public interface SlowQuerySink {
+
+    /**
+     * Called with each captured slow query
+     *
+     * @param slowQuery the slow query
+     */
+    void accept(SlowQuery slowQuery);
+}
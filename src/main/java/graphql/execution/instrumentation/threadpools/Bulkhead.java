@@ -0,0 +1,161 @@
+package graphql.execution.instrumentation.threadpools;
+
+import com.google.common.annotations.Beta;
+import graphql.Internal;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+
+/**
+ * A bulkhead is an {@link Executor} that runs at most {@code maxConcurrent} tasks at a time on a delegate executor and queues at most
+ * {@code maxQueued} more.  A task beyond that is rejected straight away with a {@link BulkheadFullException} rather than waiting,
+ * which the {@link ExecutorInstrumentation} turns into a field error.
+ * <p>
+ * Many bulkheads can share one delegate executor, say a virtual thread executor or a large thread pool, since the bulkhead does its
+ * own bounding.
+ * <p>
+ * When the delegate rejects a task that was queued, the rejection goes to that task: a {@link RejectableTask} is told about it,
+ * which fails its field, and any other task is run on the thread that drained the queue, so that it is never lost.
+ */
+@Internal
+@Beta
+public class Bulkhead implements Executor {
+
+    private final String name;
+    private final Executor delegate;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param name          the name of the bulkhead, which is used in its errors
+     * @param delegate      the executor that runs the tasks
+     * @param maxConcurrent the maximum number of tasks running at the same time
+     * @param maxQueued     the maximum number of tasks waiting to run
+     */
+    public Bulkhead(String name, Executor delegate, int maxConcurrent, int maxQueued) {
+        assertTrue(maxConcurrent > 0, () -> "maxConcurrent must be greater than zero");
+        assertTrue(maxQueued >= 0, () -> "maxQueued must not be negative");
+        this.name = assertNotNull(name);
+        this.delegate = assertNotNull(delegate);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.admitted = new Semaphore(maxConcurrent + maxQueued);
+        this.running = new Semaphore(maxConcurrent);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * @return the number of tasks that are running or waiting to run
+     */
+    public int getInFlight() {
+        return maxConcurrent + maxQueued - admitted.availablePermits();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        assertNotNull(task);
+        if (!admitted.tryAcquire()) {
+            throw new BulkheadFullException(this);
+        }
+        queue.offer(task);
+        runQueued(task);
+    }
+
+    /*
+     * The task polled from the queue may have been given by another caller, so when the delegate rejects it the rejection goes to that
+     * task rather than to whoever happens to drain the queue.  Only the rejection of the task of this caller is thrown.
+     */
+    private void runQueued(Runnable ownTask) {
+        RejectedExecutionException ownRejection = null;
+        while (!queue.isEmpty() && running.tryAcquire()) {
+            Runnable task = queue.poll();
+            if (task == null) {
+                // another thread took it, so give back the slot and look again
+                running.release();
+                continue;
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                        admitted.release();
+                        runQueued(null);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.release();
+                admitted.release();
+                if (task == ownTask) {
+                    ownRejection = e;
+                } else {
+                    rejected(task, e);
+                }
+            }
+        }
+        if (ownRejection != null) {
+            throw ownRejection;
+        }
+    }
+
+    private static void rejected(Runnable task, RejectedExecutionException e) {
+        if (task instanceof RejectableTask) {
+            ((RejectableTask) task).rejected(e);
+        } else {
+            // nobody is there to tell, and dropping the task would leave whoever waits for it waiting forever
+            task.run();
+        }
+    }
+
+    /**
+     * A task that can be told that it will not run.  A bulkhead does so when its delegate executor rejects a task that was queued, at
+     * which point the caller that gave it is long gone.
+     */
+    public interface RejectableTask extends Runnable {
+
+        /**
+         * Called instead of {@link #run()} when the task will not run
+         *
+         * @param rejection the rejection of the delegate executor
+         */
+        void rejected(RejectedExecutionException rejection);
+    }
+
+    /**
+     * Thrown when a task is given to a bulkhead that has no room for it
+     */
+    public static class BulkheadFullException extends RejectedExecutionException {
+        private final String bulkheadName;
+
+        public BulkheadFullException(Bulkhead bulkhead) {
+            super("The bulkhead '" + bulkhead.getName() + "' is full with " + bulkhead.getMaxConcurrent() + " running and "
+                    + bulkhead.getMaxQueued() + " queued tasks");
+            this.bulkheadName = bulkhead.getName();
+        }
+
+        public String getBulkheadName() {
+            return bulkheadName;
+        }
+    }
+}
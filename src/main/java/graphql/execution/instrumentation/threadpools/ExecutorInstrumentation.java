@@ -5,6 +5,7 @@ import graphql.Assert;
 import graphql.Internal;
 import graphql.TrivialDataFetcher;
 import graphql.execution.Async;
+import graphql.execution.DataFetcherResult;
 import graphql.execution.instrumentation.InstrumentationState;
 import graphql.execution.instrumentation.SimplePerformantInstrumentation;
 import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
@@ -15,6 +16,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -36,8 +38,8 @@ import static graphql.execution.instrumentation.threadpools.ExecutorInstrumentat
  * <p>
  * Once the data fetcher value is returns it will transfer control back to a processing thread pool (if you provide one).
  * <p>
- * This code uses {@link CompletableFuture#supplyAsync(Supplier, Executor)} and {@link CompletableFuture#thenApplyAsync(Function, Executor)} to transfer
- * control between thread pools.
+ * This code hands the fetch to the fetch executor, completing a {@link CompletableFuture} much as {@link CompletableFuture#supplyAsync(Supplier, Executor)}
+ * would, and uses {@link CompletableFuture#thenApplyAsync(Function, Executor)} to transfer control between thread pools.
  */
 @Internal
 @Beta
@@ -53,11 +55,13 @@ public class ExecutorInstrumentation extends SimplePerformantInstrumentation {
 
     private final Executor fetchExecutor;
     private final Executor processingExecutor;
+    private final FetchExecutorRouter fetchExecutorRouter;
     private final Consumer<Action> actionObserver;
 
-    private ExecutorInstrumentation(Executor fetchExecutor, Executor processingExecutor, Consumer<Action> actionObserver) {
+    private ExecutorInstrumentation(Executor fetchExecutor, Executor processingExecutor, FetchExecutorRouter fetchExecutorRouter, Consumer<Action> actionObserver) {
         this.fetchExecutor = fetchExecutor;
         this.processingExecutor = processingExecutor;
+        this.fetchExecutorRouter = fetchExecutorRouter;
         this.actionObserver = actionObserver;
     }
 
@@ -69,6 +73,10 @@ public class ExecutorInstrumentation extends SimplePerformantInstrumentation {
         return processingExecutor;
     }
 
+    public FetchExecutorRouter getFetchExecutorRouter() {
+        return fetchExecutorRouter;
+    }
+
     public static Builder newThreadPoolExecutionInstrumentation() {
         return new Builder();
     }
@@ -76,6 +84,7 @@ public class ExecutorInstrumentation extends SimplePerformantInstrumentation {
     public static class Builder {
         Executor fetchExecutor;
         Executor processingExecutor;
+        FetchExecutorRouter fetchExecutorRouter;
         private Consumer<Action> actionObserver;
 
         public Builder fetchExecutor(Executor fetchExecutor) {
@@ -88,6 +97,37 @@ public class ExecutorInstrumentation extends SimplePerformantInstrumentation {
             return this;
         }
 
+        /**
+         * The router picks the executor of each field fetch.  Fields it does not route are fetched on the fetch executor.
+         * <p>
+         * When the picked executor rejects the fetch, say because it is a full {@link Bulkhead}, the field fails straight away
+         * with a {@link FetchRejectedError}.
+         *
+         * @param fetchExecutorRouter the router of the field fetches
+         *
+         * @return this builder
+         */
+        public Builder fetchExecutorRouter(FetchExecutorRouter fetchExecutorRouter) {
+            this.fetchExecutorRouter = fetchExecutorRouter;
+            return this;
+        }
+
+        /**
+         * Runs each fetch on a new virtual thread when the JDK supports them, which suits data fetchers that call blocking clients
+         * since no thread pool needs sizing for the number of fetches in flight.  On a JDK without virtual threads the fetch executor
+         * is left as it is.
+         *
+         * @return this builder
+         *
+         * @see VirtualThreads
+         */
+        public Builder fetchOnVirtualThreads() {
+            if (VirtualThreads.isSupported()) {
+                this.fetchExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            }
+            return this;
+        }
+
         /**
          * This is really intended for testing but this consumer will be called during
          * stages to indicate what is happening.
@@ -102,7 +142,7 @@ public class ExecutorInstrumentation extends SimplePerformantInstrumentation {
         }
 
         public ExecutorInstrumentation build() {
-            return new ExecutorInstrumentation(fetchExecutor, processingExecutor, actionObserver != null ? actionObserver : NOOP);
+            return new ExecutorInstrumentation(fetchExecutor, processingExecutor, fetchExecutorRouter, actionObserver != null ? actionObserver : NOOP);
         }
 
     }
@@ -112,12 +152,22 @@ public class ExecutorInstrumentation extends SimplePerformantInstrumentation {
         if (originalDataFetcher instanceof TrivialDataFetcher) {
             return originalDataFetcher;
         }
+        Executor routedExecutor = fetchExecutorRouter != null ? fetchExecutorRouter.route(parameters) : null;
+        Executor executor = routedExecutor != null ? routedExecutor : fetchExecutor;
         return environment -> {
             CompletableFuture<CompletionStage<?>> invokedCF;
-            if (fetchExecutor != null) {
+            if (executor != null) {
                 // run the fetch asynchronously via the fetch executor
                 // the CF will be left running on that fetch executors thread
-                invokedCF = CompletableFuture.supplyAsync(invokedAsync(originalDataFetcher, environment), fetchExecutor);
+                try {
+                    invokedCF = new CompletableFuture<>();
+                    executor.execute(new FetchTask(invokedCF, invokedAsync(originalDataFetcher, environment), environment));
+                } catch (RejectedExecutionException e) {
+                    // fail fast rather than wait for room on a saturated executor
+                    return CompletableFuture.completedFuture(DataFetcherResult.newResult()
+                            .error(new FetchRejectedError(environment, e))
+                            .build());
+                }
             } else {
                 invokedCF = invokedSync(originalDataFetcher, environment);
             }
@@ -131,6 +181,38 @@ public class ExecutorInstrumentation extends SimplePerformantInstrumentation {
     }
 
 
+    /*
+     * Runs a fetch on the fetch executor.  A bulkhead that queued the fetch can still reject it later, which fails the field as a
+     * rejection on submission does.
+     */
+    private static class FetchTask implements Bulkhead.RejectableTask {
+        private final CompletableFuture<CompletionStage<?>> invokedCF;
+        private final Supplier<CompletionStage<?>> invocation;
+        private final DataFetchingEnvironment environment;
+
+        private FetchTask(CompletableFuture<CompletionStage<?>> invokedCF, Supplier<CompletionStage<?>> invocation, DataFetchingEnvironment environment) {
+            this.invokedCF = invokedCF;
+            this.invocation = invocation;
+            this.environment = environment;
+        }
+
+        @Override
+        public void run() {
+            try {
+                invokedCF.complete(invocation.get());
+            } catch (Throwable t) {
+                invokedCF.completeExceptionally(t);
+            }
+        }
+
+        @Override
+        public void rejected(RejectedExecutionException rejection) {
+            invokedCF.complete(CompletableFuture.completedFuture(DataFetcherResult.newResult()
+                    .error(new FetchRejectedError(environment, rejection))
+                    .build()));
+        }
+    }
+
     private Supplier<CompletionStage<?>> invokedAsync(DataFetcher<?> originalDataFetcher, DataFetchingEnvironment environment) {
         return () -> {
             actionObserver.accept(FETCHING);
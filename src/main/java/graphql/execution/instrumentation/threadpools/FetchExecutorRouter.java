@@ -0,0 +1,121 @@
+package graphql.execution.instrumentation.threadpools;
+
+import com.google.common.annotations.Beta;
+import graphql.Internal;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A fetch executor router decides which {@link Executor} the data fetcher of a field runs on, so that each class of data fetcher
+ * can be given its own executor, typically a {@link Bulkhead}, and a slow backend cannot starve the fetches of every other field.
+ *
+ * @see ExecutorInstrumentation.Builder#fetchExecutorRouter(FetchExecutorRouter)
+ */
+@Internal
+@Beta
+@FunctionalInterface
+public interface FetchExecutorRouter {
+
+    /**
+     * @param parameters the parameters of the field fetch
+     *
+     * @return the executor to fetch the field on or null to use the fetch executor of the {@link ExecutorInstrumentation}
+     */
+    Executor route(InstrumentationFieldFetchParameters parameters);
+
+    /**
+     * @return a builder of a router that routes by field coordinates, then by schema directive and then by predicate
+     */
+    static Builder newFetchExecutorRouter() {
+        return new Builder();
+    }
+
+    class Builder {
+        private final Map<FieldCoordinates, Executor> byCoordinates = new LinkedHashMap<>();
+        private final Map<String, Executor> byDirective = new LinkedHashMap<>();
+        private final List<Predicate<InstrumentationFieldFetchParameters>> predicates = new ArrayList<>();
+        private final List<Executor> predicateExecutors = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Routes the fetches of the field with the given coordinates
+         *
+         * @param coordinates the coordinates of the field
+         * @param executor    the executor to fetch the field on
+         *
+         * @return this builder
+         */
+        public Builder route(FieldCoordinates coordinates, Executor executor) {
+            byCoordinates.put(assertNotNull(coordinates), assertNotNull(executor));
+            return this;
+        }
+
+        /**
+         * Routes the fetches of the fields that have the named directive applied to them in the schema
+         *
+         * @param directiveName the name of the directive
+         * @param executor      the executor to fetch the fields on
+         *
+         * @return this builder
+         */
+        public Builder routeDirective(String directiveName, Executor executor) {
+            byDirective.put(assertNotNull(directiveName), assertNotNull(executor));
+            return this;
+        }
+
+        /**
+         * Routes the fetches that match the predicate.  Predicates are tried in the order they were added.
+         *
+         * @param predicate the predicate on the field fetch
+         * @param executor  the executor to fetch the matching fields on
+         *
+         * @return this builder
+         */
+        public Builder route(Predicate<InstrumentationFieldFetchParameters> predicate, Executor executor) {
+            predicates.add(assertNotNull(predicate));
+            predicateExecutors.add(assertNotNull(executor));
+            return this;
+        }
+
+        public FetchExecutorRouter build() {
+            Map<FieldCoordinates, Executor> byCoordinates = new LinkedHashMap<>(this.byCoordinates);
+            Map<String, Executor> byDirective = new LinkedHashMap<>(this.byDirective);
+            List<Predicate<InstrumentationFieldFetchParameters>> predicates = new ArrayList<>(this.predicates);
+            List<Executor> predicateExecutors = new ArrayList<>(this.predicateExecutors);
+            return parameters -> {
+                GraphQLFieldDefinition fieldDefinition = parameters.getField();
+                if (!byCoordinates.isEmpty()) {
+                    GraphQLObjectType objectType = parameters.getExecutionStepInfo().getObjectType();
+                    Executor executor = byCoordinates.get(FieldCoordinates.coordinates(objectType, fieldDefinition));
+                    if (executor != null) {
+                        return executor;
+                    }
+                }
+                for (Map.Entry<String, Executor> entry : byDirective.entrySet()) {
+                    if (fieldDefinition.getAppliedDirective(entry.getKey()) != null) {
+                        return entry.getValue();
+                    }
+                }
+                for (int i = 0; i < predicates.size(); i++) {
+                    if (predicates.get(i).test(parameters)) {
+                        return predicateExecutors.get(i);
+                    }
+                }
+                return null;
+            };
+        }
+    }
+}
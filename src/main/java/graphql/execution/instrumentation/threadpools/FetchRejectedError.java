@@ -0,0 +1,94 @@
+package graphql.execution.instrumentation.threadpools;
+
+import com.google.common.annotations.Beta;
+import graphql.ErrorType;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorHelper;
+import graphql.Internal;
+import graphql.language.SourceLocation;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.lang.String.format;
+
+/**
+ * This graphql error is used when the {@link ExecutorInstrumentation} could not hand the fetch of a field to its executor,
+ * typically because a {@link Bulkhead} is full
+ */
+@Internal
+@Beta
+public class FetchRejectedError implements GraphQLError {
+
+    private final String message;
+    private final List<Object> path;
+    private final List<SourceLocation> locations;
+    private final Map<String, Object> extensions;
+    private final RejectedExecutionException exception;
+
+    public FetchRejectedError(DataFetchingEnvironment environment, RejectedExecutionException exception) {
+        this.path = environment.getExecutionStepInfo().getPath().toList();
+        this.locations = Collections.singletonList(environment.getField().getSourceLocation());
+        this.exception = exception;
+        this.message = format("The fetch of the field (%s) was rejected : %s", environment.getExecutionStepInfo().getPath(), exception.getMessage());
+        Map<String, Object> extensions = null;
+        if (exception instanceof Bulkhead.BulkheadFullException) {
+            extensions = new LinkedHashMap<>();
+            extensions.put("bulkhead", ((Bulkhead.BulkheadFullException) exception).getBulkheadName());
+        }
+        this.extensions = extensions;
+    }
+
+    public RejectedExecutionException getException() {
+        return exception;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return locations;
+    }
+
+    @Override
+    public List<Object> getPath() {
+        return path;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        return extensions;
+    }
+
+    @Override
+    public ErrorType getErrorType() {
+        return ErrorType.DataFetchingException;
+    }
+
+    @Override
+    public String toString() {
+        return "FetchRejectedError{" +
+                "path=" + path +
+                ", exception=" + exception +
+                ", locations=" + locations +
+                '}';
+    }
+
+    @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+    @Override
+    public boolean equals(Object o) {
+        return GraphqlErrorHelper.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return GraphqlErrorHelper.hashCode(this);
+    }
+}
@@ -0,0 +1,154 @@
+package graphql.execution.instrumentation.threadpools;
+
+import com.google.common.annotations.Beta;
+import graphql.Internal;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static graphql.Assert.assertShouldNeverHappen;
+import static graphql.Assert.assertTrue;
+
+/**
+ * Support for running data fetchers on the virtual threads of JDK 21 and later.
+ * <p>
+ * graphql-java is built for Java 8 so virtual threads are detected and created via reflection.  Use {@link #isSupported()} to find out
+ * if the running JDK has them.
+ * <p>
+ * A virtual thread that blocks while holding a monitor, say inside a {@code synchronized} block of a JDBC driver, pins its carrier
+ * thread and so stops other virtual threads from running on it.  A {@link PinningMonitor} counts these pinning events via JDK Flight
+ * Recorder so you can find out whether your data fetchers are a good fit for virtual threads.
+ *
+ * @see ExecutorInstrumentation.Builder#fetchOnVirtualThreads()
+ */
+@Internal
+@Beta
+public class VirtualThreads {
+
+    private static final String VIRTUAL_THREAD_PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+    private static Method findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return Class.forName("java.util.concurrent.Executors").getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // an older JDK
+            return null;
+        }
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JDK supports virtual threads
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.  This must only be called if {@link #isSupported()}
+     *
+     * @return a virtual thread per task executor
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        assertTrue(isSupported(), () -> "Virtual threads need JDK 21 or later but this is JDK " + System.getProperty("java.version"));
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return assertShouldNeverHappen("Could not create a virtual thread executor : %s", e);
+        }
+    }
+
+    /**
+     * Starts counting the pinning of carrier threads by virtual threads.  On a JDK without virtual threads or without JDK Flight Recorder
+     * streaming the monitor counts nothing.
+     *
+     * @param threshold the time a virtual thread must be pinned for before it is counted
+     *
+     * @return a running pinning monitor, which should be closed once it is no longer needed
+     */
+    public static PinningMonitor startPinningMonitor(Duration threshold) {
+        PinningMonitor pinningMonitor = new PinningMonitor();
+        if (isSupported()) {
+            pinningMonitor.start(threshold);
+        }
+        return pinningMonitor;
+    }
+
+    /**
+     * Counts the {@code jdk.VirtualThreadPinned} events of JDK Flight Recorder
+     */
+    public static class PinningMonitor implements AutoCloseable {
+        private final LongAdder pinnedCount = new LongAdder();
+        private final LongAdder pinnedNanos = new LongAdder();
+        private volatile AutoCloseable recordingStream;
+
+        private PinningMonitor() {
+        }
+
+        private void start(Duration threshold) {
+            try {
+                // new RecordingStream().enable("jdk.VirtualThreadPinned").withThreshold(threshold) and so on, via reflection
+                Class<?> recordingStreamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+                Class<?> recordedEventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+                Method getDuration = recordedEventClass.getMethod("getDuration");
+                AutoCloseable stream = (AutoCloseable) recordingStreamClass.getConstructor().newInstance();
+                Object eventSettings = recordingStreamClass.getMethod("enable", String.class).invoke(stream, VIRTUAL_THREAD_PINNED_EVENT);
+                Class.forName("jdk.jfr.EventSettings").getMethod("withThreshold", Duration.class).invoke(eventSettings, threshold);
+                Consumer<Object> onPinned = recordedEvent -> {
+                    pinnedCount.increment();
+                    try {
+                        pinnedNanos.add(((Duration) getDuration.invoke(recordedEvent)).toNanos());
+                    } catch (ReflectiveOperationException ignored) {
+                        // the count is still of use
+                    }
+                };
+                recordingStreamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, VIRTUAL_THREAD_PINNED_EVENT, onPinned);
+                recordingStreamClass.getMethod("startAsync").invoke(stream);
+                recordingStream = stream;
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // no JDK Flight Recorder streaming in this JDK, so there is nothing to count
+            }
+        }
+
+        /**
+         * @return true if pinning events are being counted
+         */
+        public boolean isRunning() {
+            return recordingStream != null;
+        }
+
+        /**
+         * @return the number of times a carrier thread was pinned for longer than the threshold
+         */
+        public long getPinnedCount() {
+            return pinnedCount.sum();
+        }
+
+        /**
+         * @return the total time carrier threads were pinned for, counting only the pinning events longer than the threshold
+         */
+        public Duration getPinnedDuration() {
+            return Duration.ofNanos(pinnedNanos.sum());
+        }
+
+        @Override
+        public void close() {
+            AutoCloseable stream = recordingStream;
+            recordingStream = null;
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (Exception ignored) {
+                    // closing a recording stream does not throw checked exceptions
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package graphql.execution.instrumentation.tracing;
+
+import graphql.ExecutionResult;
+import graphql.PublicApi;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.ResultPath;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.validation.ValidationError;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+import static graphql.execution.instrumentation.InstrumentationState.ofState;
+
+/**
+ * This {@link Instrumentation} creates spans for requests via a {@link SpanTracer}, so it can feed any tracing library, say
+ * OpenTelemetry, without depending on it.
+ * <p>
+ * Each request gets a {@value #REQUEST_SPAN} span with {@value #PARSE_SPAN}, {@value #VALIDATE_SPAN} and {@value #EXECUTE_SPAN} spans
+ * below it.  The fetches of fields get a {@value #FIELD_SPAN} span whose parent is the span of the closest field above it in the
+ * {@link ResultPath}, or else the {@value #EXECUTE_SPAN} span.  Field spans can be turned off or recorded for only a share of the requests.
+ * <p>
+ * Trivial data fetchers, such as those that read a property, are often the bulk of the fetches and a span for each would be more
+ * tracing data than the request itself.  So by default their fetches are aggregated into a single {@value #TRIVIAL_FIELDS_SPAN} span per
+ * level of the query, which runs from the first to the last of them and counts them.
+ */
+@PublicApi
+public class SpanInstrumentation extends SimplePerformantInstrumentation {
+
+    public static final String REQUEST_SPAN = "graphql.request";
+    public static final String PARSE_SPAN = "graphql.parse";
+    public static final String VALIDATE_SPAN = "graphql.validate";
+    public static final String EXECUTE_SPAN = "graphql.execute";
+    public static final String FIELD_SPAN = "graphql.field";
+    public static final String TRIVIAL_FIELDS_SPAN = "graphql.trivialFields";
+
+    public static class Options {
+        private final double fieldSampleRate;
+        private final boolean aggregateTrivialDataFetchers;
+
+        private Options(double fieldSampleRate, boolean aggregateTrivialDataFetchers) {
+            this.fieldSampleRate = fieldSampleRate;
+            this.aggregateTrivialDataFetchers = aggregateTrivialDataFetchers;
+        }
+
+        public double getFieldSampleRate() {
+            return fieldSampleRate;
+        }
+
+        public boolean isAggregateTrivialDataFetchers() {
+            return aggregateTrivialDataFetchers;
+        }
+
+        /**
+         * By default the field fetches of every request get spans but you can record them for only a share of the requests, say
+         * 0.01 for 1% of them, or 0 to never record them.  The other spans are always created.
+         *
+         * @param fieldSampleRate the share of requests whose field fetches get spans, from 0 to 1
+         *
+         * @return a new options object
+         */
+        public Options fieldSampleRate(double fieldSampleRate) {
+            assertTrue(fieldSampleRate >= 0 && fieldSampleRate <= 1, () -> "fieldSampleRate must be between 0 and 1");
+            return new Options(fieldSampleRate, aggregateTrivialDataFetchers);
+        }
+
+        /**
+         * By default the fetches of trivial data fetchers are aggregated into one span per level but you can give each its own span
+         *
+         * @param flag whether to aggregate the fetches of trivial data fetchers
+         *
+         * @return a new options object
+         */
+        public Options aggregateTrivialDataFetchers(boolean flag) {
+            return new Options(fieldSampleRate, flag);
+        }
+
+        public static Options newOptions() {
+            return new Options(1.0, true);
+        }
+    }
+
+    private final SpanTracer tracer;
+    private final Options options;
+
+    public SpanInstrumentation(SpanTracer tracer) {
+        this(tracer, Options.newOptions());
+    }
+
+    public SpanInstrumentation(SpanTracer tracer, Options options) {
+        this.tracer = assertNotNull(tracer);
+        this.options = assertNotNull(options);
+    }
+
+    @Override
+    public @Nullable InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        double fieldSampleRate = options.fieldSampleRate;
+        boolean traceFields = fieldSampleRate >= 1 || (fieldSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < fieldSampleRate);
+        return new SpanState(traceFields);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters, InstrumentationState rawState) {
+        SpanState state = ofState(rawState);
+        state.requestSpan = tracer.startSpan(REQUEST_SPAN, null, state.now());
+        return new SpanContext<>(state, state.requestSpan);
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters, InstrumentationState rawState) {
+        SpanState state = ofState(rawState);
+        return new SpanContext<>(state, tracer.startSpan(PARSE_SPAN, state.requestSpan, state.now()));
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters, InstrumentationState rawState) {
+        SpanState state = ofState(rawState);
+        return new SpanContext<>(state, tracer.startSpan(VALIDATE_SPAN, state.requestSpan, state.now()));
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState rawState) {
+        SpanState state = ofState(rawState);
+        SpanTracer.Span span = tracer.startSpan(EXECUTE_SPAN, state.requestSpan, state.now());
+        OperationDefinition operation = parameters.getExecutionContext().getOperationDefinition();
+        span.setAttribute("graphql.operation.type", operation.getOperation().name().toLowerCase());
+        if (operation.getName() != null) {
+            span.setAttribute("graphql.operation.name", operation.getName());
+        }
+        state.executeSpan = span;
+        return new SpanContext<ExecutionResult>(state, span) {
+            @Override
+            public void onCompleted(ExecutionResult result, Throwable t) {
+                // the trivial fetches are all done once the operation is, so their spans go out before the span of the operation ends
+                state.endTrivialFieldSpans();
+                super.onCompleted(result, t);
+            }
+        };
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState rawState) {
+        SpanState state = ofState(rawState);
+        if (!state.traceFields) {
+            return null;
+        }
+        ExecutionStepInfo executionStepInfo = parameters.getExecutionStepInfo();
+        ResultPath path = executionStepInfo.getPath();
+        if (parameters.isTrivialDataFetcher() && options.aggregateTrivialDataFetchers) {
+            return state.trivialFetches(path.getLevel()).begin(state);
+        }
+        SpanTracer.Span span = tracer.startSpan(FIELD_SPAN, state.parentSpan(path), state.now());
+        span.setAttribute("graphql.field.path", path.toString());
+        span.setAttribute("graphql.field.name", executionStepInfo.getFieldDefinition().getName());
+        span.setAttribute("graphql.field.parentType", executionStepInfo.getObjectType().getName());
+        state.fieldSpans.put(path, span);
+        return new SpanContext<>(state, span);
+    }
+
+    private static class SpanContext<T> extends SimpleInstrumentationContext<T> {
+        private final SpanState state;
+        private final SpanTracer.Span span;
+
+        private SpanContext(SpanState state, SpanTracer.Span span) {
+            this.state = state;
+            this.span = span;
+        }
+
+        @Override
+        public void onCompleted(T result, Throwable t) {
+            if (t != null) {
+                span.recordException(t);
+            }
+            span.end(state.now());
+        }
+    }
+
+    private class SpanState implements InstrumentationState {
+        private final long startEpochNanos;
+        private final long startNanos = System.nanoTime();
+        private final boolean traceFields;
+        private final Map<ResultPath, SpanTracer.Span> fieldSpans = new ConcurrentHashMap<>();
+        private final Map<Integer, TrivialFetches> trivialFetches = new ConcurrentHashMap<>();
+        private volatile SpanTracer.Span requestSpan;
+        private volatile SpanTracer.Span executeSpan;
+
+        private SpanState(boolean traceFields) {
+            Instant now = Instant.now();
+            this.startEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+            this.traceFields = traceFields;
+        }
+
+        private long now() {
+            return startEpochNanos + (System.nanoTime() - startNanos);
+        }
+
+        private SpanTracer.Span parentSpan(ResultPath path) {
+            ResultPath parentPath = path.getParent();
+            while (parentPath != null && !parentPath.isRootPath()) {
+                SpanTracer.Span span = fieldSpans.get(parentPath);
+                if (span != null) {
+                    return span;
+                }
+                parentPath = parentPath.getParent();
+            }
+            return executeSpan;
+        }
+
+        private TrivialFetches trivialFetches(int level) {
+            return trivialFetches.computeIfAbsent(level, key -> new TrivialFetches());
+        }
+
+        private void endTrivialFieldSpans() {
+            new TreeMap<>(trivialFetches).forEach((level, fetches) -> {
+                SpanTracer.Span span = tracer.startSpan(TRIVIAL_FIELDS_SPAN, executeSpan, fetches.firstStart.get());
+                span.setAttribute("graphql.field.level", level);
+                span.setAttribute("graphql.field.count", fetches.count.sum());
+                // a fetch that never completed has no end time
+                span.end(Math.max(fetches.firstStart.get(), fetches.lastEnd.get()));
+            });
+            trivialFetches.clear();
+        }
+    }
+
+    private static class TrivialFetches {
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator firstStart = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator lastEnd = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        private InstrumentationContext<Object> begin(SpanState state) {
+            count.increment();
+            firstStart.accumulate(state.now());
+            return SimpleInstrumentationContext.whenCompleted((result, t) -> lastEnd.accumulate(state.now()));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package graphql.execution.instrumentation.tracing;
+
+import graphql.PublicSpi;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A span tracer creates the spans of a {@link SpanInstrumentation}.  It is the bridge to the tracing library of your choice, say
+ * OpenTelemetry, where a span tracer would wrap a {@code Tracer} and a span would wrap an OpenTelemetry {@code Span}, with the start and
+ * end times passed on via {@code setStartTimestamp} and {@code end(long, TimeUnit)}.
+ * <p>
+ * The methods are called on the threads that execute queries, often many at the same time, so they must be thread safe.
+ */
+@PublicSpi
+public interface SpanTracer {
+
+    /**
+     * Called to start a span
+     *
+     * @param name            the name of the span
+     * @param parent          the parent of the span or null if it is the span of a request
+     * @param startEpochNanos the start time of the span in nanoseconds since the epoch
+     *
+     * @return a new span
+     */
+    Span startSpan(String name, @Nullable Span parent, long startEpochNanos);
+
+    /**
+     * A span of a {@link SpanTracer}
+     */
+    interface Span {
+
+        void setAttribute(String key, String value);
+
+        void setAttribute(String key, long value);
+
+        /**
+         * Called when the work of the span failed
+         *
+         * @param throwable the reason it failed
+         */
+        void recordException(Throwable throwable);
+
+        /**
+         * Called to end the span.  It is called once for each span, and sometimes after its parent has ended.
+         *
+         * @param endEpochNanos the end time of the span in nanoseconds since the epoch
+         */
+        void end(long endEpochNanos);
+    }
+}
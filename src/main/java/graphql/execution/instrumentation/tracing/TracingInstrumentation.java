@@ -21,7 +21,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
+import static graphql.Assert.assertTrue;
 import static graphql.execution.instrumentation.InstrumentationState.ofState;
 import static graphql.execution.instrumentation.SimpleInstrumentationContext.whenCompleted;
 
@@ -34,15 +36,27 @@ public class TracingInstrumentation extends SimplePerformantInstrumentation {
 
     public static class Options {
         private final boolean includeTrivialDataFetchers;
+        private final double sampleRate;
+        private final int fieldTraceBufferSize;
 
-        private Options(boolean includeTrivialDataFetchers) {
+        private Options(boolean includeTrivialDataFetchers, double sampleRate, int fieldTraceBufferSize) {
             this.includeTrivialDataFetchers = includeTrivialDataFetchers;
+            this.sampleRate = sampleRate;
+            this.fieldTraceBufferSize = fieldTraceBufferSize;
         }
 
         public boolean isIncludeTrivialDataFetchers() {
             return includeTrivialDataFetchers;
         }
 
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public int getFieldTraceBufferSize() {
+            return fieldTraceBufferSize;
+        }
+
         /**
          * By default trivial data fetchers (those that simple pull data from an object into field) are included
          * in tracing but you can control this behavior.
@@ -52,11 +66,40 @@ public class TracingInstrumentation extends SimplePerformantInstrumentation {
          * @return a new options object
          */
         public Options includeTrivialDataFetchers(boolean flag) {
-            return new Options(flag);
+            return new Options(flag, sampleRate, fieldTraceBufferSize);
+        }
+
+        /**
+         * By default every request is traced but you can trace only a share of them, say 0.01 to trace 1% of requests.  The requests
+         * that are not traced cost next to nothing and have no tracing extension.
+         *
+         * @param sampleRate the share of requests to trace, from 0 to 1
+         *
+         * @return a new options object
+         */
+        public Options sampleRate(double sampleRate) {
+            assertTrue(sampleRate >= 0 && sampleRate <= 1, () -> "sampleRate must be between 0 and 1");
+            return new Options(includeTrivialDataFetchers, sampleRate, fieldTraceBufferSize);
+        }
+
+        /**
+         * By default each field trace is turned into a map as soon as the field has been fetched.  With a field trace buffer the field
+         * traces are recorded into preallocated arrays and only turned into maps when the tracing extension is created, which
+         * allocates far less.  The traces of the fields beyond the buffer size are dropped.
+         *
+         * @param fieldTraceBufferSize the maximum number of field traces per request or 0 to not buffer field traces
+         *
+         * @return a new options object
+         *
+         * @see TracingSupport#TracingSupport(boolean, int)
+         */
+        public Options fieldTraceBufferSize(int fieldTraceBufferSize) {
+            assertTrue(fieldTraceBufferSize >= 0, () -> "fieldTraceBufferSize must not be negative");
+            return new Options(includeTrivialDataFetchers, sampleRate, fieldTraceBufferSize);
         }
 
         public static Options newOptions() {
-            return new Options(true);
+            return new Options(true, 1.0, 0);
         }
 
     }
@@ -73,11 +116,18 @@ public class TracingInstrumentation extends SimplePerformantInstrumentation {
 
     @Override
     public @Nullable InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
-        return new TracingSupport(options.includeTrivialDataFetchers);
+        if (options.sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= options.sampleRate) {
+            // not sampled, so this request has no state and is not traced
+            return null;
+        }
+        return new TracingSupport(options.includeTrivialDataFetchers, options.fieldTraceBufferSize);
     }
 
     @Override
     public @NotNull CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState rawState) {
+        if (rawState == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
         Map<Object, Object> currentExt = executionResult.getExtensions();
 
         TracingSupport tracingSupport = ofState(rawState);
@@ -89,13 +139,18 @@ public class TracingInstrumentation extends SimplePerformantInstrumentation {
 
     @Override
     public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState rawState) {
+        if (rawState == null) {
+            return null;
+        }
         TracingSupport tracingSupport = ofState(rawState);
-        TracingSupport.TracingContext ctx = tracingSupport.beginField(parameters.getEnvironment(), parameters.isTrivialDataFetcher());
-        return whenCompleted((result, t) -> ctx.onEnd());
+        return tracingSupport.beginFieldFetch(parameters.getEnvironment(), parameters.isTrivialDataFetcher());
     }
 
     @Override
     public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters, InstrumentationState rawState) {
+        if (rawState == null) {
+            return null;
+        }
         TracingSupport tracingSupport = ofState(rawState);
         TracingSupport.TracingContext ctx = tracingSupport.beginParse();
         return whenCompleted((result, t) -> ctx.onEnd());
@@ -103,6 +158,9 @@ public class TracingInstrumentation extends SimplePerformantInstrumentation {
 
     @Override
     public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters, InstrumentationState rawState) {
+        if (rawState == null) {
+            return null;
+        }
         TracingSupport tracingSupport = ofState(rawState);
         TracingSupport.TracingContext ctx = tracingSupport.beginValidation();
         return whenCompleted((result, t) -> ctx.onEnd());
@@ -3,16 +3,23 @@ package graphql.execution.instrumentation.tracing;
 import com.google.common.collect.ImmutableList;
 import graphql.PublicApi;
 import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
 import graphql.schema.DataFetchingEnvironment;
 
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import static graphql.Assert.assertTrue;
 import static graphql.schema.GraphQLTypeUtil.simplePrint;
 
 /**
@@ -21,6 +28,11 @@ import static graphql.schema.GraphQLTypeUtil.simplePrint;
  * This is a stateful object that should be instantiated and called via {@link java.lang.instrument.Instrumentation}
  * calls.  It has been made a separate class so that you can compose this into existing
  * instrumentation code.
+ * <p>
+ * By default each field trace is turned into a map as soon as the field has been fetched.  If a field trace buffer size is given then
+ * the field traces are instead recorded into preallocated arrays of start offsets, durations and {@link ExecutionStepInfo}s and are only
+ * turned into maps by {@link #snapshotTracingData()}, which costs far less while the query runs.  The traces of the fields beyond the
+ * buffer size are dropped.
  */
 @PublicApi
 public class TracingSupport implements InstrumentationState {
@@ -28,6 +40,7 @@ public class TracingSupport implements InstrumentationState {
     private final Instant startRequestTime;
     private final long startRequestNanos;
     private final ConcurrentLinkedQueue<Map<String, Object>> fieldData;
+    private final FieldTraceBuffer fieldTraceBuffer;
     private final Map<String, Object> parseMap = new LinkedHashMap<>();
     private final Map<String, Object> validationMap = new LinkedHashMap<>();
     private final boolean includeTrivialDataFetchers;
@@ -38,10 +51,23 @@ public class TracingSupport implements InstrumentationState {
      * @param includeTrivialDataFetchers whether the trace trivial data fetchers
      */
     public TracingSupport(boolean includeTrivialDataFetchers) {
+        this(includeTrivialDataFetchers, 0);
+    }
+
+    /**
+     * The timer starts as soon as you create this object
+     *
+     * @param includeTrivialDataFetchers whether the trace trivial data fetchers
+     * @param fieldTraceBufferSize       the maximum number of field traces to record into preallocated arrays or 0 to turn each field
+     *                                   trace into a map straight away
+     */
+    public TracingSupport(boolean includeTrivialDataFetchers, int fieldTraceBufferSize) {
+        assertTrue(fieldTraceBufferSize >= 0, () -> "fieldTraceBufferSize must not be negative");
         this.includeTrivialDataFetchers = includeTrivialDataFetchers;
         startRequestNanos = System.nanoTime();
         startRequestTime = Instant.now();
         fieldData = new ConcurrentLinkedQueue<>();
+        fieldTraceBuffer = fieldTraceBufferSize > 0 ? new FieldTraceBuffer(fieldTraceBufferSize) : null;
     }
 
     /**
@@ -69,23 +95,64 @@ public class TracingSupport implements InstrumentationState {
                 // nothing to do
             };
         }
-        long startFieldFetch = System.nanoTime();
-        return () -> {
-            long now = System.nanoTime();
-            long duration = now - startFieldFetch;
-            long startOffset = startFieldFetch - startRequestNanos;
-            ExecutionStepInfo executionStepInfo = dataFetchingEnvironment.getExecutionStepInfo();
-
-            Map<String, Object> fetchMap = new LinkedHashMap<>();
-            fetchMap.put("path", executionStepInfo.getPath().toList());
-            fetchMap.put("parentType", simplePrint(executionStepInfo.getParent().getUnwrappedNonNullType()));
-            fetchMap.put("returnType", executionStepInfo.simplePrint());
-            fetchMap.put("fieldName", executionStepInfo.getFieldDefinition().getName());
-            fetchMap.put("startOffset", startOffset);
-            fetchMap.put("duration", duration);
-
-            fieldData.add(fetchMap);
-        };
+        return new FieldTrace(dataFetchingEnvironment, System.nanoTime());
+    }
+
+    /*
+     * The field trace is also the instrumentation context of the field fetch, so tracing a field allocates a single object
+     */
+    InstrumentationContext<Object> beginFieldFetch(DataFetchingEnvironment dataFetchingEnvironment, boolean trivialDataFetcher) {
+        if (!includeTrivialDataFetchers && trivialDataFetcher) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        return new FieldTrace(dataFetchingEnvironment, System.nanoTime());
+    }
+
+    private void recordField(DataFetchingEnvironment dataFetchingEnvironment, long startFieldFetch) {
+        long now = System.nanoTime();
+        long duration = now - startFieldFetch;
+        long startOffset = startFieldFetch - startRequestNanos;
+        ExecutionStepInfo executionStepInfo = dataFetchingEnvironment.getExecutionStepInfo();
+        if (fieldTraceBuffer != null) {
+            fieldTraceBuffer.record(executionStepInfo, startOffset, duration);
+        } else {
+            fieldData.add(fieldTraceMap(executionStepInfo, startOffset, duration));
+        }
+    }
+
+    private static Map<String, Object> fieldTraceMap(ExecutionStepInfo executionStepInfo, long startOffset, long duration) {
+        Map<String, Object> fetchMap = new LinkedHashMap<>();
+        fetchMap.put("path", executionStepInfo.getPath().toList());
+        fetchMap.put("parentType", simplePrint(executionStepInfo.getParent().getUnwrappedNonNullType()));
+        fetchMap.put("returnType", executionStepInfo.simplePrint());
+        fetchMap.put("fieldName", executionStepInfo.getFieldDefinition().getName());
+        fetchMap.put("startOffset", startOffset);
+        fetchMap.put("duration", duration);
+        return fetchMap;
+    }
+
+    private class FieldTrace implements TracingContext, InstrumentationContext<Object> {
+        private final DataFetchingEnvironment dataFetchingEnvironment;
+        private final long startFieldFetch;
+
+        private FieldTrace(DataFetchingEnvironment dataFetchingEnvironment, long startFieldFetch) {
+            this.dataFetchingEnvironment = dataFetchingEnvironment;
+            this.startFieldFetch = startFieldFetch;
+        }
+
+        @Override
+        public void onEnd() {
+            recordField(dataFetchingEnvironment, startFieldFetch);
+        }
+
+        @Override
+        public void onDispatched(CompletableFuture<Object> result) {
+        }
+
+        @Override
+        public void onCompleted(Object result, Throwable t) {
+            onEnd();
+        }
     }
 
     /**
@@ -145,7 +212,7 @@ public class TracingSupport implements InstrumentationState {
 
     private Map<String, Object> executionData() {
         Map<String, Object> map = new LinkedHashMap<>();
-        List<Map<String, Object>> list = ImmutableList.copyOf(fieldData);
+        List<Map<String, Object>> list = fieldTraceBuffer != null ? fieldTraceBuffer.toMaps() : ImmutableList.copyOf(fieldData);
         map.put("resolvers", list);
         return map;
     }
@@ -154,4 +221,66 @@ public class TracingSupport implements InstrumentationState {
         return DateTimeFormatter.ISO_INSTANT.format(time);
     }
 
+    /*
+     * Fields claim slots in order of completion.  The arrays are allocated a chunk at a time and a slot is only visible once its
+     * step info has been set, after its start offset and duration.
+     */
+    private static class FieldTraceBuffer {
+        private static final int CHUNK_BITS = 8;
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        private final int capacity;
+        private final AtomicInteger nextSlot = new AtomicInteger();
+        private final AtomicReferenceArray<Chunk> chunks;
+
+        private FieldTraceBuffer(int capacity) {
+            this.capacity = capacity;
+            this.chunks = new AtomicReferenceArray<>((capacity + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+            this.chunks.set(0, new Chunk());
+        }
+
+        private void record(ExecutionStepInfo executionStepInfo, long startOffset, long duration) {
+            int slot = nextSlot.getAndIncrement();
+            if (slot >= capacity) {
+                return;
+            }
+            Chunk chunk = chunk(slot >>> CHUNK_BITS);
+            int index = slot & (CHUNK_SIZE - 1);
+            chunk.startOffsets[index] = startOffset;
+            chunk.durations[index] = duration;
+            chunk.executionStepInfos.set(index, executionStepInfo);
+        }
+
+        private Chunk chunk(int chunkIndex) {
+            Chunk chunk = chunks.get(chunkIndex);
+            if (chunk == null) {
+                chunk = new Chunk();
+                if (!chunks.compareAndSet(chunkIndex, null, chunk)) {
+                    chunk = chunks.get(chunkIndex);
+                }
+            }
+            return chunk;
+        }
+
+        private List<Map<String, Object>> toMaps() {
+            int slots = Math.min(nextSlot.get(), capacity);
+            List<Map<String, Object>> maps = new ArrayList<>(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                Chunk chunk = chunks.get(slot >>> CHUNK_BITS);
+                int index = slot & (CHUNK_SIZE - 1);
+                ExecutionStepInfo executionStepInfo = chunk != null ? chunk.executionStepInfos.get(index) : null;
+                if (executionStepInfo != null) {
+                    maps.add(fieldTraceMap(executionStepInfo, chunk.startOffsets[index], chunk.durations[index]));
+                }
+            }
+            return maps;
+        }
+    }
+
+    private static class Chunk {
+        private final long[] startOffsets = new long[FieldTraceBuffer.CHUNK_SIZE];
+        private final long[] durations = new long[FieldTraceBuffer.CHUNK_SIZE];
+        private final AtomicReferenceArray<ExecutionStepInfo> executionStepInfos = new AtomicReferenceArray<>(FieldTraceBuffer.CHUNK_SIZE);
+    }
+
 }
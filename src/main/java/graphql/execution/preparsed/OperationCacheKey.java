@@ -0,0 +1,44 @@
+package graphql.execution.preparsed;
+
+import graphql.Internal;
+import graphql.language.OperationDefinition;
+import graphql.schema.GraphQLSchema;
+
+import java.util.Objects;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * The key of a value derived from an operation of a {@link PreparsedDocumentEntry} against a schema.  The operation and the schema
+ * are compared by identity, as the entry holds on to that very operation and a new schema must not see values derived against an
+ * old one.  The type of the derived value is part of the key, so different values derived from the same operation don't collide.
+ */
+@Internal
+public final class OperationCacheKey {
+    private final Class<?> valueType;
+    private final OperationDefinition operationDefinition;
+    private final GraphQLSchema schema;
+
+    public OperationCacheKey(Class<?> valueType, OperationDefinition operationDefinition, GraphQLSchema schema) {
+        this.valueType = assertNotNull(valueType);
+        this.operationDefinition = operationDefinition;
+        this.schema = schema;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OperationCacheKey that = (OperationCacheKey) o;
+        return valueType == that.valueType && operationDefinition == that.operationDefinition && schema == that.schema;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(valueType, System.identityHashCode(operationDefinition), System.identityHashCode(schema));
+    }
+}
@@ -1,11 +1,14 @@
 package graphql.execution.preparsed;
 
 import graphql.GraphQLError;
+import graphql.Internal;
 import graphql.PublicApi;
 import graphql.language.Document;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import static graphql.Assert.assertNotNull;
 import static java.util.Collections.singletonList;
@@ -24,6 +27,7 @@ import static java.util.Collections.singletonList;
 public class PreparsedDocumentEntry implements Serializable {
     private final Document document;
     private final List<? extends GraphQLError> errors;
+    private transient volatile ConcurrentHashMap<Object, Object> derivedValues;
 
     public PreparsedDocumentEntry(Document document,
                                   List<? extends GraphQLError> errors) {
@@ -60,4 +64,43 @@ public class PreparsedDocumentEntry implements Serializable {
     public boolean hasErrors() {
         return errors != null && !errors.isEmpty();
     }
+
+    /**
+     * Values derived from the document that do not depend on the variables of a request can be computed once and kept
+     * with the entry, so that every execution of the cached document shares them.  They are not serialised.
+     *
+     * @param key             the key of the derived value
+     * @param mappingFunction the function to compute the value if it's not present
+     * @param <T>             the type of the derived value
+     *
+     * @return the current or the newly computed derived value
+     */
+    @Internal
+    @SuppressWarnings("unchecked")
+    public <T> T computeIfAbsent(Object key, Function<Object, T> mappingFunction) {
+        ConcurrentHashMap<Object, Object> values = derivedValues;
+        if (values == null) {
+            synchronized (this) {
+                values = derivedValues;
+                if (values == null) {
+                    values = new ConcurrentHashMap<>();
+                    derivedValues = values;
+                }
+            }
+        }
+        return (T) values.computeIfAbsent(key, mappingFunction);
+    }
+
+    /**
+     * @param key the key of the derived value
+     * @param <T> the type of the derived value
+     *
+     * @return the derived value or null if it has not been computed yet
+     */
+    @Internal
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key) {
+        ConcurrentHashMap<Object, Object> values = derivedValues;
+        return values != null ? (T) values.get(key) : null;
+    }
 }
@@ -8,14 +8,18 @@ import org.reactivestreams.Subscription;
 import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.BiConsumer;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
+import static graphql.Assert.assertTrue;
+
 /**
- * A reactive Publisher that bridges over another Publisher of `D` and maps the results
- * to type `U` via a CompletionStage, handling errors in that stage
+ * A reactive Publisher that bridges over another Publisher of `U` and maps the results
+ * to type `D` via a CompletionStage, handling errors in that stage
+ * <p>
+ * The upstream publisher is only asked for as many items as the downstream subscriber has requested, and at most
+ * {@code maxConcurrency} mapped stages are in flight or waiting to be published at any one time.  In ordered mode the mapped
+ * values are published in the order of the upstream items, otherwise in the order their stages complete.
  *
  * @param <D> the down stream type
  * @param <U> the up stream type to be mapped to
@@ -23,8 +27,16 @@ import java.util.function.Function;
 @SuppressWarnings("ReactiveStreamsPublisherImplementation")
 @Internal
 public class CompletionStageMappingPublisher<D, U> implements Publisher<D> {
+
+    /**
+     * The max concurrency that places no bound on the number of mapped stages in flight other than the downstream demand
+     */
+    public static final int UNBOUNDED_CONCURRENCY = Integer.MAX_VALUE;
+
     private final Publisher<U> upstreamPublisher;
     private final Function<U, CompletionStage<D>> mapper;
+    private final int maxConcurrency;
+    private final boolean ordered;
 
     /**
      * You need the following :
@@ -33,8 +45,23 @@ public class CompletionStageMappingPublisher<D, U> implements Publisher<D> {
      * @param mapper            a mapper function that turns upstream data into a promise of mapped D downstream data
      */
     public CompletionStageMappingPublisher(Publisher<U> upstreamPublisher, Function<U, CompletionStage<D>> mapper) {
+        this(upstreamPublisher, mapper, UNBOUNDED_CONCURRENCY, false);
+    }
+
+    /**
+     * You need the following :
+     *
+     * @param upstreamPublisher an upstream source of data
+     * @param mapper            a mapper function that turns upstream data into a promise of mapped D downstream data
+     * @param maxConcurrency    the maximum number of mapped stages that are in flight or waiting to be published per subscriber
+     * @param ordered           true if the mapped data is published in the order of the upstream data
+     */
+    public CompletionStageMappingPublisher(Publisher<U> upstreamPublisher, Function<U, CompletionStage<D>> mapper, int maxConcurrency, boolean ordered) {
+        assertTrue(maxConcurrency > 0, () -> "maxConcurrency must be greater than zero");
         this.upstreamPublisher = upstreamPublisher;
         this.mapper = mapper;
+        this.maxConcurrency = maxConcurrency;
+        this.ordered = ordered;
     }
 
     @Override
@@ -50,89 +77,98 @@ public class CompletionStageMappingPublisher<D, U> implements Publisher<D> {
         return upstreamPublisher;
     }
 
+    /**
+     * @return the maximum number of mapped stages in flight per subscriber
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return true if the mapped data is published in the order of the upstream data
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
     @SuppressWarnings("ReactiveStreamsSubscriberImplementation")
     @Internal
     public class CompletionStageSubscriber implements Subscriber<U> {
         private final Subscriber<? super D> downstreamSubscriber;
         Subscription delegatingSubscription;
-        final Queue<CompletionStage<?>> inFlightDataQ;
-        final AtomicReference<Runnable> onCompleteOrErrorRun;
-        final AtomicBoolean onCompleteOrErrorRunCalled;
+        private Subscription upstreamSubscription;
+        // the mapped stages that have not been published yet, in upstream order.  In unordered mode a stage
+        // moves to completedDataQ when it completes.  Both queues and the counters are guarded by inFlightDataQ
+        final Queue<MappedData> inFlightDataQ;
+        final Queue<MappedData> completedDataQ;
+        private long downstreamDemand;
+        private long upstreamOutstanding;
+        // serialises the signals to the downstream subscriber
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean upstreamDone;
+        private volatile Throwable upstreamThrowable;
+        private volatile Throwable failure;
+        private volatile boolean cancelled;
 
         public CompletionStageSubscriber(Subscriber<? super D> downstreamSubscriber) {
             this.downstreamSubscriber = downstreamSubscriber;
             inFlightDataQ = new ArrayDeque<>();
-            onCompleteOrErrorRun = new AtomicReference<>();
-            onCompleteOrErrorRunCalled = new AtomicBoolean(false);
+            completedDataQ = new ArrayDeque<>();
         }
 
 
         @Override
         public void onSubscribe(Subscription subscription) {
-            delegatingSubscription = new DelegatingSubscription(subscription);
+            upstreamSubscription = subscription;
+            delegatingSubscription = new DemandSubscription(subscription);
             downstreamSubscriber.onSubscribe(delegatingSubscription);
         }
 
         @Override
         public void onNext(U u) {
             // for safety - no more data after we have called done/error - we should not get this BUT belts and braces
-            if (onCompleteOrErrorRunCalled.get()) {
+            if (cancelled || upstreamDone) {
                 return;
             }
+            MappedData mappedData = new MappedData();
+            synchronized (inFlightDataQ) {
+                upstreamOutstanding--;
+                inFlightDataQ.offer(mappedData);
+            }
+            CompletionStage<D> completionStage;
             try {
-                CompletionStage<D> completionStage = mapper.apply(u);
-                offerToInFlightQ(completionStage);
-                completionStage.whenComplete(whenNextFinished(completionStage));
+                completionStage = mapper.apply(u);
             } catch (RuntimeException throwable) {
-                handleThrowable(throwable);
+                whenMapped(mappedData, null, throwable);
+                return;
             }
+            completionStage.whenComplete((d, throwable) -> whenMapped(mappedData, d, throwable));
         }
 
-        private BiConsumer<D, Throwable> whenNextFinished(CompletionStage<D> completionStage) {
-            return (d, throwable) -> {
-                try {
-                    if (throwable != null) {
-                        handleThrowable(throwable);
-                    } else {
-                        downstreamSubscriber.onNext(d);
-                    }
-                } finally {
-                    Runnable runOnCompleteOrErrorRun = onCompleteOrErrorRun.get();
-                    boolean empty = removeFromInFlightQAndCheckIfEmpty(completionStage);
-                    if (empty && runOnCompleteOrErrorRun != null) {
-                        onCompleteOrErrorRun.set(null);
-                        runOnCompleteOrErrorRun.run();
-                    }
+        private void whenMapped(MappedData mappedData, D d, Throwable throwable) {
+            synchronized (inFlightDataQ) {
+                mappedData.data = d;
+                mappedData.throwable = throwable;
+                mappedData.done = true;
+                if (!ordered) {
+                    inFlightDataQ.remove(mappedData);
+                    completedDataQ.offer(mappedData);
                 }
-            };
-        }
-
-        private void handleThrowable(Throwable throwable) {
-            downstreamSubscriber.onError(throwable);
-            //
-            // reactive semantics say that IF an exception happens on a publisher
-            // then onError is called and no more messages flow.  But since the exception happened
-            // during the mapping, the upstream publisher does not no about this.
-            // so we cancel to bring the semantics back together, that is as soon as an exception
-            // has happened, no more messages flow
-            //
-            delegatingSubscription.cancel();
+            }
+            drain();
         }
 
         @Override
         public void onError(Throwable t) {
-            onCompleteOrError(() -> {
-                onCompleteOrErrorRunCalled.set(true);
-                downstreamSubscriber.onError(t);
-            });
+            upstreamThrowable = t;
+            upstreamDone = true;
+            drain();
         }
 
         @Override
         public void onComplete() {
-            onCompleteOrError(() -> {
-                onCompleteOrErrorRunCalled.set(true);
-                downstreamSubscriber.onComplete();
-            });
+            upstreamDone = true;
+            drain();
         }
 
         /**
@@ -143,33 +179,155 @@ public class CompletionStageMappingPublisher<D, U> implements Publisher<D> {
             return downstreamSubscriber;
         }
 
-        private void onCompleteOrError(Runnable doneCodeToRun) {
-            if (inFlightQIsEmpty()) {
-                // run right now
-                doneCodeToRun.run();
+        private void requestFromDownstream(long n) {
+            if (n <= 0) {
+                // reactive streams rule 3.9
+                failure = new IllegalArgumentException("request(n) must be greater than zero but was " + n);
             } else {
-                onCompleteOrErrorRun.set(doneCodeToRun);
+                synchronized (inFlightDataQ) {
+                    downstreamDemand = downstreamDemand + n < 0 ? Long.MAX_VALUE : downstreamDemand + n;
+                }
+                requestFromUpstream();
             }
+            drain();
         }
 
-        private void offerToInFlightQ(CompletionStage<?> completionStage) {
+        private void requestFromUpstream() {
+            long toRequest;
             synchronized (inFlightDataQ) {
-                inFlightDataQ.offer(completionStage);
+                // never ask for more than the downstream wants or than may be in flight at once
+                long wanted = Math.min(downstreamDemand, maxConcurrency);
+                toRequest = wanted - upstreamOutstanding - inFlightDataQ.size() - completedDataQ.size();
+                if (toRequest <= 0 || cancelled || upstreamDone) {
+                    return;
+                }
+                upstreamOutstanding += toRequest;
             }
+            upstreamSubscription.request(toRequest);
         }
 
-        private boolean removeFromInFlightQAndCheckIfEmpty(CompletionStage<?> completionStage) {
-            // uncontested locks in java are cheap - we don't expect much contention here
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (cancelled) {
+                    clearQueues();
+                    return;
+                }
+                Throwable failed = failure;
+                if (failed != null) {
+                    cancelAndSignalError(failed);
+                    return;
+                }
+                long published = 0;
+                while (true) {
+                    MappedData mappedData = nextToPublish();
+                    if (mappedData == null) {
+                        break;
+                    }
+                    if (mappedData.throwable != null) {
+                        //
+                        // reactive semantics say that IF an exception happens on a publisher
+                        // then onError is called and no more messages flow.  But since the exception happened
+                        // during the mapping, the upstream publisher does not no about this.
+                        // so we cancel to bring the semantics back together, that is as soon as an exception
+                        // has happened, no more messages flow
+                        //
+                        cancelAndSignalError(mappedData.throwable);
+                        return;
+                    }
+                    downstreamSubscriber.onNext(mappedData.data);
+                    published++;
+                    if (cancelled) {
+                        clearQueues();
+                        return;
+                    }
+                }
+                if (upstreamDone && allPublished()) {
+                    cancelled = true;
+                    Throwable throwable = upstreamThrowable;
+                    if (throwable != null) {
+                        downstreamSubscriber.onError(throwable);
+                    } else {
+                        downstreamSubscriber.onComplete();
+                    }
+                    return;
+                }
+                if (published > 0) {
+                    requestFromUpstream();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private MappedData nextToPublish() {
+            synchronized (inFlightDataQ) {
+                Queue<MappedData> queue = ordered ? inFlightDataQ : completedDataQ;
+                MappedData mappedData = queue.peek();
+                if (mappedData == null || !mappedData.done) {
+                    return null;
+                }
+                // errors are published without demand
+                if (mappedData.throwable == null) {
+                    if (downstreamDemand == 0) {
+                        return null;
+                    }
+                    if (downstreamDemand != Long.MAX_VALUE) {
+                        downstreamDemand--;
+                    }
+                }
+                return queue.poll();
+            }
+        }
+
+        private boolean allPublished() {
             synchronized (inFlightDataQ) {
-                inFlightDataQ.remove(completionStage);
-                return inFlightDataQ.isEmpty();
+                return inFlightDataQ.isEmpty() && completedDataQ.isEmpty();
             }
         }
 
-        private boolean inFlightQIsEmpty() {
+        private void clearQueues() {
             synchronized (inFlightDataQ) {
-                return inFlightDataQ.isEmpty();
+                inFlightDataQ.clear();
+                completedDataQ.clear();
+            }
+        }
+
+        private void cancelAndSignalError(Throwable throwable) {
+            cancelled = true;
+            clearQueues();
+            upstreamSubscription.cancel();
+            downstreamSubscriber.onError(throwable);
+        }
+
+        /**
+         * The subscription handed to the downstream subscriber, which turns its demand into requests to the upstream publisher
+         */
+        private class DemandSubscription extends DelegatingSubscription {
+
+            private DemandSubscription(Subscription upstreamSubscription) {
+                super(upstreamSubscription);
+            }
+
+            @Override
+            public void request(long n) {
+                requestFromDownstream(n);
             }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                super.cancel();
+                drain();
+            }
+        }
+
+        private class MappedData {
+            private boolean done;
+            private D data;
+            private Throwable throwable;
         }
     }
 }
@@ -0,0 +1,256 @@
+package graphql.execution.reactive;
+
+import graphql.Internal;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A reactive Publisher that conflates the items of another Publisher by key, that is an item replaces the item with the same key
+ * that has not been published yet.  A key keeps its place amongst the pending keys when its item is replaced.
+ * <p>
+ * The upstream publisher is asked for all of its items since they are absorbed by conflation.  Pending items are published when the
+ * downstream subscriber has demand for them or, if an interval is given, from the next tick of the interval onwards.
+ *
+ * @param <T> the type of the items
+ */
+@SuppressWarnings("ReactiveStreamsPublisherImplementation")
+@Internal
+public class ConflatingPublisher<T> implements Publisher<T> {
+    private final Publisher<T> upstreamPublisher;
+    private final Function<? super T, Object> keyFunction;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * You need the following :
+     *
+     * @param upstreamPublisher an upstream source of data
+     * @param keyFunction       gives the key an item is conflated by
+     * @param interval          the interval at which the pending items are released or null to release them on demand
+     * @param scheduler         the scheduler of the interval, required if an interval is given
+     */
+    public ConflatingPublisher(Publisher<T> upstreamPublisher, Function<? super T, Object> keyFunction, Duration interval, ScheduledExecutorService scheduler) {
+        this.upstreamPublisher = assertNotNull(upstreamPublisher);
+        this.keyFunction = assertNotNull(keyFunction);
+        this.interval = interval;
+        this.scheduler = interval == null ? null : assertNotNull(scheduler, () -> "a scheduler is required for an interval");
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> downstreamSubscriber) {
+        assertNotNull(downstreamSubscriber, () -> "Subscriber passed to subscribe must not be null");
+        upstreamPublisher.subscribe(new ConflatingSubscriber(downstreamSubscriber));
+    }
+
+    /**
+     * Get instance of an upstreamPublisher
+     *
+     * @return upstream instance of {@link Publisher}
+     */
+    public Publisher<T> getUpstreamPublisher() {
+        return upstreamPublisher;
+    }
+
+    @SuppressWarnings("ReactiveStreamsSubscriberImplementation")
+    private class ConflatingSubscriber implements Subscriber<T> {
+        private final Subscriber<? super T> downstreamSubscriber;
+        // the pending items by key, guarded by itself along with the demand and the window
+        private final Map<Object, T> pending = new LinkedHashMap<>();
+        private long downstreamDemand;
+        private boolean windowOpen;
+        // serialises the signals to the downstream subscriber
+        private final AtomicInteger wip = new AtomicInteger();
+        private Subscription upstreamSubscription;
+        private volatile ScheduledFuture<?> ticks;
+        private volatile boolean upstreamDone;
+        private volatile Throwable upstreamThrowable;
+        private volatile Throwable failure;
+        private volatile boolean cancelled;
+
+        private ConflatingSubscriber(Subscriber<? super T> downstreamSubscriber) {
+            this.downstreamSubscriber = downstreamSubscriber;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            upstreamSubscription = subscription;
+            downstreamSubscriber.onSubscribe(new DelegatingSubscription(subscription) {
+                @Override
+                public void request(long n) {
+                    requestFromDownstream(n);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                    stopTicks();
+                    super.cancel();
+                    drain();
+                }
+            });
+            if (cancelled) {
+                return;
+            }
+            if (interval != null) {
+                long intervalNanos = interval.toNanos();
+                ticks = scheduler.scheduleAtFixedRate(this::tick, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+                if (cancelled) {
+                    stopTicks();
+                }
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (cancelled || upstreamDone) {
+                return;
+            }
+            Object key;
+            try {
+                key = keyFunction.apply(t);
+            } catch (RuntimeException throwable) {
+                failure = throwable;
+                drain();
+                return;
+            }
+            synchronized (pending) {
+                pending.put(key, t);
+            }
+            if (interval == null) {
+                drain();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            upstreamThrowable = t;
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        private void tick() {
+            synchronized (pending) {
+                windowOpen = !pending.isEmpty();
+            }
+            drain();
+        }
+
+        private void requestFromDownstream(long n) {
+            if (n <= 0) {
+                // reactive streams rule 3.9
+                failure = new IllegalArgumentException("request(n) must be greater than zero but was " + n);
+            } else {
+                synchronized (pending) {
+                    downstreamDemand = downstreamDemand + n < 0 ? Long.MAX_VALUE : downstreamDemand + n;
+                }
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (cancelled) {
+                    clearPending();
+                    return;
+                }
+                Throwable failed = failure;
+                if (failed != null) {
+                    cancelled = true;
+                    stopTicks();
+                    clearPending();
+                    upstreamSubscription.cancel();
+                    downstreamSubscriber.onError(failed);
+                    return;
+                }
+                Throwable throwable = upstreamThrowable;
+                if (throwable != null) {
+                    // an error is not held up by the items that are still pending
+                    cancelled = true;
+                    stopTicks();
+                    clearPending();
+                    downstreamSubscriber.onError(throwable);
+                    return;
+                }
+                boolean done = upstreamDone;
+                T next;
+                while ((next = nextToPublish(done)) != null) {
+                    downstreamSubscriber.onNext(next);
+                    if (cancelled) {
+                        clearPending();
+                        return;
+                    }
+                }
+                if (done && isPendingEmpty()) {
+                    cancelled = true;
+                    stopTicks();
+                    downstreamSubscriber.onComplete();
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private T nextToPublish(boolean upstreamDone) {
+            synchronized (pending) {
+                // once the upstream is done the pending items are flushed without waiting for the interval
+                boolean released = interval == null || windowOpen || upstreamDone;
+                if (!released || downstreamDemand == 0 || pending.isEmpty()) {
+                    return null;
+                }
+                Iterator<T> iterator = pending.values().iterator();
+                T next = iterator.next();
+                iterator.remove();
+                if (downstreamDemand != Long.MAX_VALUE) {
+                    downstreamDemand--;
+                }
+                if (pending.isEmpty()) {
+                    windowOpen = false;
+                }
+                return next;
+            }
+        }
+
+        private boolean isPendingEmpty() {
+            synchronized (pending) {
+                return pending.isEmpty();
+            }
+        }
+
+        private void clearPending() {
+            synchronized (pending) {
+                pending.clear();
+            }
+        }
+
+        private void stopTicks() {
+            ScheduledFuture<?> scheduled = ticks;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package graphql.execution.reactive;
+
+import graphql.Internal;
+import graphql.PublicApi;
+import org.reactivestreams.Publisher;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+
+/**
+ * Subscription conflation replaces a source event that has not been executed yet with a newer source event of the same key.
+ * <p>
+ * This suits high frequency sources such as price ticks where a subscriber only needs the latest value per key.  The selection set of
+ * the subscription is only executed for the events that survive conflation.  Source events are conflated while an event is being
+ * executed or the subscriber has no demand for more results and, if an interval is given, are only released once per interval.  Unless
+ * {@link graphql.execution.SubscriptionExecutionStrategy#MAX_CONCURRENT_SUBSCRIPTION_EVENTS} says otherwise, the events of a conflated
+ * subscription are executed one at a time.
+ *
+ * <pre>{@code
+ *     SubscriptionConflation conflation = SubscriptionConflation.newSubscriptionConflation()
+ *             .conflationKey(event -> ((PriceTick) event).getSymbol())
+ *             .interval(Duration.ofMillis(250), scheduler)
+ *             .build();
+ *     GraphQL graphQL = GraphQL.newGraphQL(schema)
+ *             .subscriptionExecutionStrategy(new SubscriptionExecutionStrategy(new SimpleDataFetcherExceptionHandler(), null, conflation))
+ *             .build();
+ * }</pre>
+ */
+@PublicApi
+public class SubscriptionConflation {
+
+    private final Function<Object, Object> conflationKeyFunction;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+
+    private SubscriptionConflation(Builder builder) {
+        this.conflationKeyFunction = builder.conflationKeyFunction;
+        this.interval = builder.interval;
+        this.scheduler = builder.scheduler;
+    }
+
+    /**
+     * @return the interval at which conflated events are released or null if they are released on demand
+     */
+    public Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * Called by the subscription execution strategy to conflate the source events of a subscription
+     *
+     * @param sourcePublisher the publisher of events returned by the subscription field's data fetcher
+     *
+     * @return a publisher of the conflated source events
+     */
+    @Internal
+    public Publisher<Object> conflate(Publisher<Object> sourcePublisher) {
+        return new ConflatingPublisher<>(sourcePublisher, conflationKeyFunction, interval, scheduler);
+    }
+
+    public static Builder newSubscriptionConflation() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Function<Object, Object> conflationKeyFunction;
+        private Duration interval;
+        private ScheduledExecutorService scheduler;
+
+        private Builder() {
+        }
+
+        /**
+         * The conflation key decides which source events replace each other.  This must be provided.
+         *
+         * @param conflationKeyFunction a function returning the conflation key of a source event, which can be null
+         *
+         * @return this builder
+         */
+        public Builder conflationKey(Function<Object, Object> conflationKeyFunction) {
+            this.conflationKeyFunction = conflationKeyFunction;
+            return this;
+        }
+
+        /**
+         * Conflated events are released once per interval rather than as soon as the subscriber asks for them
+         *
+         * @param interval  the interval at which conflated events are released
+         * @param scheduler the scheduler that runs the interval
+         *
+         * @return this builder
+         */
+        public Builder interval(Duration interval, ScheduledExecutorService scheduler) {
+            assertTrue(interval != null && !interval.isNegative() && !interval.isZero(), () -> "interval must be positive");
+            this.interval = interval;
+            this.scheduler = assertNotNull(scheduler, () -> "scheduler can't be null");
+            return this;
+        }
+
+        public SubscriptionConflation build() {
+            assertNotNull(conflationKeyFunction, () -> "You must provide a conflation key function");
+            return new SubscriptionConflation(this);
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package graphql.execution.reactive;
+
+import graphql.ExecutionResult;
+import graphql.Internal;
+import graphql.PublicApi;
+import graphql.execution.ExecutionContext;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.language.AstPrinter;
+import graphql.language.Document;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static graphql.Assert.assertNotNull;
+import static graphql.Assert.assertTrue;
+
+/**
+ * A subscription multiplexer shares the execution of subscription events between subscribers.
+ * <p>
+ * Subscribers are grouped by the canonical form of their document, their operation name, their variables, their locale, a partition
+ * key taken from their {@link ExecutionContext} and the source {@link Publisher} returned by the subscription field's data fetcher.
+ * Each event of a source publisher is executed once per group and the resulting {@link ExecutionResult} is fanned out to every
+ * subscriber of the group.
+ * <p>
+ * The partition key must separate subscribers that can't share results, for example because the data fetchers of the selection
+ * set look at the user in the {@link graphql.GraphQLContext}.  Returning the same key for every execution context shares results
+ * between all subscribers with the same document, variables and locale.
+ * <p>
+ * An event is executed with the {@link ExecutionContext} of one of the current subscribers of the group, which includes its
+ * {@link graphql.GraphQLContext}, its data loaders and its instrumentation state.  That is the longest standing subscriber, and when it
+ * leaves the group the following events are executed with the context of the next one, so the group does not hold on to the context
+ * of a subscriber that has gone.  Subscribers joining a group only receive the events that are executed after they joined.  The source publisher is asked for
+ * one event at a time and each subscriber buffers up to {@link Builder#maxBufferedEvents(int)} results it has not requested yet,
+ * after which it is failed with a {@link SubscriberOverflowException} rather than holding up the whole group.  Since the events of a
+ * group are executed one at a time and in order, the {@link graphql.execution.SubscriptionExecutionStrategy#MAX_CONCURRENT_SUBSCRIPTION_EVENTS}
+ * and {@link graphql.execution.SubscriptionExecutionStrategy#KEEP_SUBSCRIPTION_EVENTS_ORDERED} keys of the context do not apply.
+ *
+ * <pre>{@code
+ *     SubscriptionMultiplexer multiplexer = SubscriptionMultiplexer.newSubscriptionMultiplexer()
+ *             .partitionKey(executionContext -> executionContext.getGraphQLContext().get("tenant"))
+ *             .build();
+ *     GraphQL graphQL = GraphQL.newGraphQL(schema)
+ *             .subscriptionExecutionStrategy(new SubscriptionExecutionStrategy(new SimpleDataFetcherExceptionHandler(), multiplexer))
+ *             .build();
+ * }</pre>
+ */
+@PublicApi
+public class SubscriptionMultiplexer {
+
+    private final Function<ExecutionContext, Object> partitionKeyFunction;
+    private final int maxBufferedEvents;
+    private final Map<GroupKey, SharedEventStream> groups = new ConcurrentHashMap<>();
+
+    private SubscriptionMultiplexer(Builder builder) {
+        this.partitionKeyFunction = builder.partitionKeyFunction;
+        this.maxBufferedEvents = builder.maxBufferedEvents;
+    }
+
+    /**
+     * @return the number of groups of subscribers that currently share a source publisher
+     */
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * @return the number of subscribers over all groups
+     */
+    public int getSubscriberCount() {
+        int count = 0;
+        for (SharedEventStream group : groups.values()) {
+            count += group.subscriberCount();
+        }
+        return count;
+    }
+
+    /**
+     * Called by the subscription execution strategy to create the publisher of execution results for a subscription
+     *
+     * @param executionContext the execution context of the subscription
+     * @param sourcePublisher  the publisher of events returned by the subscription field's data fetcher
+     * @param mapper           executes an event in the given execution context
+     *
+     * @return a publisher of execution results that shares the event executions of its group
+     */
+    @Internal
+    public Publisher<ExecutionResult> multiplex(ExecutionContext executionContext, Publisher<Object> sourcePublisher, Function<Object, CompletionStage<ExecutionResult>> mapper) {
+        return multiplex(executionContext, sourcePublisher, sourcePublisher, mapper);
+    }
+
+    /**
+     * Called by the subscription execution strategy to create the publisher of execution results for a subscription whose
+     * source events are transformed before they are executed, say by conflation
+     *
+     * @param executionContext the execution context of the subscription
+     * @param sourcePublisher  the publisher of events returned by the subscription field's data fetcher, which the subscribers are grouped by
+     * @param eventPublisher   the publisher of the events to execute, which a new group subscribes to
+     * @param mapper           executes an event in the given execution context
+     *
+     * @return a publisher of execution results that shares the event executions of its group
+     */
+    @Internal
+    public Publisher<ExecutionResult> multiplex(ExecutionContext executionContext, Publisher<Object> sourcePublisher, Publisher<Object> eventPublisher, Function<Object, CompletionStage<ExecutionResult>> mapper) {
+        GroupKey groupKey = new GroupKey(canonicalDocument(executionContext),
+                executionContext.getExecutionInput().getOperationName(),
+                executionContext.getCoercedVariables().toMap(),
+                executionContext.getLocale(),
+                partitionKeyFunction.apply(executionContext),
+                sourcePublisher);
+        return subscriber -> subscribe(groupKey, eventPublisher, mapper, subscriber);
+    }
+
+    private void subscribe(GroupKey groupKey, Publisher<Object> eventPublisher, Function<Object, CompletionStage<ExecutionResult>> mapper, Subscriber<? super ExecutionResult> subscriber) {
+        assertNotNull(subscriber, () -> "subscriber can't be null");
+        SharedSubscription sharedSubscription = new SharedSubscription(subscriber, mapper);
+        subscriber.onSubscribe(sharedSubscription);
+
+        SharedEventStream[] created = new SharedEventStream[1];
+        groups.compute(groupKey, (key, group) -> {
+            if (group != null && group.addSubscriber(sharedSubscription)) {
+                return group;
+            }
+            SharedEventStream newGroup = new SharedEventStream(key);
+            newGroup.addSubscriber(sharedSubscription);
+            created[0] = newGroup;
+            return newGroup;
+        });
+        if (sharedSubscription.cancelled) {
+            // cancelled from within onSubscribe, before it was part of a group
+            sharedSubscription.leaveGroup();
+        }
+        if (created[0] != null) {
+            new CompletionStageMappingPublisher<>(eventPublisher, created[0]::executeEvent).subscribe(created[0]);
+        }
+    }
+
+    private static String canonicalDocument(ExecutionContext executionContext) {
+        Document document = executionContext.getDocument();
+        PreparsedDocumentEntry preparsedDocumentEntry = executionContext.getPreparsedDocumentEntry();
+        if (preparsedDocumentEntry == null) {
+            return AstPrinter.printAstCompact(document);
+        }
+        return preparsedDocumentEntry.computeIfAbsent(CanonicalDocumentKey.INSTANCE, key -> AstPrinter.printAstCompact(document));
+    }
+
+    private enum CanonicalDocumentKey {
+        INSTANCE
+    }
+
+    /**
+     * The single subscriber of the mapped source publisher of a group, which fans the execution results out to the subscribers of the group
+     */
+    @SuppressWarnings("ReactiveStreamsSubscriberImplementation")
+    private class SharedEventStream implements Subscriber<ExecutionResult> {
+        private final GroupKey groupKey;
+        private final List<SharedSubscription> subscribers = new ArrayList<>();
+        private volatile SharedSubscription[] subscribersSnapshot = new SharedSubscription[0];
+        // the mapper of the longest standing subscriber, which executes the events in its context, or null once all have gone
+        private volatile Function<Object, CompletionStage<ExecutionResult>> executingMapper;
+        private Subscription upstreamSubscription;
+        private boolean upstreamCancelled;
+        private boolean terminated;
+
+        private SharedEventStream(GroupKey groupKey) {
+            this.groupKey = groupKey;
+        }
+
+        private synchronized boolean addSubscriber(SharedSubscription subscription) {
+            if (terminated) {
+                return false;
+            }
+            subscribers.add(subscription);
+            subscribersSnapshot = subscribers.toArray(new SharedSubscription[0]);
+            subscription.group = this;
+            if (executingMapper == null) {
+                executingMapper = subscription.mapper;
+            }
+            return true;
+        }
+
+        private void removeSubscriber(SharedSubscription subscription) {
+            Subscription toCancel = null;
+            boolean empty;
+            synchronized (this) {
+                if (!subscribers.remove(subscription)) {
+                    return;
+                }
+                subscribersSnapshot = subscribers.toArray(new SharedSubscription[0]);
+                empty = subscribers.isEmpty();
+                // the next events are executed in the context of a subscriber that is still there
+                executingMapper = empty ? null : subscribers.get(0).mapper;
+                if (empty && !terminated) {
+                    // the last subscriber has gone so nobody needs the source events anymore
+                    terminated = true;
+                    upstreamCancelled = true;
+                    toCancel = upstreamSubscription;
+                }
+            }
+            if (empty) {
+                groups.remove(groupKey, this);
+            }
+            if (toCancel != null) {
+                toCancel.cancel();
+            }
+        }
+
+        private int subscriberCount() {
+            return subscribersSnapshot.length;
+        }
+
+        private CompletionStage<ExecutionResult> executeEvent(Object event) {
+            Function<Object, CompletionStage<ExecutionResult>> mapper = executingMapper;
+            if (mapper == null) {
+                // the last subscriber has gone while the event was on its way, so there is nobody to execute it for
+                CompletableFuture<ExecutionResult> cancelled = new CompletableFuture<>();
+                cancelled.completeExceptionally(new CancellationException("All subscribers of the group have cancelled"));
+                return cancelled;
+            }
+            return mapper.apply(event);
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            boolean cancel;
+            synchronized (this) {
+                upstreamSubscription = subscription;
+                cancel = upstreamCancelled;
+            }
+            if (cancel) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(ExecutionResult executionResult) {
+            for (SharedSubscription subscription : subscribersSnapshot) {
+                subscription.offer(executionResult);
+            }
+            upstreamSubscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            for (SharedSubscription subscription : terminate()) {
+                subscription.terminate(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            for (SharedSubscription subscription : terminate()) {
+                subscription.terminate(null);
+            }
+        }
+
+        private SharedSubscription[] terminate() {
+            synchronized (this) {
+                terminated = true;
+            }
+            groups.remove(groupKey, this);
+            return subscribersSnapshot;
+        }
+    }
+
+    /**
+     * The subscription of one subscriber to a group, which queues the results the subscriber has not requested yet
+     */
+    private class SharedSubscription implements Subscription {
+        private final Subscriber<? super ExecutionResult> downstreamSubscriber;
+        private final Function<Object, CompletionStage<ExecutionResult>> mapper;
+        private final Queue<ExecutionResult> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile SharedEventStream group;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private volatile Throwable error;
+
+        private SharedSubscription(Subscriber<? super ExecutionResult> downstreamSubscriber, Function<Object, CompletionStage<ExecutionResult>> mapper) {
+            this.downstreamSubscriber = downstreamSubscriber;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // reactive streams rule 3.9
+                terminate(new IllegalArgumentException("request(n) must be positive but was " + n));
+                leaveGroup();
+                return;
+            }
+            requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            leaveGroup();
+            queue.clear();
+        }
+
+        private void leaveGroup() {
+            SharedEventStream currentGroup = group;
+            if (currentGroup != null) {
+                currentGroup.removeSubscriber(this);
+            }
+        }
+
+        private void offer(ExecutionResult executionResult) {
+            if (cancelled || done) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxBufferedEvents) {
+                terminate(new SubscriberOverflowException(maxBufferedEvents));
+                leaveGroup();
+                return;
+            }
+            queue.offer(executionResult);
+            drain();
+        }
+
+        private void terminate(Throwable throwable) {
+            if (done) {
+                return;
+            }
+            error = throwable;
+            done = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long emitted = 0;
+                long demand = requested.get();
+                while (emitted != demand && !cancelled) {
+                    ExecutionResult executionResult = queue.poll();
+                    if (executionResult == null) {
+                        break;
+                    }
+                    queued.decrementAndGet();
+                    downstreamSubscriber.onNext(executionResult);
+                    emitted++;
+                }
+                if (cancelled) {
+                    return;
+                }
+                if (done && (error != null || queue.isEmpty())) {
+                    cancelled = true;
+                    queue.clear();
+                    if (error != null) {
+                        downstreamSubscriber.onError(error);
+                    } else {
+                        downstreamSubscriber.onComplete();
+                    }
+                    return;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+
+    /**
+     * Thrown to a subscriber that has not requested the results of its group for longer than the buffer allows
+     */
+    @PublicApi
+    public static class SubscriberOverflowException extends RuntimeException {
+        public SubscriberOverflowException(int maxBufferedEvents) {
+            super("The subscriber has fallen behind its shared subscription by more than " + maxBufferedEvents + " events");
+        }
+    }
+
+    private static class GroupKey {
+        private final String canonicalDocument;
+        private final String operationName;
+        private final Map<String, Object> variables;
+        private final Locale locale;
+        private final Object partitionKey;
+        private final Publisher<Object> sourcePublisher;
+        private final int hashCode;
+
+        private GroupKey(String canonicalDocument, String operationName, Map<String, Object> variables, Locale locale, Object partitionKey, Publisher<Object> sourcePublisher) {
+            this.canonicalDocument = canonicalDocument;
+            this.operationName = operationName;
+            this.variables = variables;
+            this.locale = locale;
+            this.partitionKey = partitionKey;
+            this.sourcePublisher = sourcePublisher;
+            this.hashCode = Objects.hash(canonicalDocument, operationName, variables, locale, partitionKey, System.identityHashCode(sourcePublisher));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            GroupKey that = (GroupKey) o;
+            // the source publisher is compared by identity since only subscribers of the very same event stream can share results
+            return sourcePublisher == that.sourcePublisher
+                    && canonicalDocument.equals(that.canonicalDocument)
+                    && Objects.equals(operationName, that.operationName)
+                    && variables.equals(that.variables)
+                    && Objects.equals(locale, that.locale)
+                    && Objects.equals(partitionKey, that.partitionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    public static Builder newSubscriptionMultiplexer() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Function<ExecutionContext, Object> partitionKeyFunction;
+        private int maxBufferedEvents = 1024;
+
+        private Builder() {
+        }
+
+        /**
+         * The partition key separates subscribers that must not share results even though they use the same document, variables and locale.
+         * This must be provided.
+         *
+         * @param partitionKeyFunction a function returning the partition key of a subscription, which can be null
+         *
+         * @return this builder
+         */
+        public Builder partitionKey(Function<ExecutionContext, Object> partitionKeyFunction) {
+            this.partitionKeyFunction = partitionKeyFunction;
+            return this;
+        }
+
+        /**
+         * @param maxBufferedEvents the number of results a subscriber can fall behind its group before it is failed
+         *
+         * @return this builder
+         */
+        public Builder maxBufferedEvents(int maxBufferedEvents) {
+            assertTrue(maxBufferedEvents > 0, () -> "maxBufferedEvents must be positive");
+            this.maxBufferedEvents = maxBufferedEvents;
+            return this;
+        }
+
+        public SubscriptionMultiplexer build() {
+            assertNotNull(partitionKeyFunction, () -> "You must provide a partition key function");
+            return new SubscriptionMultiplexer(this);
+        }
+    }
+}
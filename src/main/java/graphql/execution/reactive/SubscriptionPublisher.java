@@ -24,7 +24,8 @@ import java.util.function.Function;
 @PublicApi
 public class SubscriptionPublisher implements Publisher<ExecutionResult> {
 
-    private final CompletionStageMappingPublisher<ExecutionResult, Object> mappingPublisher;
+    private final Publisher<Object> upstreamPublisher;
+    private final Publisher<ExecutionResult> resultPublisher;
 
     /**
      * Subscription consuming code is not expected to create instances of this class
@@ -34,7 +35,19 @@ public class SubscriptionPublisher implements Publisher<ExecutionResult> {
      */
     @Internal
     public  SubscriptionPublisher(Publisher<Object> upstreamPublisher, Function<Object, CompletionStage<ExecutionResult>> mapper) {
-        mappingPublisher = new CompletionStageMappingPublisher<>(upstreamPublisher, mapper);
+        this(upstreamPublisher, new CompletionStageMappingPublisher<>(upstreamPublisher, mapper));
+    }
+
+    /**
+     * Subscription consuming code is not expected to create instances of this class
+     *
+     * @param upstreamPublisher the original publisher of objects that then have a graphql selection set applied to them
+     * @param resultPublisher   the publisher of the execution results of the upstream objects
+     */
+    @Internal
+    public SubscriptionPublisher(Publisher<Object> upstreamPublisher, Publisher<ExecutionResult> resultPublisher) {
+        this.upstreamPublisher = upstreamPublisher;
+        this.resultPublisher = resultPublisher;
     }
 
     /**
@@ -42,11 +55,11 @@ public class SubscriptionPublisher implements Publisher<ExecutionResult> {
      * to execution results
      */
     public Publisher<Object> getUpstreamPublisher() {
-        return mappingPublisher.getUpstreamPublisher();
+        return upstreamPublisher;
     }
 
     @Override
     public void subscribe(Subscriber<? super ExecutionResult> subscriber) {
-        mappingPublisher.subscribe(subscriber);
+        resultPublisher.subscribe(subscriber);
     }
 }
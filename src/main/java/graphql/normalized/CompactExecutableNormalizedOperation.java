@@ -0,0 +1,519 @@
+package graphql.normalized;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import graphql.Internal;
+import graphql.collect.ImmutableKit;
+import graphql.execution.MergedField;
+import graphql.language.Argument;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.schema.FieldCoordinates;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A compact, immutable representation of an {@link ExecutableNormalizedOperation} that is meant to be kept around, for example
+ * when normalized operations of persisted queries are cached.
+ * <p>
+ * Instead of an object graph of {@link ExecutableNormalizedField}s and three multimaps on top of it, the fields are
+ * numbered in breadth first order and stored in parallel arrays:
+ * <ul>
+ *     <li>field names and aliases are interned and referenced by int id</li>
+ *     <li>the children of a field are always consecutive ids, so a single offset array describes the whole tree</li>
+ *     <li>the object type names are interned and every field has a bitset of the object types it applies to</li>
+ * </ul>
+ * The fields are accessed via light weight {@link FieldView}s.  If a full {@link ExecutableNormalizedOperation} is needed
+ * it can be recreated via {@link #toExecutableNormalizedOperation()}.
+ * <p>
+ * The object type names of a field are returned in the order the object types were first seen in the operation, which
+ * can differ from the order of the original {@link ExecutableNormalizedField#getObjectTypeNames()}.  Only the fields
+ * that are part of the tree are kept, while the lookups of the original operation can also contain fields that were merged away.
+ */
+@Internal
+public class CompactExecutableNormalizedOperation {
+
+    private static final int NO_ID = -1;
+
+    private final OperationDefinition.Operation operation;
+    private final String operationName;
+    private final int fieldCount;
+    private final int topLevelFieldCount;
+
+    private final String[] names;
+    private final int[] fieldNameIds;
+    private final int[] aliasIds;
+    private final int[] parentIds;
+    // the children of field i are the ids from childOffsets[i] (inclusive) to childOffsets[i + 1] (exclusive)
+    private final int[] childOffsets;
+
+    private final String[] typeNames;
+    private final int typeWords;
+    private final long[] objectTypeBits;
+
+    // null entries stand for no arguments
+    private final Object[] resolvedArguments;
+    private final Object[] normalizedArguments;
+    private final Object[] astArguments;
+
+    private final MergedField[] mergedFields;
+    private final ImmutableMap<Field, int[]> fieldToIds;
+
+    private CompactExecutableNormalizedOperation(Compactor compactor) {
+        this.operation = compactor.operation;
+        this.operationName = compactor.operationName;
+        this.fieldCount = compactor.fieldCount;
+        this.topLevelFieldCount = compactor.topLevelFieldCount;
+        this.names = compactor.names.toArray(new String[0]);
+        this.fieldNameIds = compactor.fieldNameIds;
+        this.aliasIds = compactor.aliasIds;
+        this.parentIds = compactor.parentIds;
+        this.childOffsets = compactor.childOffsets;
+        this.typeNames = compactor.typeNames.toArray(new String[0]);
+        this.typeWords = compactor.typeWords;
+        this.objectTypeBits = compactor.objectTypeBits;
+        this.resolvedArguments = compactor.resolvedArguments;
+        this.normalizedArguments = compactor.normalizedArguments;
+        this.astArguments = compactor.astArguments;
+        this.mergedFields = compactor.mergedFields;
+        this.fieldToIds = compactor.buildFieldToIds();
+    }
+
+    /**
+     * Creates the compact representation of the given operation.  The given operation is not changed.
+     *
+     * @param executableNormalizedOperation the operation to compact
+     *
+     * @return a new compact operation
+     */
+    public static CompactExecutableNormalizedOperation compact(ExecutableNormalizedOperation executableNormalizedOperation) {
+        assertNotNull(executableNormalizedOperation, () -> "executableNormalizedOperation can't be null");
+        return new CompactExecutableNormalizedOperation(new Compactor(executableNormalizedOperation));
+    }
+
+    public OperationDefinition.Operation getOperation() {
+        return operation;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    /**
+     * @return the number of normalized fields in the operation
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public FieldView getField(int id) {
+        if (id < 0 || id >= fieldCount) {
+            throw new IndexOutOfBoundsException("field id " + id + " is not in [0," + fieldCount + ")");
+        }
+        return new FieldView(this, id);
+    }
+
+    public List<FieldView> getTopLevelFields() {
+        return new FieldViewList(this, 0, topLevelFieldCount);
+    }
+
+    /**
+     * @param field the ast field
+     *
+     * @return the normalized fields created from the given ast field
+     */
+    public List<FieldView> getNormalizedFields(Field field) {
+        int[] ids = fieldToIds.get(field);
+        if (ids == null) {
+            return ImmutableKit.emptyList();
+        }
+        return idsToViews(ids, ids.length);
+    }
+
+    /**
+     * The normalized fields by coordinates are not stored but found by scanning the field names and type bitsets, which
+     * is cheap for the sizes of operations in practice.
+     *
+     * @param coordinates the coordinates to look for
+     *
+     * @return the normalized fields with the given field name on the given object type
+     */
+    public List<FieldView> getNormalizedFields(FieldCoordinates coordinates) {
+        int typeId = Arrays.asList(typeNames).indexOf(coordinates.getTypeName());
+        int nameId = Arrays.asList(names).indexOf(coordinates.getFieldName());
+        if (typeId == NO_ID || nameId == NO_ID) {
+            return ImmutableKit.emptyList();
+        }
+        int[] ids = new int[fieldCount];
+        int count = 0;
+        for (int id = 0; id < fieldCount; id++) {
+            if (fieldNameIds[id] == nameId && hasObjectType(id, typeId)) {
+                ids[count++] = id;
+            }
+        }
+        return idsToViews(ids, count);
+    }
+
+    /**
+     * Recreates a full {@link ExecutableNormalizedOperation} from this compact form.  A new one is created on each call.
+     *
+     * @return a new executable normalized operation
+     */
+    public ExecutableNormalizedOperation toExecutableNormalizedOperation() {
+        ImmutableListMultimap.Builder<Field, ExecutableNormalizedField> fieldToNormalizedField = ImmutableListMultimap.builder();
+        ImmutableMap.Builder<ExecutableNormalizedField, MergedField> normalizedFieldToMergedField = ImmutableMap.builder();
+        ImmutableListMultimap.Builder<FieldCoordinates, ExecutableNormalizedField> coordinatesToNormalizedFields = ImmutableListMultimap.builder();
+        List<ExecutableNormalizedField> topLevelFields = new ArrayList<>(topLevelFieldCount);
+        for (int id = 0; id < topLevelFieldCount; id++) {
+            topLevelFields.add(inflate(id, null, 1, fieldToNormalizedField, normalizedFieldToMergedField, coordinatesToNormalizedFields));
+        }
+        return new ExecutableNormalizedOperation(operation,
+                operationName,
+                topLevelFields,
+                fieldToNormalizedField.build(),
+                normalizedFieldToMergedField.build(),
+                coordinatesToNormalizedFields.build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ExecutableNormalizedField inflate(int id,
+                                              ExecutableNormalizedField parent,
+                                              int level,
+                                              ImmutableListMultimap.Builder<Field, ExecutableNormalizedField> fieldToNormalizedField,
+                                              ImmutableMap.Builder<ExecutableNormalizedField, MergedField> normalizedFieldToMergedField,
+                                              ImmutableListMultimap.Builder<FieldCoordinates, ExecutableNormalizedField> coordinatesToNormalizedFields) {
+        List<String> objectTypeNames = objectTypeNames(id);
+        ExecutableNormalizedField field = ExecutableNormalizedField.newNormalizedField()
+                .alias(aliasIds[id] == NO_ID ? null : names[aliasIds[id]])
+                .fieldName(names[fieldNameIds[id]])
+                .objectTypeNames(objectTypeNames)
+                .resolvedArguments((Map<String, Object>) resolvedArguments[id])
+                .normalizedArguments((Map<String, NormalizedInputValue>) normalizedArguments[id])
+                .astArguments(astArguments[id] == null ? ImmutableKit.emptyList() : (List<Argument>) astArguments[id])
+                .level(level)
+                .parent(parent)
+                .build();
+
+        MergedField mergedField = mergedFields[id];
+        normalizedFieldToMergedField.put(field, mergedField);
+        for (Field astField : mergedField.getFields()) {
+            fieldToNormalizedField.put(astField, field);
+        }
+        for (String objectTypeName : objectTypeNames) {
+            coordinatesToNormalizedFields.put(FieldCoordinates.coordinates(objectTypeName, field.getFieldName()), field);
+        }
+        for (int childId = childOffsets[id]; childId < childOffsets[id + 1]; childId++) {
+            field.addChild(inflate(childId, field, level + 1, fieldToNormalizedField, normalizedFieldToMergedField, coordinatesToNormalizedFields));
+        }
+        return field;
+    }
+
+    private boolean hasObjectType(int id, int typeId) {
+        return (objectTypeBits[id * typeWords + (typeId >>> 6)] & (1L << typeId)) != 0;
+    }
+
+    private List<String> objectTypeNames(int id) {
+        List<String> result = new ArrayList<>(1);
+        int offset = id * typeWords;
+        for (int word = 0; word < typeWords; word++) {
+            long bits = objectTypeBits[offset + word];
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                result.add(typeNames[(word << 6) + bit]);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    private List<FieldView> idsToViews(int[] ids, int count) {
+        List<FieldView> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new FieldView(this, ids[i]));
+        }
+        return result;
+    }
+
+    /**
+     * A light weight view of a single normalized field.  Views are created on demand and are equal if they refer to the same
+     * field of the same operation.
+     */
+    public static final class FieldView {
+        private final CompactExecutableNormalizedOperation operation;
+        private final int id;
+
+        private FieldView(CompactExecutableNormalizedOperation operation, int id) {
+            this.operation = operation;
+            this.id = id;
+        }
+
+        /**
+         * @return the id of the field, which is its index in breadth first order
+         */
+        public int getId() {
+            return id;
+        }
+
+        public String getFieldName() {
+            return operation.names[operation.fieldNameIds[id]];
+        }
+
+        public String getAlias() {
+            int aliasId = operation.aliasIds[id];
+            return aliasId == NO_ID ? null : operation.names[aliasId];
+        }
+
+        public String getResultKey() {
+            String alias = getAlias();
+            return alias != null ? alias : getFieldName();
+        }
+
+        public Set<String> getObjectTypeNames() {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(operation.objectTypeNames(id)));
+        }
+
+        public boolean hasObjectTypeName(String objectTypeName) {
+            int typeId = Arrays.asList(operation.typeNames).indexOf(objectTypeName);
+            return typeId != NO_ID && operation.hasObjectType(id, typeId);
+        }
+
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> getResolvedArguments() {
+            Map<String, Object> arguments = (Map<String, Object>) operation.resolvedArguments[id];
+            return arguments == null ? ImmutableKit.emptyMap() : Collections.unmodifiableMap(arguments);
+        }
+
+        @SuppressWarnings("unchecked")
+        public ImmutableMap<String, NormalizedInputValue> getNormalizedArguments() {
+            ImmutableMap<String, NormalizedInputValue> arguments = (ImmutableMap<String, NormalizedInputValue>) operation.normalizedArguments[id];
+            return arguments == null ? ImmutableKit.emptyMap() : arguments;
+        }
+
+        @SuppressWarnings("unchecked")
+        public ImmutableList<Argument> getAstArguments() {
+            ImmutableList<Argument> arguments = (ImmutableList<Argument>) operation.astArguments[id];
+            return arguments == null ? ImmutableKit.emptyList() : arguments;
+        }
+
+        public MergedField getMergedField() {
+            return operation.mergedFields[id];
+        }
+
+        public FieldView getParent() {
+            int parentId = operation.parentIds[id];
+            return parentId == NO_ID ? null : new FieldView(operation, parentId);
+        }
+
+        public int getLevel() {
+            int level = 1;
+            for (int parentId = operation.parentIds[id]; parentId != NO_ID; parentId = operation.parentIds[parentId]) {
+                level++;
+            }
+            return level;
+        }
+
+        public boolean hasChildren() {
+            return operation.childOffsets[id] < operation.childOffsets[id + 1];
+        }
+
+        public List<FieldView> getChildren() {
+            return new FieldViewList(operation, operation.childOffsets[id], operation.childOffsets[id + 1]);
+        }
+
+        public List<String> getListOfResultKeys() {
+            LinkedList<String> list = new LinkedList<>();
+            for (FieldView current = this; current != null; current = current.getParent()) {
+                list.addFirst(current.getResultKey());
+            }
+            return list;
+        }
+
+        public String printDetails() {
+            StringBuilder result = new StringBuilder();
+            if (getAlias() != null) {
+                result.append(getAlias()).append(": ");
+            }
+            List<String> objectTypeNames = operation.objectTypeNames(id);
+            result.append(objectTypeNames.size() == 1 ? objectTypeNames.get(0) : objectTypeNames.toString());
+            return result.append(".").append(getFieldName()).toString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FieldView that = (FieldView) o;
+            return operation == that.operation && id == that.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(operation) + id;
+        }
+
+        @Override
+        public String toString() {
+            return "FieldView{" + printDetails() + ", id=" + id + '}';
+        }
+    }
+
+    /**
+     * The fields from a start id to an end id, which is how the top level fields and the children of a field are stored
+     */
+    private static class FieldViewList extends AbstractList<FieldView> {
+        private final CompactExecutableNormalizedOperation operation;
+        private final int start;
+        private final int end;
+
+        private FieldViewList(CompactExecutableNormalizedOperation operation, int start, int end) {
+            this.operation = operation;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public FieldView get(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("index " + index + " is not in [0," + (end - start) + ")");
+            }
+            return new FieldView(operation, start + index);
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+
+    private static class Compactor {
+        private final OperationDefinition.Operation operation;
+        private final String operationName;
+        private final int fieldCount;
+        private final int topLevelFieldCount;
+
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> nameIds = new HashMap<>();
+        private final List<String> typeNames = new ArrayList<>();
+        private final Map<String, Integer> typeIds = new HashMap<>();
+
+        private final int[] fieldNameIds;
+        private final int[] aliasIds;
+        private final int[] parentIds;
+        private final int[] childOffsets;
+        private final int typeWords;
+        private final long[] objectTypeBits;
+        private final Object[] resolvedArguments;
+        private final Object[] normalizedArguments;
+        private final Object[] astArguments;
+        private final MergedField[] mergedFields;
+
+        private Compactor(ExecutableNormalizedOperation executableNormalizedOperation) {
+            this.operation = executableNormalizedOperation.getOperation();
+            this.operationName = executableNormalizedOperation.getOperationName();
+            this.topLevelFieldCount = executableNormalizedOperation.getTopLevelFields().size();
+
+            // breadth first order keeps the children of every field next to each other
+            List<ExecutableNormalizedField> fields = new ArrayList<>(executableNormalizedOperation.getTopLevelFields());
+            for (int i = 0; i < fields.size(); i++) {
+                fields.addAll(fields.get(i).getChildren());
+            }
+            this.fieldCount = fields.size();
+            this.fieldNameIds = new int[fieldCount];
+            this.aliasIds = new int[fieldCount];
+            this.parentIds = new int[fieldCount];
+            this.childOffsets = new int[fieldCount + 1];
+            this.resolvedArguments = new Object[fieldCount];
+            this.normalizedArguments = new Object[fieldCount];
+            this.astArguments = new Object[fieldCount];
+            this.mergedFields = new MergedField[fieldCount];
+
+            int[][] fieldTypeIds = new int[fieldCount][];
+            int nextChildId = topLevelFieldCount;
+            for (int id = 0; id < fieldCount; id++) {
+                ExecutableNormalizedField field = fields.get(id);
+                fieldNameIds[id] = intern(field.getFieldName());
+                aliasIds[id] = field.getAlias() == null ? NO_ID : intern(field.getAlias());
+                childOffsets[id] = nextChildId;
+                nextChildId += field.getChildren().size();
+                for (int childId = childOffsets[id]; childId < nextChildId; childId++) {
+                    parentIds[childId] = id;
+                }
+                if (id < topLevelFieldCount) {
+                    parentIds[id] = NO_ID;
+                }
+
+                Set<String> objectTypeNames = field.getObjectTypeNames();
+                int[] ids = new int[objectTypeNames.size()];
+                int i = 0;
+                for (String objectTypeName : objectTypeNames) {
+                    ids[i++] = typeIds.computeIfAbsent(objectTypeName, name -> {
+                        typeNames.add(name);
+                        return typeNames.size() - 1;
+                    });
+                }
+                fieldTypeIds[id] = ids;
+
+                if (!field.getResolvedArguments().isEmpty()) {
+                    resolvedArguments[id] = new LinkedHashMap<>(field.getResolvedArguments());
+                }
+                if (!field.getNormalizedArguments().isEmpty()) {
+                    normalizedArguments[id] = field.getNormalizedArguments();
+                }
+                if (!field.getAstArguments().isEmpty()) {
+                    astArguments[id] = field.getAstArguments();
+                }
+                mergedFields[id] = executableNormalizedOperation.getMergedField(field);
+            }
+            childOffsets[fieldCount] = fieldCount;
+
+            this.typeWords = Math.max(1, (typeNames.size() + 63) >>> 6);
+            this.objectTypeBits = new long[fieldCount * typeWords];
+            for (int id = 0; id < fieldCount; id++) {
+                for (int typeId : fieldTypeIds[id]) {
+                    objectTypeBits[id * typeWords + (typeId >>> 6)] |= 1L << typeId;
+                }
+            }
+        }
+
+        private int intern(String name) {
+            return nameIds.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+        }
+
+        private ImmutableMap<Field, int[]> buildFieldToIds() {
+            Map<Field, int[]> fieldToIds = new LinkedHashMap<>();
+            for (int id = 0; id < fieldCount; id++) {
+                for (Field field : mergedFields[id].getFields()) {
+                    int[] ids = fieldToIds.get(field);
+                    if (ids == null) {
+                        ids = new int[]{id};
+                    } else {
+                        ids = Arrays.copyOf(ids, ids.length + 1);
+                        ids[ids.length - 1] = id;
+                    }
+                    fieldToIds.put(field, ids);
+                }
+            }
+            return ImmutableMap.copyOf(fieldToIds);
+        }
+    }
+}
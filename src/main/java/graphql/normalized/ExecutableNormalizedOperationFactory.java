@@ -43,6 +43,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import static graphql.Assert.assertNotNull;
 import static graphql.Assert.assertShouldNeverHappen;
@@ -65,14 +67,61 @@ public class ExecutableNormalizedOperationFactory {
                                                                                     String operationName,
                                                                                     CoercedVariables coercedVariableValues) {
         NodeUtil.GetOperationResult getOperationResult = NodeUtil.getOperation(document, operationName);
-        return new ExecutableNormalizedOperationFactory().createNormalizedQueryImpl(graphQLSchema, getOperationResult.operationDefinition, getOperationResult.fragmentsByName, coercedVariableValues, null);
+        return new ExecutableNormalizedOperationFactory().createNormalizedQueryImpl(graphQLSchema, getOperationResult.operationDefinition, getOperationResult.fragmentsByName, coercedVariableValues, null, null);
     }
 
     public static ExecutableNormalizedOperation createExecutableNormalizedOperation(GraphQLSchema graphQLSchema,
                                                                                     OperationDefinition operationDefinition,
                                                                                     Map<String, FragmentDefinition> fragments,
                                                                                     CoercedVariables coercedVariableValues) {
-        return new ExecutableNormalizedOperationFactory().createNormalizedQueryImpl(graphQLSchema, operationDefinition, fragments, coercedVariableValues, null);
+        return new ExecutableNormalizedOperationFactory().createNormalizedQueryImpl(graphQLSchema, operationDefinition, fragments, coercedVariableValues, null, null);
+    }
+
+    /**
+     * Creates a new normalized operation like {@link #createExecutableNormalizedOperation(GraphQLSchema, Document, String, CoercedVariables)}
+     * but expands the subtrees of the top level fields in parallel on the given {@link ForkJoinPool}.
+     * <p>
+     * This only pays off for very large operations, say with tens of thousands of normalized fields.  The result is the same as
+     * the one built on a single thread, including the order of the fields in the lookup maps.
+     *
+     * @param graphQLSchema         the schema to use
+     * @param document              the document containing the operation
+     * @param operationName         the name of the operation, can be null if there is only one operation
+     * @param coercedVariableValues the coerced variables
+     * @param forkJoinPool          the pool to expand the top level subtrees on
+     *
+     * @return a new normalized operation
+     */
+    public static ExecutableNormalizedOperation createExecutableNormalizedOperationInParallel(GraphQLSchema graphQLSchema,
+                                                                                              Document document,
+                                                                                              String operationName,
+                                                                                              CoercedVariables coercedVariableValues,
+                                                                                              ForkJoinPool forkJoinPool) {
+        NodeUtil.GetOperationResult getOperationResult = NodeUtil.getOperation(document, operationName);
+        return createExecutableNormalizedOperationInParallel(graphQLSchema, getOperationResult.operationDefinition, getOperationResult.fragmentsByName, coercedVariableValues, forkJoinPool);
+    }
+
+    /**
+     * Creates a new normalized operation like {@link #createExecutableNormalizedOperation(GraphQLSchema, OperationDefinition, Map, CoercedVariables)}
+     * but expands the subtrees of the top level fields in parallel on the given {@link ForkJoinPool}.
+     *
+     * @param graphQLSchema         the schema to use
+     * @param operationDefinition   the operation to normalize
+     * @param fragments             the fragments of the document by name
+     * @param coercedVariableValues the coerced variables
+     * @param forkJoinPool          the pool to expand the top level subtrees on
+     *
+     * @return a new normalized operation
+     *
+     * @see #createExecutableNormalizedOperationInParallel(GraphQLSchema, Document, String, CoercedVariables, ForkJoinPool)
+     */
+    public static ExecutableNormalizedOperation createExecutableNormalizedOperationInParallel(GraphQLSchema graphQLSchema,
+                                                                                              OperationDefinition operationDefinition,
+                                                                                              Map<String, FragmentDefinition> fragments,
+                                                                                              CoercedVariables coercedVariableValues,
+                                                                                              ForkJoinPool forkJoinPool) {
+        assertNotNull(forkJoinPool, () -> "forkJoinPool can't be null");
+        return new ExecutableNormalizedOperationFactory().createNormalizedQueryImpl(graphQLSchema, operationDefinition, fragments, coercedVariableValues, null, forkJoinPool);
     }
 
     public static ExecutableNormalizedOperation createExecutableNormalizedOperationWithRawVariables(GraphQLSchema graphQLSchema,
@@ -102,17 +151,18 @@ public class ExecutableNormalizedOperationFactory {
         List<VariableDefinition> variableDefinitions = operationDefinition.getVariableDefinitions();
         CoercedVariables coercedVariableValues = ValuesResolver.coerceVariableValues(graphQLSchema, variableDefinitions, rawVariables, graphQLContext, locale);
         Map<String, NormalizedInputValue> normalizedVariableValues = ValuesResolver.getNormalizedVariableValues(graphQLSchema, variableDefinitions, rawVariables, graphQLContext, locale);
-        return createNormalizedQueryImpl(graphQLSchema, operationDefinition, fragments, coercedVariableValues, normalizedVariableValues);
+        return createNormalizedQueryImpl(graphQLSchema, operationDefinition, fragments, coercedVariableValues, normalizedVariableValues, null);
     }
 
     /**
-     * Creates a new Normalized query tree for the provided query
+     * Creates a new Normalized query tree for the provided query, expanding the top level subtrees on the fork join pool if one is given
      */
     private ExecutableNormalizedOperation createNormalizedQueryImpl(GraphQLSchema graphQLSchema,
                                                                     OperationDefinition operationDefinition,
                                                                     Map<String, FragmentDefinition> fragments,
                                                                     CoercedVariables coercedVariableValues,
-                                                                    @Nullable Map<String, NormalizedInputValue> normalizedVariableValues) {
+                                                                    @Nullable Map<String, NormalizedInputValue> normalizedVariableValues,
+                                                                    @Nullable ForkJoinPool forkJoinPool) {
         FieldCollectorNormalizedQueryParams parameters = FieldCollectorNormalizedQueryParams
                 .newParameters()
                 .fragments(fragments)
@@ -129,22 +179,39 @@ public class ExecutableNormalizedOperationFactory {
         ImmutableMap.Builder<ExecutableNormalizedField, MergedField> normalizedFieldToMergedField = ImmutableMap.builder();
         ImmutableListMultimap.Builder<FieldCoordinates, ExecutableNormalizedField> coordinatesToNormalizedFields = ImmutableListMultimap.builder();
 
-        for (ExecutableNormalizedField topLevel : collectFromOperationResult.children) {
-            ImmutableList<FieldAndAstParent> mergedField = collectFromOperationResult.normalizedFieldToAstFields.get(topLevel);
-            normalizedFieldToMergedField.put(topLevel, newMergedField(map(mergedField, fieldAndAstParent -> fieldAndAstParent.field)).build());
-            updateFieldToNFMap(topLevel, mergedField, fieldToNormalizedField);
-            updateCoordinatedToNFMap(coordinatesToNormalizedFields, topLevel);
-
-            buildFieldWithChildren(topLevel,
-                    mergedField,
-                    parameters,
-                    fieldToNormalizedField,
-                    normalizedFieldToMergedField,
-                    coordinatesToNormalizedFields,
-                    1);
-
+        List<FieldCollectorNormalizedQueryParams.PossibleMerger> possibleMergers;
+        if (forkJoinPool == null || collectFromOperationResult.children.size() < 2) {
+            for (ExecutableNormalizedField topLevel : collectFromOperationResult.children) {
+                ImmutableList<FieldAndAstParent> mergedField = collectFromOperationResult.normalizedFieldToAstFields.get(topLevel);
+                buildTopLevelField(topLevel,
+                        mergedField,
+                        parameters,
+                        fieldToNormalizedField,
+                        normalizedFieldToMergedField,
+                        coordinatesToNormalizedFields);
+            }
+            possibleMergers = parameters.possibleMergerList;
+        } else {
+            List<TopLevelSubtree> subtrees = new ArrayList<>(collectFromOperationResult.children.size());
+            for (ExecutableNormalizedField topLevel : collectFromOperationResult.children) {
+                subtrees.add(new TopLevelSubtree(topLevel, collectFromOperationResult.normalizedFieldToAstFields.get(topLevel), parameters.forSubtree()));
+            }
+            forkJoinPool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(subtrees);
+                }
+            });
+            // the subtrees are merged in top level order which gives the same maps as building them one after the other
+            possibleMergers = new ArrayList<>(parameters.possibleMergerList);
+            for (TopLevelSubtree subtree : subtrees) {
+                fieldToNormalizedField.putAll(subtree.fieldToNormalizedField.build());
+                normalizedFieldToMergedField.putAll(subtree.normalizedFieldToMergedField.build());
+                coordinatesToNormalizedFields.putAll(subtree.coordinatesToNormalizedFields.build());
+                possibleMergers.addAll(subtree.parameters.possibleMergerList);
+            }
         }
-        for (FieldCollectorNormalizedQueryParams.PossibleMerger possibleMerger : parameters.possibleMergerList) {
+        for (FieldCollectorNormalizedQueryParams.PossibleMerger possibleMerger : possibleMergers) {
             List<ExecutableNormalizedField> childrenWithSameResultKey = possibleMerger.parent.getChildrenWithSameResultKey(possibleMerger.resultKey);
             ENFMerger.merge(possibleMerger.parent, childrenWithSameResultKey, graphQLSchema);
         }
@@ -158,6 +225,53 @@ public class ExecutableNormalizedOperationFactory {
         );
     }
 
+    /**
+     * Builds a top level field and all its children into its own maps.  Each subtree only touches its own
+     * normalized fields and has its own merger list, so the subtrees can be built on different threads.
+     */
+    private class TopLevelSubtree extends RecursiveAction {
+        private final ExecutableNormalizedField topLevel;
+        private final ImmutableList<FieldAndAstParent> mergedField;
+        private final FieldCollectorNormalizedQueryParams parameters;
+        private final ImmutableListMultimap.Builder<Field, ExecutableNormalizedField> fieldToNormalizedField = ImmutableListMultimap.builder();
+        private final ImmutableMap.Builder<ExecutableNormalizedField, MergedField> normalizedFieldToMergedField = ImmutableMap.builder();
+        private final ImmutableListMultimap.Builder<FieldCoordinates, ExecutableNormalizedField> coordinatesToNormalizedFields = ImmutableListMultimap.builder();
+
+        private TopLevelSubtree(ExecutableNormalizedField topLevel, ImmutableList<FieldAndAstParent> mergedField, FieldCollectorNormalizedQueryParams parameters) {
+            this.topLevel = topLevel;
+            this.mergedField = mergedField;
+            this.parameters = parameters;
+        }
+
+        @Override
+        protected void compute() {
+            buildTopLevelField(topLevel,
+                    mergedField,
+                    parameters,
+                    fieldToNormalizedField,
+                    normalizedFieldToMergedField,
+                    coordinatesToNormalizedFields);
+        }
+    }
+
+    private void buildTopLevelField(ExecutableNormalizedField topLevel,
+                                    ImmutableList<FieldAndAstParent> mergedField,
+                                    FieldCollectorNormalizedQueryParams parameters,
+                                    ImmutableListMultimap.Builder<Field, ExecutableNormalizedField> fieldToNormalizedField,
+                                    ImmutableMap.Builder<ExecutableNormalizedField, MergedField> normalizedFieldToMergedField,
+                                    ImmutableListMultimap.Builder<FieldCoordinates, ExecutableNormalizedField> coordinatesToNormalizedFields) {
+        normalizedFieldToMergedField.put(topLevel, newMergedField(map(mergedField, fieldAndAstParent -> fieldAndAstParent.field)).build());
+        updateFieldToNFMap(topLevel, mergedField, fieldToNormalizedField);
+        updateCoordinatedToNFMap(coordinatesToNormalizedFields, topLevel);
+
+        buildFieldWithChildren(topLevel,
+                mergedField,
+                parameters,
+                fieldToNormalizedField,
+                normalizedFieldToMergedField,
+                coordinatesToNormalizedFields,
+                1);
+    }
 
     private void buildFieldWithChildren(ExecutableNormalizedField field,
                                         ImmutableList<FieldAndAstParent> mergedField,
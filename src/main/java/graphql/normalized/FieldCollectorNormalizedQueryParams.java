@@ -74,6 +74,23 @@ public class FieldCollectorNormalizedQueryParams {
         this.locale = builder.locale;
     }
 
+    private FieldCollectorNormalizedQueryParams(FieldCollectorNormalizedQueryParams other) {
+        this.fragmentsByName = other.fragmentsByName;
+        this.graphQLSchema = other.graphQLSchema;
+        this.coercedVariableValues = other.coercedVariableValues;
+        this.normalizedVariableValues = other.normalizedVariableValues;
+        this.graphQLContext = other.graphQLContext;
+        this.locale = other.locale;
+    }
+
+    /**
+     * @return parameters with the same values but their own {@link #possibleMergerList}, so that
+     * subtrees can be collected on different threads
+     */
+    public FieldCollectorNormalizedQueryParams forSubtree() {
+        return new FieldCollectorNormalizedQueryParams(this);
+    }
+
     public static Builder newParameters() {
         return new Builder();
     }
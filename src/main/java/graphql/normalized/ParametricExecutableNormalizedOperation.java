@@ -0,0 +1,376 @@
+package graphql.normalized;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import graphql.Directives;
+import graphql.GraphQLContext;
+import graphql.Internal;
+import graphql.execution.CoercedVariables;
+import graphql.execution.MergedField;
+import graphql.execution.ValuesResolver;
+import graphql.execution.preparsed.OperationCacheKey;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.language.Argument;
+import graphql.language.ArrayValue;
+import graphql.language.Directive;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.ObjectField;
+import graphql.language.ObjectValue;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLSchema;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * An {@link ExecutableNormalizedOperation} depends on the variables of a request in two ways: the {@code @skip} and
+ * {@code @include} directives decide which fields exist and the arguments of a field can reference variables.
+ * <p>
+ * This class is built once per operation of a document and analyses which variables the operation depends on.  A
+ * normalized operation is then created once per distinct set of values of the variables used in conditional directives.
+ * If no field argument references a variable, that normalized operation is handed out as is.  Otherwise it is copied
+ * with the arguments resolved against the variables of the request, which is much cheaper than collecting and merging
+ * the fields again.  At most {@link #MAX_CACHED_OPERATIONS} normalized operations are kept.
+ * <p>
+ * Normalized operations handed out by this class are shared between requests and must not be changed.
+ */
+@Internal
+public class ParametricExecutableNormalizedOperation {
+
+    /**
+     * The most normalized operations kept per operation.  The conditions are booleans, so an operation with n conditional
+     * variables has at most 2^n of them, but beyond this many the normalized operations are created per request and not kept.
+     */
+    public static final int MAX_CACHED_OPERATIONS = 64;
+
+    private final GraphQLSchema graphQLSchema;
+    private final OperationDefinition operationDefinition;
+    private final Map<String, FragmentDefinition> fragments;
+    private final ImmutableList<String> conditionalVariables;
+    private final boolean variableArguments;
+    // holds at most MAX_CACHED_OPERATIONS since the values of the conditions come from the requests
+    private final Map<List<Object>, ExecutableNormalizedOperation> operationsByConditions = new ConcurrentHashMap<>();
+
+    private ParametricExecutableNormalizedOperation(GraphQLSchema graphQLSchema,
+                                                    OperationDefinition operationDefinition,
+                                                    Map<String, FragmentDefinition> fragments) {
+        this.graphQLSchema = graphQLSchema;
+        this.operationDefinition = operationDefinition;
+        this.fragments = fragments;
+
+        VariableUsages variableUsages = new VariableUsages(fragments);
+        variableUsages.collect(operationDefinition.getSelectionSet());
+        this.conditionalVariables = ImmutableList.copyOf(variableUsages.conditionalVariables);
+        this.variableArguments = variableUsages.variableArguments;
+    }
+
+    public static ParametricExecutableNormalizedOperation createParametricExecutableNormalizedOperation(GraphQLSchema graphQLSchema,
+                                                                                                      OperationDefinition operationDefinition,
+                                                                                                      Map<String, FragmentDefinition> fragments) {
+        return new ParametricExecutableNormalizedOperation(graphQLSchema, operationDefinition, fragments);
+    }
+
+    /**
+     * Returns the parametric operation cached in the {@link PreparsedDocumentEntry}, creating it if needed.
+     *
+     * @param preparsedDocumentEntry the entry of the document the operation belongs to
+     * @param graphQLSchema          the schema in play
+     * @param operationDefinition    the operation
+     * @param fragments              the fragments of the document
+     *
+     * @return the parametric normalized operation for the operation
+     */
+    public static ParametricExecutableNormalizedOperation getParametricExecutableNormalizedOperation(PreparsedDocumentEntry preparsedDocumentEntry,
+                                                                                                   GraphQLSchema graphQLSchema,
+                                                                                                   OperationDefinition operationDefinition,
+                                                                                                   Map<String, FragmentDefinition> fragments) {
+        OperationCacheKey cacheKey = new OperationCacheKey(ParametricExecutableNormalizedOperation.class, operationDefinition, graphQLSchema);
+        return preparsedDocumentEntry.computeIfAbsent(cacheKey, key -> createParametricExecutableNormalizedOperation(graphQLSchema, operationDefinition, fragments));
+    }
+
+    /**
+     * Returns the parametric operation cached in the {@link PreparsedDocumentEntry}, without creating it
+     *
+     * @param preparsedDocumentEntry the entry of the document the operation belongs to
+     * @param graphQLSchema          the schema in play
+     * @param operationDefinition    the operation
+     *
+     * @return the parametric normalized operation for the operation or null if no execution of the entry has created it yet
+     */
+    public static ParametricExecutableNormalizedOperation getCachedParametricExecutableNormalizedOperation(PreparsedDocumentEntry preparsedDocumentEntry,
+                                                                                                         GraphQLSchema graphQLSchema,
+                                                                                                         OperationDefinition operationDefinition) {
+        return preparsedDocumentEntry.get(new OperationCacheKey(ParametricExecutableNormalizedOperation.class, operationDefinition, graphQLSchema));
+    }
+
+    /**
+     * @return the names of the variables used by {@code @skip} and {@code @include} directives of the operation
+     */
+    public List<String> getConditionalVariables() {
+        return conditionalVariables;
+    }
+
+    /**
+     * @return true if any field argument of the operation references a variable
+     */
+    public boolean hasVariableArguments() {
+        return variableArguments;
+    }
+
+    /**
+     * Specializes this operation for the given variables
+     *
+     * @param coercedVariables the coerced variables of the request
+     *
+     * @return a normalized operation for the variables
+     */
+    public ExecutableNormalizedOperation specialize(CoercedVariables coercedVariables) {
+        return specialization(coercedVariables).getOperation();
+    }
+
+    /**
+     * Specializes this operation for the given variables and tells which shared normalized operation the result was made from
+     *
+     * @param coercedVariables the coerced variables of the request
+     *
+     * @return the specialization for the variables
+     */
+    public Specialization specialization(CoercedVariables coercedVariables) {
+        List<Object> conditions = new ArrayList<>(conditionalVariables.size());
+        for (String conditionalVariable : conditionalVariables) {
+            conditions.add(coercedVariables.get(conditionalVariable));
+        }
+        ExecutableNormalizedOperation operation = operationsByConditions.get(conditions);
+        if (operation == null) {
+            ExecutableNormalizedOperation created = ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(graphQLSchema, operationDefinition, fragments, coercedVariables);
+            if (operationsByConditions.size() >= MAX_CACHED_OPERATIONS) {
+                return new Specialization(null, created, null);
+            }
+            operation = operationsByConditions.putIfAbsent(conditions, created);
+            if (operation == null) {
+                // an operation created just now already has the arguments of these variables
+                return new Specialization(created, created, null);
+            }
+        }
+        if (!variableArguments) {
+            return new Specialization(operation, operation, null);
+        }
+        ArgumentSpecializer argumentSpecializer = new ArgumentSpecializer(coercedVariables);
+        return new Specialization(operation, argumentSpecializer.specialize(operation), argumentSpecializer.copies);
+    }
+
+    /**
+     * A normalized operation for the variables of a request together with the shared normalized operation it was made from, which
+     * is the same for all requests with the same values for the variables used in {@code @skip} and {@code @include}.  The two only
+     * differ in the arguments of their fields.
+     */
+    public static class Specialization {
+        private final ExecutableNormalizedOperation template;
+        private final ExecutableNormalizedOperation operation;
+        // null when the operation is the template
+        private final Map<ExecutableNormalizedField, ExecutableNormalizedField> specializedFields;
+
+        private Specialization(ExecutableNormalizedOperation template,
+                               ExecutableNormalizedOperation operation,
+                               Map<ExecutableNormalizedField, ExecutableNormalizedField> specializedFields) {
+            this.template = template;
+            this.operation = operation;
+            this.specializedFields = specializedFields;
+        }
+
+        /**
+         * @return the shared normalized operation or null if there were too many to keep another one
+         */
+        public ExecutableNormalizedOperation getTemplate() {
+            return template;
+        }
+
+        /**
+         * @return the normalized operation for the variables of the request
+         */
+        public ExecutableNormalizedOperation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @param templateField a field of the template
+         *
+         * @return the field of the operation for the variables of the request that stands for the field of the template
+         */
+        public ExecutableNormalizedField getSpecializedField(ExecutableNormalizedField templateField) {
+            if (specializedFields == null) {
+                return templateField;
+            }
+            return assertNotNull(specializedFields.get(templateField), () -> "The field is not part of the template");
+        }
+    }
+
+    private class ArgumentSpecializer {
+        private final CoercedVariables coercedVariables;
+        private final Map<ExecutableNormalizedField, ExecutableNormalizedField> copies = new IdentityHashMap<>();
+
+        private ArgumentSpecializer(CoercedVariables coercedVariables) {
+            this.coercedVariables = coercedVariables;
+        }
+
+        private ExecutableNormalizedOperation specialize(ExecutableNormalizedOperation operation) {
+            List<ExecutableNormalizedField> topLevelFields = new ArrayList<>(operation.getTopLevelFields().size());
+            for (ExecutableNormalizedField topLevelField : operation.getTopLevelFields()) {
+                topLevelFields.add(copy(topLevelField, null));
+            }
+
+            // fields merged away by ENFMerger are no longer in the tree but are still referenced by the maps
+            ImmutableListMultimap.Builder<Field, ExecutableNormalizedField> fieldToNormalizedField = ImmutableListMultimap.builder();
+            operation.getFieldToNormalizedField().forEach((field, normalizedField) -> fieldToNormalizedField.put(field, copyOf(normalizedField)));
+
+            ImmutableMap.Builder<ExecutableNormalizedField, MergedField> normalizedFieldToMergedField = ImmutableMap.builder();
+            operation.getNormalizedFieldToMergedField().forEach((normalizedField, mergedField) -> normalizedFieldToMergedField.put(copyOf(normalizedField), mergedField));
+
+            ImmutableListMultimap.Builder<FieldCoordinates, ExecutableNormalizedField> coordinatesToNormalizedFields = ImmutableListMultimap.builder();
+            operation.getCoordinatesToNormalizedFields().forEach((coordinates, normalizedField) -> coordinatesToNormalizedFields.put(coordinates, copyOf(normalizedField)));
+
+            return new ExecutableNormalizedOperation(
+                    operation.getOperation(),
+                    operation.getOperationName(),
+                    topLevelFields,
+                    fieldToNormalizedField.build(),
+                    normalizedFieldToMergedField.build(),
+                    coordinatesToNormalizedFields.build()
+            );
+        }
+
+        private ExecutableNormalizedField copyOf(ExecutableNormalizedField normalizedField) {
+            ExecutableNormalizedField copy = copies.get(normalizedField);
+            if (copy != null) {
+                return copy;
+            }
+            ExecutableNormalizedField parent = normalizedField.getParent();
+            return copy(normalizedField, parent == null ? null : copyOf(parent));
+        }
+
+        private ExecutableNormalizedField copy(ExecutableNormalizedField normalizedField, ExecutableNormalizedField parentCopy) {
+            Map<String, Object> resolvedArguments = resolveArguments(normalizedField);
+            ExecutableNormalizedField copy = normalizedField.transform(builder -> {
+                builder.parent(parentCopy).children(ImmutableList.of());
+                if (resolvedArguments != null) {
+                    builder.resolvedArguments(resolvedArguments);
+                }
+            });
+            copies.put(normalizedField, copy);
+            for (ExecutableNormalizedField child : normalizedField.getChildren()) {
+                copy.addChild(copy(child, copy));
+            }
+            return copy;
+        }
+
+        private Map<String, Object> resolveArguments(ExecutableNormalizedField normalizedField) {
+            if (normalizedField.getAstArguments().isEmpty() || !hasVariableArguments(normalizedField)) {
+                return null;
+            }
+            // the same field definition the factory resolved the arguments with
+            GraphQLFieldDefinition fieldDefinition = normalizedField.getFieldDefinitions(graphQLSchema).get(0);
+            return ValuesResolver.getArgumentValues(fieldDefinition.getArguments(), normalizedField.getAstArguments(), coercedVariables, GraphQLContext.getDefault(), Locale.getDefault());
+        }
+
+        private boolean hasVariableArguments(ExecutableNormalizedField normalizedField) {
+            for (Argument argument : normalizedField.getAstArguments()) {
+                if (referencesVariable(argument.getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class VariableUsages {
+        private final Map<String, FragmentDefinition> fragments;
+        private final Set<String> visitedFragments = new LinkedHashSet<>();
+        private final Set<String> conditionalVariables = new LinkedHashSet<>();
+        private boolean variableArguments;
+
+        private VariableUsages(Map<String, FragmentDefinition> fragments) {
+            this.fragments = fragments;
+        }
+
+        private void collect(SelectionSet selectionSet) {
+            if (selectionSet == null) {
+                return;
+            }
+            for (Selection<?> selection : selectionSet.getSelections()) {
+                if (selection instanceof Field) {
+                    Field field = (Field) selection;
+                    collectConditionalVariables(field.getDirectives());
+                    for (Argument argument : field.getArguments()) {
+                        variableArguments |= referencesVariable(argument.getValue());
+                    }
+                    collect(field.getSelectionSet());
+                } else if (selection instanceof InlineFragment) {
+                    InlineFragment inlineFragment = (InlineFragment) selection;
+                    collectConditionalVariables(inlineFragment.getDirectives());
+                    collect(inlineFragment.getSelectionSet());
+                } else if (selection instanceof FragmentSpread) {
+                    FragmentSpread fragmentSpread = (FragmentSpread) selection;
+                    collectConditionalVariables(fragmentSpread.getDirectives());
+                    if (visitedFragments.add(fragmentSpread.getName())) {
+                        FragmentDefinition fragmentDefinition = assertNotNull(fragments.get(fragmentSpread.getName()));
+                        collectConditionalVariables(fragmentDefinition.getDirectives());
+                        collect(fragmentDefinition.getSelectionSet());
+                    }
+                }
+            }
+        }
+
+        private void collectConditionalVariables(List<Directive> directives) {
+            for (Directive directive : directives) {
+                String name = directive.getName();
+                if (!name.equals(Directives.SkipDirective.getName()) && !name.equals(Directives.IncludeDirective.getName())) {
+                    continue;
+                }
+                for (Argument argument : directive.getArguments()) {
+                    if (argument.getValue() instanceof VariableReference) {
+                        conditionalVariables.add(((VariableReference) argument.getValue()).getName());
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean referencesVariable(Value<?> value) {
+        if (value instanceof VariableReference) {
+            return true;
+        }
+        if (value instanceof ArrayValue) {
+            for (Value<?> element : ((ArrayValue) value).getValues()) {
+                if (referencesVariable(element)) {
+                    return true;
+                }
+            }
+        }
+        if (value instanceof ObjectValue) {
+            for (ObjectField objectField : ((ObjectValue) value).getObjectFields()) {
+                if (referencesVariable(objectField.getValue())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -4,6 +4,7 @@ import graphql.DeprecatedAt;
 import graphql.GraphQLContext;
 import graphql.PublicApi;
 import graphql.cachecontrol.CacheControl;
+import graphql.execution.CancellationToken;
 import graphql.execution.ExecutionId;
 import graphql.execution.ExecutionStepInfo;
 import graphql.execution.MergedField;
@@ -276,4 +277,13 @@ public interface DataFetchingEnvironment extends IntrospectionDataFetchingEnviro
      * @return the coerced variables that have been passed to the query that is being executed
      */
     Map<String, Object> getVariables();
+
+    /**
+     * This returns the cancellation token of the object the field belongs to.  It is cancelled when the execution is aborted or
+     * times out and when the object is nulled out because one of its non-null fields was null, after which the value of this field
+     * is thrown away.  A data fetcher can use {@link CancellationToken#onCancel(Runnable)} to stop work that is no longer wanted.
+     *
+     * @return the cancellation token of the current field
+     */
+    CancellationToken getCancellationToken();
 }
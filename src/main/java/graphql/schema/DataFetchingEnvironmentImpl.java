@@ -8,6 +8,7 @@ import graphql.Internal;
 import graphql.cachecontrol.CacheControl;
 import graphql.collect.ImmutableKit;
 import graphql.collect.ImmutableMapWithNullValues;
+import graphql.execution.CancellationToken;
 import graphql.execution.ExecutionContext;
 import graphql.execution.ExecutionId;
 import graphql.execution.ExecutionStepInfo;
@@ -50,6 +51,7 @@ public class DataFetchingEnvironmentImpl implements DataFetchingEnvironment {
     private final Document document;
     private final ImmutableMapWithNullValues<String, Object> variables;
     private final QueryDirectives queryDirectives;
+    private final CancellationToken cancellationToken;
 
     private DataFetchingEnvironmentImpl(Builder builder) {
         this.source = builder.source;
@@ -74,6 +76,7 @@ public class DataFetchingEnvironmentImpl implements DataFetchingEnvironment {
         this.document = builder.document;
         this.variables = builder.variables == null ? ImmutableMapWithNullValues.emptyMap() : builder.variables;
         this.queryDirectives = builder.queryDirectives;
+        this.cancellationToken = builder.cancellationToken == null ? CancellationToken.newCancellationToken() : builder.cancellationToken;
     }
 
     /**
@@ -100,7 +103,8 @@ public class DataFetchingEnvironmentImpl implements DataFetchingEnvironment {
                 .document(executionContext.getDocument())
                 .operationDefinition(executionContext.getOperationDefinition())
                 .variables(executionContext.getVariables())
-                .executionId(executionContext.getExecutionId());
+                .executionId(executionContext.getExecutionId())
+                .cancellationToken(executionContext.getCancellationToken());
     }
 
     @Override
@@ -245,6 +249,11 @@ public class DataFetchingEnvironmentImpl implements DataFetchingEnvironment {
         return variables;
     }
 
+    @Override
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
     @Override
     public String toString() {
         return "DataFetchingEnvironmentImpl{" +
@@ -276,6 +285,7 @@ public class DataFetchingEnvironmentImpl implements DataFetchingEnvironment {
         private ImmutableMap<String, FragmentDefinition> fragmentsByName;
         private ImmutableMapWithNullValues<String, Object> variables;
         private QueryDirectives queryDirectives;
+        private CancellationToken cancellationToken;
 
         public Builder(DataFetchingEnvironmentImpl env) {
             this.source = env.source;
@@ -300,6 +310,7 @@ public class DataFetchingEnvironmentImpl implements DataFetchingEnvironment {
             this.document = env.document;
             this.variables = env.variables;
             this.queryDirectives = env.queryDirectives;
+            this.cancellationToken = env.cancellationToken;
         }
 
         public Builder() {
@@ -427,6 +438,11 @@ public class DataFetchingEnvironmentImpl implements DataFetchingEnvironment {
             return this;
         }
 
+        public Builder cancellationToken(CancellationToken cancellationToken) {
+            this.cancellationToken = cancellationToken;
+            return this;
+        }
+
         public DataFetchingEnvironment build() {
             return new DataFetchingEnvironmentImpl(this);
         }
@@ -4,6 +4,7 @@ import graphql.DeprecatedAt;
 import graphql.GraphQLContext;
 import graphql.PublicApi;
 import graphql.cachecontrol.CacheControl;
+import graphql.execution.CancellationToken;
 import graphql.execution.ExecutionId;
 import graphql.execution.ExecutionStepInfo;
 import graphql.execution.MergedField;
@@ -185,4 +186,9 @@ public class DelegatingDataFetchingEnvironment implements DataFetchingEnvironmen
     public Map<String, Object> getVariables() {
         return delegateEnvironment.getVariables();
     }
+
+    @Override
+    public CancellationToken getCancellationToken() {
+        return delegateEnvironment.getCancellationToken();
+    }
 }
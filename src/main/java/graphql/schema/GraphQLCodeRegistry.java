@@ -5,6 +5,7 @@ import graphql.Internal;
 import graphql.PublicApi;
 import graphql.schema.visibility.GraphqlFieldVisibility;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -20,7 +21,7 @@ import static graphql.schema.visibility.DefaultGraphqlFieldVisibility.DEFAULT_FI
 /**
  * The {@link graphql.schema.GraphQLCodeRegistry} holds that execution code that is associated with graphql types, namely
  * the {@link graphql.schema.DataFetcher}s associated with fields, the {@link graphql.schema.TypeResolver}s associated with
- * abstract types and the {@link graphql.schema.visibility.GraphqlFieldVisibility}
+ * abstract types, the {@link graphql.schema.visibility.GraphqlFieldVisibility} and the timeouts of field fetches
  * <p>
  * For legacy reasons these code functions can still exist on the original type objects but this will be removed in a future version.  Once
  * removed the type system objects will be able have proper hashCode/equals methods and be checked for proper equality.
@@ -28,11 +29,18 @@ import static graphql.schema.visibility.DefaultGraphqlFieldVisibility.DEFAULT_FI
 @PublicApi
 public class GraphQLCodeRegistry {
 
+    /**
+     * The name of the directive that sets the timeout of a field fetch in the schema, say {@code slowField: String @timeout(ms: 250)}.
+     * The schema must declare it as {@code directive @timeout(ms: Int!) on FIELD_DEFINITION}.
+     */
+    public static final String TIMEOUT_DIRECTIVE_NAME = "timeout";
+
     private final Map<FieldCoordinates, DataFetcherFactory<?>> dataFetcherMap;
     private final Map<String, DataFetcherFactory<?>> systemDataFetcherMap;
     private final Map<String, TypeResolver> typeResolverMap;
     private final GraphqlFieldVisibility fieldVisibility;
     private final DataFetcherFactory<?> defaultDataFetcherFactory;
+    private final Map<FieldCoordinates, Duration> fieldTimeoutMap;
 
     private GraphQLCodeRegistry(Builder builder) {
         this.dataFetcherMap = builder.dataFetcherMap;
@@ -40,6 +48,7 @@ public class GraphQLCodeRegistry {
         this.typeResolverMap = builder.typeResolverMap;
         this.fieldVisibility = builder.fieldVisibility;
         this.defaultDataFetcherFactory = builder.defaultDataFetcherFactory;
+        this.fieldTimeoutMap = builder.fieldTimeoutMap;
     }
 
     /**
@@ -84,6 +93,33 @@ public class GraphQLCodeRegistry {
         return hasDataFetcherImpl(coordinates, dataFetcherMap, systemDataFetcherMap);
     }
 
+    /**
+     * Returns the time a field fetch may take before the field resolves to null with an error.  A timeout set on this code registry
+     * takes precedence over one set via the {@link #TIMEOUT_DIRECTIVE_NAME} directive on the field definition.
+     *
+     * @param parentType      the container type
+     * @param fieldDefinition the field definition
+     *
+     * @return the timeout of the field fetch or null if it has none
+     */
+    public Duration getFieldTimeout(GraphQLFieldsContainer parentType, GraphQLFieldDefinition fieldDefinition) {
+        if (!fieldTimeoutMap.isEmpty()) {
+            Duration timeout = fieldTimeoutMap.get(FieldCoordinates.coordinates(parentType, fieldDefinition));
+            if (timeout != null) {
+                return timeout;
+            }
+        }
+        GraphQLAppliedDirective timeoutDirective = fieldDefinition.getAppliedDirective(TIMEOUT_DIRECTIVE_NAME);
+        if (timeoutDirective != null) {
+            GraphQLAppliedDirectiveArgument ms = timeoutDirective.getArgument("ms");
+            Object value = ms != null ? ms.getValue() : null;
+            if (value instanceof Number) {
+                return Duration.ofMillis(((Number) value).longValue());
+            }
+        }
+        return null;
+    }
+
     private static DataFetcher<?> getDataFetcherImpl(FieldCoordinates coordinates, GraphQLFieldDefinition fieldDefinition, Map<FieldCoordinates, DataFetcherFactory<?>> dataFetcherMap, Map<String, DataFetcherFactory<?>> systemDataFetcherMap, DataFetcherFactory<?> defaultDataFetcherFactory) {
         assertNotNull(coordinates);
         assertNotNull(fieldDefinition);
@@ -190,6 +226,7 @@ public class GraphQLCodeRegistry {
         private final Map<String, TypeResolver> typeResolverMap = new HashMap<>();
         private GraphqlFieldVisibility fieldVisibility = DEFAULT_FIELD_VISIBILITY;
         private DataFetcherFactory<?> defaultDataFetcherFactory = env -> PropertyDataFetcher.fetching(env.getFieldDefinition().getName());
+        private final Map<FieldCoordinates, Duration> fieldTimeoutMap = new HashMap<>();
         private boolean changed = false;
 
         private Builder() {
@@ -201,6 +238,7 @@ public class GraphQLCodeRegistry {
             this.typeResolverMap.putAll(codeRegistry.typeResolverMap);
             this.fieldVisibility = codeRegistry.fieldVisibility;
             this.defaultDataFetcherFactory = codeRegistry.defaultDataFetcherFactory;
+            this.fieldTimeoutMap.putAll(codeRegistry.fieldTimeoutMap);
         }
 
         /**
@@ -419,6 +457,22 @@ public class GraphQLCodeRegistry {
             return markChanged();
         }
 
+        /**
+         * Sets the time a fetch of the field may take before the field resolves to null with an error.  The data fetcher can find out
+         * the time it has left via {@link graphql.execution.CancellationToken#getRemainingTime()}.
+         *
+         * @param coordinates the field coordinates
+         * @param timeout     the timeout of the field fetch
+         *
+         * @return this builder
+         */
+        public Builder fieldTimeout(FieldCoordinates coordinates, Duration timeout) {
+            assertNotNull(coordinates);
+            Assert.assertTrue(timeout != null && !timeout.isNegative() && !timeout.isZero(), () -> "timeout must be positive");
+            fieldTimeoutMap.put(coordinates, timeout);
+            return markChanged();
+        }
+
         public Builder dataFetchers(GraphQLCodeRegistry codeRegistry) {
             this.dataFetcherMap.putAll(codeRegistry.dataFetcherMap);
             return markChanged(!codeRegistry.dataFetcherMap.isEmpty());
@@ -0,0 +1,159 @@
+package graphql.analysis
+
+import graphql.ExecutionInput
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.execution.ExecutionContextBuilder
+import graphql.execution.ExecutionId
+import graphql.execution.instrumentation.ChainedInstrumentation
+import graphql.execution.instrumentation.InstrumentationContext
+import graphql.execution.instrumentation.InstrumentationState
+import graphql.execution.instrumentation.SimplePerformantInstrumentation
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters
+import graphql.execution.preparsed.TestingPreparsedDocumentProvider
+import graphql.language.Document
+import graphql.parser.Parser
+import graphql.schema.FieldCoordinates
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+class QueryAnalysisTest extends Specification {
+
+    def schema = TestUtil.schema("""
+            type Query{
+                foo: Foo
+                bar(arg: Int): String
+            }
+            type Foo {
+                scalar: String
+                foo: Foo
+            }
+        """)
+
+    static Document createQuery(String query) {
+        Parser parser = new Parser()
+        parser.parseDocument(query)
+    }
+
+    static QueryAnalysis analyze(GraphQLSchema schema, Document document) {
+        def executionContext = ExecutionContextBuilder.newExecutionContextBuilder()
+                .executionInput(ExecutionInput.newExecutionInput("{}").build())
+                .document(document)
+                .graphQLSchema(schema)
+                .executionId(ExecutionId.generate())
+                .build()
+        executionContext.getQueryAnalysis().get()
+    }
+
+    def "computes depth, field count and usage in one go"() {
+        def query = createQuery("""
+            {f1: foo {foo {scalar}} f2: foo { scalar foo {foo {scalar}}} bar __typename }
+            """)
+        when:
+        def analysis = analyze(schema, query)
+        then:
+        analysis.depth == 4
+        analysis.fieldCount == 10
+        analysis.fieldUsage == [
+                (FieldCoordinates.coordinates("Query", "foo"))       : 2,
+                (FieldCoordinates.coordinates("Foo", "foo"))         : 3,
+                (FieldCoordinates.coordinates("Foo", "scalar"))      : 3,
+                (FieldCoordinates.coordinates("Query", "bar"))       : 1,
+                (FieldCoordinates.coordinates("Query", "__typename")): 1,
+        ]
+        analysis.variablesDependent
+    }
+
+    def "complexity matches per calculator"() {
+        def query = createQuery("""
+            {f2: foo {scalar foo{scalar}} f1: foo { foo {foo {foo {foo{foo{scalar}}}}}} __typename }
+            """)
+        FieldComplexityCalculator defaultCalculator = { env, child -> 1 + child }
+        FieldComplexityCalculator doubling = { env, child -> 2 + child }
+        when:
+        def analysis = analyze(schema, query)
+        then:
+        analysis.getComplexity(defaultCalculator) == 11
+        analysis.getComplexity(doubling) == 22
+    }
+
+    def "complexity is only remembered for a few calculators"() {
+        def query = createQuery("{ foo { scalar } }")
+        def calls = 0
+        FieldComplexityCalculator counting = { env, child -> calls++; 1 + child }
+        def analysis = analyze(schema, query)
+
+        when:
+        def first = analysis.getComplexity(counting)
+        def second = analysis.getComplexity(counting)
+
+        then:
+        first == 2
+        second == 2
+        calls == 2
+
+        when: "calculators created per request come and go"
+        100.times {
+            FieldComplexityCalculator perRequest = { env, child -> 1 + child }
+            analysis.getComplexity(perRequest)
+        }
+
+        then:
+        analysis.@complexityByCalculator.size() <= QueryAnalysis.MAX_REMEMBERED_CALCULATORS
+        analysis.getComplexity(counting) == 2
+    }
+
+    def "complexity calculator is given the coerced arguments and parent environments"() {
+        def query = createQuery("""
+            { bar(arg: 10) foo { scalar } }
+            """)
+        List<FieldComplexityEnvironment> environments = []
+        FieldComplexityCalculator calculator = { env, child ->
+            environments.add(env)
+            env.arguments.arg != null ? env.arguments.arg : 1 + child
+        }
+        when:
+        def complexity = analyze(schema, query).getComplexity(calculator)
+        then:
+        complexity == 12
+        environments.collect { it.field.name } == ["bar", "scalar", "foo"]
+        environments[1].parentEnvironment.field.name == "foo"
+    }
+
+    def "analysis without variables is shared via the preparsed document entry"() {
+        def analyses = []
+        def capturingInstrumentation = new SimplePerformantInstrumentation() {
+            @Override
+            InstrumentationContext<graphql.ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+                analyses.add(parameters.executionContext.queryAnalysis.get())
+                return super.beginExecuteOperation(parameters, state)
+            }
+        }
+        def instrumentation = new ChainedInstrumentation([
+                new MaxQueryDepthInstrumentation(10),
+                new MaxQueryComplexityInstrumentation(100),
+                capturingInstrumentation])
+        def graphQL = GraphQL.newGraphQL(schema)
+                .instrumentation(instrumentation)
+                .preparsedDocumentProvider(new TestingPreparsedDocumentProvider())
+                .build()
+
+        when:
+        graphQL.execute("{ foo { scalar } }")
+        graphQL.execute("{ foo { scalar } }")
+        then:
+        analyses.size() == 2
+        analyses[0].is(analyses[1])
+        !analyses[0].variablesDependent
+
+        when:
+        analyses.clear()
+        def query = 'query q($arg: Int) { bar(arg: $arg) }'
+        graphQL.execute(ExecutionInput.newExecutionInput(query).variables([arg: 1]))
+        graphQL.execute(ExecutionInput.newExecutionInput(query).variables([arg: 2]))
+        then:
+        analyses.size() == 2
+        !analyses[0].is(analyses[1])
+        analyses[0].variablesDependent
+    }
+}
@@ -0,0 +1,448 @@
+package graphql.cachecontrol
+
+import graphql.ExecutionInput
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.execution.AsyncExecutionStrategy
+import graphql.execution.ErrorBudgetExceededError
+import graphql.execution.SimpleDataFetcherExceptionHandler
+import graphql.execution.preparsed.PreparsedDocumentEntry
+import graphql.execution.preparsed.TestingPreparsedDocumentProvider
+import graphql.schema.DataFetcher
+import graphql.schema.FieldCoordinates
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class FieldResultCacheTest extends Specification {
+
+    def sdl = '''
+        enum CacheControlScope { PUBLIC PRIVATE }
+        directive @cacheControl(maxAge : Int, scope : CacheControlScope) on FIELD_DEFINITION | OBJECT | INTERFACE | UNION
+
+        type Query {
+            product(id : ID) : Product @cacheControl(maxAge : 60)
+            cart : Cart
+            flaky : String @cacheControl(maxAge : 60)
+        }
+        type Product {
+            id : ID
+            name : String
+        }
+        type Cart @cacheControl(maxAge : 60, scope : PRIVATE) {
+            items : Int
+        }
+    '''
+
+    def productCalls = new AtomicInteger()
+    def nameCalls = new AtomicInteger()
+    def cartCalls = new AtomicInteger()
+    def flakyCalls = new AtomicInteger()
+
+    def schema = TestUtil.schema(sdl, [
+            Query  : [
+                    product: { env -> productCalls.incrementAndGet(); [id: env.getArgument("id")] } as DataFetcher,
+                    cart   : { env -> cartCalls.incrementAndGet(); [items: 2] } as DataFetcher,
+                    flaky  : { env ->
+                        if (flakyCalls.incrementAndGet() == 1) {
+                            throw new RuntimeException("Bang")
+                        }
+                        "ok"
+                    } as DataFetcher,
+            ],
+            Product: [name: { env -> nameCalls.incrementAndGet(); "product " + env.getSource().id } as DataFetcher],
+    ])
+
+    GraphQL graphQL(FieldResultCache cache) {
+        GraphQL.newGraphQL(schema).queryExecutionStrategy(new AsyncExecutionStrategy(new SimpleDataFetcherExceptionHandler(), cache)).build()
+    }
+
+    def "completed fields are taken from the cache by later executions"() {
+        def graphQL = graphQL(FieldResultCache.newFieldResultCache().build())
+
+        when:
+        def first = graphQL.execute('{ product(id : "1") { id name } }')
+        def second = graphQL.execute('{ product(id : "1") { id name } }')
+
+        then:
+        first.errors.isEmpty()
+        second.errors.isEmpty()
+        first.data == [product: [id: "1", name: "product 1"]]
+        second.data == first.data
+        productCalls.get() == 1
+        nameCalls.get() == 1
+
+        when:
+        def otherArgument = graphQL.execute('{ product(id : "2") { id name } }')
+        def otherSelection = graphQL.execute('{ product(id : "1") { id } }')
+        def viaFragment = graphQL.execute('{ product(id : "1") { ...F } } fragment F on Product { id name }')
+
+        then:
+        otherArgument.data == [product: [id: "2", name: "product 2"]]
+        otherSelection.data == [product: [id: "1"]]
+        viaFragment.data == [product: [id: "1", name: "product 1"]]
+        productCalls.get() == 4
+    }
+
+    def "results with errors are not cached"() {
+        def graphQL = graphQL(FieldResultCache.newFieldResultCache().build())
+
+        when:
+        def first = graphQL.execute('{ flaky }')
+        def second = graphQL.execute('{ flaky }')
+        def third = graphQL.execute('{ flaky }')
+
+        then:
+        first.errors.size() == 1
+        second.data == [flaky: "ok"]
+        third.data == [flaky: "ok"]
+        flakyCalls.get() == 2
+    }
+
+    def "results of a cancelled execution are not cached"() {
+        def schema = TestUtil.schema(sdl, [
+                Query  : [product: { env -> productCalls.incrementAndGet(); [id: env.getArgument("id")] } as DataFetcher],
+                Product: [name: { env ->
+                    def id = env.getSource().id
+                    CompletableFuture.supplyAsync({
+                        TimeUnit.MILLISECONDS.sleep(nameCalls.incrementAndGet() == 1 ? 500 : 0)
+                        "product " + id
+                    })
+                } as DataFetcher],
+        ])
+        def graphQL = GraphQL.newGraphQL(schema)
+                .queryExecutionStrategy(new AsyncExecutionStrategy(new SimpleDataFetcherExceptionHandler(), FieldResultCache.newFieldResultCache().build()))
+                .build()
+
+        when:
+        def timedOut = graphQL.execute(ExecutionInput.newExecutionInput('{ product(id : "1") { id name } }').timeout(Duration.ofMillis(50)))
+        def next = graphQL.execute('{ product(id : "1") { id name } }')
+
+        then:
+        timedOut.data?.product?.name == null
+        next.errors.isEmpty()
+        next.data == [product: [id: "1", name: "product 1"]]
+        productCalls.get() == 2
+    }
+
+    def "private results are only cached per private scope key"() {
+        def withoutKey = graphQL(FieldResultCache.newFieldResultCache().build())
+
+        when:
+        withoutKey.execute('{ cart { items } }')
+        withoutKey.execute('{ cart { items } }')
+
+        then:
+        cartCalls.get() == 2
+
+        when:
+        def withKey = graphQL(FieldResultCache.newFieldResultCache()
+                .privateScopeKey({ context -> context.get("user") })
+                .build())
+        def asUser = { String user -> ExecutionInput.newExecutionInput('{ cart { items } }').graphQLContext([user: user]).build() }
+        withKey.execute(asUser("ann"))
+        withKey.execute(asUser("ann"))
+        withKey.execute(asUser("bob"))
+
+        then:
+        cartCalls.get() == 4
+    }
+
+    def "fields below the root are only cached with a source key"() {
+        def priceCalls = new AtomicInteger()
+        def schema = TestUtil.schema('''
+            enum CacheControlScope { PUBLIC PRIVATE }
+            directive @cacheControl(maxAge : Int, scope : CacheControlScope) on FIELD_DEFINITION | OBJECT | INTERFACE | UNION
+
+            type Query {
+                products : [Product]
+            }
+            type Product {
+                id : ID
+                price : Int @cacheControl(maxAge : 60)
+            }
+        ''', [
+                Query  : [products: { env -> [[id: "1"], [id: "2"]] } as DataFetcher],
+                Product: [price: { env -> priceCalls.incrementAndGet(); 10 } as DataFetcher],
+        ])
+        def graphQL = { FieldResultCache cache ->
+            GraphQL.newGraphQL(schema).queryExecutionStrategy(new AsyncExecutionStrategy(new SimpleDataFetcherExceptionHandler(), cache)).build()
+        }
+
+        when:
+        def withoutSourceKey = graphQL(FieldResultCache.newFieldResultCache().build())
+        withoutSourceKey.execute('{ products { id price } }')
+        withoutSourceKey.execute('{ products { id price } }')
+
+        then:
+        priceCalls.get() == 4
+
+        when:
+        priceCalls.set(0)
+        def withSourceKey = graphQL(FieldResultCache.newFieldResultCache().sourceKey({ source -> source.id }).build())
+        def first = withSourceKey.execute('{ products { id price } }')
+        def second = withSourceKey.execute('{ products { id price } }')
+
+        then:
+        second.data == first.data
+        priceCalls.get() == 2
+    }
+
+    def "fields below a suppressed error are not cached"() {
+        def detailsCalls = new AtomicInteger()
+        def schema = TestUtil.schema('''
+            enum CacheControlScope { PUBLIC PRIVATE }
+            directive @cacheControl(maxAge : Int, scope : CacheControlScope) on FIELD_DEFINITION | OBJECT | INTERFACE | UNION
+
+            type Query {
+                products : [Product]
+            }
+            type Product {
+                id : ID
+                details : Details @cacheControl(maxAge : 60)
+            }
+            type Details {
+                price : Int
+            }
+        ''', [
+                Query  : [products: { env -> [[id: "1"], [id: "2"]] } as DataFetcher],
+                Product: [details: { env -> detailsCalls.incrementAndGet(); [:] } as DataFetcher],
+                Details: [price: { env -> throw new RuntimeException("Bang") } as DataFetcher],
+        ])
+        def graphQL = GraphQL.newGraphQL(schema)
+                .queryExecutionStrategy(new AsyncExecutionStrategy(new SimpleDataFetcherExceptionHandler(),
+                        FieldResultCache.newFieldResultCache().sourceKey({ source -> source.id }).build()))
+                .build()
+        def execute = { graphQL.execute(ExecutionInput.newExecutionInput('{ products { id details { price } } }').maxRepeatedErrors(1)) }
+
+        when:
+        def first = execute()
+        def second = execute()
+
+        then:
+        // the error of the second product is suppressed, but it still keeps its details out of the cache
+        first.errors.size() == 1
+        second.errors.size() == 1
+        second.data.products[1].details == [price: null]
+        detailsCalls.get() == 4
+    }
+
+    def "nothing is cached once the error budget is exceeded"() {
+        def detailsCalls = new AtomicInteger()
+        def schema = TestUtil.schema('''
+            enum CacheControlScope { PUBLIC PRIVATE }
+            directive @cacheControl(maxAge : Int, scope : CacheControlScope) on FIELD_DEFINITION | OBJECT | INTERFACE | UNION
+
+            type Query {
+                products : [Product]
+            }
+            type Product {
+                id : ID
+                details : Details @cacheControl(maxAge : 60)
+            }
+            type Details {
+                price : Int
+            }
+        ''', [
+                Query  : [products: { env -> [[id: "1"], [id: "2"], [id: "3"]] } as DataFetcher],
+                Product: [details: { env -> detailsCalls.incrementAndGet(); [:] } as DataFetcher],
+                Details: [price: { env -> throw new RuntimeException("Bang") } as DataFetcher],
+        ])
+        def graphQL = GraphQL.newGraphQL(schema)
+                .queryExecutionStrategy(new AsyncExecutionStrategy(new SimpleDataFetcherExceptionHandler(),
+                        FieldResultCache.newFieldResultCache().sourceKey({ source -> source.id }).build()))
+                .build()
+        def execute = { graphQL.execute(ExecutionInput.newExecutionInput('{ products { id details { price } } }').maxErrors(1)) }
+
+        when:
+        def first = execute()
+        def second = execute()
+
+        then:
+        // the price of the last product is not even fetched, so it has no error of its own
+        first.errors.any { it instanceof ErrorBudgetExceededError }
+        second.data.products.every { it.details == [price: null] }
+        detailsCalls.get() == 6
+    }
+
+    def "the selection of a cacheable field is worked out once per operation"() {
+        def schema = TestUtil.schema('''
+            enum CacheControlScope { PUBLIC PRIVATE }
+            directive @cacheControl(maxAge : Int, scope : CacheControlScope) on FIELD_DEFINITION | OBJECT | INTERFACE | UNION
+
+            type Query {
+                products : [Product]
+            }
+            type Product {
+                id : ID
+                details : Details @cacheControl(maxAge : 60)
+            }
+            type Details {
+                price : Int
+            }
+        ''', [
+                Query  : [products: { env -> (1..3).collect { [id: String.valueOf(it)] } } as DataFetcher],
+                Product: [details: { env -> [price: 10] } as DataFetcher],
+        ])
+        def documentProvider = new TestingPreparsedDocumentProvider()
+        def graphQL = GraphQL.newGraphQL(schema)
+                .queryExecutionStrategy(new AsyncExecutionStrategy(new SimpleDataFetcherExceptionHandler(),
+                        FieldResultCache.newFieldResultCache().sourceKey({ source -> source.id }).build()))
+                .preparsedDocumentProvider(documentProvider)
+                .build()
+        def query = '{ products { id details { price } } }'
+
+        when:
+        def first = graphQL.execute(query)
+        PreparsedDocumentEntry entry = documentProvider.@cache.values().first()
+        def fieldSelections = entry.@derivedValues.values().find { it.class.simpleName == "FieldSelections" }
+        def fieldSelection = fieldSelections.@byFields.values().first()
+        def second = graphQL.execute(query)
+
+        then:
+        first.data == second.data
+        fieldSelections.@byFields.size() == 1
+        fieldSelections.@byFields.values().first().is(fieldSelection)
+
+        when: "the result of the first execution is changed by its caller"
+        first.data.products[0].details.price = 20
+        def third = graphQL.execute(query)
+
+        then:
+        third.data.products[0].details == [price: 10]
+
+        when: "a result from the cache is changed"
+        third.data.products[0].details.price = 30
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "the in memory store can be used by many threads"() {
+        def store = new InMemoryFieldResultCacheStore(100)
+        def key = { String id -> new FieldResultCache.Key(FieldCoordinates.coordinates("Query", "product"), id, [:], "", [:], null, Duration.ofMinutes(1), null) }
+        def executor = Executors.newFixedThreadPool(8)
+
+        when:
+        8.times { thread ->
+            executor.submit {
+                1000.times { i ->
+                    def id = "product" + ((thread * 1000 + i) % 300)
+                    if (store.get(key(id)) == null) {
+                        store.put(key(id), i, Duration.ofMinutes(1))
+                    }
+                }
+            }
+        }
+        executor.shutdown()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+
+        then:
+        store.size() <= 100
+        store.size() > 0
+    }
+
+    def "the in memory store evicts the least recently used entry"() {
+        def store = new InMemoryFieldResultCacheStore(2)
+        def graphQL = graphQL(FieldResultCache.newFieldResultCache().store(store).build())
+
+        when:
+        graphQL.execute('{ product(id : "1") { id } }')
+        graphQL.execute('{ product(id : "2") { id } }')
+        graphQL.execute('{ product(id : "1") { id } }')
+        graphQL.execute('{ product(id : "3") { id } }')
+
+        then:
+        store.size() == 2
+        productCalls.get() == 3
+
+        when:
+        graphQL.execute('{ product(id : "1") { id } }')
+        graphQL.execute('{ product(id : "2") { id } }')
+
+        then:
+        // 1 was used more recently than 2, so 2 was evicted
+        productCalls.get() == 4
+    }
+
+    def "the policy of a cached result holds for every field below it"() {
+        def schema = TestUtil.schema('''
+            enum CacheControlScope { PUBLIC PRIVATE }
+            directive @cacheControl(maxAge : Int, scope : CacheControlScope) on FIELD_DEFINITION | OBJECT | INTERFACE | UNION
+
+            type Query {
+                product : Product @cacheControl(maxAge : 3600)
+            }
+            type Product {
+                name : String
+                viewerHasPurchased : Boolean @cacheControl(scope : PRIVATE)
+                stock : Stock
+                hinted : String
+            }
+            type Stock {
+                count : Int @cacheControl(maxAge : 5)
+            }
+        ''', [
+                Query  : [product: { env -> [name: "p", viewerHasPurchased: env.graphQlContext.get("user") == "ann", stock: [count: 3]] } as DataFetcher],
+                Product: [hinted: { env -> env.graphQlContext.get(CacheControl).hint(env, 10); "h" } as DataFetcher],
+        ])
+        def puts = []
+        def store = new FieldResultCacheStore() {
+            @Override
+            Object get(FieldResultCache.Key key) {
+                return null
+            }
+
+            @Override
+            void put(FieldResultCache.Key key, Object value, Duration maxAge) {
+                puts.add([key: key, maxAge: maxAge])
+            }
+        }
+        def graphQL = GraphQL.newGraphQL(schema)
+                .queryExecutionStrategy(new AsyncExecutionStrategy(new SimpleDataFetcherExceptionHandler(), FieldResultCache.newFieldResultCache()
+                        .store(store)
+                        .privateScopeKey({ context -> context.get("user") })
+                        .build()))
+                .build()
+        def execute = { String query, String user ->
+            def cacheControl = CacheControl.newCacheControl()
+            graphQL.execute(ExecutionInput.newExecutionInput(query).cacheControl(cacheControl)
+                    .graphQLContext([(CacheControl): cacheControl] + (user != null ? [user: user] : [:])).build())
+        }
+
+        when: "a PRIVATE child makes the whole result private"
+        execute('{ product { name viewerHasPurchased } }', null)
+
+        then:
+        puts.isEmpty()
+
+        when:
+        execute('{ product { name viewerHasPurchased } }', "ann")
+
+        then:
+        puts.size() == 1
+        puts[0].key.privateScopeKey == "ann"
+        puts[0].maxAge == Duration.ofSeconds(3600)
+
+        when: "a child with a shorter max age shortens the max age of the result"
+        puts.clear()
+        execute('{ product { name stock { count } } }', null)
+
+        then:
+        puts.size() == 1
+        puts[0].key.privateScopeKey == null
+        puts[0].maxAge == Duration.ofSeconds(5)
+
+        when: "so does a data fetcher hint below the field"
+        puts.clear()
+        execute('{ product { name hinted } }', null)
+
+        then:
+        puts.size() == 1
+        puts[0].maxAge == Duration.ofSeconds(10)
+    }
+}
@@ -0,0 +1,72 @@
+package graphql.collect
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class ConcurrentAppendListTest extends Specification {
+
+    def "snapshots keep the elements in the order they were added and never change"() {
+        def list = new ConcurrentAppendList<String>(["a", "b"])
+
+        when:
+        def before = list.snapshot()
+        list.add("c")
+        def after = list.snapshot()
+
+        then:
+        before == ["a", "b"]
+        after == ["a", "b", "c"]
+        list.snapshot().is(after)
+
+        when:
+        after.add("d")
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "elements are only added up to the given size"() {
+        def list = new ConcurrentAppendList<Integer>()
+
+        when:
+        def added = list.tryAddAll([1, 2, 3], 2)
+        def addedOne = list.tryAdd(4, 3)
+        def addedAnother = list.tryAdd(5, 3)
+
+        then:
+        added == 2
+        addedOne
+        !addedAnother
+        list.snapshot() == [1, 2, 4]
+    }
+
+    def "many threads can add across segments"() {
+        def list = new ConcurrentAppendList<Integer>()
+        def executor = Executors.newFixedThreadPool(8)
+        def start = new CountDownLatch(1)
+
+        when:
+        8.times { thread ->
+            executor.submit {
+                start.await()
+                1000.times { list.add(thread * 1000 + it) }
+            }
+        }
+        start.countDown()
+        executor.shutdown()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+        def snapshot = list.snapshot()
+
+        then:
+        snapshot.size() == 8000
+        snapshot.toSet().size() == 8000
+        // the elements of each thread are in the order it added them
+        (0..<8).every { thread ->
+            def ofThread = snapshot.findAll { it.intdiv(1000) == thread }
+            ofThread == ofThread.sort(false)
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package graphql.execution
+
+import graphql.ExecutionInput
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.schema.DataFetcher
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class CancellationTokenTest extends Specification {
+
+    def "cancelling a parent cancels its children but not the other way around"() {
+        def parent = CancellationToken.newCancellationToken()
+        def child = parent.newChild()
+        def grandChild = child.newChild()
+        def reason = new AbortExecutionException("stop")
+        def cancelled = []
+
+        when:
+        grandChild.onCancel({ cancelled.add("grandChild") })
+        def sibling = parent.newChild()
+        sibling.cancel(new RuntimeException("sibling"))
+
+        then:
+        sibling.isCancelled()
+        !parent.isCancelled()
+        !child.isCancelled()
+        cancelled == []
+
+        when:
+        def first = parent.cancel(reason)
+        def second = parent.cancel(new RuntimeException("again"))
+
+        then:
+        first
+        !second
+        child.isCancelled()
+        grandChild.getCancellationReason() == reason
+        sibling.getCancellationReason().message == "sibling"
+        cancelled == ["grandChild"]
+
+        when:
+        child.onCancel({ cancelled.add("late") })
+        grandChild.throwIfCancelled()
+
+        then:
+        cancelled == ["grandChild", "late"]
+        def e = thrown(AbortExecutionException)
+        e == reason
+    }
+
+    def "a child stops listening to its parent once its callbacks are removed"() {
+        def parent = CancellationToken.newCancellationToken()
+        def child = parent.newChild()
+        def cancelled = []
+
+        when:
+        def first = child.onCancel({ cancelled.add("first") })
+        def second = child.onCancel({ cancelled.add("second") })
+
+        then:
+        parent.@callbacks.size() == 1
+
+        when:
+        first.remove()
+        first.remove()
+
+        then:
+        parent.@callbacks.size() == 1
+
+        when:
+        second.remove()
+
+        then:
+        parent.@callbacks.isEmpty()
+
+        when:
+        child.onCancel({ cancelled.add("third") })
+        parent.cancel(new AbortExecutionException("stop"))
+
+        then:
+        cancelled == ["third"]
+    }
+
+    def "executions leave nothing behind on a long-lived token"() {
+        def schema = TestUtil.schema("type Query { a : String b : String }", [Query: [
+                a: { env -> CompletableFuture.supplyAsync({ "A" }) } as DataFetcher,
+                b: { env ->
+                    // never removed by the data fetcher
+                    env.getCancellationToken().onCancel({})
+                    CompletableFuture.supplyAsync({ "B" })
+                } as DataFetcher,
+        ]])
+        def graphQL = GraphQL.newGraphQL(schema).build()
+        def token = CancellationToken.newCancellationToken()
+
+        when:
+        def results = (1..20).collect {
+            graphQL.execute(ExecutionInput.newExecutionInput("{ a b }").cancellationToken(token).timeout(Duration.ofSeconds(10)))
+        }
+
+        then:
+        results.every { it.data == [a: "A", b: "B"] }
+        token.@callbacks.isEmpty()
+    }
+
+    def "data fetchers are not called once the execution input token is cancelled"() {
+        def called = []
+        def schema = TestUtil.schema("type Query { a : String b : String }", [Query: [
+                a: { env -> called.add("a"); "A" } as DataFetcher,
+                b: { env -> called.add("b"); "B" } as DataFetcher,
+        ]])
+        def token = CancellationToken.newCancellationToken()
+        token.cancel(new AbortExecutionException("The client went away"))
+
+        when:
+        def er = GraphQL.newGraphQL(schema).build().execute(ExecutionInput.newExecutionInput("{ a b }").cancellationToken(token))
+
+        then:
+        called == []
+        er.data == [a: null, b: null]
+        er.errors.size() == 1
+        er.errors[0].message == "The client went away"
+    }
+
+    def "timeouts do not run the cancellation callbacks on the timer thread"() {
+        def token = CancellationToken.newCancellationToken()
+        def callbackThread = new CompletableFuture<String>()
+        token.onCancel({ callbackThread.complete(Thread.currentThread().getName()) })
+
+        when:
+        token.cancelAfter(Duration.ofMillis(10))
+
+        then:
+        callbackThread.get(5, TimeUnit.SECONDS) != "graphql-java-execution-timeouts"
+        token.isCancelled()
+    }
+
+    def "an execution that times out stops fetching"() {
+        def called = []
+        def schema = TestUtil.schema("type Query { slow : Thing } type Thing { name : String }", [
+                Query: [slow: { env ->
+                    CompletableFuture.supplyAsync({
+                        TimeUnit.MILLISECONDS.sleep(500)
+                        [name: "thing"]
+                    })
+                } as DataFetcher],
+                Thing: [name: { env -> called.add("name"); "thing" } as DataFetcher],
+        ])
+
+        when:
+        def er = GraphQL.newGraphQL(schema).build().execute(ExecutionInput.newExecutionInput("{ slow { name } }").timeout(Duration.ofMillis(50)))
+
+        then:
+        // the in-flight fetch of slow is not waited for
+        called == []
+        er.data == [slow: null]
+        er.errors.size() == 1
+        er.errors[0] instanceof AbortExecutionException
+        er.errors[0].message == "The execution timed out after 50ms"
+    }
+
+    def "a null non-null field cancels the fetches of its sibling fields"() {
+        def slowFuture = new CompletableFuture<String>()
+        def slowCancelled = false
+        def schema = TestUtil.schema("type Query { parent : Parent } type Parent { slow : String broken : String! }", [
+                Query : [parent: { env -> [:] } as DataFetcher],
+                Parent: [
+                        slow  : { env ->
+                            env.getCancellationToken().onCancel({ slowCancelled = true })
+                            slowFuture
+                        } as DataFetcher,
+                        broken: { env -> null } as DataFetcher,
+                ],
+        ])
+
+        when:
+        def erFuture = GraphQL.newGraphQL(schema).build().executeAsync(ExecutionInput.newExecutionInput("{ parent { slow broken } }"))
+
+        then:
+        slowCancelled
+        !erFuture.isDone()
+
+        when:
+        slowFuture.complete("too late")
+        def er = erFuture.join()
+
+        then:
+        er.data == [parent: null]
+        er.errors.size() == 1
+        er.errors[0] instanceof NonNullableFieldWasNullError
+    }
+}
@@ -0,0 +1,159 @@
+package graphql.execution
+
+import com.google.common.collect.ImmutableList
+import graphql.ErrorType
+import graphql.ExceptionWhileDataFetching
+import graphql.ExecutionInput
+import graphql.GraphQL
+import graphql.GraphqlErrorBuilder
+import graphql.TestUtil
+import graphql.language.SourceLocation
+import graphql.schema.DataFetcher
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class ErrorCollectionTest extends Specification {
+
+    def error(String path) {
+        new ExceptionWhileDataFetching(ResultPath.parse(path), new RuntimeException("Bang"), new SourceLocation(1, 1))
+    }
+
+    def "only one error is put per field path"() {
+        def errors = new ErrorCollection(ImmutableList.of(), Integer.MAX_VALUE, Integer.MAX_VALUE)
+
+        when:
+        errors.add(error("/a/b"), ResultPath.parse("/a/b"))
+        errors.add(error("/a/b"), ResultPath.parse("/a/b"))
+        errors.add(error("/a/c"), ResultPath.parse("/a/c"))
+
+        then:
+        errors.errors.collect { it.path } == [["a", "b"], ["a", "c"]]
+        errors.suppressedCount == 0
+    }
+
+    def "repeated errors of the same type at the same field are suppressed regardless of list indices"() {
+        def errors = new ErrorCollection(ImmutableList.of(), 2, Integer.MAX_VALUE)
+
+        when:
+        errors.add(error("/items[0]/price"))
+        errors.addAll([error("/items[1]/price"), error("/items[2]/price"), error("/items[0]/name")])
+        errors.add(error("/items[3]/price"), ResultPath.parse("/items[3]/price"))
+        errors.add(GraphqlErrorBuilder.newError().message("other type").errorType(ErrorType.ExecutionAborted).path(["items", 4, "price"]).build())
+
+        then:
+        errors.errors.collect { it.path } == [["items", 0, "price"], ["items", 1, "price"], ["items", 0, "name"], ["items", 4, "price"]]
+        errors.suppressedCount == 2
+    }
+
+    def "errors at or below a path are found even when they were left out"() {
+        def errors = new ErrorCollection(ImmutableList.of(), 1, Integer.MAX_VALUE)
+
+        when:
+        errors.add(error("/items[0]/price"), ResultPath.parse("/items[0]/price"))
+        errors.add(error("/items[1]/price"), ResultPath.parse("/items[1]/price"))
+
+        then:
+        errors.errors.size() == 1
+        errors.hasErrorAtOrBelow(ResultPath.parse("/items[1]/price"))
+        errors.hasErrorAtOrBelow(ResultPath.parse("/items[1]"))
+        errors.hasErrorAtOrBelow(ResultPath.parse("/items"))
+        !errors.hasErrorAtOrBelow(ResultPath.parse("/items[2]"))
+        !errors.hasErrorAtOrBelow(ResultPath.parse("/items[1]/price/amount"))
+    }
+
+    def "errors added by many threads are deduped per path"() {
+        def errors = new ErrorCollection(ImmutableList.of(), Integer.MAX_VALUE, Integer.MAX_VALUE)
+        def executor = Executors.newFixedThreadPool(8)
+
+        when:
+        8.times {
+            executor.submit {
+                500.times { errors.add(error("/items[$it]/price"), ResultPath.parse("/items[$it]/price")) }
+            }
+        }
+        executor.shutdown()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+
+        then:
+        errors.errors.size() == 500
+        errors.errors.collect { it.path[1] }.toSet().size() == 500
+    }
+
+    def "errors only materialize their path when asked for"() {
+        def error = error("/items[7]/price")
+
+        expect:
+        error.@path == null
+        error.@message == null
+        error.resultPath == ResultPath.parse("/items[7]/price")
+
+        error.path == ["items", 7, "price"]
+        error.message == "Exception while fetching data (/items[7]/price) : Bang"
+        error.path.is(error.path)
+    }
+
+    def "an execution counts the errors it suppressed"() {
+        def schema = TestUtil.schema('''
+            type Query {
+                items : [Item]
+            }
+            type Item {
+                price : Int
+            }
+        ''', [
+                Query: [items: { env -> (1..100).collect { [:] } } as DataFetcher],
+                Item : [price: { env -> throw new RuntimeException("Backend down") } as DataFetcher],
+        ])
+        def graphQL = GraphQL.newGraphQL(schema).build()
+
+        when:
+        def er = graphQL.execute(ExecutionInput.newExecutionInput("{ items { price } }").maxRepeatedErrors(3))
+
+        then:
+        er.errors.size() == 3
+        er.extensions[ExecutionContext.SUPPRESSED_ERRORS_EXTENSION] == 97
+
+        when:
+        er = graphQL.execute("{ items { price } }")
+
+        then:
+        er.errors.size() == 100
+        !er.extensions?.containsKey(ExecutionContext.SUPPRESSED_ERRORS_EXTENSION)
+    }
+
+    def "an execution over its error budget skips the failing fields and sums up the rest in one error"() {
+        def priceFetches = 0
+        def schema = TestUtil.schema('''
+            type Query {
+                items : [Item]
+            }
+            type Item {
+                name : String
+                price : Int
+            }
+        ''', [
+                Query: [items: { env -> (1..100).collect { [name: "item" + it] } } as DataFetcher],
+                Item : [price: { env -> priceFetches++; throw new RuntimeException("Backend down") } as DataFetcher],
+        ])
+        def graphQL = GraphQL.newGraphQL(schema).build()
+
+        when:
+        def er = graphQL.execute(ExecutionInput.newExecutionInput("{ items { name price } }").maxErrors(5))
+
+        then:
+        er.errors.size() == 6
+        er.errors.take(5).every { it instanceof ExceptionWhileDataFetching }
+
+        def budgetError = er.errors[5] as ErrorBudgetExceededError
+        budgetError.maxErrors == 5
+        budgetError.droppedErrorCount + budgetError.skippedFetchCount == 95
+        budgetError.skippedFetchCount == 100 - priceFetches
+        budgetError.skippedFetchCount > 0
+        budgetError.extensions["failingFields"] == ["Item.price"]
+
+        // the other fields are still fetched
+        er.data["items"].every { it["name"] != null && it["price"] == null }
+    }
+}
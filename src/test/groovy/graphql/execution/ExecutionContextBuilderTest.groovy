@@ -205,4 +205,48 @@ class ExecutionContextBuilderTest extends Specification {
         executionContext.operationDefinition == operation
         executionContext.dataLoaderRegistry == dataLoaderRegistry
     }
+
+    def "subscription event contexts share everything but the root and the errors"() {
+        given:
+        def subscriptionContext = new ExecutionContextBuilder()
+                .instrumentation(instrumentation)
+                .queryStrategy(queryStrategy)
+                .mutationStrategy(mutationStrategy)
+                .subscriptionStrategy(subscriptionStrategy)
+                .graphQLSchema(schema)
+                .executionId(executionId)
+                .graphQLContext(graphQLContext)
+                .root(root)
+                .operationDefinition(operation)
+                .coercedVariables(CoercedVariables.of([var: 'value']))
+                .fragmentsByName([MyFragment: fragment])
+                .dataLoaderRegistry(dataLoaderRegistry)
+                .build()
+        subscriptionContext.addError(new AbortExecutionException("subscription error"))
+
+        when:
+        def eventContext = subscriptionContext.forSubscriptionEvent("event")
+
+        then:
+        eventContext.root == "event"
+        eventContext.errors.isEmpty()
+        eventContext.executionId == executionId
+        eventContext.instrumentation == instrumentation
+        eventContext.graphQLSchema == schema
+        eventContext.subscriptionStrategy == subscriptionStrategy
+        eventContext.graphQLContext == graphQLContext
+        eventContext.coercedVariables == subscriptionContext.coercedVariables
+        eventContext.getFragmentsByName() == [MyFragment: fragment]
+        eventContext.operationDefinition == operation
+        eventContext.dataLoaderRegistry == dataLoaderRegistry
+        eventContext.normalizedQueryTree.is(subscriptionContext.normalizedQueryTree)
+        eventContext.queryAnalysis.is(subscriptionContext.queryAnalysis)
+
+        when:
+        eventContext.addError(new AbortExecutionException("event error"))
+
+        then:
+        subscriptionContext.errors.size() == 1
+        eventContext.errors.size() == 1
+    }
 }
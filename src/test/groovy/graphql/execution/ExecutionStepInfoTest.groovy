@@ -312,4 +312,24 @@ class ExecutionStepInfoTest extends Specification {
 
 
     }
+
+    def "list element step infos share the field data of the list"() {
+        given:
+        def rootTypeInfo = newExecutionStepInfo().type(rootType).build()
+        def listTypeInfo = newExecutionStepInfo().type(nonNull(list(fieldType))).fieldDefinition(field1Def).field(mergedField)
+                .fieldContainer(rootType).path(ResultPath.parse("/list")).parentInfo(rootTypeInfo)
+                .arguments({ [arg: "value"] }).build()
+
+        when:
+        def elementInfo = new ExecutionStepInfoFactory().newExecutionStepInfoForListElement(listTypeInfo, 300)
+
+        then:
+        elementInfo.getType() == fieldType
+        elementInfo.getPath() == ResultPath.parse("/list[300]")
+        elementInfo.getParent().is(listTypeInfo)
+        elementInfo.getFieldDefinition().is(field1Def)
+        elementInfo.getField().is(mergedField)
+        elementInfo.getObjectType().is(rootType)
+        elementInfo.getArguments() == [arg: "value"]
+    }
 }
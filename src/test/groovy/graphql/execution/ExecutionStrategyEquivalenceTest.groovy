@@ -137,6 +137,7 @@ class ExecutionStrategyEquivalenceTest extends Specification {
         "asyncSerial"     | new AsyncSerialExecutionStrategy()      | standardQueriesAndResults()
         "breadthFirst"    | new BreadthFirstExecutionTestStrategy() | standardQueriesAndResults()
         "breadthFirst"    | new BreadthFirstTestStrategy()          | standardQueriesAndResults()
+        "normalized"      | new NormalizedOperationExecutionStrategy() | standardQueriesAndResults()
 
     }
 
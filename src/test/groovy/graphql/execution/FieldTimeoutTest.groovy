@@ -0,0 +1,82 @@
+package graphql.execution
+
+import graphql.ExceptionWhileDataFetching
+import graphql.ExecutionInput
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.schema.DataFetcher
+import graphql.schema.FieldCoordinates
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+
+class FieldTimeoutTest extends Specification {
+
+    def "a field that takes longer than its timeout resolves to null with an error"() {
+        def never = new CompletableFuture<String>()
+        def schema = TestUtil.schema("type Query { slow : String fast : String }", [Query: [
+                slow: { env -> never } as DataFetcher,
+                fast: { env -> "fast" } as DataFetcher,
+        ]])
+        schema = schema.transform({ builder ->
+            builder.codeRegistry(schema.getCodeRegistry().transform({ codeRegistry ->
+                codeRegistry.fieldTimeout(FieldCoordinates.coordinates("Query", "slow"), Duration.ofMillis(50))
+            }))
+        })
+
+        when:
+        def er = GraphQL.newGraphQL(schema).build().execute("{ slow fast }")
+
+        then:
+        er.data == [slow: null, fast: "fast"]
+        er.errors.size() == 1
+        er.errors[0] instanceof ExceptionWhileDataFetching
+        er.errors[0].path == ["slow"]
+        er.errors[0].message.contains("The field 'Query.slow' timed out after 50ms")
+    }
+
+    def "a field timeout can be set with the timeout directive"() {
+        def never = new CompletableFuture<String>()
+        def schema = TestUtil.schema('''
+            directive @timeout(ms : Int!) on FIELD_DEFINITION
+            type Query { slow : String @timeout(ms : 50) }
+        ''', [Query: [slow: { env -> never } as DataFetcher]])
+
+        when:
+        def er = GraphQL.newGraphQL(schema).build().execute("{ slow }")
+
+        then:
+        er.data == [slow: null]
+        er.errors.size() == 1
+        er.errors[0].message.contains("The field 'Query.slow' timed out after 50ms")
+    }
+
+    def "data fetchers can see the time left before the nearest deadline"() {
+        Duration fieldRemaining = null
+        Duration otherRemaining = null
+        def schema = TestUtil.schema('''
+            directive @timeout(ms : Int!) on FIELD_DEFINITION
+            type Query { bounded : String @timeout(ms : 1000) unbounded : String }
+        ''', [Query: [
+                bounded  : { env -> fieldRemaining = env.getCancellationToken().getRemainingTime(); "b" } as DataFetcher,
+                unbounded: { env -> otherRemaining = env.getCancellationToken().getRemainingTime(); "u" } as DataFetcher,
+        ]])
+        def graphQL = GraphQL.newGraphQL(schema).build()
+
+        when:
+        def er = graphQL.execute(ExecutionInput.newExecutionInput("{ bounded unbounded }").timeout(Duration.ofSeconds(60)))
+
+        then:
+        er.errors.isEmpty()
+        fieldRemaining <= Duration.ofMillis(1000)
+        otherRemaining > Duration.ofSeconds(50)
+        otherRemaining <= Duration.ofSeconds(60)
+
+        when:
+        graphQL.execute("{ unbounded }")
+
+        then:
+        otherRemaining == null
+    }
+}
@@ -0,0 +1,206 @@
+package graphql.execution
+
+import graphql.ExecutionInput
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.execution.preparsed.PreparsedDocumentEntry
+import graphql.execution.preparsed.PreparsedDocumentProvider
+import graphql.execution.preparsed.TestingPreparsedDocumentProvider
+import graphql.normalized.ParametricExecutableNormalizedOperation
+import graphql.schema.DataFetcher
+import graphql.schema.idl.RuntimeWiring
+import graphql.schema.idl.TypeRuntimeWiring
+import spock.lang.Specification
+
+class NormalizedOperationExecutionStrategyTest extends Specification {
+
+    def spec = """
+        type Query {
+            pets: [Pet]
+            owner: Owner
+        }
+        type Owner {
+            name: String
+            pets(name: String): [Pet]
+        }
+        interface Pet {
+            name: String
+        }
+        type Dog implements Pet {
+            name: String
+            barks: Boolean
+        }
+        type Cat implements Pet {
+            name: String
+            meows: Boolean
+        }
+    """
+
+    def pets = [
+            [name: "Fido", barks: true],
+            [name: "Tom", meows: false],
+            [name: "Rex", barks: false],
+    ]
+
+    List<List<String>> selectedFields = []
+    List<Map<String, Object>> ownerPetsArguments = []
+    // asking for the selection set builds the normalized operation
+    boolean recordSelectedFields = true
+
+    GraphQL graphQL(ExecutionStrategy strategy, PreparsedDocumentProvider preparsedDocumentProvider = new TestingPreparsedDocumentProvider()) {
+        DataFetcher petsFetcher = { env ->
+            if (recordSelectedFields) {
+                selectedFields.add(env.getSelectionSet().getImmediateFields().collect { it.objectTypeNames.toSorted().toString() + "." + it.resultKey })
+            }
+            pets
+        }
+        def runtimeWiring = RuntimeWiring.newRuntimeWiring()
+                .type(TypeRuntimeWiring.newTypeWiring("Query")
+                        .dataFetcher("pets", petsFetcher)
+                        .dataFetcher("owner", { env ->
+                            if (recordSelectedFields) {
+                                ownerPetsArguments.addAll(env.getSelectionSet().getFields("pets").collect { it.arguments })
+                            }
+                            [name: "Jon"]
+                        } as DataFetcher))
+                .type(TypeRuntimeWiring.newTypeWiring("Owner")
+                        .dataFetcher("pets", petsFetcher))
+                .type(TypeRuntimeWiring.newTypeWiring("Pet")
+                        .typeResolver({ env -> env.getSchema().getObjectType(env.getObject().containsKey("barks") ? "Dog" : "Cat") }))
+                .build()
+        GraphQL.newGraphQL(TestUtil.schema(spec, runtimeWiring))
+                .queryExecutionStrategy(strategy)
+                .preparsedDocumentProvider(preparsedDocumentProvider)
+                .build()
+    }
+
+    def query = '''
+        query q($skipMeows: Boolean!) {
+            pets {
+                ... on Dog { barks name }
+                ... on Cat { meows @skip(if: $skipMeows) }
+                name
+                ...PetFields
+            }
+            owner {
+                name
+                pets { ...PetFields }
+            }
+        }
+        fragment PetFields on Pet {
+            __typename
+            ... on Cat { alias: name }
+        }
+    '''
+
+    def "gives the same results as the async execution strategy"() {
+        def expected = graphQL(new AsyncExecutionStrategy())
+        def normalized = graphQL(new NormalizedOperationExecutionStrategy())
+
+        when:
+        def results = []
+        def expectedResults = []
+        [true, false, true, false].each { skipMeows ->
+            results << normalized.execute(ExecutionInput.newExecutionInput(query).variables([skipMeows: skipMeows])).toSpecification()
+            expectedResults << expected.execute(ExecutionInput.newExecutionInput(query).variables([skipMeows: skipMeows])).toSpecification()
+        }
+
+        then:
+        results == expectedResults
+        results.every { it.errors == null }
+        // the order of the result keys follows the query for every object type
+        results[0].data.pets.collect { it.keySet() as List } == [
+                ["barks", "name", "__typename"],
+                ["name", "__typename", "alias"],
+                ["barks", "name", "__typename"],
+        ]
+        results[1].data.pets[1].keySet() as List == ["meows", "name", "__typename", "alias"]
+        results[1].data.owner.pets[1] == [__typename: "Cat", alias: "Tom"]
+    }
+
+    def "data fetchers see the same selection as with the async execution strategy"() {
+        when:
+        graphQL(new AsyncExecutionStrategy()).execute(ExecutionInput.newExecutionInput(query).variables([skipMeows: false]))
+        def expected = new ArrayList<>(selectedFields)
+        selectedFields.clear()
+        graphQL(new NormalizedOperationExecutionStrategy()).execute(ExecutionInput.newExecutionInput(query).variables([skipMeows: false]))
+
+        then:
+        expected.size() == 2
+        selectedFields == expected
+    }
+
+    def "only uses the normalized operation once a document entry is reused"() {
+        recordSelectedFields = false
+        List<PreparsedDocumentEntry> entries = []
+        // parses every request anew, as the default provider does, but keeps the entries
+        PreparsedDocumentProvider parsedAnew = { executionInput, parseAndValidate ->
+            def entry = parseAndValidate.apply(executionInput)
+            entries << entry
+            entry
+        }
+        def cached = new TestingPreparsedDocumentProvider()
+        def expected = graphQL(new AsyncExecutionStrategy()).execute(ExecutionInput.newExecutionInput(query).variables([skipMeows: false])).toSpecification()
+
+        when:
+        def results = (1..3).collect {
+            graphQL(new NormalizedOperationExecutionStrategy(), parsedAnew).execute(ExecutionInput.newExecutionInput(query).variables([skipMeows: false])).toSpecification()
+        }
+
+        then:
+        results.every { it == expected }
+        entries.size() == 3
+        entries.every { parametricOperation(it).@operationsByConditions.isEmpty() }
+
+        when:
+        def normalized = graphQL(new NormalizedOperationExecutionStrategy(), cached)
+        def first = normalized.execute(ExecutionInput.newExecutionInput(query).variables([skipMeows: false])).toSpecification()
+        def entry = cached.@cache.values().first()
+
+        then:
+        first == expected
+        parametricOperation(entry).@operationsByConditions.isEmpty()
+
+        when:
+        def second = normalized.execute(ExecutionInput.newExecutionInput(query).variables([skipMeows: false])).toSpecification()
+
+        then:
+        second == expected
+        parametricOperation(entry).@operationsByConditions.size() == 1
+    }
+
+    def "reuses the collected selections for requests with other values for the variables of arguments"() {
+        def strategy = new NormalizedOperationExecutionStrategy()
+        def graphQL = graphQL(strategy)
+        def argumentQuery = '''
+            query q($name: String) {
+                owner {
+                    name
+                    pets(name: $name) { name ... on Dog { barks } }
+                }
+            }
+        '''
+        def execute = { String name -> graphQL.execute(ExecutionInput.newExecutionInput(argumentQuery).variables([name: name])).toSpecification() }
+
+        when:
+        def first = execute("Fido")
+        def second = execute("Tom")
+        def selections = strategy.@selectionsByOperation.values().first()
+        def topLevelFields = selections.@topLevelFields.get("Query")
+        def fieldInfoCount = selections.@fieldInfos.size()
+        def third = execute("Rex")
+
+        then:
+        [first, second, third].every { it.errors == null && it.data.owner.pets.size() == 3 }
+        strategy.@selectionsByOperation.size() == 1
+        selections.@topLevelFields.get("Query").is(topLevelFields)
+        selections.@fieldInfos.size() == fieldInfoCount
+        fieldInfoCount > 0
+        // the data fetchers still see the arguments of their own request
+        ownerPetsArguments == [[name: "Fido"], [name: "Tom"], [name: "Rex"]]
+    }
+
+    static ParametricExecutableNormalizedOperation parametricOperation(PreparsedDocumentEntry entry) {
+        entry.@derivedValues.values().find { it instanceof ParametricExecutableNormalizedOperation } as ParametricExecutableNormalizedOperation
+    }
+}
@@ -280,4 +280,29 @@ class ResultPathTest extends Specification {
         then:
         newPath.toList() == ["a", "b", "x"]
     }
+
+    def "list segments are held as ints"() {
+        def path = ResultPath.parse("/a/b[1000]/c")
+        def listPath = path.getParent()
+
+        expect:
+        listPath.isListSegment()
+        !listPath.isNamedSegment()
+        listPath.getSegmentIndex() == 1000
+        listPath.getSegmentValue() == 1000
+        path.getSegmentName() == "c"
+        path.getLevel() == 3
+        !ResultPath.rootPath().isListSegment()
+        ResultPath.rootPath().getSegmentValue() == null
+
+        path.toList() == ["a", "b", 1000, "c"]
+        path == ResultPath.fromList(["a", "b", 1000, "c"])
+        path.hashCode() == ResultPath.fromList(["a", "b", 1000, "c"]).hashCode()
+        path != ResultPath.parse("/a/b[1001]/c")
+        listPath.segment(0) != listPath.segment("0")
+
+        // the string form is worked out once
+        path.toString() == "/a/b[1000]/c"
+        path.toString().is(path.toString())
+    }
 }
@@ -1,5 +1,6 @@
 package graphql.execution
 
+import graphql.AssertException
 import graphql.ErrorType
 import graphql.ExecutionInput
 import graphql.ExecutionResult
@@ -15,6 +16,8 @@ import graphql.execution.pubsub.Message
 import graphql.execution.pubsub.ReactiveStreamsMessagePublisher
 import graphql.execution.pubsub.ReactiveStreamsObjectPublisher
 import graphql.execution.pubsub.RxJavaMessagePublisher
+import graphql.execution.reactive.SingleSubscriberPublisher
+import graphql.execution.reactive.SubscriptionConflation
 import graphql.execution.reactive.SubscriptionPublisher
 import graphql.schema.DataFetcher
 import graphql.schema.DataFetchingEnvironment
@@ -22,10 +25,13 @@ import graphql.schema.PropertyDataFetcher
 import graphql.schema.idl.RuntimeWiring
 import org.awaitility.Awaitility
 import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
 import spock.lang.Specification
 import spock.lang.Unroll
 
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
 
 import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring
 
@@ -282,6 +288,84 @@ class SubscriptionExecutionStrategyTest extends Specification {
     }
 
 
+    def "conflated events wait while an event executes even for a subscriber with unbounded demand"() {
+        def source = new SingleSubscriberPublisher<Object>()
+        def firstText = new CompletableFuture<String>()
+        DataFetcher textDF = { env -> env.getSource().text == "AAPL:1" ? firstText : env.getSource().text }
+        RuntimeWiring runtimeWiring = buildBaseSubscriptionWiring(PropertyDataFetcher.fetching("sender"), textDF)
+                .type(newTypeWiring("Subscription").dataFetcher("newMessage", { env -> source } as DataFetcher).build())
+                .build()
+        def conflation = SubscriptionConflation.newSubscriptionConflation().conflationKey({ message -> message.sender }).build()
+        def graphQL = TestUtil.graphQL(idl, runtimeWiring)
+                .subscriptionExecutionStrategy(new SubscriptionExecutionStrategy(new SimpleDataFetcherExceptionHandler(), null, conflation))
+                .build()
+        List<String> texts = Collections.synchronizedList([])
+        def subscriber = new Subscriber<ExecutionResult>() {
+            @Override
+            void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE)
+            }
+
+            @Override
+            void onNext(ExecutionResult executionResult) {
+                texts.add(executionResult.data["newMessage"]["text"])
+            }
+
+            @Override
+            void onError(Throwable throwable) {
+            }
+
+            @Override
+            void onComplete() {
+            }
+        }
+
+        when:
+        // the default context, so no MAX_CONCURRENT_SUBSCRIPTION_EVENTS
+        Publisher<ExecutionResult> results = graphQL.execute("subscription { newMessage { sender text } }").getData()
+        results.subscribe(subscriber)
+        source.offer(new Message("AAPL", "AAPL:1"))
+        source.offer(new Message("AAPL", "AAPL:2"))
+        source.offer(new Message("AAPL", "AAPL:3"))
+        firstText.complete("AAPL:1")
+
+        then:
+        Awaitility.await().untilAsserted({ assert texts == ["AAPL:1", "AAPL:3"] })
+    }
+
+    def "the context keys of subscription events are checked"() {
+        DataFetcher newMessageDF = { env -> new ReactiveStreamsMessagePublisher(3) }
+        GraphQL graphQL = buildSubscriptionQL(newMessageDF)
+        def query = "subscription { newMessage(roomId: 123) { sender text } }"
+
+        when:
+        def executionResult = graphQL.execute(ExecutionInput.newExecutionInput(query)
+                .graphQLContext([(SubscriptionExecutionStrategy.MAX_CONCURRENT_SUBSCRIPTION_EVENTS): 2L,
+                                 (SubscriptionExecutionStrategy.KEEP_SUBSCRIPTION_EVENTS_ORDERED)  : true]))
+        def capturingSubscriber = new CapturingSubscriber<ExecutionResult>()
+        (executionResult.getData() as Publisher<ExecutionResult>).subscribe(capturingSubscriber)
+
+        then:
+        Awaitility.await().untilTrue(capturingSubscriber.isDone())
+        capturingSubscriber.events.collect { it.data["newMessage"]["sender"] } == ["sender0", "sender1", "sender2"]
+
+        when:
+        def failed = graphQL.executeAsync(ExecutionInput.newExecutionInput(query)
+                .graphQLContext([(contextKey): contextValue]))
+        failed.join()
+
+        then:
+        def e = thrown(CompletionException)
+        e.cause instanceof AssertException
+        e.cause.message == message
+
+        where:
+        contextKey                                                      | contextValue | message
+        SubscriptionExecutionStrategy.MAX_CONCURRENT_SUBSCRIPTION_EVENTS | "2"          | "MAX_CONCURRENT_SUBSCRIPTION_EVENTS must be an Integer or a Long but was java.lang.String"
+        SubscriptionExecutionStrategy.MAX_CONCURRENT_SUBSCRIPTION_EVENTS | 0            | "MAX_CONCURRENT_SUBSCRIPTION_EVENTS must be greater than zero but was 0"
+        SubscriptionExecutionStrategy.KEEP_SUBSCRIPTION_EVENTS_ORDERED   | "true"       | "KEEP_SUBSCRIPTION_EVENTS_ORDERED must be a Boolean but was java.lang.String"
+    }
+
     def "subscription query will surface fetch errors"() {
 
         DataFetcher newMessageDF = new DataFetcher() {
@@ -1,9 +1,11 @@
 package graphql.execution.instrumentation
 
+import graphql.ExecutionInput
 import graphql.ExecutionResult
 import graphql.GraphQL
 import graphql.StarWarsSchema
 import graphql.execution.AsyncExecutionStrategy
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters
 import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionStrategyParameters
@@ -279,6 +281,42 @@ class ChainedInstrumentationStateTest extends Specification {
 
     }
 
+    def "contexts are only chained when more than one instrumentation returns one"() {
+        def fetchCtx = new SimpleInstrumentationContext<Object>()
+        def stateParameters = new InstrumentationCreateStateParameters(StarWarsSchema.starWarsSchema, ExecutionInput.newExecutionInput("{ hero { id } }").build())
+
+        when:
+        def chained = new ChainedInstrumentation([fetching(fetchCtx), SimplePerformantInstrumentation.INSTANCE])
+        def state = chained.createState(stateParameters)
+
+        then:
+        chained.beginFieldFetch(null, state).is(fetchCtx)
+        chained.beginParse(null, state).is(SimpleInstrumentationContext.noOp())
+        chained.beginExecutionStrategy(null, state).is(ExecutionStrategyInstrumentationContext.NOOP)
+
+        when:
+        def fetchCompletions = []
+        chained = new ChainedInstrumentation([
+                fetching(SimpleInstrumentationContext.whenCompleted({ result, t -> fetchCompletions.add("A:" + result) })),
+                SimplePerformantInstrumentation.INSTANCE,
+                fetching(SimpleInstrumentationContext.whenCompleted({ result, t -> fetchCompletions.add("B:" + result) })),
+        ])
+        state = chained.createState(stateParameters)
+        chained.beginFieldFetch(null, state).onCompleted("x", null)
+
+        then:
+        fetchCompletions == ["A:x", "B:x"]
+    }
+
+    private static Instrumentation fetching(InstrumentationContext<Object> fetchCtx) {
+        return new SimplePerformantInstrumentation() {
+            @Override
+            InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+                return fetchCtx
+            }
+        }
+    }
+
     private void assertCalls(NamedInstrumentation instrumentation) {
         assert instrumentation.dfInvocations[0].getFieldDefinition().name == 'hero'
         assert instrumentation.dfInvocations[0].getExecutionStepInfo().getPath().toList() == ['hero']
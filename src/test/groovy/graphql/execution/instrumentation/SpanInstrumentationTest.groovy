@@ -0,0 +1,141 @@
+package graphql.execution.instrumentation
+
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.execution.instrumentation.tracing.SpanInstrumentation
+import graphql.execution.instrumentation.tracing.SpanTracer
+import graphql.schema.DataFetcher
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+class SpanInstrumentationTest extends Specification {
+
+    static class RecordedSpan implements SpanTracer.Span {
+        String name
+        RecordedSpan parent
+        long start
+        long end = -1
+        Map<String, Object> attributes = [:]
+        List<Throwable> exceptions = []
+
+        @Override
+        void setAttribute(String key, String value) {
+            attributes.put(key, value)
+        }
+
+        @Override
+        void setAttribute(String key, long value) {
+            attributes.put(key, value)
+        }
+
+        @Override
+        void recordException(Throwable throwable) {
+            exceptions.add(throwable)
+        }
+
+        @Override
+        void end(long endEpochNanos) {
+            assert end == -1
+            end = endEpochNanos
+        }
+    }
+
+    static class RecordingTracer implements SpanTracer {
+        Queue<RecordedSpan> spans = new ConcurrentLinkedQueue<>()
+
+        @Override
+        SpanTracer.Span startSpan(String name, SpanTracer.Span parent, long startEpochNanos) {
+            def span = new RecordedSpan(name: name, parent: (RecordedSpan) parent, start: startEpochNanos)
+            spans.add(span)
+            return span
+        }
+
+        List<RecordedSpan> named(String name) {
+            spans.findAll { it.name == name }
+        }
+
+        RecordedSpan field(String path) {
+            spans.find { it.name == SpanInstrumentation.FIELD_SPAN && it.attributes["graphql.field.path"] == path }
+        }
+    }
+
+    def schema = TestUtil.schema('''
+        type Query {
+            products : [Product]
+            broken : String
+        }
+        type Product {
+            name : String
+            price : Int
+            reviews : [Review]
+        }
+        type Review {
+            text : String
+        }
+    ''', [
+            Query  : [
+                    products: { env -> [[name: "a", price: 1], [name: "b", price: 2]] } as DataFetcher,
+                    broken  : { env -> throw new RuntimeException("Bang") } as DataFetcher,
+            ],
+            Product: [reviews: { env -> [[text: env.getSource().name + "!"]] } as DataFetcher],
+    ])
+
+    def "spans are created for the phases and the field fetches"() {
+        def tracer = new RecordingTracer()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(new SpanInstrumentation(tracer)).build()
+
+        when:
+        def er = graphQL.execute("query Q { products { name price reviews { text } } broken }")
+
+        then:
+        er.errors.size() == 1
+        tracer.spans.every { it.end >= it.start }
+
+        def request = tracer.named(SpanInstrumentation.REQUEST_SPAN)[0]
+        request.parent == null
+        tracer.named(SpanInstrumentation.PARSE_SPAN)[0].parent.is(request)
+        tracer.named(SpanInstrumentation.VALIDATE_SPAN)[0].parent.is(request)
+
+        def execute = tracer.named(SpanInstrumentation.EXECUTE_SPAN)[0]
+        execute.parent.is(request)
+        execute.attributes == ["graphql.operation.type": "query", "graphql.operation.name": "Q"]
+
+        def products = tracer.field("/products")
+        products.parent.is(execute)
+        products.attributes["graphql.field.parentType"] == "Query"
+        tracer.field("/products[0]/reviews").parent.is(products)
+        tracer.field("/products[1]/reviews").parent.is(products)
+        tracer.field("/broken").exceptions.size() == 1
+
+        // the trivial fetches of name, price and text are aggregated per level
+        tracer.named(SpanInstrumentation.FIELD_SPAN).size() == 4
+        def trivial = tracer.named(SpanInstrumentation.TRIVIAL_FIELDS_SPAN)
+        trivial.collect { [it.attributes["graphql.field.level"], it.attributes["graphql.field.count"]] } == [[2L, 4L], [3L, 2L]]
+        trivial.every { it.parent.is(execute) }
+    }
+
+    def "trivial fetches can get their own spans and field spans can be turned off"() {
+        def tracer = new RecordingTracer()
+        def options = SpanInstrumentation.Options.newOptions().aggregateTrivialDataFetchers(false)
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(new SpanInstrumentation(tracer, options)).build()
+
+        when:
+        graphQL.execute("{ products { name } }")
+
+        then:
+        tracer.named(SpanInstrumentation.FIELD_SPAN).size() == 3
+        tracer.field("/products[1]/name").parent.is(tracer.field("/products"))
+        tracer.named(SpanInstrumentation.TRIVIAL_FIELDS_SPAN).isEmpty()
+
+        when:
+        tracer = new RecordingTracer()
+        options = SpanInstrumentation.Options.newOptions().fieldSampleRate(0)
+        graphQL = GraphQL.newGraphQL(schema).instrumentation(new SpanInstrumentation(tracer, options)).build()
+        graphQL.execute("{ products { name } }")
+
+        then:
+        tracer.spans.collect { it.name } == [SpanInstrumentation.REQUEST_SPAN, SpanInstrumentation.PARSE_SPAN,
+                                             SpanInstrumentation.VALIDATE_SPAN, SpanInstrumentation.EXECUTE_SPAN]
+    }
+}
@@ -197,4 +197,67 @@ class TracingInstrumentationTest extends Specification {
         new AsyncExecutionStrategy()       | _
         new AsyncSerialExecutionStrategy() | _
     }
+
+    def "buffered field traces give the same tracing data"() {
+        when:
+        def instrumentation = new TracingInstrumentation(newOptions().fieldTraceBufferSize(300))
+
+        def graphQL = GraphQL
+                .newGraphQL(StarWarsSchema.starWarsSchema)
+                .instrumentation(instrumentation)
+                .build()
+
+        def executionResult = graphQL.execute(query)
+        def tracing = executionResult.getExtensions()['tracing']
+
+        then:
+        List resolvers = tracing['execution']['resolvers'] as List
+        resolvers.size() == 3
+        resolvers[0]['fieldName'] == "hero"
+        resolvers[0]['path'] == ["hero"]
+        resolvers[0]['startOffset'] > 0L
+        resolvers[0]['duration'] > 0L
+        resolvers[0]['parentType'] == "QueryType"
+        resolvers[0]['returnType'] == "Character"
+        resolvers.collect { it['path'] } as Set == [["hero"], ["hero", "id"], ["hero", "appearsIn"]] as Set
+    }
+
+    def "field traces beyond the buffer size are dropped"() {
+        when:
+        def instrumentation = new TracingInstrumentation(newOptions().fieldTraceBufferSize(2))
+
+        def graphQL = GraphQL
+                .newGraphQL(StarWarsSchema.starWarsSchema)
+                .instrumentation(instrumentation)
+                .build()
+
+        def executionResult = graphQL.execute(query)
+        def tracing = executionResult.getExtensions()['tracing']
+
+        then:
+        executionResult.errors.isEmpty()
+        List resolvers = tracing['execution']['resolvers'] as List
+        resolvers.size() == 2
+        resolvers[0]['path'] == ["hero"]
+    }
+
+    def "requests that are not sampled are not traced"() {
+        when:
+        def graphQL = GraphQL
+                .newGraphQL(StarWarsSchema.starWarsSchema)
+                .instrumentation(new TracingInstrumentation(newOptions().sampleRate(sampleRate)))
+                .build()
+
+        def executionResult = graphQL.execute(query)
+
+        then:
+        executionResult.errors.isEmpty()
+        executionResult.data["hero"]["id"] == "2001"
+        (executionResult.extensions?.get("tracing") != null) == traced
+
+        where:
+        sampleRate | traced
+        0.0d       | false
+        1.0d       | true
+    }
 }
@@ -323,4 +323,52 @@ class DataLoaderDispatcherInstrumentationTest extends Specification {
         er.errors.isEmpty()
         er.data == support.buildResponse(depth)
     }
+
+    def "dispatches can be profiled per level and data loader"() {
+        def sdl = """
+            type Query {
+                people : [Person]
+            }
+            type Person {
+                id : Int
+                friend : Person
+            }
+        """
+        def friendsLoader = DataLoaderFactory.newDataLoader(new BatchLoader() {
+            @Override
+            CompletionStage<List> load(List keys) {
+                return CompletableFuture.completedFuture(keys.collect { [id: it + 10] })
+            }
+        })
+        def runtimeWiring = newRuntimeWiring()
+                .type(newTypeWiring("Query").dataFetcher("people", { env -> [[id: 1], [id: 2], [id: 3]] } as DataFetcher))
+                .type(newTypeWiring("Person").dataFetcher("friend", { env -> env.getDataLoader("friends").load(env.getSource().id) } as DataFetcher))
+                .build()
+        def options = DataLoaderDispatcherInstrumentationOptions.newOptions().includeProfile(true)
+        def graphql = TestUtil.graphQL(sdl, runtimeWiring).instrumentation(new DataLoaderDispatcherInstrumentation(options)).build()
+        def dataLoaderRegistry = new DataLoaderRegistry().register("friends", friendsLoader)
+
+        when:
+        def executionInput = newExecutionInput().dataLoaderRegistry(dataLoaderRegistry).query('{ people { id friend { id friend { id } } } }').build()
+        def er = graphql.execute(executionInput)
+
+        then:
+        er.errors.isEmpty()
+        er.data == [people: [
+                [id: 1, friend: [id: 11, friend: [id: 21]]],
+                [id: 2, friend: [id: 12, friend: [id: 22]]],
+                [id: 3, friend: [id: 13, friend: [id: 23]]],
+        ]]
+
+        DataLoaderDispatchProfile profile = executionInput.getGraphQLContext().get(DataLoaderDispatchProfile.class)
+        // each level is dispatched once and each batch has the keys of all the people of the level
+        profile.getDispatchCountPerLevel().values().every { it == 1 }
+        profile.getBatchSizes() == [friends: [3, 3]]
+        profile.getDispatches().find { it.keysPerDataLoader == [friends: 3] }.fieldCount == 6
+
+        def extension = er.extensions[DataLoaderDispatchProfile.EXTENSION_KEY]
+        extension["dataLoaders"] == [friends: [batches: 2, keys: 6, minBatchSize: 3, maxBatchSize: 3]]
+        extension["dispatches"] == profile.getDispatches().size()
+        er.extensions["dataloader"] == null
+    }
 }
@@ -0,0 +1,138 @@
+package graphql.execution.instrumentation.memoization
+
+import graphql.GraphQL
+import graphql.GraphqlErrorBuilder
+import graphql.TestUtil
+import graphql.execution.DataFetcherResult
+import graphql.schema.DataFetcher
+import graphql.schema.FieldCoordinates
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicInteger
+
+class FieldMemoizationInstrumentationTest extends Specification {
+
+    def sdl = '''
+        type Query {
+            users : [User]
+        }
+        type User {
+            name : String
+            friendCount(online : Boolean) : Int
+            email : String
+        }
+    '''
+
+    def friendCountCalls = new AtomicInteger()
+    def emailCalls = new AtomicInteger()
+    def bob = [name: "bob"]
+    def ann = [name: "ann"]
+
+    def schema = TestUtil.schema(sdl, [
+            Query: [users: { env -> [bob, ann, bob] } as DataFetcher],
+            User : [
+                    friendCount: { env ->
+                        friendCountCalls.incrementAndGet()
+                        CompletableFuture.completedFuture(env.getArgument("online") ? 1 : 5)
+                    } as DataFetcher,
+                    email      : { env -> emailCalls.incrementAndGet(); env.getSource().name + "@example.com" } as DataFetcher,
+            ]
+    ])
+
+    def "the same field of the same source with the same arguments is only fetched once"() {
+        def instrumentation = FieldMemoizationInstrumentation.newFieldMemoizationInstrumentation()
+                .memoize(FieldCoordinates.coordinates("User", "friendCount"))
+                .build()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build()
+
+        def query = '''
+            {
+                users {
+                    name
+                    friendCount(online : false)
+                    all : friendCount(online : false)
+                    online : friendCount(online : true)
+                    ... on User { friendCount(online : false) }
+                    email
+                    alsoEmail : email
+                }
+            }
+        '''
+
+        when:
+        def er = graphQL.execute(query)
+
+        then:
+        er.errors.isEmpty()
+        er.data["users"][0] == [name: "bob", friendCount: 5, all: 5, online: 1, email: "bob@example.com", alsoEmail: "bob@example.com"]
+        er.data["users"][1]["all"] == 5
+        // bob and ann each once per distinct argument value, the second bob shares the first one's values
+        friendCountCalls.get() == 4
+        // email is not memoized
+        emailCalls.get() == 6
+
+        when:
+        graphQL.execute(query)
+
+        then:
+        // memoization does not outlive an execution
+        friendCountCalls.get() == 8
+    }
+
+    def "data fetcher exceptions are shared by the memoized invocations"() {
+        def calls = new AtomicInteger()
+        def failingSchema = TestUtil.schema("type Query { a : String }", [Query: [a: { env ->
+            calls.incrementAndGet()
+            throw new RuntimeException("Bang")
+        } as DataFetcher]])
+        def instrumentation = FieldMemoizationInstrumentation.newFieldMemoizationInstrumentation()
+                .memoize(FieldCoordinates.coordinates("Query", "a"))
+                .build()
+
+        when:
+        def er = GraphQL.newGraphQL(failingSchema).instrumentation(instrumentation).build().execute("{ a b : a }")
+
+        then:
+        calls.get() == 1
+        er.data == [a: null, b: null]
+        er.errors.size() == 2
+        er.errors.every { it.message.contains("Bang") }
+    }
+
+    def "the errors of a memoized data fetcher result are only reported by the invocation that fetched it"() {
+        def calls = new AtomicInteger()
+        def partialSchema = TestUtil.schema("type Query { a : String }", [Query: [a: { env ->
+            calls.incrementAndGet()
+            DataFetcherResult.newResult()
+                    .data("A")
+                    .error(GraphqlErrorBuilder.newError(env).message("Partial").build())
+                    .build()
+        } as DataFetcher]])
+        def instrumentation = FieldMemoizationInstrumentation.newFieldMemoizationInstrumentation()
+                .memoize(FieldCoordinates.coordinates("Query", "a"))
+                .build()
+
+        when:
+        def er = GraphQL.newGraphQL(partialSchema).instrumentation(instrumentation).build().execute("{ a b : a }")
+
+        then:
+        calls.get() == 1
+        er.data == [a: "A", b: "A"]
+        er.errors.size() == 1
+        er.errors[0].message == "Partial"
+        er.errors[0].path == ["a"]
+    }
+
+    def "instrumentations without memoized fields leave the data fetchers alone"() {
+        def instrumentation = FieldMemoizationInstrumentation.newFieldMemoizationInstrumentation().build()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build()
+
+        when:
+        def er = graphQL.execute('{ users { friendCount(online : false) } }')
+
+        then:
+        er.errors.isEmpty()
+        friendCountCalls.get() == 3
+    }
+}
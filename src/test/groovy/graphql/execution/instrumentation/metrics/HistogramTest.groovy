@@ -0,0 +1,52 @@
+package graphql.execution.instrumentation.metrics
+
+import spock.lang.Specification
+
+class HistogramTest extends Specification {
+
+    def "bucket upper bounds are within a quarter of the values in the bucket"() {
+        expect:
+        for (long value : [0L, 1L, 3L, 4L, 5L, 7L, 8L, 9L, 100L, 1_000L, 123_456L, 999_999_999L, 1L << 41, (1L << 42) - 1]) {
+            int index = Histogram.bucketIndex(value)
+            long upperBound = Histogram.bucketUpperBound(index)
+            assert upperBound >= value
+            assert upperBound <= value + (long) (value / 4)
+            assert index == 0 || Histogram.bucketUpperBound(index - 1) < value
+        }
+        Histogram.bucketUpperBound(Histogram.bucketIndex(1L << 42)) == Long.MAX_VALUE
+        Histogram.bucketUpperBound(Histogram.bucketIndex(Long.MAX_VALUE)) == Long.MAX_VALUE
+    }
+
+    def "percentiles are read from the buckets"() {
+        def histogram = new Histogram()
+
+        when:
+        (1..100).each { histogram.record(it * 1000L) }
+
+        then:
+        histogram.count == 100
+        histogram.sum == 5_050_000L
+        histogram.max == 100_000L
+        histogram.mean == 50_500d
+        histogram.getValueAtPercentile(0) >= 1000L
+        histogram.getValueAtPercentile(50) >= 50_000L
+        histogram.getValueAtPercentile(50) <= 62_500L
+        histogram.getValueAtPercentile(99) >= 99_000L
+        histogram.getValueAtPercentile(100) == 100_000L
+
+        when:
+        histogram.reset()
+
+        then:
+        histogram.count == 0
+        histogram.getValueAtPercentile(99) == 0
+    }
+
+    def "negative values are rejected"() {
+        when:
+        new Histogram().record(-1)
+
+        then:
+        thrown(graphql.AssertException)
+    }
+}
@@ -0,0 +1,74 @@
+package graphql.execution.instrumentation.metrics
+
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.schema.DataFetcher
+import graphql.schema.FieldCoordinates
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class MetricsInstrumentationTest extends Specification {
+
+    def schema = TestUtil.schema('''
+        type Query {
+            products : [Product]
+            broken : String
+        }
+        type Product {
+            name : String
+        }
+    ''', [Query: [
+            products: { env ->
+                CompletableFuture.supplyAsync({
+                    TimeUnit.MILLISECONDS.sleep(20)
+                    [[name: "a"], [name: "b"], [name: "c"]]
+                })
+            } as DataFetcher,
+            broken  : { env -> throw new RuntimeException("Bang") } as DataFetcher,
+    ]])
+
+    def "field and phase metrics are recorded"() {
+        def registry = new InMemoryMetricsRegistry()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(new MetricsInstrumentation(registry)).build()
+
+        when:
+        graphQL.execute("{ products { name } broken }")
+        graphQL.execute("{ products { name } }")
+
+        then:
+        def products = registry.getFieldMetrics(FieldCoordinates.coordinates("Query", "products"))
+        products.fetchLatency.count == 2
+        products.fetchLatency.getValueAtPercentile(50) >= TimeUnit.MILLISECONDS.toNanos(20)
+        products.completionLatency.count == 2
+        products.listSizes.count == 2
+        products.listSizes.max == 3
+        products.errorCount == 0
+
+        def names = registry.getFieldMetrics(FieldCoordinates.coordinates("Product", "name"))
+        names.fetchLatency.count == 6
+
+        def broken = registry.getFieldMetrics(FieldCoordinates.coordinates("Query", "broken"))
+        broken.fetchLatency.count == 1
+        broken.errorCount == 1
+
+        registry.getPhaseLatency(MetricsRegistry.Phase.PARSE).count == 2
+        registry.getPhaseLatency(MetricsRegistry.Phase.VALIDATE).count == 2
+        registry.getPhaseLatency(MetricsRegistry.Phase.EXECUTE).count == 2
+        registry.getPhaseLatency(MetricsRegistry.Phase.EXECUTE).max >= TimeUnit.MILLISECONDS.toNanos(20)
+    }
+
+    def "trivial data fetchers can be left out"() {
+        def registry = new InMemoryMetricsRegistry()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(new MetricsInstrumentation(registry, false)).build()
+
+        when:
+        graphQL.execute("{ products { name } }")
+
+        then:
+        registry.getFieldMetrics(FieldCoordinates.coordinates("Query", "products")).fetchLatency.count == 1
+        // the name is fetched by the default property data fetcher, which is trivial
+        registry.getFieldMetrics(FieldCoordinates.coordinates("Product", "name")) == null
+    }
+}
@@ -0,0 +1,168 @@
+package graphql.execution.instrumentation.slowquery
+
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.schema.DataFetcher
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+class SlowQueryInstrumentationTest extends Specification {
+
+    def schema = TestUtil.schema('''
+        type Query {
+            product(id : ID) : Product
+            slow : String
+        }
+        type Product {
+            name : String
+        }
+    ''', [Query: [
+            product: { env -> [name: "product " + env.getArgument("id")] } as DataFetcher,
+            slow   : { env -> TimeUnit.MILLISECONDS.sleep(50); "slow" } as DataFetcher,
+    ]])
+
+    def captured = []
+    def directExecutor = { Runnable runnable -> runnable.run() } as Executor
+
+    def "slow queries are captured with a privacy safe query and the slowest fields"() {
+        def instrumentation = SlowQueryInstrumentation.newSlowQueryInstrumentation()
+                .latencyThreshold(Duration.ofMillis(40))
+                .sink({ slowQuery -> captured.add(slowQuery) })
+                .drainExecutor(directExecutor)
+                .build()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build()
+
+        when:
+        graphQL.execute('query Fast { product(id : "secret") { name } }')
+
+        then:
+        captured.isEmpty()
+
+        when:
+        graphQL.execute('query Slow { product(id : "secret") { name } slow }')
+
+        then:
+        captured.size() == 1
+        SlowQuery slowQuery = captured[0]
+        slowQuery.operationName == "Slow"
+        slowQuery.latencyExceeded
+        !slowQuery.complexityExceeded
+        slowQuery.complexity == -1
+        slowQuery.privacySafeQuery.contains("product")
+        !slowQuery.privacySafeQuery.contains("secret")
+        slowQuery.duration >= Duration.ofMillis(50)
+        slowQuery.parseDuration != null
+        slowQuery.validationDuration != null
+        slowQuery.executionDuration >= Duration.ofMillis(50)
+        // the name is fetched by a trivial data fetcher and is not timed
+        slowQuery.slowestFields.collect { it.path.toString() } == ["/slow", "/product"]
+        slowQuery.slowestFields[0].duration >= Duration.ofMillis(50)
+    }
+
+    def "complex queries are captured"() {
+        def instrumentation = SlowQueryInstrumentation.newSlowQueryInstrumentation()
+                .complexityThreshold(2)
+                .sink({ slowQuery -> captured.add(slowQuery) })
+                .drainExecutor(directExecutor)
+                .build()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build()
+
+        when:
+        graphQL.execute('{ product(id : "1") { name } }')
+        graphQL.execute('{ product(id : "1") { name } other : product(id : "2") { name } }')
+
+        then:
+        captured.size() == 1
+        captured[0].complexityExceeded
+        !captured[0].latencyExceeded
+        captured[0].complexity == 4
+    }
+
+    def "slow queries are dropped when the buffer is full"() {
+        def pendingDrains = []
+        def instrumentation = SlowQueryInstrumentation.newSlowQueryInstrumentation()
+                .complexityThreshold(0)
+                .bufferSize(2)
+                .sink({ slowQuery -> captured.add(slowQuery) })
+                .drainExecutor({ Runnable runnable -> pendingDrains.add(runnable) } as Executor)
+                .build()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build()
+
+        when:
+        3.times { graphQL.execute('{ product(id : "1") { name } }') }
+
+        then:
+        captured.isEmpty()
+        pendingDrains.size() == 1
+        instrumentation.droppedCount == 1
+
+        when:
+        pendingDrains[0].run()
+
+        then:
+        captured.size() == 2
+    }
+
+    def "a rejected drain is tried again by the next slow query"() {
+        def rejectNext = true
+        def instrumentation = SlowQueryInstrumentation.newSlowQueryInstrumentation()
+                .complexityThreshold(0)
+                .sink({ slowQuery -> captured.add(slowQuery) })
+                .drainExecutor({ Runnable runnable ->
+                    if (rejectNext) {
+                        rejectNext = false
+                        throw new RejectedExecutionException("full")
+                    }
+                    runnable.run()
+                } as Executor)
+                .build()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build()
+
+        when:
+        def er = graphQL.execute('{ product(id : "1") { name } }')
+
+        then:
+        er.errors.isEmpty()
+        captured.isEmpty()
+
+        when:
+        graphQL.execute('{ product(id : "2") { name } }')
+
+        then:
+        captured.size() == 2
+    }
+
+    def "a sink that throws an error does not stop the draining"() {
+        def failNext = true
+        def instrumentation = SlowQueryInstrumentation.newSlowQueryInstrumentation()
+                .complexityThreshold(0)
+                .sink({ slowQuery ->
+                    if (failNext) {
+                        failNext = false
+                        throw new AssertionError("bang")
+                    }
+                    captured.add(slowQuery)
+                })
+                .drainExecutor({ Runnable runnable ->
+                    try {
+                        runnable.run()
+                    } catch (AssertionError ignored) {
+                        // as the thread of an executor would
+                    }
+                } as Executor)
+                .build()
+        def graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build()
+
+        when:
+        graphQL.execute('{ product(id : "1") { name } }')
+        graphQL.execute('{ product(id : "2") { name } }')
+
+        then:
+        captured.size() == 1
+        !instrumentation.@draining.get()
+    }
+}
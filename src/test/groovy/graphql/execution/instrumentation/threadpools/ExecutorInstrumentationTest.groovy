@@ -1,17 +1,25 @@
 package graphql.execution.instrumentation.threadpools
 
 
+import graphql.ExecutionInput
 import graphql.TestUtil
 import graphql.schema.DataFetcher
 import graphql.schema.DataFetchingEnvironment
 import graphql.schema.DataFetchingEnvironmentImpl
+import graphql.schema.FieldCoordinates
 import graphql.schema.PropertyDataFetcher
+import org.awaitility.Awaitility
+import spock.lang.Requires
 import spock.lang.Specification
 
+import java.time.Duration
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.Executor
 import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
 import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
 import java.util.function.Consumer
 
 import static ExecutorInstrumentation.Action
@@ -208,4 +216,187 @@ class ExecutorInstrumentationTest extends Specification {
                 "PROCESSING on ProcessingThread", "PROCESSING on ProcessingThread"
         ]
     }
+
+    def "fields can be routed to their own executors"() {
+        def sdl = """
+            directive @slow on FIELD_DEFINITION
+
+            type Query {
+                field1 : String
+                field2 : String @slow
+                field3 : String
+            }
+        """
+        def SlowExecutor = Executors.newSingleThreadExecutor(threadFactory("SlowThread"))
+        def OtherExecutor = Executors.newSingleThreadExecutor(threadFactory("OtherThread"))
+        def router = FetchExecutorRouter.newFetchExecutorRouter()
+                .routeDirective("slow", SlowExecutor)
+                .route(FieldCoordinates.coordinates("Query", "field3"), OtherExecutor)
+                .build()
+        instrumentation = ExecutorInstrumentation.newThreadPoolExecutionInstrumentation()
+                .fetchExecutor(FetchExecutor)
+                .fetchExecutorRouter(router)
+                .build()
+
+        DataFetcher df = { env -> currentThread().getName() }
+        def graphQL = TestUtil.graphQL(sdl, [Query: [field1: df, field2: df, field3: df]]).instrumentation(instrumentation).build()
+
+        when:
+        def er = graphQL.execute("{field1, field2, field3}")
+
+        then:
+        er.errors.isEmpty()
+        er.data == [field1: "FetchThread", field2: "SlowThread", field3: "OtherThread"]
+
+        cleanup:
+        SlowExecutor.shutdownNow()
+        OtherExecutor.shutdownNow()
+    }
+
+    def "a full bulkhead fails the field straight away"() {
+        def sdl = """
+            type Query {
+                blocked : String
+                rejected : String
+            }
+        """
+        def release = new CountDownLatch(1)
+        def bulkhead = new Bulkhead("backend", FetchExecutor, 1, 0)
+        instrumentation = ExecutorInstrumentation.newThreadPoolExecutionInstrumentation()
+                .fetchExecutorRouter({ parameters -> bulkhead })
+                .build()
+
+        DataFetcher blockedDF = { env ->
+            release.await()
+            "blocked"
+        }
+        DataFetcher rejectedDF = { env -> "rejected" }
+        def graphQL = TestUtil.graphQL(sdl, [Query: [blocked: blockedDF, rejected: rejectedDF]]).instrumentation(instrumentation).build()
+
+        when:
+        def erCF = graphQL.executeAsync(ExecutionInput.newExecutionInput("{blocked, rejected}").build())
+
+        then:
+        Awaitility.await().untilAsserted({ assert bulkhead.getInFlight() == 1 })
+
+        when:
+        release.countDown()
+        def er = erCF.join()
+
+        then:
+        er.data == [blocked: "blocked", rejected: null]
+        er.errors.size() == 1
+        er.errors[0] instanceof FetchRejectedError
+        er.errors[0].path == ["rejected"]
+        er.errors[0].extensions == [bulkhead: "backend"]
+        bulkhead.getInFlight() == 0
+    }
+
+    def "a queued fetch that the delegate of a bulkhead rejects fails its own field"() {
+        def sdl = """
+            type Query {
+                blocked : String
+                queued : String
+            }
+        """
+        def release = new CountDownLatch(1)
+        def executeCount = 0
+        // runs the first task and rejects all later ones, which happens when the queued fetch is handed on
+        Executor delegate = { Runnable task ->
+            if (executeCount++ > 0) {
+                throw new RejectedExecutionException("shut down")
+            }
+            FetchExecutor.execute(task)
+        }
+        def bulkhead = new Bulkhead("backend", delegate, 1, 1)
+        instrumentation = ExecutorInstrumentation.newThreadPoolExecutionInstrumentation()
+                .fetchExecutorRouter({ parameters -> bulkhead })
+                .build()
+
+        DataFetcher blockedDF = { env ->
+            release.await()
+            "blocked"
+        }
+        DataFetcher queuedDF = { env -> "queued" }
+        def graphQL = TestUtil.graphQL(sdl, [Query: [blocked: blockedDF, queued: queuedDF]]).instrumentation(instrumentation).build()
+
+        when:
+        def erCF = graphQL.executeAsync(ExecutionInput.newExecutionInput("{blocked, queued}").build())
+
+        then:
+        Awaitility.await().untilAsserted({ assert bulkhead.getInFlight() == 2 })
+
+        when:
+        release.countDown()
+        def er = erCF.get(10, TimeUnit.SECONDS)
+
+        then:
+        er.data == [blocked: "blocked", queued: null]
+        er.errors.size() == 1
+        er.errors[0] instanceof FetchRejectedError
+        er.errors[0].path == ["queued"]
+        er.errors[0].message.contains("shut down")
+        bulkhead.getInFlight() == 0
+    }
+
+    def "a queued plain task that the delegate of a bulkhead rejects still runs"() {
+        def release = new CountDownLatch(1)
+        def ran = new CountDownLatch(1)
+        def executeCount = 0
+        Executor delegate = { Runnable task ->
+            if (executeCount++ > 0) {
+                throw new RejectedExecutionException("shut down")
+            }
+            FetchExecutor.execute(task)
+        }
+        def bulkhead = new Bulkhead("backend", delegate, 1, 1)
+
+        when:
+        bulkhead.execute({ release.await() })
+        bulkhead.execute({ ran.countDown() })
+        release.countDown()
+
+        then:
+        ran.await(10, TimeUnit.SECONDS)
+        Awaitility.await().untilAsserted({ assert bulkhead.getInFlight() == 0 })
+    }
+
+    def "the delegate of a bulkhead rejecting the task of the caller is thrown to that caller"() {
+        def bulkhead = new Bulkhead("backend", { Runnable task -> throw new RejectedExecutionException("shut down") } as Executor, 1, 1)
+
+        when:
+        bulkhead.execute({})
+
+        then:
+        def e = thrown(RejectedExecutionException)
+        e.message == "shut down"
+        bulkhead.getInFlight() == 0
+    }
+
+    @Requires({ VirtualThreads.isSupported() })
+    def "fetches can run on virtual threads"() {
+        when:
+        instrumentation = ExecutorInstrumentation.newThreadPoolExecutionInstrumentation().fetchOnVirtualThreads().build()
+        DataFetcher df = { env -> currentThread().isVirtual() }
+        def modifiedDataFetcher = instrumentation.instrumentDataFetcher(df, null, null)
+        def value = asCF(modifiedDataFetcher.get(null)).join()
+
+        then:
+        value == true
+    }
+
+    @Requires({ !VirtualThreads.isSupported() })
+    def "without virtual threads the fetches stay where they are"() {
+        when:
+        instrumentation = ExecutorInstrumentation.newThreadPoolExecutionInstrumentation().fetchOnVirtualThreads().build()
+        def pinningMonitor = VirtualThreads.startPinningMonitor(Duration.ofMillis(1))
+
+        then:
+        instrumentation.getFetchExecutor() == null
+        !pinningMonitor.isRunning()
+        pinningMonitor.getPinnedCount() == 0
+
+        cleanup:
+        pinningMonitor?.close()
+    }
 }
@@ -4,10 +4,14 @@ import graphql.execution.pubsub.CapturingSubscriber
 import io.reactivex.Flowable
 import org.awaitility.Awaitility
 import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
 import spock.lang.Specification
 
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.CompletionStage
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
 import java.util.function.Function
 
 class CompletionStageMappingPublisherTest extends Specification {
@@ -141,6 +145,126 @@ class CompletionStageMappingPublisherTest extends Specification {
         capturingSubscriber.events[0] == "0"
     }
 
+    def "ordered mode publishes in upstream order"() {
+
+        when:
+        Publisher<Integer> rxIntegers = Flowable.range(0, 10)
+
+        // the earlier integers take the longest to map
+        def mapper = new Function<Integer, CompletionStage<String>>() {
+            @Override
+            CompletionStage<String> apply(Integer integer) {
+                return CompletableFuture.supplyAsync({
+                    Thread.sleep((10 - integer) * 10)
+                    return String.valueOf(integer)
+                })
+            }
+        }
+        Publisher<String> rxStrings = new CompletionStageMappingPublisher<String, Integer>(rxIntegers, mapper, 5, true)
+
+        def capturingSubscriber = new UnboundedSubscriber()
+        rxStrings.subscribe(capturingSubscriber)
+
+        then:
+
+        Awaitility.await().untilTrue(capturingSubscriber.isDone())
+
+        capturingSubscriber.events == ["0", "1", "2", "3", "4", "5", "6", "7", "8", "9"]
+    }
+
+    def "max concurrency bounds the stages in flight"() {
+
+        when:
+        def requests = []
+        Publisher<Integer> rxIntegers = Flowable.range(0, 20).doOnRequest({ n -> requests.add(n) })
+
+        def inFlight = new AtomicInteger()
+        def maxInFlight = new AtomicInteger()
+        def mapper = new Function<Integer, CompletionStage<String>>() {
+            @Override
+            CompletionStage<String> apply(Integer integer) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), { a, b -> Math.max(a, b) })
+                return CompletableFuture.supplyAsync({
+                    Thread.sleep(10)
+                    inFlight.decrementAndGet()
+                    return String.valueOf(integer)
+                })
+            }
+        }
+        Publisher<String> rxStrings = new CompletionStageMappingPublisher<String, Integer>(rxIntegers, mapper, 3, false)
+
+        def capturingSubscriber = new UnboundedSubscriber()
+        rxStrings.subscribe(capturingSubscriber)
+
+        then:
+
+        Awaitility.await().untilTrue(capturingSubscriber.isDone())
+
+        capturingSubscriber.events.size() == 20
+        maxInFlight.get() <= 3
+        requests[0] == 3
+        requests.every { it <= 3 }
+    }
+
+    def "upstream is only asked for what downstream requested"() {
+
+        when:
+        def requested = new AtomicLong()
+        Publisher<Integer> rxIntegers = Flowable.range(0, 10).doOnRequest({ n -> requested.addAndGet(n) })
+
+        Publisher<String> rxStrings = new CompletionStageMappingPublisher<String, Integer>(rxIntegers, mapperThatDelaysFor(0))
+
+        Subscription subscription = null
+        def events = []
+        rxStrings.subscribe(new Subscriber<String>() {
+            @Override
+            void onSubscribe(Subscription s) {
+                subscription = s
+            }
+
+            @Override
+            void onNext(String s) {
+                events.add(s)
+            }
+
+            @Override
+            void onError(Throwable t) {
+            }
+
+            @Override
+            void onComplete() {
+            }
+        })
+        subscription.request(2)
+
+        then:
+
+        Awaitility.await().untilAsserted({ assert events.size() == 2 })
+        requested.get() == 2
+
+        when:
+        subscription.request(3)
+
+        then:
+
+        Awaitility.await().untilAsserted({ assert events.size() == 5 })
+        requested.get() == 5
+    }
+
+    static class UnboundedSubscriber extends CapturingSubscriber<Object> {
+        @Override
+        void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE)
+        }
+
+        @Override
+        void onNext(Object o) {
+            synchronized (getEvents()) {
+                getEvents().add(o)
+            }
+        }
+    }
+
     Function<Integer, CompletionStage<String>> mapperThatDelaysFor(int delay) {
         def mapper = new Function<Integer, CompletionStage<String>>() {
             @Override
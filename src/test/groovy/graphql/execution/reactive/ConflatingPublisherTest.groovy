@@ -0,0 +1,151 @@
+package graphql.execution.reactive
+
+import graphql.execution.pubsub.CapturingSubscriber
+import io.reactivex.Flowable
+import org.awaitility.Awaitility
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.Executors
+import java.util.function.Function
+
+class ConflatingPublisherTest extends Specification {
+
+    static class ManualSubscriber implements Subscriber<String> {
+        Subscription subscription
+        List<String> events = []
+        boolean done
+        Throwable throwable
+
+        @Override
+        void onSubscribe(Subscription subscription) {
+            this.subscription = subscription
+        }
+
+        @Override
+        void onNext(String s) {
+            synchronized (events) {
+                events.add(s)
+            }
+        }
+
+        @Override
+        void onError(Throwable t) {
+            throwable = t
+            done = true
+        }
+
+        @Override
+        void onComplete() {
+            done = true
+        }
+    }
+
+    // "AAPL:1" is keyed by "AAPL"
+    static Function<String, Object> symbol = { String tick -> tick.split(":")[0] } as Function<String, Object>
+
+    def "events are conflated by key while there is no demand"() {
+        def source = new SingleSubscriberPublisher<String>()
+        def conflating = new ConflatingPublisher<String>(source, symbol, null, null)
+        def subscriber = new ManualSubscriber()
+
+        when:
+        conflating.subscribe(subscriber)
+        source.offer("AAPL:1")
+        source.offer("MSFT:1")
+        source.offer("AAPL:2")
+        source.offer("AAPL:3")
+
+        then:
+        subscriber.events == []
+
+        when:
+        subscriber.subscription.request(1)
+
+        then:
+        // the key keeps its place but has the latest value
+        subscriber.events == ["AAPL:3"]
+
+        when:
+        source.offer("MSFT:2")
+        subscriber.subscription.request(5)
+
+        then:
+        subscriber.events == ["AAPL:3", "MSFT:2"]
+
+        when:
+        source.offer("AAPL:4")
+
+        then:
+        subscriber.events == ["AAPL:3", "MSFT:2", "AAPL:4"]
+    }
+
+    def "pending events are published before completion"() {
+        def conflating = new ConflatingPublisher<String>(Flowable.fromArray("AAPL:1", "MSFT:1", "AAPL:2"), symbol, null, null)
+        def subscriber = new ManualSubscriber()
+
+        when:
+        conflating.subscribe(subscriber)
+
+        then:
+        subscriber.events == []
+        !subscriber.done
+
+        when:
+        subscriber.subscription.request(10)
+
+        then:
+        subscriber.events == ["AAPL:2", "MSFT:1"]
+        subscriber.done
+        subscriber.throwable == null
+    }
+
+    def "events are released once per interval"() {
+        def scheduler = Executors.newSingleThreadScheduledExecutor()
+        def source = new SingleSubscriberPublisher<String>()
+        def conflating = new ConflatingPublisher<String>(source, symbol, Duration.ofMillis(100), scheduler)
+        def subscriber = new ManualSubscriber()
+
+        when:
+        conflating.subscribe(subscriber)
+        subscriber.subscription.request(Long.MAX_VALUE)
+        (1..50).each { source.offer("AAPL:" + it) }
+        source.offer("MSFT:1")
+
+        then:
+        Awaitility.await().untilAsserted({ assert subscriber.events == ["AAPL:50", "MSFT:1"] })
+
+        when:
+        source.offer("AAPL:51")
+        source.noMoreData()
+
+        then:
+        Awaitility.await().untilAsserted({ assert subscriber.done })
+        subscriber.events == ["AAPL:50", "MSFT:1", "AAPL:51"]
+
+        cleanup:
+        scheduler.shutdownNow()
+    }
+
+    def "key function exceptions cancel the upstream"() {
+        def cancelled = false
+        def source = Flowable.fromArray("AAPL:1", "BANG", "AAPL:2").doOnCancel({ cancelled = true })
+        def keyFunction = { String tick ->
+            if (tick == "BANG") {
+                throw new RuntimeException("Bang")
+            }
+            tick
+        } as Function<String, Object>
+        def subscriber = new CapturingSubscriber<String>()
+
+        when:
+        new ConflatingPublisher<String>(source, keyFunction, null, null).subscribe(subscriber)
+
+        then:
+        subscriber.events == ["AAPL:1"]
+        subscriber.throwable.message == "Bang"
+        cancelled
+    }
+}
@@ -0,0 +1,281 @@
+package graphql.execution.reactive
+
+import graphql.ExecutionInput
+import graphql.ExecutionResult
+import graphql.GraphQL
+import graphql.TestUtil
+import graphql.execution.SimpleDataFetcherExceptionHandler
+import graphql.execution.SubscriptionExecutionStrategy
+import graphql.execution.pubsub.CapturingSubscriber
+import graphql.execution.pubsub.Message
+import graphql.schema.DataFetcher
+import graphql.schema.idl.RuntimeWiring
+import org.awaitility.Awaitility
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring
+
+class SubscriptionMultiplexerTest extends Specification {
+
+    def idl = """
+            type Query {
+                name : String
+            }
+
+            type Message {
+                sender : String!
+                text : String!
+            }
+
+            type Subscription {
+                newMessage(roomId:Int) : Message
+            }
+        """
+
+    Publisher<Object> source = new SingleSubscriberPublisher<Object>()
+    def textFetches = new AtomicInteger()
+
+    GraphQL graphQL(SubscriptionMultiplexer multiplexer) {
+        DataFetcher newMessageDF = { env -> source }
+        DataFetcher textDF = { env ->
+            textFetches.incrementAndGet()
+            (env.getSource() as Message).text
+        }
+        RuntimeWiring runtimeWiring = RuntimeWiring.newRuntimeWiring()
+                .type(newTypeWiring("Subscription").dataFetcher("newMessage", newMessageDF))
+                .type(newTypeWiring("Message").dataFetcher("text", textDF))
+                .build()
+        return TestUtil.graphQL(idl, runtimeWiring)
+                .subscriptionExecutionStrategy(new SubscriptionExecutionStrategy(new SimpleDataFetcherExceptionHandler(), multiplexer))
+                .build()
+    }
+
+    static SubscriptionMultiplexer multiplexer() {
+        SubscriptionMultiplexer.newSubscriptionMultiplexer()
+                .partitionKey({ executionContext -> executionContext.getGraphQLContext().getOrDefault("tenant", "none") })
+                .build()
+    }
+
+    static CapturingSubscriber<ExecutionResult> subscribe(GraphQL graphQL, String query, Map<String, Object> variables = [:], String tenant = "a") {
+        def executionInput = ExecutionInput.newExecutionInput(query)
+                .variables(variables)
+                .graphQLContext([tenant: tenant])
+                .build()
+        Publisher<ExecutionResult> publisher = graphQL.execute(executionInput).getData()
+        def subscriber = new CapturingSubscriber<ExecutionResult>()
+        publisher.subscribe(subscriber)
+        subscriber
+    }
+
+    def "identical subscriptions execute each event once"() {
+        def multiplexer = multiplexer()
+        def graphQL = graphQL(multiplexer)
+        def query = 'subscription NewMessages { newMessage(roomId: 123) { sender text } }'
+
+        when:
+        def subscribers = (1..3).collect { subscribe(graphQL, query) }
+
+        then:
+        multiplexer.getGroupCount() == 1
+        multiplexer.getSubscriberCount() == 3
+
+        when:
+        source.offer(new Message("sender0", "text0"))
+        source.offer(new Message("sender1", "text1"))
+
+        then:
+        Awaitility.await().untilAsserted({ assert subscribers.every { it.events.size() == 2 } })
+        textFetches.get() == 2
+        subscribers.every {
+            it.events.collect { er -> er.data } == [
+                    [newMessage: [sender: "sender0", text: "text0"]],
+                    [newMessage: [sender: "sender1", text: "text1"]],
+            ]
+        }
+
+        when:
+        source.noMoreData()
+
+        then:
+        Awaitility.await().untilAsserted({ assert subscribers.every { it.isDone().get() } })
+        multiplexer.getGroupCount() == 0
+    }
+
+    def "documents that only differ in formatting share a group"() {
+        def multiplexer = multiplexer()
+        def graphQL = graphQL(multiplexer)
+
+        when:
+        subscribe(graphQL, 'subscription NewMessages { newMessage(roomId: 123) { sender text } }')
+        subscribe(graphQL, '''
+            subscription NewMessages {
+                newMessage(roomId: 123) {
+                    sender
+                    text
+                }
+            }
+        ''')
+
+        then:
+        multiplexer.getGroupCount() == 1
+        multiplexer.getSubscriberCount() == 2
+    }
+
+    def "different variables or partition keys are not shared"() {
+        def multiplexer = multiplexer()
+        def graphQL = graphQL(multiplexer)
+        def query = 'subscription NewMessages($roomId: Int) { newMessage(roomId: $roomId) { sender text } }'
+        // several groups subscribe to the source, which a single subscriber publisher does not allow
+        source = { Subscriber subscriber ->
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                void request(long n) {
+                }
+
+                @Override
+                void cancel() {
+                }
+            })
+        } as Publisher<Object>
+
+        when:
+        subscribe(graphQL, query, [roomId: 1], "a")
+        subscribe(graphQL, query, [roomId: 2], "a")
+        subscribe(graphQL, query, [roomId: 1], "b")
+        subscribe(graphQL, query, [roomId: 1], "a")
+
+        then:
+        multiplexer.getGroupCount() == 3
+        multiplexer.getSubscriberCount() == 4
+    }
+
+    def "the group is removed when the last subscriber cancels"() {
+        def multiplexer = multiplexer()
+        def graphQL = graphQL(multiplexer)
+        def query = 'subscription NewMessages { newMessage(roomId: 123) { sender text } }'
+
+        def subscriber1 = subscribe(graphQL, query)
+        def subscriber2 = subscribe(graphQL, query)
+
+        when:
+        subscriber1.subscription.cancel()
+        source.offer(new Message("sender0", "text0"))
+
+        then:
+        Awaitility.await().untilAsserted({ assert subscriber2.events.size() == 1 })
+        subscriber1.events.isEmpty()
+        multiplexer.getGroupCount() == 1
+        multiplexer.getSubscriberCount() == 1
+
+        when:
+        subscriber2.subscription.cancel()
+
+        then:
+        multiplexer.getGroupCount() == 0
+        multiplexer.getSubscriberCount() == 0
+    }
+
+    def "a subscriber that does not request is failed when its buffer overflows"() {
+        def multiplexer = SubscriptionMultiplexer.newSubscriptionMultiplexer()
+                .partitionKey({ executionContext -> "all" })
+                .maxBufferedEvents(1)
+                .build()
+        def graphQL = graphQL(multiplexer)
+        def query = 'subscription NewMessages { newMessage(roomId: 123) { sender text } }'
+
+        def fastSubscriber = subscribe(graphQL, query)
+        def slowSubscriber = new CapturingSubscriber<ExecutionResult>() {
+            @Override
+            void onNext(ExecutionResult executionResult) {
+                // never asks for more
+                getEvents().add(executionResult)
+            }
+        }
+        Publisher<ExecutionResult> publisher = graphQL.execute(query).getData()
+        publisher.subscribe(slowSubscriber)
+
+        when:
+        (0..3).each { source.offer(new Message("sender" + it, "text" + it)) }
+
+        then:
+        Awaitility.await().untilAsserted({ assert fastSubscriber.events.size() == 4 })
+        slowSubscriber.events.size() == 1
+        slowSubscriber.throwable instanceof SubscriptionMultiplexer.SubscriberOverflowException
+        multiplexer.getSubscriberCount() == 1
+    }
+
+    def "events are executed in the context of a subscriber that is still there"() {
+        def multiplexer = SubscriptionMultiplexer.newSubscriptionMultiplexer()
+                .partitionKey({ executionContext -> "all" })
+                .build()
+        def executedFor = []
+        DataFetcher newMessageDF = { env -> source }
+        DataFetcher textDF = { env ->
+            executedFor.add(env.getGraphQlContext().get("subscriber"))
+            (env.getSource() as Message).text
+        }
+        RuntimeWiring runtimeWiring = RuntimeWiring.newRuntimeWiring()
+                .type(newTypeWiring("Subscription").dataFetcher("newMessage", newMessageDF))
+                .type(newTypeWiring("Message").dataFetcher("text", textDF))
+                .build()
+        def graphQL = TestUtil.graphQL(idl, runtimeWiring)
+                .subscriptionExecutionStrategy(new SubscriptionExecutionStrategy(new SimpleDataFetcherExceptionHandler(), multiplexer))
+                .build()
+        def query = 'subscription NewMessages { newMessage(roomId: 123) { sender text } }'
+        def subscribers = ["first", "second"].collect { name ->
+            Publisher<ExecutionResult> publisher = graphQL.execute(ExecutionInput.newExecutionInput(query).graphQLContext([subscriber: name])).getData()
+            def subscriber = new CapturingSubscriber<ExecutionResult>()
+            publisher.subscribe(subscriber)
+            subscriber
+        }
+
+        when:
+        source.offer(new Message("sender0", "text0"))
+
+        then:
+        Awaitility.await().untilAsserted({ assert subscribers.every { it.events.size() == 1 } })
+        executedFor == ["first"]
+
+        when:
+        subscribers[0].subscription.cancel()
+        source.offer(new Message("sender1", "text1"))
+
+        then:
+        Awaitility.await().untilAsserted({ assert subscribers[1].events.size() == 2 })
+        executedFor == ["first", "second"]
+        subscribers[0].events.size() == 1
+    }
+
+    def "different locales are not shared"() {
+        def multiplexer = multiplexer()
+        def graphQL = graphQL(multiplexer)
+        def query = 'subscription NewMessages { newMessage(roomId: 123) { sender text } }'
+        // several groups subscribe to the source, which a single subscriber publisher does not allow
+        source = { Subscriber subscriber ->
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                void request(long n) {
+                }
+
+                @Override
+                void cancel() {
+                }
+            })
+        } as Publisher<Object>
+
+        when:
+        [Locale.ENGLISH, Locale.GERMAN, Locale.ENGLISH].each { locale ->
+            Publisher<ExecutionResult> publisher = graphQL.execute(ExecutionInput.newExecutionInput(query).locale(locale)).getData()
+            publisher.subscribe(new CapturingSubscriber<ExecutionResult>())
+        }
+
+        then:
+        multiplexer.getGroupCount() == 2
+        multiplexer.getSubscriberCount() == 3
+    }
+}
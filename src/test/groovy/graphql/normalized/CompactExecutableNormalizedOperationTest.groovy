@@ -0,0 +1,116 @@
+package graphql.normalized
+
+import graphql.TestUtil
+import graphql.execution.CoercedVariables
+import graphql.language.Field
+import graphql.language.OperationDefinition
+import graphql.util.TraversalControl
+import graphql.util.Traverser
+import graphql.util.TraverserContext
+import graphql.util.TraverserVisitorStub
+import spock.lang.Specification
+
+import static graphql.schema.FieldCoordinates.coordinates
+
+class CompactExecutableNormalizedOperationTest extends Specification {
+
+    def schema = TestUtil.schema("""
+        type Query {
+            pets(first: Int): [Pet]
+            dog: Dog
+        }
+        interface Pet {
+            name: String
+            friends: [Pet]
+        }
+        type Dog implements Pet {
+            name: String
+            friends: [Pet]
+            barks: Boolean
+        }
+        type Cat implements Pet {
+            name: String
+            friends: [Pet]
+            meows: Boolean
+        }
+    """)
+
+    def query = '''
+        {
+            pets(first: 10) {
+                name
+                friends { petName: name ... on Dog { barks } }
+                ... on Cat { meows }
+            }
+            dog { name }
+        }
+    '''
+
+    static List<String> printTree(ExecutableNormalizedOperation operation) {
+        def result = []
+        Traverser<ExecutableNormalizedField> traverser = Traverser.depthFirst({ it.getChildren() })
+        traverser.traverse(operation.getTopLevelFields(), new TraverserVisitorStub<ExecutableNormalizedField>() {
+            @Override
+            TraversalControl enter(TraverserContext<ExecutableNormalizedField> context) {
+                ExecutableNormalizedField field = context.thisNode()
+                result << (field.getAlias() + " " + field.getFieldName() + " " + field.getObjectTypeNames().toSorted() + " " +
+                        field.getResolvedArguments() + " " + field.getLevel() + " " + field.getListOfResultKeys())
+                return TraversalControl.CONTINUE
+            }
+        })
+        result
+    }
+
+    def "compact operation keeps the tree and the lookups"() {
+        def document = TestUtil.parseQuery(query)
+        def operation = ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(schema, document, null, CoercedVariables.emptyVariables())
+
+        when:
+        def compact = CompactExecutableNormalizedOperation.compact(operation)
+        def pets = compact.topLevelFields[0]
+        def dog = compact.topLevelFields[1]
+
+        then:
+        compact.fieldCount == 8
+        compact.topLevelFields.collect { it.printDetails() } == ["Query.pets", "Query.dog"]
+        pets.resolvedArguments == [first: 10]
+        pets.astArguments.size() == 1
+        pets.children.collect { it.printDetails() } == operation.topLevelFields[0].children.collect { it.printDetails() }
+        pets.children.every { it.parent == pets && it.level == 2 }
+        dog.children.collect { it.printDetails() } == ["Dog.name"]
+        dog.parent == null
+
+        def friends = pets.children.find { it.fieldName == "friends" }
+        friends.objectTypeNames == ["Cat", "Dog"] as Set
+        def petName = friends.children.find { it.resultKey == "petName" }
+        petName.listOfResultKeys == ["pets", "friends", "petName"]
+        petName.level == 3
+        petName.hasObjectTypeName("Dog")
+        petName.hasObjectTypeName("Cat")
+        !petName.hasObjectTypeName("Query")
+
+        compact.getNormalizedFields(coordinates("Dog", "barks")).size() == 1
+        compact.getNormalizedFields(coordinates("Cat", "name")).size() == 2
+        compact.getNormalizedFields(coordinates("Query", "dog")) == [dog]
+        compact.getNormalizedFields(coordinates("Query", "unknown")).isEmpty()
+
+        def nameField = document.getDefinitionsOfType(OperationDefinition)[0]
+                .selectionSet.selections[0].selectionSet.selections[0] as Field
+        compact.getNormalizedFields(nameField).collect { it.printDetails() } == operation.getNormalizedFields(nameField).collect { it.printDetails() }
+        pets.mergedField.is(operation.getMergedField(operation.topLevelFields[0]))
+    }
+
+    def "compact operation can be turned back into an executable normalized operation"() {
+        def document = TestUtil.parseQuery(query)
+        def operation = ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(schema, document, null, CoercedVariables.emptyVariables())
+
+        when:
+        def inflated = CompactExecutableNormalizedOperation.compact(operation).toExecutableNormalizedOperation()
+
+        then:
+        printTree(inflated) == printTree(operation)
+        inflated.fieldToNormalizedField.size() == operation.fieldToNormalizedField.size()
+        inflated.coordinatesToNormalizedFields.keySet() == operation.coordinatesToNormalizedFields.keySet()
+        inflated.normalizedFieldToMergedField.keySet().every { it.parent == null || inflated.normalizedFieldToMergedField.containsKey(it.parent) }
+    }
+}
@@ -18,6 +18,8 @@ import graphql.util.TraverserContext
 import graphql.util.TraverserVisitorStub
 import spock.lang.Specification
 
+import java.util.concurrent.ForkJoinPool
+
 import static graphql.TestUtil.schema
 import static graphql.language.AstPrinter.printAst
 import static graphql.parser.Parser.parseValue
@@ -882,6 +884,70 @@ type Dog implements Animal{
         ]
     }
 
+    def "building in parallel gives the same operation as building sequentially"() {
+        String schema = """
+        type Query {
+            pets: [Pet]
+            dog: Dog
+            cat: Cat
+        }
+        interface Pet {
+            name: String
+            friends: [Pet]
+        }
+        type Dog implements Pet {
+            name: String
+            friends: [Pet]
+            barks: Boolean
+        }
+        type Cat implements Pet {
+            name: String
+            friends: [Pet]
+            meows: Boolean
+        }
+        """
+        GraphQLSchema graphQLSchema = TestUtil.schema(schema)
+
+        String query = """
+        {
+            pets {
+                ... on Dog { name friends { ...PetFragment } }
+                ... on Cat { name friends { ...PetFragment } }
+            }
+            dog { ...PetFragment barks }
+            cat { ...PetFragment meows }
+            otherPets: pets { ...PetFragment }
+        }
+        fragment PetFragment on Pet {
+            name
+            ... on Dog { barks }
+            ... on Cat { meows }
+        }
+        """
+        assertValidQuery(graphQLSchema, query)
+        Document document = TestUtil.parseQuery(query)
+        def forkJoinPool = new ForkJoinPool(4)
+
+        when:
+        def sequential = ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(graphQLSchema, document, null, CoercedVariables.emptyVariables())
+        def parallel = ExecutableNormalizedOperationFactory.createExecutableNormalizedOperationInParallel(graphQLSchema, document, null, CoercedVariables.emptyVariables(), forkJoinPool)
+
+        then:
+        printTreeWithLevelInfo(parallel, graphQLSchema) == printTreeWithLevelInfo(sequential, graphQLSchema)
+        printLookups(parallel) == printLookups(sequential)
+
+        cleanup:
+        forkJoinPool.shutdown()
+    }
+
+    static List<String> printLookups(ExecutableNormalizedOperation operation) {
+        def result = []
+        operation.getFieldToNormalizedField().entries().each { result << (printAst(it.key) + " -> " + it.value.printDetails()) }
+        operation.getNormalizedFieldToMergedField().each { result << (it.key.printDetails() + " -> " + it.value.fields.size()) }
+        operation.getCoordinatesToNormalizedFields().entries().each { result << (it.key.toString() + " -> " + it.value.printDetails()) }
+        result
+    }
+
     List<String> printTree(ExecutableNormalizedOperation queryExecutionTree) {
         def result = []
         Traverser<ExecutableNormalizedField> traverser = Traverser.depthFirst({ it.getChildren() })
@@ -0,0 +1,156 @@
+package graphql.normalized
+
+import graphql.TestUtil
+import graphql.execution.CoercedVariables
+import graphql.language.Document
+import graphql.language.NodeUtil
+import graphql.schema.GraphQLSchema
+import graphql.util.TraversalControl
+import graphql.util.Traverser
+import graphql.util.TraverserContext
+import graphql.util.TraverserVisitorStub
+import spock.lang.Specification
+
+class ParametricExecutableNormalizedOperationTest extends Specification {
+
+    def schema = TestUtil.schema("""
+        type Query {
+            pets(first: Int, filter: Filter): [Pet]
+        }
+        input Filter {
+            names: [String]
+        }
+        interface Pet {
+            name(upper: Boolean): String
+        }
+        type Dog implements Pet {
+            name(upper: Boolean): String
+            barks: Boolean
+        }
+        type Cat implements Pet {
+            name(upper: Boolean): String
+            meows: Boolean
+        }
+    """)
+
+    static ParametricExecutableNormalizedOperation parametric(GraphQLSchema schema, Document document) {
+        def getOperationResult = NodeUtil.getOperation(document, null)
+        ParametricExecutableNormalizedOperation.createParametricExecutableNormalizedOperation(schema, getOperationResult.operationDefinition, getOperationResult.fragmentsByName)
+    }
+
+    static List<String> printTree(ExecutableNormalizedOperation operation) {
+        def result = []
+        Traverser<ExecutableNormalizedField> traverser = Traverser.depthFirst({ it.getChildren() })
+        traverser.traverse(operation.getTopLevelFields(), new TraverserVisitorStub<ExecutableNormalizedField>() {
+            @Override
+            TraversalControl enter(TraverserContext<ExecutableNormalizedField> context) {
+                ExecutableNormalizedField field = context.thisNode()
+                result << (field.printDetails() + " " + field.getResolvedArguments() + " " + field.getListOfResultKeys())
+                return TraversalControl.CONTINUE
+            }
+        })
+        result
+    }
+
+    def "conditional variables decide which operation is shared"() {
+        def document = TestUtil.parseQuery('''
+            query q($withName: Boolean!, $noBarks: Boolean!) {
+                pets {
+                    name @include(if: $withName)
+                    ... on Dog @skip(if: $noBarks) { barks }
+                    ... on Cat { meows }
+                }
+            }
+        ''')
+        def parametric = parametric(schema, document)
+
+        when:
+        def variables1 = CoercedVariables.of([withName: true, noBarks: false])
+        def variables2 = CoercedVariables.of([withName: false, noBarks: false])
+        def operation1 = parametric.specialize(variables1)
+        def operation2 = parametric.specialize(variables2)
+
+        then:
+        parametric.conditionalVariables == ["withName", "noBarks"]
+        !parametric.hasVariableArguments()
+
+        printTree(operation1) == printTree(ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(schema, document, null, variables1))
+        printTree(operation2) == printTree(ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(schema, document, null, variables2))
+        printTree(operation1) != printTree(operation2)
+
+        parametric.specialize(CoercedVariables.of([withName: true, noBarks: false])).is(operation1)
+        parametric.specialize(CoercedVariables.of([withName: false, noBarks: false])).is(operation2)
+    }
+
+    def "variable arguments are resolved per specialization"() {
+        def document = TestUtil.parseQuery('''
+            query q($first: Int, $names: [String], $upper: Boolean) {
+                pets(first: $first, filter: {names: $names}) {
+                    name(upper: $upper)
+                    ... on Dog { name(upper: $upper) barks }
+                }
+            }
+        ''')
+        def parametric = parametric(schema, document)
+
+        when:
+        def variables1 = CoercedVariables.of([first: 1, names: ["a"], upper: true])
+        def variables2 = CoercedVariables.of([first: 2, names: ["b", "c"], upper: false])
+        def operation1 = parametric.specialize(variables1)
+        def operation2 = parametric.specialize(variables2)
+        def operation3 = parametric.specialize(variables1)
+
+        then:
+        parametric.hasVariableArguments()
+
+        printTree(operation1) == printTree(ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(schema, document, null, variables1))
+        printTree(operation2) == printTree(ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(schema, document, null, variables2))
+        printTree(operation3) == printTree(operation1)
+        !operation3.is(operation1)
+
+        operation2.topLevelFields[0].resolvedArguments == [first: 2, filter: [names: ["b", "c"]]]
+    }
+
+    def "specialized copies keep the lookups consistent"() {
+        def document = TestUtil.parseQuery('''
+            query q($first: Int) {
+                pets(first: $first) {
+                    name
+                }
+            }
+        ''')
+        def parametric = parametric(schema, document)
+
+        when:
+        parametric.specialize(CoercedVariables.of([first: 1]))
+        def operation = parametric.specialize(CoercedVariables.of([first: 2]))
+        def pets = operation.topLevelFields[0]
+        def name = pets.children[0]
+
+        then:
+        operation.getFieldToNormalizedField().values().every { it.is(pets) || it.is(name) }
+        operation.getCoordinatesToNormalizedFields().values().every { it.is(pets) || it.is(name) }
+        operation.getNormalizedFieldToMergedField().keySet().every { it.is(pets) || it.is(name) }
+        name.parent.is(pets)
+        pets.resolvedArguments == [first: 2]
+    }
+
+    def "only so many operations are kept per parametric operation"() {
+        def names = (0..<7).collect { "c" + it }
+        def document = TestUtil.parseQuery("query q(" + names.collect { "\$" + it + ": Boolean!" }.join(", ") + ") { pets { " +
+                names.collect { "name_" + it + ": name @include(if: \$" + it + ")" }.join(" ") + " } }")
+        def parametric = parametric(schema, document)
+        // all the 128 combinations of the seven conditions
+        def allVariables = (0..<128).collect { bits -> CoercedVariables.of(names.withIndex().collectEntries { name, i -> [name, ((bits >> i) & 1) == 1] }) }
+
+        when:
+        def operations = allVariables.collect { parametric.specialize(it) }
+
+        then:
+        parametric.@operationsByConditions.size() == ParametricExecutableNormalizedOperation.MAX_CACHED_OPERATIONS
+        // the first ones are shared, the later ones are created anew but still right
+        parametric.specialize(allVariables[0]).is(operations[0])
+        !parametric.specialize(allVariables[127]).is(operations[127])
+        printTree(parametric.specialize(allVariables[127])) == printTree(ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(schema, document, null, allVariables[127]))
+    }
+}
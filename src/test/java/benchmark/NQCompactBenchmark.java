@@ -0,0 +1,137 @@
+package benchmark;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import graphql.execution.CoercedVariables;
+import graphql.language.Document;
+import graphql.normalized.CompactExecutableNormalizedOperation;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.normalized.ExecutableNormalizedOperationFactory;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.google.common.io.Resources.getResource;
+
+/**
+ * Compares the {@link ExecutableNormalizedOperation} of the NQBenchmark1/2 queries with its
+ * {@link CompactExecutableNormalizedOperation}.  The benchmarks measure the cost of compacting and inflating,
+ * while {@link #main(String[])} prints the retained heap of both representations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 2, timeUnit = TimeUnit.NANOSECONDS)
+public class NQCompactBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MyState {
+
+        GraphQLSchema schema;
+        Document document;
+        ExecutableNormalizedOperation operation;
+        CompactExecutableNormalizedOperation compactOperation;
+
+        @Setup
+        public void setup() {
+            setup("large-schema-2.graphqls", "large-schema-2-query.graphql");
+        }
+
+        void setup(String schemaFile, String queryFile) {
+            try {
+                String schemaString = readFromClasspath(schemaFile);
+                schema = SchemaGenerator.createdMockedSchema(schemaString);
+
+                String query = readFromClasspath(queryFile);
+                document = Parser.parse(query);
+                operation = ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(schema, document, null, CoercedVariables.emptyVariables());
+                compactOperation = CompactExecutableNormalizedOperation.compact(operation);
+            } catch (Exception e) {
+                System.out.println(e);
+                throw new RuntimeException(e);
+            }
+        }
+
+        private String readFromClasspath(String file) throws IOException {
+            URL url = getResource(file);
+            return Resources.toString(url, Charsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3, time = 10)
+    @Threads(1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CompactExecutableNormalizedOperation benchMarkCompactAvgTime(MyState myState) {
+        return CompactExecutableNormalizedOperation.compact(myState.operation);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3, time = 10)
+    @Threads(1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ExecutableNormalizedOperation benchMarkInflateAvgTime(MyState myState) {
+        return myState.compactOperation.toExecutableNormalizedOperation();
+    }
+
+    public static void main(String[] args) {
+        printRetainedSize("large-schema-1.graphqls", "large-schema-1-query.graphql");
+        printRetainedSize("large-schema-2.graphqls", "large-schema-2-query.graphql");
+    }
+
+    private static void printRetainedSize(String schemaFile, String queryFile) {
+        MyState myState = new MyState();
+        myState.setup(schemaFile, queryFile);
+        int copies = 50;
+        long operationBytes = retainedBytes(copies, () -> ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(myState.schema, myState.document, null, CoercedVariables.emptyVariables()));
+        long compactBytes = retainedBytes(copies, () -> CompactExecutableNormalizedOperation.compact(
+                ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(myState.schema, myState.document, null, CoercedVariables.emptyVariables())));
+        System.out.printf("%s: %d normalized fields, ExecutableNormalizedOperation ~%d bytes, CompactExecutableNormalizedOperation ~%d bytes%n",
+                queryFile, myState.compactOperation.getFieldCount(), operationBytes / copies, compactBytes / copies);
+    }
+
+    private static long retainedBytes(int copies, Supplier<Object> supplier) {
+        List<Object> retained = new ArrayList<>(copies);
+        long before = usedMemory();
+        for (int i = 0; i < copies; i++) {
+            retained.add(supplier.get());
+        }
+        long after = usedMemory();
+        if (retained.size() != copies) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -1,11 +1,14 @@
 package benchmark;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 import graphql.execution.CoercedVariables;
 import graphql.language.Document;
+import graphql.language.NodeUtil;
 import graphql.normalized.ExecutableNormalizedOperation;
 import graphql.normalized.ExecutableNormalizedOperationFactory;
+import graphql.normalized.ParametricExecutableNormalizedOperation;
 import graphql.parser.Parser;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.SchemaGenerator;
@@ -24,6 +27,7 @@ import org.openjdk.jmh.infra.Blackhole;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.io.Resources.getResource;
@@ -39,6 +43,11 @@ public class NQExtraLargeBenchmark {
 
         GraphQLSchema schema;
         Document document;
+        NodeUtil.GetOperationResult getOperationResult;
+        // created once, as the parametric operation of a cached document is, and specialized once to keep its normalized operation
+        ParametricExecutableNormalizedOperation parametricOperation;
+        ParametricExecutableNormalizedOperation parametricOperationWithVariableArguments;
+        CoercedVariables variables;
 
         @Setup
         public void setup() {
@@ -48,6 +57,21 @@ public class NQExtraLargeBenchmark {
 
                 String query = readFromClasspath("extra-large-schema-1-query.graphql");
                 document = Parser.parse(query);
+
+                getOperationResult = NodeUtil.getOperation(document, null);
+                parametricOperation = ParametricExecutableNormalizedOperation.createParametricExecutableNormalizedOperation(schema,
+                        getOperationResult.operationDefinition, getOperationResult.fragmentsByName);
+                parametricOperation.specialize(CoercedVariables.emptyVariables());
+
+                // the same query with an argument that references a variable, so every specialization copies the normalized operation
+                String queryWithVariables = query
+                        .replace("query extra_large {", "query extra_large($issueKey: String!) {")
+                        .replace("issueByKey(key: \"GJ-1\"", "issueByKey(key: $issueKey");
+                NodeUtil.GetOperationResult getOperationResultWithVariables = NodeUtil.getOperation(Parser.parse(queryWithVariables), null);
+                parametricOperationWithVariableArguments = ParametricExecutableNormalizedOperation.createParametricExecutableNormalizedOperation(schema,
+                        getOperationResultWithVariables.operationDefinition, getOperationResultWithVariables.fragmentsByName);
+                variables = CoercedVariables.of(ImmutableMap.of("issueKey", "GJ-1"));
+                parametricOperationWithVariableArguments.specialize(variables);
             } catch (Exception e) {
                 System.out.println(e);
                 throw new RuntimeException(e);
@@ -82,6 +106,59 @@ public class NQExtraLargeBenchmark {
         runImpl(myState, blackhole);
     }
 
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3, time = 10)
+    @Threads(1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void benchMarkParametricAvgTime(MyState myState, Blackhole blackhole) {
+        // a new parametric operation every time, as a cached one would only be a map lookup, so this is what the first request costs
+        ParametricExecutableNormalizedOperation parametricOperation = ParametricExecutableNormalizedOperation.createParametricExecutableNormalizedOperation(myState.schema,
+                myState.getOperationResult.operationDefinition, myState.getOperationResult.fragmentsByName);
+        ExecutableNormalizedOperation executableNormalizedOperation = parametricOperation.specialize(CoercedVariables.emptyVariables());
+        blackhole.consume(executableNormalizedOperation);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3, time = 10)
+    @Threads(1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void benchMarkParametricSpecializeAvgTime(MyState myState, Blackhole blackhole) {
+        // what every later request of a cached document costs
+        ExecutableNormalizedOperation executableNormalizedOperation = myState.parametricOperation.specialize(CoercedVariables.emptyVariables());
+        blackhole.consume(executableNormalizedOperation);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3, time = 10)
+    @Threads(1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void benchMarkParametricSpecializeVariableArgumentsAvgTime(MyState myState, Blackhole blackhole) {
+        // a later request whose arguments reference variables, which pays for copying the normalized operation
+        ExecutableNormalizedOperation executableNormalizedOperation = myState.parametricOperationWithVariableArguments.specialize(myState.variables);
+        blackhole.consume(executableNormalizedOperation);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3, time = 10)
+    @Threads(1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void benchMarkParallelAvgTime(MyState myState, Blackhole blackhole) {
+        ExecutableNormalizedOperation executableNormalizedOperation = ExecutableNormalizedOperationFactory.createExecutableNormalizedOperationInParallel(myState.schema, myState.document, null, CoercedVariables.emptyVariables(), ForkJoinPool.commonPool());
+        blackhole.consume(executableNormalizedOperation);
+    }
+
     private void runImpl(MyState myState, Blackhole blackhole) {
         ExecutableNormalizedOperation executableNormalizedOperation = ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(myState.schema, myState.document, null, CoercedVariables.emptyVariables());
         blackhole.consume(executableNormalizedOperation);